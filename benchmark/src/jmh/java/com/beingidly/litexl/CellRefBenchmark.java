@@ -0,0 +1,79 @@
+package com.beingidly.litexl;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for cell reference parsing and formatting.
+ *
+ * <p>Lives in the library package because {@link CellRefUtil} is package-private.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CellRefBenchmark {
+
+    private static final int REFS = 10_000;
+
+    private String[] refs;
+    private byte[] refBytes;
+    private int[] refEnds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        refs = new String[REFS];
+        StringBuilder all = new StringBuilder();
+        refEnds = new int[REFS];
+        for (int i = 0; i < REFS; i++) {
+            int row = (int) ((i * 2654435761L) % 1_000_000);
+            int col = i % 200;
+            refs[i] = CellRefUtil.toRef(row, col);
+            all.append(refs[i]);
+            refEnds[i] = all.length();
+        }
+        refBytes = all.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void parseString(Blackhole bh) {
+        for (String ref : refs) {
+            bh.consume(CellRefUtil.parseRef(ref));
+        }
+    }
+
+    @Benchmark
+    public void parseCharRange(Blackhole bh) {
+        for (String ref : refs) {
+            bh.consume(CellRefUtil.parseRef(ref, 0, ref.length()));
+        }
+    }
+
+    @Benchmark
+    public void parseByteRange(Blackhole bh) {
+        int start = 0;
+        for (int end : refEnds) {
+            bh.consume(CellRefUtil.parseRef(refBytes, start, end));
+            start = end;
+        }
+    }
+
+    @Benchmark
+    public void format(Blackhole bh) {
+        for (int i = 0; i < REFS; i++) {
+            bh.consume(CellRefUtil.toRef(i, i % 200));
+        }
+    }
+
+    @Benchmark
+    public void formatColumnLetters(Blackhole bh) {
+        for (int col = 0; col < ExcelLimits.MAX_COLUMNS; col++) {
+            bh.consume(CellRefUtil.colToLetters(col));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.beingidly.litexl;
+
+import com.beingidly.litexl.crypto.AgileDecryptor;
+import com.beingidly.litexl.crypto.EncryptionOptions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for encrypted package decryption throughput versus thread count.
+ *
+ * <p>Decrypt counterpart of {@code EncryptBenchmark}. Lives in the library package
+ * because {@link CfbReader} is package-private.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms256m", "-Xmx1g", "-XX:+UseG1GC"})
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 2, time = 3)
+public class DecryptBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private static final int ROWS = 100_000;
+    private static final int COLS = 10;
+    private static final String PASSWORD = "benchmark123";
+
+    private Path encryptedFile;
+    private CfbReader cfb;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        encryptedFile = Files.createTempFile("benchmark-decrypt-", ".xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("EncryptedData");
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLS; c++) {
+                    sheet.cell(r, c).set("Cell " + r + "-" + c);
+                }
+            }
+            // Use low spinCount so key derivation does not dominate
+            wb.save(encryptedFile, new EncryptionOptions(EncryptionOptions.Algorithm.AES_256, PASSWORD, 1000));
+        }
+        cfb = new CfbReader(encryptedFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        cfb.close();
+        Files.deleteIfExists(encryptedFile);
+    }
+
+    @Benchmark
+    public void decrypt(Blackhole bh) throws Exception {
+        AgileDecryptor decryptor = new AgileDecryptor(PASSWORD);
+        decryptor.parseEncryptionInfo(cfb.getEncryptionInfoBuffer(), cfb.getEncryptedPackageBuffer());
+        bh.consume(decryptor.decrypt(threads));
+    }
+}
@@ -0,0 +1,67 @@
+package com.beingidly.litexl;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for writing numeric cell values as ASCII.
+ *
+ * <p>Compares {@link DoubleFormatter} with {@code String.valueOf} plus encoding,
+ * which the sheet writer used before. Lives in the library package because
+ * {@link DoubleFormatter} is package-private.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DoubleFormatBenchmark {
+
+    private static final int VALUES = 10_000;
+
+    @Param({"integers", "prices", "dates", "random"})
+    private String kind;
+
+    private double[] values;
+    private final byte[] buffer = new byte[VALUES * DoubleFormatter.MAX_LENGTH];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        values = new double[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = switch (kind) {
+                case "integers" -> random.nextInt(1_000_000);
+                case "prices" -> random.nextInt(10_000_000) / 100.0;
+                // Excel serial date-times
+                case "dates" -> 45_000 + random.nextInt(2000) + random.nextInt(86_400) / 86_400.0;
+                default -> Double.longBitsToDouble(random.nextLong() & 0x7FEF_FFFF_FFFF_FFFFL);
+            };
+        }
+    }
+
+    @Benchmark
+    public void doubleFormatter(Blackhole bh) {
+        int pos = 0;
+        for (double value : values) {
+            pos = DoubleFormatter.format(value, buffer, pos);
+        }
+        bh.consume(pos);
+    }
+
+    @Benchmark
+    public void stringValueOf(Blackhole bh) {
+        int pos = 0;
+        for (double value : values) {
+            byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+            pos += bytes.length;
+        }
+        bh.consume(pos);
+    }
+}
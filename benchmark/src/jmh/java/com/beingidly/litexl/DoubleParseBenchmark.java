@@ -0,0 +1,68 @@
+package com.beingidly.litexl;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for parsing numeric cell values from sheet XML bytes.
+ *
+ * <p>Compares {@link DoubleParser} on byte ranges with decoding a String and
+ * calling {@code Double.parseDouble}. Lives in the library package because
+ * {@link DoubleParser} is package-private.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DoubleParseBenchmark {
+
+    private static final int VALUES = 10_000;
+
+    @Param({"integers", "prices", "full"})
+    private String kind;
+
+    private byte[] bytes;
+    private int[] ends;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder all = new StringBuilder();
+        ends = new int[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            double value = switch (kind) {
+                case "integers" -> random.nextInt(1_000_000);
+                case "prices" -> random.nextInt(10_000_000) / 100.0;
+                // 17 significant digits, beyond the exact fast path
+                default -> random.nextDouble() * 1e6;
+            };
+            all.append(DoubleFormatter.toString(value));
+            ends[i] = all.length();
+        }
+        bytes = all.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void doubleParser(Blackhole bh) {
+        int start = 0;
+        for (int end : ends) {
+            bh.consume(DoubleParser.parse(bytes, start, end));
+            start = end;
+        }
+    }
+
+    @Benchmark
+    public void parseDouble(Blackhole bh) {
+        int start = 0;
+        for (int end : ends) {
+            bh.consume(Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII)));
+            start = end;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.beingidly.litexl;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing stream-based and memory-mapped scans of a sealed row store.
+ *
+ * <p>Lives in the library package because {@link SheetRowStore} is package-private.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RowStoreBenchmark {
+
+    @Param({"STREAM", "MAPPED"})
+    private String mode;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private static final int COLS = 10;
+    private SheetRowStore store;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        store = new SheetRowStore(SheetRowStore.ReadMode.valueOf(mode), 0);
+        for (int r = 0; r < rows; r++) {
+            Row row = new Row(r);
+            for (int c = 0; c < COLS; c++) {
+                if (c % 3 == 0) {
+                    row.cell(c).set("Text " + r + "-" + c);
+                } else if (c % 3 == 1) {
+                    row.cell(c).set(r * COLS + c + 0.5);
+                } else {
+                    row.cell(c).set(r % 2 == 0);
+                }
+            }
+            store.append(row);
+        }
+        store.seal();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public void scan(Blackhole bh) {
+        store.forEachRow(row -> {
+            for (Cell cell : row.cells().values()) {
+                bh.consume(cell.rawValue());
+            }
+            return true;
+        });
+    }
+
+    @Benchmark
+    public void randomLookup(Blackhole bh) {
+        for (int i = 0; i < 1000; i++) {
+            bh.consume(store.findRow((int) ((i * 2654435761L) % rows)));
+        }
+    }
+}
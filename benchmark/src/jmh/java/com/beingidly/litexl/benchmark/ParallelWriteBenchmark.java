@@ -0,0 +1,63 @@
+package com.beingidly.litexl.benchmark;
+
+import com.beingidly.litexl.Sheet;
+import com.beingidly.litexl.Workbook;
+import com.beingidly.litexl.WriteOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for saving a multi-sheet workbook with sheets serialized and
+ * compressed sequentially or on several threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParallelWriteBenchmark {
+
+    @Param({"8"})
+    private int sheets;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private static final int ROWS = 20_000;
+    private static final int COLS = 10;
+
+    private Workbook workbook;
+    private WriteOptions options;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        workbook = Workbook.create();
+        for (int s = 0; s < sheets; s++) {
+            Sheet sheet = workbook.addSheet("Sheet" + s);
+            for (int r = 0; r < ROWS; r++) {
+                sheet.cell(r, 0).set("Row " + r);
+                for (int c = 1; c < COLS; c++) {
+                    sheet.cell(r, c).set(r * c + s * 0.25);
+                }
+            }
+        }
+        options = WriteOptions.builder().parallelism(parallelism).build();
+        file = Files.createTempFile("benchmark-parallel-", ".xlsx");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        workbook.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void write() {
+        workbook.saveWith(file, options);
+    }
+}
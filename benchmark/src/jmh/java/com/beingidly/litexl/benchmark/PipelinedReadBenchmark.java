@@ -0,0 +1,72 @@
+package com.beingidly.litexl.benchmark;
+
+import com.beingidly.litexl.ReadOptions;
+import com.beingidly.litexl.Sheet;
+import com.beingidly.litexl.Workbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing serial and pipelined reads of a single large sheet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PipelinedReadBenchmark {
+
+    @Param({"100000", "500000"})
+    private int rows;
+
+    private static final int COLS = 10;
+    private Path testFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        testFile = Files.createTempFile("benchmark-pipelined-", ".xlsx");
+
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < COLS; c++) {
+                    if (c % 3 == 0) {
+                        sheet.cell(r, c).set("Text " + r + "-" + c);
+                    } else if (c % 3 == 1) {
+                        sheet.cell(r, c).set(r * COLS + c + 0.5);
+                    } else {
+                        sheet.cell(r, c).set(r % 2 == 0);
+                    }
+                }
+            }
+            wb.save(testFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(testFile);
+    }
+
+    @Benchmark
+    public void serialRead(Blackhole bh) {
+        read(ReadOptions.defaults(), bh);
+    }
+
+    @Benchmark
+    public void pipelinedRead(Blackhole bh) {
+        read(ReadOptions.builder().pipelined(true).build(), bh);
+    }
+
+    private void read(ReadOptions options, Blackhole bh) {
+        try (Workbook wb = Workbook.open(testFile, null, options)) {
+            Sheet sheet = wb.getSheet(0);
+            bh.consume(sheet.rowCount());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.beingidly.litexl.benchmark;
+
+import com.beingidly.litexl.Sheet;
+import com.beingidly.litexl.Workbook;
+import com.beingidly.litexl.WriteOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing save time and file size of the shared string modes.
+ *
+ * <p>The data is category-heavy: a few hundred distinct labels repeat across
+ * most columns, plus one unique ID column. File sizes are printed at the end
+ * of each trial.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SharedStringsBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"INLINE", "SHARED", "ADAPTIVE"})
+    private WriteOptions.SharedStringMode mode;
+
+    private static final int COLS = 10;
+    private static final int CATEGORIES = 300;
+
+    private String[] categories;
+    private WriteOptions options;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        categories = new String[CATEGORIES];
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories[i] = "Category " + i;
+        }
+        options = WriteOptions.builder().sharedStrings(mode).build();
+        file = Files.createTempFile("benchmark-sst-", ".xlsx");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.out.printf("%n%s rows=%d size=%d bytes%n", mode, rows, Files.size(file));
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void write() {
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+
+            for (int r = 0; r < rows; r++) {
+                sheet.cell(r, 0).set("ID-" + r);
+                for (int c = 1; c < COLS; c++) {
+                    sheet.cell(r, c).set(categories[(r * 31 + c * 17) % CATEGORIES]);
+                }
+            }
+
+            wb.saveWith(file, options);
+        }
+    }
+}
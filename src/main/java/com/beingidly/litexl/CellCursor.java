@@ -0,0 +1,254 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Allocation-free view over the cells of the current {@link RowCursor} row.
+ *
+ * <p>The same instance is reused for every row of a scan; its values are only
+ * valid until the owning row cursor advances.</p>
+ *
+ * <pre>{@code
+ * CellCursor cells = rows.cells();
+ * while (cells.next()) {
+ *     if (cells.type() == CellType.NUMBER) {
+ *         total += cells.number();
+ *     }
+ * }
+ * }</pre>
+ */
+public final class CellCursor {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final SheetRowStore store;
+
+    private int count;
+    private int position = -1;
+    private int[] columns = new int[INITIAL_CAPACITY];
+    private int[] styles = new int[INITIAL_CAPACITY];
+    private CellType[] types = new CellType[INITIAL_CAPACITY];
+    // Double bits for numbers, 0/1 for booleans, epoch second for dates
+    private long[] values = new long[INITIAL_CAPACITY];
+    // Dictionary reference for strings, nano of second for dates, -1 otherwise
+    private int[] refs = new int[INITIAL_CAPACITY];
+    private int[] textOffsets = new int[INITIAL_CAPACITY];
+    private int[] textLengths = new int[INITIAL_CAPACITY];
+    private byte[] text = new byte[256];
+    private int textSize;
+    private @Nullable String @Nullable [] strings;
+
+    CellCursor(SheetRowStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Advances to the next cell in ascending column order.
+     *
+     * @return true if a cell is available
+     */
+    public boolean next() {
+        if (position + 1 >= count) {
+            position = count;
+            return false;
+        }
+        position++;
+        return true;
+    }
+
+    /**
+     * Returns the number of cells in the current row.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the column index (0-based) of the current cell.
+     */
+    public int column() {
+        return columns[current()];
+    }
+
+    /**
+     * Returns the type of the current cell.
+     */
+    public CellType type() {
+        return types[current()];
+    }
+
+    /**
+     * Returns the style ID of the current cell.
+     */
+    public int styleId() {
+        return styles[current()];
+    }
+
+    /**
+     * Returns the numeric value, or 0 if not a number cell.
+     */
+    public double number() {
+        int i = current();
+        return types[i] == CellType.NUMBER ? Double.longBitsToDouble(values[i]) : 0.0;
+    }
+
+    /**
+     * Returns the boolean value, or false if not a boolean cell.
+     */
+    public boolean bool() {
+        int i = current();
+        return types[i] == CellType.BOOLEAN && values[i] != 0;
+    }
+
+    /**
+     * Returns the per-sheet dictionary index of a string cell, or -1 if the
+     * string is stored inline or the cell is not a string cell.
+     *
+     * <p>Equal strings share the same index within a sheet, so the index can be
+     * used as a cache key without materializing the string.</p>
+     */
+    public int stringRef() {
+        int i = current();
+        return types[i] == CellType.STRING ? refs[i] : -1;
+    }
+
+    /**
+     * Returns the string value, or null if not a string cell.
+     */
+    public @Nullable String string() {
+        int i = current();
+        return types[i] == CellType.STRING ? text(i) : null;
+    }
+
+    /**
+     * Returns the date value, or null if not a date cell.
+     */
+    public @Nullable LocalDateTime date() {
+        int i = current();
+        return types[i] == CellType.DATE ? LocalDateTime.ofEpochSecond(values[i], refs[i], ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * Returns the formula expression, or null if not a formula cell.
+     */
+    public @Nullable String formula() {
+        int i = current();
+        return types[i] == CellType.FORMULA ? text(i) : null;
+    }
+
+    /**
+     * Returns the error code, or null if not an error cell.
+     */
+    public @Nullable String error() {
+        int i = current();
+        return types[i] == CellType.ERROR ? text(i) : null;
+    }
+
+    // === Population (internal use) ===
+
+    void reset(int cellCount) {
+        ensureCapacity(cellCount);
+        count = 0;
+        position = -1;
+        textSize = 0;
+        strings = null;
+    }
+
+    void rewind() {
+        position = -1;
+    }
+
+    void add(int column, int styleId, CellType type, long value, int ref) {
+        int i = count++;
+        columns[i] = column;
+        styles[i] = styleId;
+        types[i] = type;
+        values[i] = value;
+        refs[i] = ref;
+    }
+
+    /**
+     * Adds a cell whose string value is copied from inline UTF-8 bytes.
+     */
+    void addText(int column, int styleId, CellType type, ByteBuffer in, int length) {
+        if (text.length < textSize + length) {
+            text = Arrays.copyOf(text, Math.max(textSize + length, text.length * 2));
+        }
+        in.get(text, textSize, length);
+        textOffsets[count] = textSize;
+        textLengths[count] = length;
+        textSize += length;
+        add(column, styleId, type, 0, -1);
+    }
+
+    /**
+     * Loads the cells of an in-memory row that has not been stored yet.
+     */
+    void load(Row row) {
+        reset(row.cellCount());
+        @Nullable String[] texts = new String[row.cellCount()];
+        for (Cell cell : row.cells().values()) {
+            int i = count;
+            switch (cell.value()) {
+                case CellValue.Empty _ -> add(cell.column(), cell.styleId(), CellType.EMPTY, 0, -1);
+                case CellValue.Text t -> {
+                    texts[i] = t.value();
+                    add(cell.column(), cell.styleId(), CellType.STRING, 0, -1);
+                }
+                case CellValue.Number n ->
+                    add(cell.column(), cell.styleId(), CellType.NUMBER, Double.doubleToRawLongBits(n.value()), -1);
+                case CellValue.Bool b -> add(cell.column(), cell.styleId(), CellType.BOOLEAN, b.value() ? 1 : 0, -1);
+                case CellValue.Date d -> add(cell.column(), cell.styleId(), CellType.DATE,
+                    d.value().toEpochSecond(ZoneOffset.UTC), d.value().getNano());
+                case CellValue.Formula f -> {
+                    texts[i] = f.expression();
+                    add(cell.column(), cell.styleId(), CellType.FORMULA, 0, -1);
+                }
+                case CellValue.Error e -> {
+                    texts[i] = e.code();
+                    add(cell.column(), cell.styleId(), CellType.ERROR, 0, -1);
+                }
+            }
+        }
+        strings = texts;
+    }
+
+    private String text(int i) {
+        if (refs[i] >= 0) {
+            return store.dictionaryString(refs[i]);
+        }
+        @Nullable String[] pending = strings;
+        if (pending != null) {
+            return Objects.requireNonNull(pending[i]);
+        }
+        return new String(text, textOffsets[i], textLengths[i], StandardCharsets.UTF_8);
+    }
+
+    private int current() {
+        if (position < 0 || position >= count) {
+            throw new IllegalStateException("No current cell; call next() first");
+        }
+        return position;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (columns.length >= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, columns.length * 2);
+        columns = Arrays.copyOf(columns, newCapacity);
+        styles = Arrays.copyOf(styles, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        refs = Arrays.copyOf(refs, newCapacity);
+        textOffsets = Arrays.copyOf(textOffsets, newCapacity);
+        textLengths = Arrays.copyOf(textLengths, newCapacity);
+    }
+}
@@ -47,17 +47,17 @@ public record CellRange(int startRow, int startCol, int endRow, int endCol) {
         int colonIdx = ref.indexOf(':');
         if (colonIdx < 0) {
             // Single cell
-            int[] coords = CellRefUtil.parseRef(ref);
-            return new CellRange(coords[0], coords[1], coords[0], coords[1]);
+            long coords = CellRefUtil.parseRef(ref, 0, ref.length());
+            int row = CellRefUtil.packedRow(coords);
+            int col = CellRefUtil.packedColumn(coords);
+            return new CellRange(row, col, row, col);
         }
 
-        String startRef = ref.substring(0, colonIdx);
-        String endRef = ref.substring(colonIdx + 1);
+        long start = CellRefUtil.parseRef(ref, 0, colonIdx);
+        long end = CellRefUtil.parseRef(ref, colonIdx + 1, ref.length());
 
-        int[] start = CellRefUtil.parseRef(startRef);
-        int[] end = CellRefUtil.parseRef(endRef);
-
-        return new CellRange(start[0], start[1], end[0], end[1]);
+        return new CellRange(CellRefUtil.packedRow(start), CellRefUtil.packedColumn(start),
+            CellRefUtil.packedRow(end), CellRefUtil.packedColumn(end));
     }
 
     /**
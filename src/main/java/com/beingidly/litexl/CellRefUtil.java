@@ -1,10 +1,25 @@
 package com.beingidly.litexl;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Utility class for converting between cell references (A1) and coordinates (0, 0).
+ *
+ * <p>Besides the String-based methods, references can be parsed from char or byte
+ * ranges into a packed long (see {@link #pack(int, int)}), which avoids allocating
+ * substrings and coordinate arrays on hot read paths.</p>
  */
 final class CellRefUtil {
 
+    // Column letters for every column Excel supports, indexed by 0-based column
+    private static final String[] COLUMN_LETTERS = new String[ExcelLimits.MAX_COLUMNS];
+
+    static {
+        for (int col = 0; col < COLUMN_LETTERS.length; col++) {
+            COLUMN_LETTERS[col] = computeLetters(col);
+        }
+    }
+
     private CellRefUtil() {}
 
     /**
@@ -15,17 +30,21 @@ final class CellRefUtil {
         if (col < 0) {
             throw new IllegalArgumentException("Column index must be non-negative: " + col);
         }
+        return col < COLUMN_LETTERS.length ? COLUMN_LETTERS[col] : computeLetters(col);
+    }
 
-        StringBuilder sb = new StringBuilder();
+    private static String computeLetters(int col) {
+        char[] letters = new char[7];
+        int start = letters.length;
         int c = col + 1; // Convert to 1-based
 
         while (c > 0) {
             c--;
-            sb.insert(0, (char) ('A' + (c % 26)));
+            letters[--start] = (char) ('A' + (c % 26));
             c /= 26;
         }
 
-        return sb.toString();
+        return new String(letters, start, letters.length - start);
     }
 
     /**
@@ -67,39 +86,106 @@ final class CellRefUtil {
      * Parses a cell reference like "A1" to [row, col] (0-based).
      */
     public static int[] parseRef(String ref) {
-        if (ref.isEmpty()) {
+        long packed = parseRef(ref, 0, ref.length());
+        return new int[]{packedRow(packed), packedColumn(packed)};
+    }
+
+    /**
+     * Parses the cell reference in {@code ref[from, to)} without allocating.
+     *
+     * @return the coordinates packed with {@link #pack(int, int)}
+     * @throws IllegalArgumentException if the reference is invalid
+     */
+    public static long parseRef(CharSequence ref, int from, int to) {
+        if (from >= to) {
             throw new IllegalArgumentException("Cell reference cannot be empty");
         }
 
         // Find where letters end and digits begin
-        int i = 0;
-        while (i < ref.length() && Character.isLetter(ref.charAt(i))) {
+        int i = from;
+        int col = 0;
+        while (i < to && Character.isLetter(ref.charAt(i))) {
+            char ch = Character.toUpperCase(ref.charAt(i));
+            if (ch < 'A' || ch > 'Z') {
+                throw new IllegalArgumentException("Invalid column letter: " + ch);
+            }
+            col = col * 26 + (ch - 'A' + 1);
             i++;
         }
 
-        if (i == 0) {
-            throw new IllegalArgumentException("Invalid cell reference (no column letters): " + ref);
+        if (i == from) {
+            throw new IllegalArgumentException("Invalid cell reference (no column letters): " + ref.subSequence(from, to));
         }
-        if (i == ref.length()) {
-            throw new IllegalArgumentException("Invalid cell reference (no row number): " + ref);
+        if (i == to) {
+            throw new IllegalArgumentException("Invalid cell reference (no row number): " + ref.subSequence(from, to));
         }
 
-        String colPart = ref.substring(0, i).toUpperCase();
-        String rowPart = ref.substring(i);
-
-        int col = lettersToCol(colPart);
-
         int row;
         try {
-            row = Integer.parseInt(rowPart) - 1; // Convert to 0-based
+            row = Integer.parseInt(ref, i, to, 10) - 1; // Convert to 0-based
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid row number in cell reference: " + ref);
+            throw new IllegalArgumentException("Invalid row number in cell reference: " + ref.subSequence(from, to));
         }
 
         if (row < 0) {
-            throw new IllegalArgumentException("Row number must be positive: " + ref);
+            throw new IllegalArgumentException("Row number must be positive: " + ref.subSequence(from, to));
+        }
+
+        return pack(row, col - 1);
+    }
+
+    /**
+     * Parses the ASCII cell reference in {@code ref[from, to)} without allocating.
+     *
+     * @return the coordinates packed with {@link #pack(int, int)}
+     * @throws IllegalArgumentException if the reference is invalid
+     */
+    public static long parseRef(byte[] ref, int from, int to) {
+        int i = from;
+        int col = 0;
+        while (i < to && i - from < 3) {
+            int ch = ref[i] | 0x20; // Lower-case ASCII letters
+            if (ch < 'a' || ch > 'z') {
+                break;
+            }
+            col = col * 26 + (ch - 'a' + 1);
+            i++;
         }
 
-        return new int[]{row, col};
+        int row = 0;
+        int digits = to - i;
+        if (i > from && digits > 0 && digits <= 7) {
+            for (int j = i; j < to && row >= 0; j++) {
+                int digit = ref[j] - '0';
+                row = digit >= 0 && digit <= 9 ? row * 10 + digit : -1;
+            }
+            if (row > 0) {
+                return pack(row - 1, col - 1);
+            }
+        }
+
+        // Uncommon or invalid input: decode and report errors like the String form
+        return parseRef(new String(ref, from, to - from, StandardCharsets.UTF_8), 0, to - from);
+    }
+
+    /**
+     * Packs 0-based coordinates into a long: the row in the high 32 bits, the column in the low 32 bits.
+     */
+    public static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the row of packed coordinates.
+     */
+    public static int packedRow(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    /**
+     * Returns the column of packed coordinates.
+     */
+    public static int packedColumn(long packed) {
+        return (int) packed;
     }
 }
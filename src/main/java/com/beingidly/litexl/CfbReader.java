@@ -6,7 +6,10 @@ import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
@@ -20,7 +23,12 @@ import java.util.*;
  *   <li>No byte[] allocations for reading sectors</li>
  *   <li>FAT/MiniFAT entries read on-demand from mapped buffer</li>
  *   <li>Stream data returned as ByteBuffer slices when possible</li>
+ *   <li>Fragmented streams read through a channel that follows the sector chain</li>
  * </ul>
+ *
+ * <p>Files up to 2 GiB are mapped whole. Larger files are mapped in overlapping
+ * windows, so any sector lies inside one window; streams that do not fit in a
+ * single window are read through {@link #openStreamChannel}.</p>
  */
 final class CfbReader implements Closeable {
 
@@ -33,9 +41,12 @@ final class CfbReader implements Closeable {
     private static final int HEADER_SIZE = 512;
     private static final int DIR_ENTRY_SIZE = 128;
     private static final int ENDOFCHAIN = -2;
+    // Largest sector size (version 4 files); windows overlap by this much
+    private static final int MAX_SECTOR_SIZE = 4096;
 
     private final FileChannel channel;
-    private final MappedByteBuffer mappedBuffer;
+    private final MappedByteBuffer[] windows;
+    private final long windowSize;
     private final int sectorSize;
     private final int miniSectorSize;
     private final int miniStreamCutoffSize;
@@ -58,47 +69,66 @@ final class CfbReader implements Closeable {
     private volatile @Nullable DirectoryEntry encryptionInfoEntry;
 
     public CfbReader(Path path) throws IOException {
-        // Memory-map the entire file for zero-copy reads
+        this(path, 1L << 30);
+    }
+
+    /**
+     * Opens a file, mapping it whole if it fits in {@code windowSize} bytes or one
+     * buffer, and in windows of {@code windowSize} bytes otherwise.
+     */
+    CfbReader(Path path, long windowSize) throws IOException {
         this.channel = FileChannel.open(path, StandardOpenOption.READ);
-        long fileSize = channel.size();
-        this.mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
-        mappedBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            long fileSize = channel.size();
+            this.windowSize = fileSize <= Math.min(windowSize, Integer.MAX_VALUE) ? Math.max(fileSize, 1) : windowSize;
+            int count = (int) Math.max(1, (fileSize + this.windowSize - 1) / this.windowSize);
+            this.windows = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = i * this.windowSize;
+                long length = Math.min(fileSize - start, this.windowSize + MAX_SECTOR_SIZE);
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                windows[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
 
         // Verify signature (zero-copy)
         for (int i = 0; i < CFB_SIGNATURE.length; i++) {
-            if (mappedBuffer.get(i) != CFB_SIGNATURE[i]) {
+            if (get(i) != CFB_SIGNATURE[i]) {
                 throw new CorruptFileException("Invalid CFB signature");
             }
         }
 
         // Read byte order at offset 0x1C (28)
-        if (mappedBuffer.getShort(28) != (short) 0xFFFE) {
+        if (getShort(28) != (short) 0xFFFE) {
             throw new CorruptFileException("Invalid byte order");
         }
 
         // Sector size power at offset 0x1E (30)
-        this.sectorSize = 1 << mappedBuffer.getShort(30);
+        this.sectorSize = 1 << getShort(30);
         this.fatEntriesPerSector = sectorSize / 4;
 
         // Mini sector size power at offset 0x20 (32)
-        this.miniSectorSize = 1 << mappedBuffer.getShort(32);
+        this.miniSectorSize = 1 << getShort(32);
 
         // Mini stream cutoff at offset 0x38 (56)
-        this.miniStreamCutoffSize = mappedBuffer.getInt(56);
+        this.miniStreamCutoffSize = getInt(56);
 
         // Store header values only - no arrays allocated
         // DIFAT entries read on-demand from header (offset 76) or DIFAT sectors
-        this.numFatSectors = mappedBuffer.getInt(44);
-        this.firstDirSector = mappedBuffer.getInt(48);
-        this.firstMiniFatSector = mappedBuffer.getInt(60);
-        this.numMiniFatSectors = mappedBuffer.getInt(64);
-        this.firstDifatSector = mappedBuffer.getInt(68);
+        this.numFatSectors = getInt(44);
+        this.firstDirSector = getInt(48);
+        this.firstMiniFatSector = getInt(60);
+        this.numMiniFatSectors = getInt(64);
+        this.firstDifatSector = getInt(68);
         // numDifatSectors at offset 72 - not needed for current implementation
 
         // Read root entry (index 0) to get mini stream location - zero-copy
-        int rootEntryOffset = getSectorOffset(firstDirSector);
-        int rootStartSector = mappedBuffer.getInt(rootEntryOffset + 116);
-        long rootStreamSize = mappedBuffer.getLong(rootEntryOffset + 120);
+        long rootEntryOffset = getSectorOffset(firstDirSector);
+        int rootStartSector = getInt(rootEntryOffset + 116);
+        long rootStreamSize = getLong(rootEntryOffset + 120);
 
         this.miniStreamStart = rootStreamSize > 0 ? rootStartSector : ENDOFCHAIN;
     }
@@ -106,8 +136,59 @@ final class CfbReader implements Closeable {
     /**
      * Gets the file offset for a sector (zero-copy calculation).
      */
-    private int getSectorOffset(int sectorIndex) {
-        return HEADER_SIZE + sectorIndex * sectorSize;
+    private long getSectorOffset(int sectorIndex) {
+        return HEADER_SIZE + (long) sectorIndex * sectorSize;
+    }
+
+    /**
+     * Returns the window holding the given file offset.
+     */
+    private MappedByteBuffer window(long offset) {
+        int index = (int) (offset / windowSize);
+        if (offset < 0 || index >= windows.length) {
+            throw new CorruptFileException("Offset outside the file: " + offset);
+        }
+        return windows[index];
+    }
+
+    private int inWindow(long offset) {
+        return (int) (offset % windowSize);
+    }
+
+    private byte get(long offset) {
+        return window(offset).get(inWindow(offset));
+    }
+
+    private short getShort(long offset) {
+        return window(offset).getShort(inWindow(offset));
+    }
+
+    private int getInt(long offset) {
+        return window(offset).getInt(inWindow(offset));
+    }
+
+    private long getLong(long offset) {
+        return window(offset).getLong(inWindow(offset));
+    }
+
+    /**
+     * Copies up to {@code length} bytes at a file offset into {@code dst} without
+     * crossing a window; returns the number copied.
+     */
+    private int copy(long offset, ByteBuffer dst, int length) {
+        MappedByteBuffer window = window(offset);
+        int start = inWindow(offset);
+        int n = Math.min(length, window.capacity() - start);
+        dst.put(dst.position(), window, start, n);
+        dst.position(dst.position() + n);
+        return n;
+    }
+
+    /**
+     * Returns true if {@code length} bytes at a file offset lie inside one window.
+     */
+    private boolean inOneWindow(long offset, long length) {
+        return inWindow(offset) + length <= window(offset).capacity();
     }
 
     /**
@@ -117,7 +198,7 @@ final class CfbReader implements Closeable {
     private int getDifatEntry(int fatSectorNum) {
         if (fatSectorNum < 109) {
             // Read directly from header
-            return mappedBuffer.getInt(76 + fatSectorNum * 4);
+            return getInt(76 + fatSectorNum * 4);
         }
 
         // Walk DIFAT sector chain (rare - only for files > ~6.7MB)
@@ -129,15 +210,15 @@ final class CfbReader implements Closeable {
         // Walk to the right DIFAT sector
         int difatSector = firstDifatSector;
         for (int i = 0; i < difatSectorNum && difatSector >= 0; i++) {
-            int difatOffset = getSectorOffset(difatSector);
-            difatSector = mappedBuffer.getInt(difatOffset + entriesPerDifatSector * 4);
+            long difatOffset = getSectorOffset(difatSector);
+            difatSector = getInt(difatOffset + entriesPerDifatSector * 4);
         }
 
         if (difatSector < 0) {
             return ENDOFCHAIN;
         }
 
-        return mappedBuffer.getInt(getSectorOffset(difatSector) + entryInDifatSector * 4);
+        return getInt(getSectorOffset(difatSector) + entryInDifatSector * 4);
     }
 
     /**
@@ -156,7 +237,7 @@ final class CfbReader implements Closeable {
             return ENDOFCHAIN;
         }
 
-        return mappedBuffer.getInt(getSectorOffset(fatSectorLocation) + entryInSector * 4);
+        return getInt(getSectorOffset(fatSectorLocation) + entryInSector * 4);
     }
 
     /**
@@ -181,15 +262,15 @@ final class CfbReader implements Closeable {
             return ENDOFCHAIN;
         }
 
-        int miniFatSectorOffset = getSectorOffset(sector);
-        return mappedBuffer.getInt(miniFatSectorOffset + entryInSector * 4);
+        long miniFatSectorOffset = getSectorOffset(sector);
+        return getInt(miniFatSectorOffset + entryInSector * 4);
     }
 
     /**
      * Checks if directory entry at offset matches the given name (zero-copy comparison).
      */
-    private boolean entryNameMatches(int offset, String name) {
-        int nameLen = (mappedBuffer.getShort(offset + 64) & 0xFFFF) - 2;
+    private boolean entryNameMatches(long offset, String name) {
+        int nameLen = (getShort(offset + 64) & 0xFFFF) - 2;
         if (nameLen <= 0 || nameLen != name.length() * 2) {
             return false;
         }
@@ -197,8 +278,8 @@ final class CfbReader implements Closeable {
         // Compare UTF-16LE bytes directly without allocation
         for (int i = 0; i < name.length(); i++) {
             char c = name.charAt(i);
-            byte lo = mappedBuffer.get(offset + i * 2);
-            byte hi = mappedBuffer.get(offset + i * 2 + 1);
+            byte lo = get(offset + i * 2);
+            byte hi = get(offset + i * 2 + 1);
             if ((c & 0xFF) != (lo & 0xFF) || ((c >> 8) & 0xFF) != (hi & 0xFF)) {
                 return false;
             }
@@ -223,12 +304,12 @@ final class CfbReader implements Closeable {
         // Search directory sectors
         int dirSector = firstDirSector;
         while (dirSector >= 0) {
-            int sectorOffset = getSectorOffset(dirSector);
+            long sectorOffset = getSectorOffset(dirSector);
             for (int i = 0; i < sectorSize / DIR_ENTRY_SIZE; i++) {
-                int entryOffset = sectorOffset + i * DIR_ENTRY_SIZE;
+                long entryOffset = sectorOffset + i * DIR_ENTRY_SIZE;
 
                 // Check if entry is valid
-                byte type = mappedBuffer.get(entryOffset + 66);
+                byte type = get(entryOffset + 66);
                 if (type == 0) {
                     continue;
                 }
@@ -238,8 +319,8 @@ final class CfbReader implements Closeable {
                     DirectoryEntry entry = new DirectoryEntry(
                         name,
                         type,
-                        mappedBuffer.getInt(entryOffset + 116),
-                        mappedBuffer.getLong(entryOffset + 120)
+                        getInt(entryOffset + 116),
+                        getLong(entryOffset + 120)
                     );
 
                     // Cache common entries
@@ -272,18 +353,23 @@ final class CfbReader implements Closeable {
         if (entry.streamSize == 0) {
             return new byte[0];
         }
+        if (entry.streamSize > Integer.MAX_VALUE - 8) {
+            throw new LitexlException(ErrorCode.UNSUPPORTED_FORMAT,
+                "Stream is too large to read into memory; use openStreamChannel(): " + entry.name);
+        }
 
         // Root entry (type 5) stores the mini stream itself, always in regular sectors
         boolean useRegularSectors = entry.type == 5 || entry.streamSize >= miniStreamCutoffSize;
 
-        // Check if stream is contiguous (can use zero-copy slice)
+        // Check if stream is contiguous (can use bulk copies)
         if (useRegularSectors && isContiguousStream(entry)) {
-            // Zero-copy: create a byte array backed by the mapped buffer data
-            int offset = getSectorOffset(entry.startSector);
-            byte[] result = new byte[(int) entry.streamSize];
-            // Use bulk get from mapped buffer (optimized by JVM)
-            mappedBuffer.duplicate().position(offset).get(result);
-            return result;
+            long offset = getSectorOffset(entry.startSector);
+            ByteBuffer result = ByteBuffer.allocate((int) entry.streamSize);
+            // Bulk copies from the mapped windows (optimized by JVM)
+            while (result.hasRemaining()) {
+                offset += copy(offset, result, result.remaining());
+            }
+            return result.array();
         }
 
         // Non-contiguous stream: need to copy sector by sector
@@ -307,10 +393,10 @@ final class CfbReader implements Closeable {
                 }
 
                 if (regularSector >= 0) {
-                    int srcOffset = getSectorOffset(regularSector) + offsetInSector;
+                    long srcOffset = getSectorOffset(regularSector) + offsetInSector;
                     int toRead = (int) Math.min(miniSectorSize, remaining);
                     for (int i = 0; i < toRead; i++) {
-                        result[destOffset++] = mappedBuffer.get(srcOffset + i);
+                        result[destOffset++] = get(srcOffset + i);
                     }
                     remaining -= toRead;
                 }
@@ -321,10 +407,10 @@ final class CfbReader implements Closeable {
             int sector = entry.startSector;
             long remaining = entry.streamSize;
             while (sector >= 0 && remaining > 0) {
-                int srcOffset = getSectorOffset(sector);
+                long srcOffset = getSectorOffset(sector);
                 int toRead = (int) Math.min(sectorSize, remaining);
                 for (int i = 0; i < toRead; i++) {
-                    result[destOffset++] = mappedBuffer.get(srcOffset + i);
+                    result[destOffset++] = get(srcOffset + i);
                 }
                 remaining -= toRead;
                 sector = getFatEntry(sector);
@@ -344,16 +430,14 @@ final class CfbReader implements Closeable {
 
         boolean useRegularSectors = entry.type == 5 || entry.streamSize >= miniStreamCutoffSize;
 
-        if (useRegularSectors && isContiguousStream(entry)) {
-            // Zero-copy: return a slice of the mapped buffer
-            int offset = getSectorOffset(entry.startSector);
-            ByteBuffer slice = mappedBuffer.duplicate();
-            slice.position(offset);
-            slice.limit(offset + (int) entry.streamSize);
-            return slice.slice().order(ByteOrder.LITTLE_ENDIAN).asReadOnlyBuffer();
+        long offset = getSectorOffset(entry.startSector);
+        if (useRegularSectors && isContiguousStream(entry) && inOneWindow(offset, entry.streamSize)) {
+            // Zero-copy: return a slice of the mapped window
+            return window(offset).slice(inWindow(offset), (int) entry.streamSize)
+                .order(ByteOrder.LITTLE_ENDIAN).asReadOnlyBuffer();
         }
 
-        // Non-contiguous: fall back to copy
+        // Non-contiguous or spanning windows: fall back to copy
         byte[] data = readStream(entry);
         return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).asReadOnlyBuffer();
     }
@@ -379,6 +463,53 @@ final class CfbReader implements Closeable {
         return true;
     }
 
+    /**
+     * Returns true if a stream is stored in regular sectors that are not contiguous,
+     * so {@link #readStreamAsBuffer(String)} would have to copy it.
+     */
+    public boolean isFragmented(String name) {
+        DirectoryEntry entry = findDirectoryEntry(name);
+        return entry != null && usesRegularSectors(entry) && !isContiguousStream(entry);
+    }
+
+    /**
+     * Returns true if a stream in regular sectors cannot be returned as a slice of
+     * one mapped window, because it is fragmented or spans windows; such streams
+     * are better read through {@link #openStreamChannel}.
+     */
+    public boolean prefersChannel(String name) {
+        DirectoryEntry entry = findDirectoryEntry(name);
+        return entry != null && entry.streamSize > 0 && usesRegularSectors(entry)
+            && (!isContiguousStream(entry) || !inOneWindow(getSectorOffset(entry.startSector), entry.streamSize));
+    }
+
+    /**
+     * Opens a read-only channel over a stream stored in regular sectors, or returns
+     * null if not found.
+     *
+     * <p>The sector chain is resolved into runs of consecutive sectors up front and
+     * data is read straight from the mapped file, so nothing proportional to the
+     * stream size is copied. Like slices returned by this reader, the channel stays
+     * readable after the reader is closed.</p>
+     *
+     * @throws IllegalArgumentException if the stream is stored in the mini stream
+     */
+    public @Nullable SeekableByteChannel openStreamChannel(String name) {
+        DirectoryEntry entry = findDirectoryEntry(name);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.streamSize > 0 && !usesRegularSectors(entry)) {
+            throw new IllegalArgumentException("Stream is stored in the mini stream: " + name);
+        }
+        return new SectorChainChannel(entry);
+    }
+
+    private boolean usesRegularSectors(DirectoryEntry entry) {
+        // Root entry (type 5) stores the mini stream itself, always in regular sectors
+        return entry.type == 5 || entry.streamSize >= miniStreamCutoffSize;
+    }
+
     /**
      * Checks if this file is an encrypted Office document.
      */
@@ -408,4 +539,113 @@ final class CfbReader implements Closeable {
     }
 
     private record DirectoryEntry(String name, byte type, int startSector, long streamSize) {}
+
+    /**
+     * Channel over a stream's sector chain, read from the mapped file.
+     *
+     * <p>Each run of consecutive sectors is one entry, found by binary search on
+     * its stream offset, so reads do not walk the FAT.</p>
+     */
+    private final class SectorChainChannel implements SeekableByteChannel {
+        private final long size;
+        private long[] runOffsets = new long[8];
+        private int[] runSectors = new int[8];
+        private int runCount;
+        private long position;
+        private boolean open = true;
+
+        SectorChainChannel(DirectoryEntry entry) {
+            this.size = entry.streamSize;
+            long sectors = (size + sectorSize - 1) / sectorSize;
+            int sector = entry.startSector;
+            int previous = ENDOFCHAIN;
+            for (long i = 0; i < sectors; i++) {
+                if (sector < 0) {
+                    throw new CorruptFileException("Sector chain ends early: " + entry.name);
+                }
+                if (runCount == 0 || sector != previous + 1) {
+                    if (runCount == runOffsets.length) {
+                        runOffsets = Arrays.copyOf(runOffsets, runCount * 2);
+                        runSectors = Arrays.copyOf(runSectors, runCount * 2);
+                    }
+                    runOffsets[runCount] = i * sectorSize;
+                    runSectors[runCount] = sector;
+                    runCount++;
+                }
+                previous = sector;
+                sector = getFatEntry(sector);
+            }
+        }
+
+        @Override
+        public synchronized int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (position >= size) {
+                return -1;
+            }
+
+            int read = 0;
+            while (dst.hasRemaining() && position < size) {
+                int run = Arrays.binarySearch(runOffsets, 0, runCount, position);
+                if (run < 0) {
+                    run = -run - 2;
+                }
+                long runEnd = run + 1 < runCount ? runOffsets[run + 1] : size;
+                int n = (int) Math.min(dst.remaining(), runEnd - position);
+                long source = getSectorOffset(runSectors[run]) + (position - runOffsets[run]);
+                n = copy(source, dst, n);
+                position += n;
+                read += n;
+            }
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public synchronized long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        @Override
+        public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            if (newPosition < 0) {
+                throw new IllegalArgumentException("Negative position: " + newPosition);
+            }
+            this.position = newPosition;
+            return this;
+        }
+
+        @Override
+        public synchronized long size() throws IOException {
+            ensureOpen();
+            return size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public synchronized boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public synchronized void close() {
+            open = false;
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
 }
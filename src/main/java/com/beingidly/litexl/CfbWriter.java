@@ -2,6 +2,7 @@ package com.beingidly.litexl;
 
 import com.beingidly.litexl.crypto.AesCipher;
 import com.beingidly.litexl.crypto.KeyDerivation;
+import org.jspecify.annotations.Nullable;
 
 import java.io.*;
 import java.nio.ByteBuffer;
@@ -11,7 +12,13 @@ import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
+import java.util.ArrayDeque;
 import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -28,8 +35,6 @@ import javax.crypto.spec.SecretKeySpec;
  */
 final class CfbWriter implements Closeable {
 
-    private static final int MAC_BUFFER_SIZE = 4096;
-
     // CFB constants (v3 format with 512-byte sectors)
     private static final int HEADER_SIZE = 512;
     private static final int SECTOR_SIZE = 512;
@@ -176,20 +181,22 @@ final class CfbWriter implements Closeable {
 
     private static final int SEGMENT_SIZE = 4096;
     private static final int BLOCK_SIZE = 16;
+    // Segments encrypted per task (1 MiB of plaintext)
+    private static final int BATCH_SEGMENTS = 256;
 
-    private final FileChannel channel;
+    // Exactly one of channel and out is set
+    private final @Nullable FileChannel channel;
+    private final @Nullable OutputStream out;
     private final byte[] encryptionInfo;
     private final byte[] encryptionKey;
     private final byte[] keyDataSalt;
     private final byte[] hmacKey;
+    private final int parallelism;
 
-    // Reusable buffers
-    private final byte[] ivBuffer = new byte[16];
-    private final byte[] readBuffer = new byte[SEGMENT_SIZE];
     private final AesCipher aesCipher;
 
     /**
-     * Creates a new CFB writer.
+     * Creates a new CFB writer that encrypts on the calling thread.
      *
      * @param channel the file channel to write to
      * @param encryptionInfo the encryption info XML with header
@@ -198,17 +205,49 @@ final class CfbWriter implements Closeable {
      * @param hmacKey the HMAC key used for package integrity
      */
     CfbWriter(FileChannel channel, byte[] encryptionInfo, byte[] encryptionKey, byte[] keyDataSalt, byte[] hmacKey) {
+        this(channel, encryptionInfo, encryptionKey, keyDataSalt, hmacKey, 1);
+    }
+
+    /**
+     * Creates a new CFB writer that encrypts segment batches on up to {@code parallelism} threads.
+     */
+    CfbWriter(FileChannel channel, byte[] encryptionInfo, byte[] encryptionKey, byte[] keyDataSalt, byte[] hmacKey,
+              int parallelism) {
+        this(channel, null, encryptionInfo, encryptionKey, keyDataSalt, hmacKey, parallelism);
+    }
+
+    /**
+     * Creates a new CFB writer that streams the document to {@code out} in one pass.
+     * The stream is flushed but not closed.
+     */
+    CfbWriter(OutputStream out, byte[] encryptionInfo, byte[] encryptionKey, byte[] keyDataSalt, byte[] hmacKey,
+              int parallelism) {
+        this(null, out, encryptionInfo, encryptionKey, keyDataSalt, hmacKey, parallelism);
+    }
+
+    private CfbWriter(@Nullable FileChannel channel, @Nullable OutputStream out, byte[] encryptionInfo,
+                      byte[] encryptionKey, byte[] keyDataSalt, byte[] hmacKey, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
         this.channel = channel;
+        this.out = out;
         this.encryptionInfo = encryptionInfo;
         this.encryptionKey = encryptionKey;
         this.keyDataSalt = keyDataSalt;
         this.hmacKey = hmacKey;
+        this.parallelism = parallelism;
         this.aesCipher = new AesCipher(encryptionKey);
     }
 
     /**
-     * Writes an encrypted Office document using MappedByteBuffer.
-     * No heap/direct buffer allocation - uses OS page cache directly.
+     * Writes an encrypted Office document.
+     *
+     * <p>The EncryptedPackage sectors come before the mini stream, which holds
+     * EncryptionInfo. Everything ahead of the package depends only on stream
+     * sizes, so a stream target is written in a single pass: metadata, encrypted
+     * segments, then the mini stream with the HMAC filled in. A file target is
+     * memory-mapped and written in place.</p>
      *
      * @param plainDataStream input stream providing plain data
      * @param plainDataSize size of the plain data to encrypt
@@ -268,45 +307,78 @@ final class CfbWriter implements Closeable {
             fatSectors = newFat;
         } while (fatSectors < 1000);
 
-        // Sector layout
+        // Sector layout: FAT, Mini FAT, directory, EncryptedPackage, mini stream
         int firstMiniFat = fatSectors;
         int firstDir = firstMiniFat + miniFatSectors;
-        int firstMiniStream = firstDir + dirSectors;
-
-        // Calculate total file size and map entire file
-        int metadataSize = HEADER_SIZE + (fatSectors + miniFatSectors + dirSectors + miniStreamSectors) * SECTOR_SIZE;
-        long totalFileSize = metadataSize + (long) encryptedPackageSectors * SECTOR_SIZE;
-        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, totalFileSize);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int firstPackage = firstDir + dirSectors;
+        int firstMiniStream = firstPackage + encryptedPackageSectors;
+
+        int metadataSize = HEADER_SIZE + (fatSectors + miniFatSectors + dirSectors) * SECTOR_SIZE;
+        long packageRegion = (long) encryptedPackageSectors * SECTOR_SIZE;
+        int miniStreamRegion = miniStreamSectors * SECTOR_SIZE;
+
+        ByteBuffer metadata;
+        ByteBuffer miniStream;
+        MappedByteBuffer mapped = null;
+        if (channel != null) {
+            long totalFileSize = metadataSize + packageRegion + miniStreamRegion;
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, totalFileSize);
+            metadata = mapped.slice(0, metadataSize);
+            miniStream = mapped.slice((int) (metadataSize + packageRegion), miniStreamRegion);
+        } else {
+            metadata = ByteBuffer.allocate(metadataSize);
+            miniStream = ByteBuffer.allocate(miniStreamRegion);
+        }
+        metadata.order(ByteOrder.LITTLE_ENDIAN);
+        miniStream.order(ByteOrder.LITTLE_ENDIAN);
 
         // Write header
-        writeHeader(buffer, fatSectors, firstDir, miniFatSectors, firstMiniFat);
+        writeHeader(metadata, fatSectors, firstDir, miniFatSectors, firstMiniFat);
 
         // Write FAT
         int[] regularStarts = new int[DIR_COUNT];
-        writeFat(buffer, fatSectors, miniFatSectors, dirSectors,
-                 miniStreamSectors, encryptedPackageSectors, regularStarts);
-
-        // Write encrypted package data directly to mapped buffer
-        streamEncryptedData(buffer, metadataSize, plainDataStream, plainDataSize);
-
-        // Build the final dataIntegrity value from the actual EncryptedPackage stream bytes.
-        byte[] packageHmac = computePackageHmac(buffer, metadataSize, encryptedPackageSize);
-        byte[] encryptedHmacValue = encryptPackageHmac(packageHmac);
-        streams[3] = updateEncryptedHmacValue(streams[3], encryptedHmacValue);
-        streamSizes[3] = streams[3].length;
+        writeFat(metadata, fatSectors, miniFatSectors, dirSectors,
+                 encryptedPackageSectors, miniStreamSectors, regularStarts);
 
-        // Write Mini FAT and Mini Stream (includes the finalized EncryptionInfo stream)
+        // Write Mini FAT and Mini Stream; EncryptionInfo is rewritten once its HMAC is known
         int[] miniStarts = new int[DIR_COUNT];
-        writeMiniStream(buffer, firstMiniFat, firstMiniStream, miniFatSectors,
+        writeMiniStream(metadata, miniStream, firstMiniFat, miniFatSectors,
                         streams, streamSizes, miniStarts);
 
         // Write directory entries
-        writeDirectory(buffer, firstDir, dirSectors, streamSizes,
+        writeDirectory(metadata, firstDir, dirSectors, streamSizes,
                        miniStarts, regularStarts, firstMiniStream, miniStreamTotal);
 
-        // Force flush to disk
-        buffer.force();
+        // Write encrypted package data, computing the dataIntegrity HMAC over the
+        // stream bytes as they are completed
+        byte[] packageHmac;
+        if (mapped != null) {
+            MappedByteBuffer target = mapped;
+            packageHmac = streamEncryptedData(plainDataStream, plainDataSize, encryptedPackageSize,
+                (offset, length) -> target.slice((int) (metadataSize + offset), length),
+                batch -> { });
+        } else {
+            OutputStream target = Objects.requireNonNull(out);
+            target.write(metadata.array());
+            packageHmac = streamEncryptedData(plainDataStream, plainDataSize, encryptedPackageSize,
+                (offset, length) -> ByteBuffer.allocate(length),
+                batch -> target.write(batch.array(), batch.arrayOffset(), batch.limit()));
+            target.write(new byte[(int) (packageRegion - encryptedPackageSize)]);
+        }
+
+        // Build the final dataIntegrity value from the actual EncryptedPackage stream bytes.
+        byte[] encryptedHmacValue = encryptPackageHmac(packageHmac);
+        byte[] finalInfo = updateEncryptedHmacValue(streams[3], encryptedHmacValue);
+        miniStream.put(miniStarts[3] * MINI_SECTOR_SIZE, finalInfo);
+
+        if (mapped != null) {
+            // Force flush to disk
+            mapped.force();
+        } else {
+            OutputStream target = Objects.requireNonNull(out);
+            target.write(miniStream.array());
+            target.flush();
+        }
     }
 
     /**
@@ -325,83 +397,169 @@ final class CfbWriter implements Closeable {
     }
 
     /**
-     * Encrypts plain data in 4KB segments and writes directly to MappedByteBuffer.
+     * Where encrypted EncryptedPackage bytes go: a mapped region or buffers written in order.
      */
-    private void streamEncryptedData(MappedByteBuffer buffer, int metadataSize,
-            InputStream plainData, long plainDataSize)
-            throws IOException, GeneralSecurityException {
+    @FunctionalInterface
+    private interface PackageTarget {
+        /** Returns a zero-filled buffer for stream bytes {@code [offset, offset + length)}. */
+        ByteBuffer buffer(long offset, int length);
+    }
 
-        // Position buffer at start of encrypted package
-        buffer.position(metadataSize);
+    /**
+     * Receives each filled buffer once all bytes before it are complete.
+     */
+    @FunctionalInterface
+    private interface CompletedBatch {
+        void accept(ByteBuffer batch) throws IOException;
+    }
 
-        // Write 8-byte size header (original plain data size)
-        buffer.putLong(plainDataSize);
+    /**
+     * Encrypts plain data in 4KB segments into the EncryptedPackage stream.
+     *
+     * <p>Segment offsets are fixed by the plain data size, so batches of segments
+     * are encrypted concurrently into their own buffers. The caller reads the
+     * next batches while workers encrypt, and passes completed batches to the
+     * HMAC and the target in stream order.</p>
+     *
+     * @return the HMAC of the whole EncryptedPackage stream
+     */
+    private byte[] streamEncryptedData(InputStream plainData, long plainDataSize, long encryptedPackageSize,
+            PackageTarget target, CompletedBatch completed)
+            throws IOException, GeneralSecurityException {
 
-        MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
-        byte[] indexBytes = new byte[4];
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(hmacKey, "HmacSHA512"));
 
-        int segmentIndex = 0;
-        long remaining = plainDataSize;
+        // Write 8-byte size header (original plain data size)
+        ByteBuffer header = target.buffer(0, 8).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(0, plainDataSize);
+        complete(header, mac, completed);
+
+        int segments = (int) ((plainDataSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        ExecutorService executor = parallelism > 1 && segments > BATCH_SEGMENTS
+            ? Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "litexl-encrypt");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+        ArrayDeque<PendingBatch> pending = new ArrayDeque<>();
+        long written = 8;
+
+        try {
+            for (int segment = 0; segment < segments; segment += BATCH_SEGMENTS) {
+                long plainStart = (long) segment * SEGMENT_SIZE;
+                int length = (int) Math.min((long) BATCH_SEGMENTS * SEGMENT_SIZE, plainDataSize - plainStart);
+                byte[] plain = plainData.readNBytes(length);
+                if (plain.length != length) {
+                    throw new EOFException("Plain data ended after " + (plainStart + plain.length) + " bytes");
+                }
 
-        while (remaining > 0) {
-            int toRead = (int) Math.min(SEGMENT_SIZE, remaining);
-            int totalRead = 0;
+                int firstSegment = segment;
+                ByteBuffer batch = target.buffer(written, padded(length));
+                written += batch.limit();
+                if (executor == null) {
+                    encryptBatch(plain, firstSegment, batch);
+                    complete(batch, mac, completed);
+                    continue;
+                }
 
-            // Read full segment (may require multiple reads)
-            while (totalRead < toRead) {
-                int read = plainData.read(readBuffer, totalRead, toRead - totalRead);
-                if (read == -1) {
-                    break;
+                pending.add(new PendingBatch(executor.submit(() -> {
+                    encryptBatch(plain, firstSegment, batch);
+                    return null;
+                }), batch));
+                // Bound the data held in memory while keeping every worker busy
+                if (pending.size() > parallelism * 2) {
+                    awaitBatch(pending.remove(), mac, completed);
                 }
-                totalRead += read;
             }
-
-            if (totalRead == 0) {
-                break;
+            while (!pending.isEmpty()) {
+                awaitBatch(pending.remove(), mac, completed);
             }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
 
-            // Generate IV: SHA512(salt + LE32(segmentIndex))[0:16]
-            sha512.reset();
-            sha512.update(keyDataSalt);
-            indexBytes[0] = (byte) segmentIndex;
-            indexBytes[1] = (byte) (segmentIndex >> 8);
-            indexBytes[2] = (byte) (segmentIndex >> 16);
-            indexBytes[3] = (byte) (segmentIndex >> 24);
-            sha512.update(indexBytes);
-            byte[] hash = sha512.digest();
-            System.arraycopy(hash, 0, ivBuffer, 0, 16);
-
-            // Encrypt segment and write directly to MappedByteBuffer
-            ByteBuffer input = ByteBuffer.wrap(readBuffer, 0, totalRead);
-            aesCipher.encrypt(input, buffer, ivBuffer);
-
-            remaining -= totalRead;
-            segmentIndex++;
+        // Zero padding up to the minimum stream size
+        if (written < encryptedPackageSize) {
+            complete(target.buffer(written, (int) (encryptedPackageSize - written)), mac, completed);
         }
+        return mac.doFinal();
+    }
 
-        // Padding is already zero-initialized by MappedByteBuffer, just advance position
-        // to ensure file size is correct (already mapped to full size)
+    private static void complete(ByteBuffer batch, Mac mac, CompletedBatch completed) throws IOException {
+        mac.update(batch.duplicate().clear());
+        completed.accept(batch);
     }
 
-    private byte[] computePackageHmac(MappedByteBuffer buffer, int encryptedPackageOffset, long encryptedPackageSize)
-            throws GeneralSecurityException {
-        Mac mac = Mac.getInstance("HmacSHA512");
-        mac.init(new SecretKeySpec(hmacKey, "HmacSHA512"));
+    /**
+     * Waits for a batch to be encrypted, then completes it.
+     */
+    private static void awaitBatch(PendingBatch batch, Mac mac, CompletedBatch completed)
+            throws IOException, GeneralSecurityException {
+        try {
+            batch.future().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while encrypting");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GeneralSecurityException security) {
+                throw security;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Encryption failed", cause);
+        }
+        complete(batch.buffer(), mac, completed);
+    }
 
-        ByteBuffer view = buffer.duplicate();
-        view.position(encryptedPackageOffset);
+    /**
+     * Encrypts consecutive segments starting at {@code firstSegment} into {@code output}.
+     *
+     * <p>Uses its own cipher and digest so batches can run on any thread.</p>
+     */
+    private void encryptBatch(byte[] plain, int firstSegment, ByteBuffer output)
+            throws GeneralSecurityException {
+        AesCipher cipher = new AesCipher(encryptionKey);
+        MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
+        byte[] iv = new byte[16];
 
-        byte[] chunk = new byte[MAC_BUFFER_SIZE];
-        long remaining = encryptedPackageSize;
-        while (remaining > 0) {
-            int toRead = (int) Math.min(chunk.length, remaining);
-            view.get(chunk, 0, toRead);
-            mac.update(chunk, 0, toRead);
-            remaining -= toRead;
+        int segmentIndex = firstSegment;
+        for (int start = 0; start < plain.length; start += SEGMENT_SIZE) {
+            int length = Math.min(SEGMENT_SIZE, plain.length - start);
+            segmentIv(sha512, segmentIndex, iv);
+            ByteBuffer input = ByteBuffer.wrap(plain, start, length);
+            cipher.encrypt(input, output.slice(start, padded(length)), iv);
+            segmentIndex++;
         }
-        return mac.doFinal();
     }
 
+    /**
+     * Generates a segment IV: SHA512(salt + LE32(segmentIndex))[0:16].
+     */
+    private void segmentIv(MessageDigest sha512, int segmentIndex, byte[] iv) {
+        sha512.reset();
+        sha512.update(keyDataSalt);
+        sha512.update((byte) segmentIndex);
+        sha512.update((byte) (segmentIndex >> 8));
+        sha512.update((byte) (segmentIndex >> 16));
+        sha512.update((byte) (segmentIndex >> 24));
+        System.arraycopy(sha512.digest(), 0, iv, 0, 16);
+    }
+
+    private static int padded(int length) {
+        return ((length + BLOCK_SIZE - 1) / BLOCK_SIZE) * BLOCK_SIZE;
+    }
+
+    private record PendingBatch(Future<?> future, ByteBuffer buffer) {}
+
     private byte[] encryptPackageHmac(byte[] packageHmac) throws GeneralSecurityException {
         MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
         sha512.update(keyDataSalt);
@@ -453,7 +611,7 @@ final class CfbWriter implements Closeable {
     }
 
     private void writeFat(ByteBuffer buffer, int fatSectors, int miniFatSectors,
-            int dirSectors, int miniStreamSectors, int encryptedPackageSectors, int[] regularStarts) {
+            int dirSectors, int encryptedPackageSectors, int miniStreamSectors, int[] regularStarts) {
         buffer.position(HEADER_SIZE);
         int sector = 0;
 
@@ -475,12 +633,6 @@ final class CfbWriter implements Closeable {
             sector++;
         }
 
-        // Mini stream sectors chain
-        for (int i = 0; i < miniStreamSectors; i++) {
-            buffer.putInt(i < miniStreamSectors - 1 ? sector + 1 : ENDOFCHAIN);
-            sector++;
-        }
-
         // EncryptedPackage sectors (index 2)
         regularStarts[2] = sector;
         for (int i = 0; i < encryptedPackageSectors; i++) {
@@ -488,6 +640,12 @@ final class CfbWriter implements Closeable {
             sector++;
         }
 
+        // Mini stream sectors chain
+        for (int i = 0; i < miniStreamSectors; i++) {
+            buffer.putInt(i < miniStreamSectors - 1 ? sector + 1 : ENDOFCHAIN);
+            sector++;
+        }
+
         // Fill remaining FAT with FREESECT
         int fatEntries = fatSectors * (SECTOR_SIZE / 4);
         for (int i = sector; i < fatEntries; i++) {
@@ -495,14 +653,13 @@ final class CfbWriter implements Closeable {
         }
     }
 
-    private void writeMiniStream(ByteBuffer buffer, int firstMiniFat, int firstMiniStream,
+    private void writeMiniStream(ByteBuffer buffer, ByteBuffer miniStream, int firstMiniFat,
             int miniFatSectors, byte[][] streams, long[] streamSizes, int[] miniStarts) {
         if (miniFatSectors == 0) {
             return;
         }
 
         int miniFatOffset = HEADER_SIZE + firstMiniFat * SECTOR_SIZE;
-        int miniStreamOffset = HEADER_SIZE + firstMiniStream * SECTOR_SIZE;
         int miniSector = 0;
         int dataOffset = 0;
 
@@ -515,8 +672,7 @@ final class CfbWriter implements Closeable {
                 int mSectors = sectorsNeeded((int) streamSizes[i], MINI_SECTOR_SIZE);
 
                 // Copy data to mini stream
-                buffer.position(miniStreamOffset + dataOffset);
-                buffer.put(streams[i]);
+                miniStream.put(dataOffset, streams[i]);
 
                 // Build mini FAT chain
                 buffer.position(miniFatOffset + miniSector * 4);
@@ -686,6 +842,9 @@ final class CfbWriter implements Closeable {
 
     @Override
     public void close() throws IOException {
-        channel.close();
+        // A caller's output stream is left open
+        if (channel != null) {
+            channel.close();
+        }
     }
 }
@@ -0,0 +1,163 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A ZIP entry compressed ahead of time, away from the thread writing the archive.
+ *
+ * <p>Data written here is raw-deflated and checksummed as it arrives. The
+ * compressed bytes are kept in memory up to {@value #MEMORY_LIMIT} bytes, then
+ * spilled to a temp file. Call {@link #finish()} once all data is written, hand
+ * the entry to {@link ZipWriter#addDeflated}, then {@link #close()} it to
+ * release the spill file.</p>
+ *
+ * <p>Not final so that tests can stand in entries too large to compress.</p>
+ */
+class DeflatedEntry extends OutputStream {
+
+    static final int MEMORY_LIMIT = 4 << 20;
+    private static final int CHUNK_SIZE = 65536;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private final int memoryLimit;
+    private @Nullable ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private @Nullable Path spillFile;
+    private @Nullable OutputStream spill;
+    private long size;
+    private long compressedSize;
+    private boolean finished;
+    private boolean closed;
+
+    DeflatedEntry() {
+        this(MEMORY_LIMIT);
+    }
+
+    DeflatedEntry(int memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Deflated entry is finished");
+        }
+        crc.update(b, off, len);
+        size += len;
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            store(deflater.deflate(chunk));
+        }
+    }
+
+    /**
+     * Completes the compressed stream; nothing may be written afterwards.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        deflater.finish();
+        while (!deflater.finished()) {
+            store(deflater.deflate(chunk));
+        }
+        deflater.end();
+        if (spill != null) {
+            spill.close();
+            spill = null;
+        }
+    }
+
+    private void store(int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (memory != null && memory.size() + length > memoryLimit) {
+            Path file = Files.createTempFile("litexl-", ".deflate");
+            spillFile = file;
+            spill = new BufferedOutputStream(Files.newOutputStream(file), CHUNK_SIZE);
+            memory.writeTo(spill);
+            memory = null;
+        }
+        if (memory != null) {
+            memory.write(chunk, 0, length);
+        } else {
+            assert spill != null;
+            spill.write(chunk, 0, length);
+        }
+        compressedSize += length;
+    }
+
+    long crc() {
+        return crc.getValue();
+    }
+
+    long size() {
+        return size;
+    }
+
+    long compressedSize() {
+        return compressedSize;
+    }
+
+    /**
+     * Returns true if the compressed bytes were spilled to a temp file.
+     */
+    boolean spilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Copies the compressed bytes of a finished entry to the given stream.
+     */
+    void transferTo(OutputStream out) throws IOException {
+        if (!finished) {
+            throw new IllegalStateException("Deflated entry is not finished");
+        }
+        if (memory != null) {
+            memory.writeTo(out);
+        } else {
+            assert spillFile != null;
+            Files.copy(spillFile, out);
+        }
+    }
+
+    /**
+     * Releases the deflater and deletes the spill file, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        deflater.end();
+        memory = null;
+        try {
+            if (spill != null) {
+                spill.close();
+                spill = null;
+            }
+        } finally {
+            if (spillFile != null) {
+                Files.deleteIfExists(spillFile);
+            }
+        }
+    }
+}
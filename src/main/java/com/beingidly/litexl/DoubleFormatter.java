@@ -0,0 +1,282 @@
+package com.beingidly.litexl;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shortest round-trip double to ASCII conversion into a byte array.
+ *
+ * <p>Implements Giulietti's Schubfach algorithm, the one behind
+ * {@link Double#toString(double)} since Java 19: the digits written are the
+ * shortest that {@link Double#parseDouble(String)} maps back to the same
+ * value, picking the closest when several qualify. Unlike {@code Double.toString}
+ * nothing is allocated, and integral values have no fractional part
+ * ({@code 42}, not {@code 42.0}).</p>
+ *
+ * <p>Values with a decimal exponent in [-6, 20] are written in plain notation;
+ * others as {@code 1.5E-9} or {@code 1E21}.</p>
+ */
+final class DoubleFormatter {
+
+    /**
+     * Maximum number of bytes {@link #format} writes.
+     */
+    static final int MAX_LENGTH = 32;
+
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long T_MASK = C_MIN - 1;
+    private static final int BQ_MASK = 0x7FF;
+    private static final long C_TINY = 3;
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    // Plain notation is used when the decimal point falls after n digits, MIN_PLAIN < n <= MAX_PLAIN
+    private static final int MAX_PLAIN = 21;
+    private static final int MIN_PLAIN = -6;
+
+    // For each k in [K_MIN, K_MAX], g = floor(10^-k 2^-r) + 1 with r chosen so that
+    // 2^125 <= 10^-k 2^-r < 2^126, split as g1 = g >> 63 and g0 = g mod 2^63
+    private static final long[] G = new long[(K_MAX - K_MIN + 1) * 2];
+
+    static {
+        BigInteger mask = BigInteger.valueOf(MASK_63);
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger beta;
+            if (k <= 0) {
+                BigInteger pow = BigInteger.TEN.pow(-k);
+                beta = r >= 0 ? pow.shiftRight(r) : pow.shiftLeft(-r);
+            } else {
+                beta = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+            }
+            BigInteger g = beta.add(BigInteger.ONE);
+            G[(k - K_MIN) << 1] = g.shiftRight(63).longValueExact();
+            G[(k - K_MIN) << 1 | 1] = g.and(mask).longValue();
+        }
+    }
+
+    private static final byte[] NAN = ascii("NaN");
+    private static final byte[] INFINITY = ascii("Infinity");
+
+    private DoubleFormatter() {}
+
+    /**
+     * Writes the shortest representation of {@code v} at {@code pos}.
+     *
+     * @return the position after the last byte written, at most {@link #MAX_LENGTH} bytes on
+     */
+    static int format(double v, byte[] buf, int pos) {
+        long bits = Double.doubleToRawLongBits(v);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        if (bq == BQ_MASK) {
+            if (t != 0) {
+                return copy(NAN, buf, pos);
+            }
+            if (bits < 0) {
+                buf[pos++] = '-';
+            }
+            return copy(INFINITY, buf, pos);
+        }
+
+        if (bits < 0) {
+            buf[pos++] = '-';
+        }
+        if (bq != 0) {
+            // Normal value: v = c 2^q with q = -mq
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq && mq < P) {
+                // Integers below 2^53 are their own shortest decimal
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return write(f, 0, buf, pos);
+                }
+            }
+            return toDecimal(-mq, c, 0, buf, pos);
+        }
+        if (t != 0) {
+            return t < C_TINY
+                ? toDecimal(Q_MIN, 10 * t, -1, buf, pos)
+                : toDecimal(Q_MIN, t, 0, buf, pos);
+        }
+        buf[pos++] = '0';
+        return pos;
+    }
+
+    /**
+     * Formats to a String; for tests and non-hot paths.
+     */
+    static String toString(double v) {
+        byte[] buf = new byte[MAX_LENGTH];
+        int length = format(v, buf, 0);
+        return new String(buf, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Finds the shortest decimal in the rounding interval of {@code c 2^q} and writes it.
+     */
+    private static int toDecimal(int q, long c, int dk, byte[] buf, int pos) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        // The interval is asymmetric when c is a power of two, except at the smallest exponent
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G[(k - K_MIN) << 1];
+        long g0 = G[(k - K_MIN) << 1 | 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // Try one digit less: sp10 = 10 floor(s / 10)
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return write(upin ? sp10 : tp10, k, buf, pos);
+            }
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return write(uin ? s : t, k + dk, buf, pos);
+        }
+        // Both candidates are in the interval: pick the closer, ties to even
+        long cmp = vb - ((s + t) << 1);
+        return write(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buf, pos);
+    }
+
+    /**
+     * Rounds {@code g cp 2^-127} to odd, the core multiplication of Schubfach.
+     */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Writes {@code f 10^e}, with {@code f > 0}.
+     */
+    private static int write(long f, int e, byte[] buf, int pos) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int length = digitCount(f);
+        // The decimal point goes after the first n digits
+        int n = length + e;
+
+        if (e >= 0 && n <= MAX_PLAIN) {
+            pos = writeDigits(f, length, buf, pos);
+            for (int i = 0; i < e; i++) {
+                buf[pos++] = '0';
+            }
+            return pos;
+        }
+        if (0 < n && n <= MAX_PLAIN) {
+            long scale = pow10(-e);
+            pos = writeDigits(f / scale, n, buf, pos);
+            buf[pos++] = '.';
+            return writeDigits(f % scale, -e, buf, pos);
+        }
+        if (MIN_PLAIN < n && n <= 0) {
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for (int i = n; i < 0; i++) {
+                buf[pos++] = '0';
+            }
+            return writeDigits(f, length, buf, pos);
+        }
+
+        long scale = pow10(length - 1);
+        buf[pos++] = (byte) ('0' + f / scale);
+        if (length > 1) {
+            buf[pos++] = '.';
+            pos = writeDigits(f % scale, length - 1, buf, pos);
+        }
+        buf[pos++] = 'E';
+        int exponent = n - 1;
+        if (exponent < 0) {
+            buf[pos++] = '-';
+            exponent = -exponent;
+        }
+        return writeDigits(exponent, digitCount(exponent), buf, pos);
+    }
+
+    /**
+     * Writes exactly {@code length} digits of {@code value}, zero-padded on the left.
+     */
+    private static int writeDigits(long value, int length, byte[] buf, int pos) {
+        int end = pos + length;
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int digitCount(long value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private static long pow10(int e) {
+        long result = 1;
+        for (int i = 0; i < e; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    private static int copy(byte[] bytes, byte[] buf, int pos) {
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    // floor(e log10(2))
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    // floor(e log10(2) + log10(3/4))
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    // floor(e log2(10))
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
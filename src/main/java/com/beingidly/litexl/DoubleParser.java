@@ -0,0 +1,313 @@
+package com.beingidly.litexl;
+
+import java.math.BigInteger;
+
+/**
+ * Decimal to double conversion over byte or char ranges, without a String.
+ *
+ * <p>Accepts plain decimals as written in sheet XML: an optional minus sign,
+ * digits with an optional fraction, and an optional exponent. Up to 19
+ * significant digits, plus any zeros after them, are converted exactly as
+ * {@link Double#parseDouble} would: integers and short decimals by Clinger's
+ * fast path, everything else by the Eisel-Lemire algorithm over a 128-bit
+ * table of powers of five. Other input (more digits, a plus sign, hex,
+ * {@code NaN}) returns NaN so the caller can fall back to
+ * {@code Double.parseDouble}.</p>
+ */
+final class DoubleParser {
+
+    private static final int MAX_DIGITS = 19;
+    private static final int MAX_EXPONENT_DIGITS = 4;
+
+    // Clinger: mantissas and powers of ten that doubles represent exactly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Eisel-Lemire: decimal exponents outside this range are zero or infinite
+    private static final int SMALLEST_POWER = -342;
+    private static final int LARGEST_POWER = 308;
+    private static final int MANTISSA_BITS = 52;
+    private static final int MINIMUM_EXPONENT = -1023;
+    private static final int INFINITE_POWER = 0x7FF;
+
+    // For each q, the 128 most significant bits of 5^q (rounded up for q < 0), high word first
+    private static final long[] POWERS_OF_FIVE = new long[(LARGEST_POWER - SMALLEST_POWER + 1) * 2];
+
+    static {
+        BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+        BigInteger two127 = BigInteger.ONE.shiftLeft(127);
+        for (int q = SMALLEST_POWER; q <= LARGEST_POWER; q++) {
+            BigInteger c;
+            if (q < 0) {
+                BigInteger power = BigInteger.valueOf(5).pow(-q);
+                int z = power.subtract(BigInteger.ONE).bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                if (c.compareTo(two128) >= 0) {
+                    c = c.shiftRight(c.bitLength() - 128);
+                }
+            } else {
+                c = BigInteger.valueOf(5).pow(q);
+                c = c.bitLength() <= 128 ? c.shiftLeft(128 - c.bitLength()) : c.shiftRight(c.bitLength() - 128);
+            }
+            assert c.compareTo(two127) >= 0 && c.compareTo(two128) < 0;
+            int index = (q - SMALLEST_POWER) << 1;
+            POWERS_OF_FIVE[index] = c.shiftRight(64).longValue();
+            POWERS_OF_FIVE[index + 1] = c.longValue();
+        }
+    }
+
+    private DoubleParser() {}
+
+    /**
+     * Parses the ASCII bytes in {@code [from, to)}, or returns NaN if they are not handled.
+     */
+    static double parse(byte[] buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && buf[i] == '-') {
+            negative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        int intStart = i;
+        while (i < to && buf[i] >= '0' && buf[i] <= '9') {
+            int d = buf[i] - '0';
+            if (digits < MAX_DIGITS) {
+                if (digits > 0 || d != 0) {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + d;
+            } else if (d == 0) {
+                // Zeros past the kept digits only scale the value
+                exponent++;
+            } else {
+                return Double.NaN;
+            }
+            i++;
+        }
+        boolean hasDigits = i > intStart;
+        if (i < to && buf[i] == '.') {
+            i++;
+            int fracStart = i;
+            while (i < to && buf[i] >= '0' && buf[i] <= '9') {
+                int d = buf[i] - '0';
+                if (digits < MAX_DIGITS) {
+                    if (digits > 0 || d != 0) {
+                        digits++;
+                    }
+                    mantissa = mantissa * 10 + d;
+                    exponent--;
+                } else if (d != 0) {
+                    return Double.NaN;
+                }
+                i++;
+            }
+            hasDigits |= i > fracStart;
+        }
+        if (!hasDigits) {
+            return Double.NaN;
+        }
+        if (i < to && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (buf[i] == '-' || buf[i] == '+')) {
+                negativeExponent = buf[i] == '-';
+                i++;
+            }
+            int expStart = i;
+            int exp = 0;
+            while (i < to && buf[i] >= '0' && buf[i] <= '9' && i - expStart < MAX_EXPONENT_DIGITS) {
+                exp = exp * 10 + (buf[i] - '0');
+                i++;
+            }
+            if (i == expStart) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -exp : exp;
+        }
+        if (i != to) {
+            return Double.NaN;
+        }
+        return toDouble(negative, mantissa, exponent);
+    }
+
+    /**
+     * Parses the chars in {@code [from, to)}, or returns NaN if they are not handled.
+     */
+    static double parse(CharSequence s, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && s.charAt(i) == '-') {
+            negative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        int intStart = i;
+        char ch;
+        while (i < to && (ch = s.charAt(i)) >= '0' && ch <= '9') {
+            int d = ch - '0';
+            if (digits < MAX_DIGITS) {
+                if (digits > 0 || d != 0) {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + d;
+            } else if (d == 0) {
+                exponent++;
+            } else {
+                return Double.NaN;
+            }
+            i++;
+        }
+        boolean hasDigits = i > intStart;
+        if (i < to && s.charAt(i) == '.') {
+            i++;
+            int fracStart = i;
+            while (i < to && (ch = s.charAt(i)) >= '0' && ch <= '9') {
+                int d = ch - '0';
+                if (digits < MAX_DIGITS) {
+                    if (digits > 0 || d != 0) {
+                        digits++;
+                    }
+                    mantissa = mantissa * 10 + d;
+                    exponent--;
+                } else if (d != 0) {
+                    return Double.NaN;
+                }
+                i++;
+            }
+            hasDigits |= i > fracStart;
+        }
+        if (!hasDigits) {
+            return Double.NaN;
+        }
+        if (i < to && ((ch = s.charAt(i)) == 'e' || ch == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && ((ch = s.charAt(i)) == '-' || ch == '+')) {
+                negativeExponent = ch == '-';
+                i++;
+            }
+            int expStart = i;
+            int exp = 0;
+            while (i < to && (ch = s.charAt(i)) >= '0' && ch <= '9' && i - expStart < MAX_EXPONENT_DIGITS) {
+                exp = exp * 10 + (ch - '0');
+                i++;
+            }
+            if (i == expStart) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -exp : exp;
+        }
+        if (i != to) {
+            return Double.NaN;
+        }
+        return toDouble(negative, mantissa, exponent);
+    }
+
+    /**
+     * Parses a String, falling back to {@link Double#parseDouble} for input not handled here.
+     */
+    static double parse(String s) {
+        double value = parse(s, 0, s.length());
+        return Double.isNaN(value) ? Double.parseDouble(s) : value;
+    }
+
+    /**
+     * Returns the double nearest to {@code mantissa 10^exponent}, with the mantissa unsigned.
+     */
+    private static double toDouble(boolean negative, long mantissa, int exponent) {
+        double value;
+        if (Long.compareUnsigned(mantissa, MAX_EXACT_MANTISSA) <= 0 && exponent >= -22 && exponent <= 22) {
+            value = mantissa;
+            if (exponent < 0) {
+                value /= POWERS_OF_TEN[-exponent];
+            } else if (exponent > 0) {
+                value *= POWERS_OF_TEN[exponent];
+            }
+        } else {
+            value = eiselLemire(mantissa, exponent);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Eisel-Lemire conversion of a non-negative {@code w 10^q} with w below 10^19.
+     *
+     * <p>Multiplies w by a truncated 128-bit 5^q and keeps the top 55 bits, which is
+     * always enough to round correctly for mantissas of at most 19 digits (Mushtak
+     * and Lemire, "Fast number parsing without fallback").</p>
+     */
+    private static double eiselLemire(long w, int q) {
+        if (w == 0 || q < SMALLEST_POWER) {
+            return 0.0;
+        }
+        if (q > LARGEST_POWER) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+
+        int index = (q - SMALLEST_POWER) << 1;
+        long high = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        // Only when the bits below the 55 kept are all ones can the low word carry into them
+        long precisionMask = -1L >>> (MANTISSA_BITS + 3);
+        if ((high & precisionMask) == precisionMask) {
+            long secondHigh = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            low += secondHigh;
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                high++;
+            }
+        }
+
+        int upperBit = (int) (high >>> 63);
+        int shift = upperBit + 64 - MANTISSA_BITS - 3;
+        long mantissa = high >>> shift;
+        int power2 = power(q) + upperBit - lz - MINIMUM_EXPONENT;
+
+        if (power2 <= 0) {
+            // Subnormal
+            if (-power2 + 1 >= 64) {
+                return 0.0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << MANTISSA_BITS) ? 0 : 1;
+            return Double.longBitsToDouble(mantissa & ((1L << MANTISSA_BITS) - 1) | (long) power2 << MANTISSA_BITS);
+        }
+
+        // Exactly halfway between two doubles: round to even rather than up
+        if ((low == 0 || low == 1) && q >= -4 && q <= 23 && (mantissa & 3) == 1
+                && (mantissa << shift) == high) {
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << MANTISSA_BITS)) {
+            mantissa = 1L << MANTISSA_BITS;
+            power2++;
+        }
+        mantissa &= ~(1L << MANTISSA_BITS);
+        if (power2 >= INFINITE_POWER) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Double.longBitsToDouble(mantissa | (long) power2 << MANTISSA_BITS);
+    }
+
+    // floor(q log2(10)) + 63
+    private static int power(int q) {
+        return (((152170 + 65536) * q) >> 16) + 63;
+    }
+}
@@ -0,0 +1,227 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Options controlling how a workbook is read.
+ *
+ * @param parallelism maximum number of sheets parsed concurrently; 1 reads sheets sequentially
+ * @param pipelined whether each sheet is tokenized on a separate thread from row decoding
+ * @param workbookOptions options applied to the loaded workbook
+ * @param columnFilter accepts the 0-based columns to load, or null to load all columns;
+ *                     other cells are skipped before their values are parsed
+ * @param sheetFilter selects the sheets to load, or null to load all sheets;
+ *                    other sheets are not parsed and are left out of the workbook
+ * @param firstRow the first 0-based row to load
+ * @param lastRow the last 0-based row to load; parsing of a sheet stops once it is passed,
+ *                so merged cells of a sheet cut short this way are not read
+ * @param lazy whether each sheet is parsed only when first used; the file then stays
+ *             open until the workbook is closed
+ * @param decryptionParallelism maximum number of threads decrypting the package of an
+ *                              encrypted file; independent of {@code parallelism}
+ */
+public record ReadOptions(int parallelism, boolean pipelined, WorkbookOptions workbookOptions,
+                          @Nullable IntPredicate columnFilter, @Nullable SheetFilter sheetFilter,
+                          int firstRow, int lastRow, boolean lazy, int decryptionParallelism) {
+
+    /**
+     * Selects sheets by their 0-based position and name in the workbook.
+     */
+    @FunctionalInterface
+    public interface SheetFilter {
+        boolean test(int index, String name);
+    }
+
+    public ReadOptions {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (decryptionParallelism < 1) {
+            throw new IllegalArgumentException("Decryption parallelism must be positive");
+        }
+        if (workbookOptions == null) {
+            throw new IllegalArgumentException("Workbook options cannot be null");
+        }
+        ExcelLimits.validateRowIndex(firstRow);
+        ExcelLimits.validateRowIndex(lastRow);
+        if (firstRow > lastRow) {
+            throw new IllegalArgumentException("First row cannot be after last row: " + firstRow + " > " + lastRow);
+        }
+    }
+
+    /**
+     * Returns the default options (sequential parsing, decryption on every available processor).
+     */
+    public static ReadOptions defaults() {
+        return new ReadOptions(1, false, WorkbookOptions.defaults(), null, null, 0, ExcelLimits.MAX_ROW_INDEX, false,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns true if the sheet at the given position should be loaded.
+     */
+    boolean includesSheet(int index, String name) {
+        return sheetFilter == null || sheetFilter.test(index, name);
+    }
+
+    /**
+     * Returns a builder for customizing options.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int parallelism = 1;
+        private boolean pipelined = false;
+        private WorkbookOptions workbookOptions = WorkbookOptions.defaults();
+        private @Nullable IntPredicate columnFilter;
+        private @Nullable SheetFilter sheetFilter;
+        private int firstRow = 0;
+        private int lastRow = ExcelLimits.MAX_ROW_INDEX;
+        private boolean lazy = false;
+        private int decryptionParallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Parses up to {@code threads} sheets concurrently.
+         */
+        public Builder parallelism(int threads) {
+            this.parallelism = threads;
+            return this;
+        }
+
+        /**
+         * Parses sheets concurrently using one thread per available processor.
+         */
+        public Builder parallel() {
+            this.parallelism = Runtime.getRuntime().availableProcessors();
+            return this;
+        }
+
+        /**
+         * Inflates and tokenizes each sheet on a producer thread while rows are
+         * decoded and stored on the reading thread. Speeds up large single sheets.
+         */
+        public Builder pipelined(boolean value) {
+            this.pipelined = value;
+            return this;
+        }
+
+        public Builder workbookOptions(WorkbookOptions options) {
+            this.workbookOptions = options;
+            return this;
+        }
+
+        /**
+         * Loads only the given 0-based columns.
+         */
+        public Builder columns(int... columns) {
+            BitSet selected = new BitSet();
+            for (int column : columns) {
+                ExcelLimits.validateColumnIndex(column);
+                selected.set(column);
+            }
+            this.columnFilter = selected::get;
+            return this;
+        }
+
+        /**
+         * Loads only the given columns, specified by letters such as "A" or "AB".
+         */
+        public Builder columns(String... columns) {
+            int[] indexes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                indexes[i] = CellRefUtil.lettersToCol(columns[i]);
+            }
+            return columns(indexes);
+        }
+
+        /**
+         * Loads only the 0-based columns accepted by the filter, or all columns if null.
+         */
+        public Builder columnFilter(@Nullable IntPredicate filter) {
+            this.columnFilter = filter;
+            return this;
+        }
+
+        /**
+         * Loads only the sheets with the given names.
+         */
+        public Builder sheets(String... names) {
+            Set<String> selected = Set.copyOf(Arrays.asList(names));
+            this.sheetFilter = (index, name) -> selected.contains(name);
+            return this;
+        }
+
+        /**
+         * Loads only the sheets at the given 0-based positions.
+         */
+        public Builder sheets(int... indexes) {
+            BitSet selected = new BitSet();
+            for (int index : indexes) {
+                if (index < 0) {
+                    throw new IllegalArgumentException("Sheet index cannot be negative: " + index);
+                }
+                selected.set(index);
+            }
+            this.sheetFilter = (index, name) -> selected.get(index);
+            return this;
+        }
+
+        /**
+         * Loads only the sheets accepted by the filter, or all sheets if null.
+         */
+        public Builder sheetFilter(@Nullable SheetFilter filter) {
+            this.sheetFilter = filter;
+            return this;
+        }
+
+        /**
+         * Loads only rows {@code first} through {@code last} (0-based, inclusive).
+         */
+        public Builder rows(int first, int last) {
+            this.firstRow = first;
+            this.lastRow = last;
+            return this;
+        }
+
+        /**
+         * Loads at most the first {@code count} rows of each sheet.
+         */
+        public Builder maxRows(int count) {
+            if (count < 1) {
+                throw new IllegalArgumentException("Row count must be positive");
+            }
+            return rows(0, Math.min(count, ExcelLimits.MAX_ROWS) - 1);
+        }
+
+        /**
+         * Parses each sheet only when it is first used instead of while opening.
+         * Sheet names are available immediately, and the file stays open until
+         * the workbook is closed.
+         */
+        public Builder lazy(boolean value) {
+            this.lazy = value;
+            return this;
+        }
+
+        /**
+         * Decrypts the package of an encrypted file on up to {@code threads} threads.
+         * Defaults to one thread per available processor; 1 decrypts on the reading thread.
+         */
+        public Builder decryptionParallelism(int threads) {
+            this.decryptionParallelism = threads;
+            return this;
+        }
+
+        public ReadOptions build() {
+            return new ReadOptions(parallelism, pipelined, workbookOptions, columnFilter, sheetFilter,
+                firstRow, lastRow, lazy, decryptionParallelism);
+        }
+    }
+}
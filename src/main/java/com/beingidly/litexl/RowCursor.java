@@ -0,0 +1,116 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Allocation-free forward cursor over the rows of a sheet.
+ *
+ * <p>Unlike {@link Sheet#forEachRow(Sheet.RowVisitor)}, no {@link Row} or
+ * {@link Cell} objects are created: the cursor decodes each row into one
+ * reusable {@link CellCursor}. Values are only valid until the next call to
+ * {@link #next()}.</p>
+ *
+ * <pre>{@code
+ * RowCursor rows = sheet.cursor();
+ * while (rows.next()) {
+ *     CellCursor cells = rows.cells();
+ *     while (cells.next()) {
+ *         process(rows.rowNum(), cells.column(), cells.number());
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>The cursor reflects the rows present when it was created. Writing to the
+ * sheet while a cursor is open is not supported.</p>
+ */
+public final class RowCursor {
+
+    private final SheetRowStore store;
+    private final int storedRows;
+    private final @Nullable Row pending;
+    private final CellCursor cells;
+
+    private int slot = -1;
+    private int rowNum = -1;
+    private double height = -1;
+    private boolean hidden;
+
+    RowCursor(SheetRowStore store, @Nullable Row pending) {
+        this.store = store;
+        this.storedRows = store.rowCount();
+        this.pending = pending;
+        this.cells = new CellCursor(store);
+    }
+
+    /**
+     * Advances to the next row in ascending row order.
+     *
+     * @return true if a row is available
+     */
+    public boolean next() {
+        int end = storedRows + (pending != null ? 1 : 0);
+        if (slot + 1 >= end) {
+            slot = end;
+            rowNum = -1;
+            return false;
+        }
+        slot++;
+        if (slot < storedRows) {
+            store.readRow(slot, this, cells);
+        } else {
+            Row row = pending;
+            if (row != null) {
+                setRow(row.rowNum(), row.hasCustomHeight() ? row.height() : -1, row.hidden());
+                cells.load(row);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the row number (0-based) of the current row.
+     */
+    public int rowNum() {
+        ensureRow();
+        return rowNum;
+    }
+
+    /**
+     * Returns the custom height of the current row in points, or -1 for the default height.
+     */
+    public double height() {
+        ensureRow();
+        return height;
+    }
+
+    /**
+     * Returns true if the current row is hidden.
+     */
+    public boolean hidden() {
+        ensureRow();
+        return hidden;
+    }
+
+    /**
+     * Returns the cells of the current row, positioned before the first cell.
+     *
+     * <p>The same instance is returned for every row.</p>
+     */
+    public CellCursor cells() {
+        ensureRow();
+        cells.rewind();
+        return cells;
+    }
+
+    void setRow(int rowNum, double height, boolean hidden) {
+        this.rowNum = rowNum;
+        this.height = height;
+        this.hidden = hidden;
+    }
+
+    private void ensureRow() {
+        if (rowNum < 0) {
+            throw new IllegalStateException("No current row; call next() first");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Iterator over the rows of a streamed sheet, in ascending row order.
+ *
+ * <p>Each row is parsed on demand from the sheet XML. The iterator closes its
+ * underlying entry stream once exhausted; call {@link #close()} to release it
+ * early.</p>
+ *
+ * @see WorkbookStream
+ */
+public final class RowIterator implements Iterator<Row>, AutoCloseable {
+
+    private final SheetRowParser parser;
+    private final Consumer<RowIterator> onClose;
+    private @Nullable Row next;
+    private boolean done;
+
+    RowIterator(SheetRowParser parser) {
+        this(parser, iterator -> {});
+    }
+
+    /**
+     * @param onClose called once when the iterator is closed or exhausted
+     */
+    RowIterator(SheetRowParser parser, Consumer<RowIterator> onClose) {
+        this.parser = parser;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (done) {
+            return false;
+        }
+        next = parser.next();
+        if (next == null) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        assert row != null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        if (done) {
+            return;
+        }
+        done = true;
+        next = null;
+        try {
+            parser.close();
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to close sheet stream", e);
+        } finally {
+            onClose.accept(this);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds the shared string table while sheets are written.
+ *
+ * <p>In {@link WriteOptions.SharedStringMode#ADAPTIVE} mode the first
+ * {@value #SAMPLE_SIZE} strings of each column are shared while counting how
+ * many already occurred earlier in the same column. A column where fewer than
+ * {@value #MIN_REPEAT_PERCENT}% repeated, such as IDs or free text, is written
+ * inline from then on: sharing it would only grow the table.</p>
+ *
+ * <p>The table is shared by all sheets, which may be written concurrently.
+ * Strings already in the table are looked up without locking; only adding a
+ * new string takes this collector's lock. Sampling looks only at the column's
+ * own strings, never the table, so which columns go inline does not depend on
+ * the order in which sheets are written.</p>
+ */
+final class SharedStringCollector {
+
+    static final int SAMPLE_SIZE = 1024;
+    static final int MIN_REPEAT_PERCENT = 25;
+
+    private final WriteOptions.SharedStringMode mode;
+    private final Map<String, Integer> index = new ConcurrentHashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final LongAdder references = new LongAdder();
+
+    SharedStringCollector(WriteOptions.SharedStringMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Returns true if a shared strings part is written.
+     */
+    boolean enabled() {
+        return mode != WriteOptions.SharedStringMode.INLINE;
+    }
+
+    /**
+     * Starts sampling columns for a sheet; the table itself is workbook-wide.
+     */
+    SheetStrings forSheet() {
+        return new SheetStrings();
+    }
+
+    private int indexOf(String text) {
+        references.increment();
+        Integer existing = index.get(text);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            // Another sheet may have added it since the lookup
+            existing = index.get(text);
+            if (existing != null) {
+                return existing;
+            }
+            int added = strings.size();
+            strings.add(text);
+            index.put(text, added);
+            return added;
+        }
+    }
+
+    /**
+     * Returns the distinct strings in index order, once all sheets are written.
+     */
+    synchronized List<String> strings() {
+        return strings;
+    }
+
+    /**
+     * Returns the number of cells referring to the table.
+     */
+    long references() {
+        return references.sum();
+    }
+
+    /**
+     * Shared string lookups for one sheet, used by one thread at a time.
+     */
+    final class SheetStrings {
+
+        private int[] samples = new int[16];
+        private int[] repeats = new int[16];
+        private boolean[] inline = new boolean[16];
+        private final List<@Nullable Set<String>> sampled = new ArrayList<>();
+
+        /**
+         * Returns the shared string index for a text cell, or -1 to write it inline.
+         */
+        int indexOf(int column, String text) {
+            if (mode == WriteOptions.SharedStringMode.INLINE) {
+                return -1;
+            }
+            if (mode == WriteOptions.SharedStringMode.ADAPTIVE && !sample(column, text)) {
+                return -1;
+            }
+            return SharedStringCollector.this.indexOf(text);
+        }
+
+        /**
+         * Records a sample for the column and returns false once it is written inline.
+         */
+        private boolean sample(int column, String text) {
+            if (column >= inline.length) {
+                int length = Math.max(column + 1, inline.length * 2);
+                samples = Arrays.copyOf(samples, length);
+                repeats = Arrays.copyOf(repeats, length);
+                inline = Arrays.copyOf(inline, length);
+            }
+            if (inline[column]) {
+                return false;
+            }
+            if (samples[column] < SAMPLE_SIZE) {
+                while (sampled.size() <= column) {
+                    sampled.add(null);
+                }
+                Set<String> seen = sampled.get(column);
+                if (seen == null) {
+                    seen = new HashSet<>();
+                    sampled.set(column, seen);
+                }
+                samples[column]++;
+                if (!seen.add(text)) {
+                    repeats[column]++;
+                }
+                if (samples[column] == SAMPLE_SIZE) {
+                    // The decision is final; the sample is no longer needed
+                    sampled.set(column, null);
+                    if (repeats[column] * 100 < SAMPLE_SIZE * MIN_REPEAT_PERCENT) {
+                        inline[column] = true;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
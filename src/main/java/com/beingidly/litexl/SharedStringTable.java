@@ -0,0 +1,222 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Compact, read-only shared string table of a loaded workbook.
+ *
+ * <p>Strings are kept as UTF-8 bytes in one contiguous buffer with an int offset
+ * per entry, instead of one {@link String} object each. The buffer stays in the
+ * heap until the memory budget is exceeded, after which it is spilled to a temp
+ * file that is memory-mapped once the table is sealed.</p>
+ *
+ * <p>{@link #get(int)} decodes on demand through a small direct-mapped cache, so
+ * repeated lookups of common strings do not decode again. Once sealed the table
+ * may be read from several threads.</p>
+ */
+final class SharedStringTable extends AbstractList<String> implements RandomAccess, AutoCloseable {
+
+    private static final int CACHE_SIZE = 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final long memoryBudget;
+
+    private byte[] heap = new byte[256];
+    private int size;
+    private int[] offsets = new int[65];
+    private int count;
+
+    // Spill state
+    private @Nullable Path path;
+    private @Nullable OutputStream out;
+    private @Nullable MappedByteBuffer mapped;
+
+    private final @Nullable CacheEntry[] cache = new CacheEntry[CACHE_SIZE];
+    private boolean sealed;
+    private boolean closed;
+
+    SharedStringTable(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Appends a string; entries are indexed in the order they are added.
+     */
+    void append(String value) {
+        if (sealed || closed) {
+            throw new IllegalStateException("Shared string table is sealed");
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if ((long) size + bytes.length > Integer.MAX_VALUE) {
+            throw new LitexlException(ErrorCode.UNSUPPORTED_FORMAT, "Shared string table exceeds 2 GiB");
+        }
+
+        if (path == null && size + bytes.length > memoryBudget) {
+            spill();
+        }
+        OutputStream stream = out;
+        if (stream != null) {
+            try {
+                stream.write(bytes);
+            } catch (IOException e) {
+                throw new LitexlException(ErrorCode.IO_ERROR, "Failed to write shared string table", e);
+            }
+        } else {
+            if (heap.length < size + bytes.length) {
+                heap = Arrays.copyOf(heap, Math.max(size + bytes.length, heap.length * 2));
+            }
+            System.arraycopy(bytes, 0, heap, size, bytes.length);
+        }
+
+        size += bytes.length;
+        if (count + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++count] = size;
+    }
+
+    /**
+     * Finishes appending; spilled data is mapped for reading.
+     */
+    void seal() {
+        if (sealed || closed) {
+            return;
+        }
+        sealed = true;
+        offsets = Arrays.copyOf(offsets, count + 1);
+        Path file = path;
+        OutputStream stream = out;
+        if (file == null || stream == null) {
+            heap = Arrays.copyOf(heap, size);
+            return;
+        }
+        try {
+            stream.close();
+            out = null;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to seal shared string table", e);
+        }
+    }
+
+    /**
+     * Returns true if the string bytes were spilled to a temp file.
+     */
+    boolean isSpilled() {
+        return path != null;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Shared string index " + index + " out of range: " + count);
+        }
+
+        int slot = index & (CACHE_SIZE - 1);
+        CacheEntry entry = cache[slot];
+        if (entry != null && entry.index == index) {
+            return entry.value;
+        }
+
+        String value = decode(index);
+        cache[slot] = new CacheEntry(index, value);
+        return value;
+    }
+
+    private String decode(int index) {
+        int start = offsets[index];
+        int length = offsets[index + 1] - start;
+        if (length == 0) {
+            return "";
+        }
+
+        MappedByteBuffer view = mapped;
+        if (view != null) {
+            byte[] bytes = new byte[length];
+            view.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (path != null) {
+            throw new IllegalStateException("Shared string table must be sealed before reading");
+        }
+        return new String(heap, start, length, StandardCharsets.UTF_8);
+    }
+
+    private void spill() {
+        Path file = null;
+        try {
+            file = Files.createTempFile("litexl-", ".strings");
+            OutputStream stream = new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+            stream.write(heap, 0, size);
+            path = file;
+            out = stream;
+            heap = EMPTY;
+        } catch (IOException e) {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to create shared string table", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        Path file = path;
+        boolean wasMapped = mapped != null;
+        mapped = null;
+        heap = EMPTY;
+        Arrays.fill(cache, null);
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to close shared string table", e);
+        } finally {
+            try {
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                if (!wasMapped) {
+                    throw new LitexlException(ErrorCode.IO_ERROR, "Failed to delete shared string table", e);
+                }
+                // The mapping is released on GC; defer the delete to JVM exit
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private record CacheEntry(int index, String value) {}
+}
@@ -6,6 +6,7 @@ import com.beingidly.litexl.format.ConditionalFormat;
 import com.beingidly.litexl.format.DataValidation;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Map;
@@ -28,6 +29,14 @@ public final class Sheet {
         boolean visit(Row row);
     }
 
+    /**
+     * Populates a lazily read sheet when it is first used.
+     */
+    @FunctionalInterface
+    interface Loader {
+        void load(Sheet sheet) throws IOException;
+    }
+
     private String name;
     private final int index;
     private final SheetRowStore rowStore;
@@ -39,15 +48,21 @@ public final class Sheet {
     private int firstRow = -1;
     private int lastRow = -1;
     private boolean readOnly;
+    private @Nullable Loader loader;
+    private @Nullable RuntimeException loadFailure;
 
     /**
      * Creates a new sheet. Internal use only - use Workbook.addSheet() instead.
      * @hidden
      */
     public Sheet(String name, int index) {
+        this(name, index, WorkbookOptions.defaults());
+    }
+
+    Sheet(String name, int index, WorkbookOptions options) {
         this.name = name;
         this.index = index;
-        this.rowStore = new SheetRowStore();
+        this.rowStore = new SheetRowStore(SheetRowStore.ReadMode.MAPPED, options.rowStoreMemoryBudget());
         this.format = new SheetFormat();
         this.protectionManager = new SheetProtectionManager();
         this.currentRow = null;
@@ -90,6 +105,7 @@ public final class Sheet {
      * @throws IllegalArgumentException if indices are out of Excel's limits
      */
     public Cell cell(int row, int col) {
+        ensureLoaded();
         ExcelLimits.validateCellIndex(row, col);
 
         if (readOnly) {
@@ -128,6 +144,7 @@ public final class Sheet {
      * @throws IllegalArgumentException if row index is out of Excel's limits
      */
     public Row row(int rowNum) {
+        ensureLoaded();
         ExcelLimits.validateRowIndex(rowNum);
 
         if (readOnly) {
@@ -173,6 +190,7 @@ public final class Sheet {
      * Gets a row, returning null if it doesn't exist.
      */
     public @Nullable Row getRow(int rowNum) {
+        ensureLoaded();
         if (rowNum < 0) {
             return null;
         }
@@ -181,21 +199,14 @@ public final class Sheet {
             return currentRow;
         }
 
-        final Row[] found = new Row[1];
-        rowStore.forEachRow(row -> {
-            if (row.rowNum() == rowNum) {
-                found[0] = row;
-                return false;
-            }
-            return row.rowNum() < rowNum;
-        });
-        return found[0];
+        return rowStore.findRow(rowNum);
     }
 
     /**
      * Iterates rows in ascending row index order without keeping all rows in memory.
      */
     public void forEachRow(RowVisitor visitor) {
+        ensureLoaded();
         final boolean[] stopped = { false };
         rowStore.forEachRow(row -> {
             boolean keepGoing = visitor.visit(row);
@@ -210,6 +221,18 @@ public final class Sheet {
         }
     }
 
+    /**
+     * Returns an allocation-free cursor over the rows of this sheet.
+     *
+     * <p>The cursor decodes rows into reusable views instead of creating
+     * {@link Row} and {@link Cell} objects, which makes it the cheapest way to
+     * scan large sheets.</p>
+     */
+    public RowCursor cursor() {
+        ensureLoaded();
+        return new RowCursor(rowStore, currentRow);
+    }
+
     /**
      * Materializes all rows as a map.
      *
@@ -229,6 +252,7 @@ public final class Sheet {
      * Returns the number of rows.
      */
     public int rowCount() {
+        ensureLoaded();
         return rowCount;
     }
 
@@ -236,6 +260,7 @@ public final class Sheet {
      * Returns the first row index, or {@link RowIndex#none()} if no rows.
      */
     public RowIndex firstRow() {
+        ensureLoaded();
         return rowCount == 0 ? RowIndex.none() : RowIndex.of(firstRow);
     }
 
@@ -243,6 +268,7 @@ public final class Sheet {
      * Returns the last row index, or {@link RowIndex#none()} if no rows.
      */
     public RowIndex lastRow() {
+        ensureLoaded();
         return rowCount == 0 ? RowIndex.none() : RowIndex.of(lastRow);
     }
 
@@ -252,6 +278,7 @@ public final class Sheet {
      * Returns the format manager for this sheet.
      */
     public SheetFormat format() {
+        ensureLoaded();
         return format;
     }
 
@@ -270,6 +297,7 @@ public final class Sheet {
      * Merges a range of cells.
      */
     public void merge(int r1, int c1, int r2, int c2) {
+        ensureLoaded();
         format.merge(r1, c1, r2, c2);
     }
 
@@ -277,6 +305,7 @@ public final class Sheet {
      * Merges a range of cells.
      */
     public void merge(CellRange range) {
+        ensureLoaded();
         format.merge(range);
     }
 
@@ -284,6 +313,7 @@ public final class Sheet {
      * Unmerges a range of cells.
      */
     public void unmerge(int r1, int c1, int r2, int c2) {
+        ensureLoaded();
         format.unmerge(r1, c1, r2, c2);
     }
 
@@ -291,6 +321,7 @@ public final class Sheet {
      * Returns all merged regions (unmodifiable).
      */
     public java.util.List<MergedRegion> mergedCells() {
+        ensureLoaded();
         // Convert SheetFormat.MergedRegion to Sheet.MergedRegion for backward compatibility
         java.util.List<MergedRegion> result = new ArrayList<>();
         for (SheetFormat.MergedRegion m : format.mergedCells()) {
@@ -446,6 +477,15 @@ public final class Sheet {
         return protectionManager.isProtected();
     }
 
+    /**
+     * Appends a fully parsed row. Internal use by XlsxReader.
+     */
+    void appendLoadedRow(Row row) {
+        flushCurrentRow();
+        rowStore.append(row);
+        trackRow(row.rowNum());
+    }
+
     void finishLoadingReadOnly() {
         flushCurrentRow();
         rowStore.seal();
@@ -453,22 +493,70 @@ public final class Sheet {
     }
 
     void closeResources() {
+        loader = null;
         rowStore.close();
     }
 
+    /**
+     * Defers reading the rows of this sheet until it is first used.
+     */
+    void setLoader(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns true once the rows of this sheet have been read.
+     */
+    boolean isLoaded() {
+        return loader == null;
+    }
+
+    /**
+     * Reads the rows of this sheet now if they were deferred.
+     */
+    void load() {
+        ensureLoaded();
+    }
+
     @Override
     public String toString() {
         return String.format("Sheet[name=%s, rows=%d]", name, rowCount);
     }
 
+    private void ensureLoaded() {
+        Loader pending = loader;
+        if (pending == null) {
+            // A failed load leaves partial rows behind; keep failing rather than expose them
+            if (loadFailure != null) {
+                throw loadFailure;
+            }
+            return;
+        }
+        // Cleared first because the loader populates this sheet through its own methods
+        loader = null;
+        try {
+            pending.load(this);
+        } catch (IOException e) {
+            loadFailure = new LitexlException(ErrorCode.IO_ERROR, "Failed to read sheet: " + name, e);
+            throw loadFailure;
+        } catch (RuntimeException e) {
+            loadFailure = e;
+            throw e;
+        }
+    }
+
     private Row newRow(int rowNum) {
         Row row = new Row(rowNum);
+        trackRow(rowNum);
+        return row;
+    }
+
+    private void trackRow(int rowNum) {
         rowCount++;
         if (firstRow < 0) {
             firstRow = rowNum;
         }
         lastRow = rowNum;
-        return row;
     }
 
     private void flushCurrentRow() {
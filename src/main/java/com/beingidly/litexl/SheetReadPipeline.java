@@ -0,0 +1,228 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-stage pipeline for reading a single sheet.
+ *
+ * <p>A producer thread inflates and tokenizes the sheet XML into batches of raw
+ * row tokens, while the calling thread decodes values and appends rows to the
+ * sheet. The stages are connected by a bounded queue, so at most a few batches
+ * are in flight at any time.</p>
+ *
+ * <p>Decoding and appending stay on a single consumer because the row store
+ * requires rows in ascending order.</p>
+ */
+final class SheetReadPipeline {
+
+    static final int BATCH_ROWS = 512;
+    static final int QUEUE_CAPACITY = 4;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final RowBatch END = new RowBatch();
+
+    private final SheetRowParser parser;
+    private final BlockingQueue<RowBatch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean cancelled;
+    private volatile @Nullable Throwable failure;
+
+    private SheetReadPipeline(SheetRowParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Reads all rows from the parser into the sheet.
+     *
+     * <p>The parser is only used by the producer thread, which has finished when
+     * this method returns.</p>
+     */
+    static void read(SheetRowParser parser, Sheet sheet, List<String> sharedStrings) throws IOException {
+        new SheetReadPipeline(parser).run(sheet, sharedStrings);
+    }
+
+    private void run(Sheet sheet, List<String> sharedStrings) throws IOException {
+        Thread producer = new Thread(this::produce, "litexl-sheet-tokenizer");
+        producer.setDaemon(true);
+        producer.start();
+
+        try {
+            while (true) {
+                RowBatch batch = queue.take();
+                if (batch == END) {
+                    break;
+                }
+                for (int i = 0; i < batch.rowCount; i++) {
+                    sheet.appendLoadedRow(batch.row(i, sharedStrings));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading sheet");
+        } finally {
+            // Stop the producer if the consumer failed, then wait so the parser is no longer in use
+            cancelled = true;
+            queue.clear();
+            joinUninterruptibly(producer);
+        }
+
+        Throwable error = failure;
+        if (error instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (error instanceof Error e) {
+            throw e;
+        }
+        if (error != null) {
+            throw new IOException("Failed to read sheet", error);
+        }
+    }
+
+    private void produce() {
+        try {
+            RowBatch batch = new RowBatch();
+            while (!cancelled && parser.advance(batch)) {
+                if (batch.rowCount == BATCH_ROWS) {
+                    if (!put(batch)) {
+                        return;
+                    }
+                    batch = new RowBatch();
+                }
+            }
+            if (batch.rowCount > 0 && !put(batch)) {
+                return;
+            }
+        } catch (Throwable t) {
+            failure = t;
+        }
+        put(END);
+    }
+
+    /**
+     * Hands a batch to the consumer, giving up if the pipeline is cancelled.
+     */
+    private boolean put(RowBatch batch) {
+        try {
+            while (!queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancelled) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Raw row tokens for a batch of rows, stored in parallel arrays.
+     */
+    private static final class RowBatch implements SheetRowParser.RowSink {
+        // Kinds for tokens already parsed by the tokenizer, held in parsed
+        private static final byte KIND_PARSED_NUMBER = -1;
+        private static final byte KIND_PARSED_SHARED_STRING = -2;
+
+        private final int[] rowNums = new int[BATCH_ROWS];
+        private final double[] heights = new double[BATCH_ROWS];
+        private final boolean[] hidden = new boolean[BATCH_ROWS];
+        private final int[] cellStarts = new int[BATCH_ROWS + 1];
+        private int rowCount;
+
+        private int[] columns = new int[BATCH_ROWS * 8];
+        private int[] styles = new int[BATCH_ROWS * 8];
+        private byte[] kinds = new byte[BATCH_ROWS * 8];
+        private @Nullable String[] values = new String[BATCH_ROWS * 8];
+        private long[] parsed = new long[BATCH_ROWS * 8];
+        private int cellCount;
+
+        @Override
+        public void startRow(int rowNum, double height, boolean hidden) {
+            int i = rowCount++;
+            rowNums[i] = rowNum;
+            heights[i] = height;
+            this.hidden[i] = hidden;
+            cellStarts[i] = cellCount;
+            cellStarts[i + 1] = cellCount;
+        }
+
+        @Override
+        public void cell(int column, int styleId, int kind, String value) {
+            int c = addCell(column, styleId, kind);
+            values[c] = value;
+        }
+
+        @Override
+        public void number(int column, int styleId, double value) {
+            int c = addCell(column, styleId, KIND_PARSED_NUMBER);
+            values[c] = null;
+            parsed[c] = Double.doubleToRawLongBits(value);
+        }
+
+        @Override
+        public void sharedString(int column, int styleId, int index) {
+            int c = addCell(column, styleId, KIND_PARSED_SHARED_STRING);
+            values[c] = null;
+            parsed[c] = index;
+        }
+
+        private int addCell(int column, int styleId, int kind) {
+            if (cellCount == columns.length) {
+                int newCapacity = cellCount * 2;
+                columns = Arrays.copyOf(columns, newCapacity);
+                styles = Arrays.copyOf(styles, newCapacity);
+                kinds = Arrays.copyOf(kinds, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+                parsed = Arrays.copyOf(parsed, newCapacity);
+            }
+            int c = cellCount++;
+            columns[c] = column;
+            styles[c] = styleId;
+            kinds[c] = (byte) kind;
+            cellStarts[rowCount] = cellCount;
+            return c;
+        }
+
+        Row row(int i, List<String> sharedStrings) {
+            Row row = new Row(rowNums[i]);
+            if (heights[i] >= 0) {
+                row.height(heights[i]);
+            }
+            row.hidden(hidden[i]);
+            for (int c = cellStarts[i]; c < cellStarts[i + 1]; c++) {
+                switch (kinds[c]) {
+                    case KIND_PARSED_NUMBER ->
+                        SheetRowParser.applyNumber(row, columns[c], styles[c], Double.longBitsToDouble(parsed[c]));
+                    case KIND_PARSED_SHARED_STRING ->
+                        SheetRowParser.applySharedString(row, columns[c], styles[c], (int) parsed[c], sharedStrings);
+                    default -> SheetRowParser.applyCell(row, columns[c], styles[c], kinds[c],
+                        Objects.requireNonNull(values[c]), sharedStrings);
+                }
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.beingidly.litexl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+
+/**
+ * Pull parser that yields the rows of a worksheet XML part one at a time.
+ *
+ * <p>Rows are parsed lazily from the input stream as {@link #next()} is called,
+ * so a sheet can be consumed in a single pass without buffering it. Merged
+ * cell ranges follow the sheet data and are available once all rows have been
+ * read.</p>
+ *
+ * <p>UTF-8 input is tokenized by {@link SheetXmlScanner}, which works directly on
+ * the inflated bytes. The start of the stream is sniffed first; inputs in other
+ * encodings or with a DOCTYPE fall back to the StAX-based {@link XmlReader}.</p>
+ *
+ * <p>Tokenizing and value decoding are separated by {@link RowSink}: {@link #next()}
+ * decodes values straight into a {@link Row}, while {@link #advance(RowSink)}
+ * hands raw cell tokens to any sink, such as a batch passed to another thread.</p>
+ */
+final class SheetRowParser implements Closeable {
+
+    // Cell token kinds, derived from the cell's t attribute and the element holding the value
+    static final int KIND_NUMBER = 0;
+    static final int KIND_SHARED_STRING = 1;
+    static final int KIND_BOOLEAN = 2;
+    static final int KIND_ERROR = 3;
+    static final int KIND_INLINE_STRING = 4;
+    static final int KIND_FORMULA = 5;
+
+    // Bytes examined before choosing a tokenizer
+    private static final int SNIFF_LENGTH = 1024;
+
+    /**
+     * Receives the tokens of one row.
+     */
+    interface RowSink {
+        void startRow(int rowNum, double height, boolean hidden);
+
+        void cell(int column, int styleId, int kind, String value);
+
+        /**
+         * A number cell whose value was parsed by the tokenizer.
+         */
+        void number(int column, int styleId, double value);
+
+        /**
+         * A shared string cell whose index was parsed by the tokenizer.
+         */
+        void sharedString(int column, int styleId, int index);
+    }
+
+    private final InputStream input;
+    private final @Nullable XmlReader xml;
+    private final @Nullable SheetXmlScanner scanner;
+    private final List<String> sharedStrings;
+    private final @Nullable IntPredicate columnFilter;
+    private final int firstRow;
+    private final int lastRow;
+    private final List<CellRange> mergedCells = new ArrayList<>();
+    private final RowBuilder builder = new RowBuilder();
+
+    private boolean rowOpen;
+    private int rowNum = -1;
+    private double rowHeight = -1;
+    private boolean rowHidden;
+    private boolean rowStarted;
+    private int lastRowNum = -1;
+    private int nextColumn;
+
+    // Current cell state
+    private int currentColumn = -1;
+    private int currentKind = KIND_NUMBER;
+    private int currentStyle;
+    private boolean inInlineStr;
+    private boolean skipCell;
+    private boolean skipRow;
+    // Set once a row after the last requested row starts
+    private boolean done;
+
+    SheetRowParser(InputStream input, List<String> sharedStrings) {
+        this(input, sharedStrings, ReadOptions.defaults());
+    }
+
+    /**
+     * Creates a parser that only emits the rows and columns selected by the options.
+     * Values of other cells are skipped without being decoded.
+     */
+    SheetRowParser(InputStream input, List<String> sharedStrings, ReadOptions options) {
+        this.input = input;
+        this.sharedStrings = sharedStrings;
+        this.columnFilter = options.columnFilter();
+        this.firstRow = options.firstRow();
+        this.lastRow = options.lastRow();
+
+        byte[] prefix;
+        try {
+            prefix = input.readNBytes(SNIFF_LENGTH);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read sheet XML", e);
+        }
+        int bom = utf8BomLength(prefix);
+        if (bom >= 0) {
+            this.scanner = new SheetXmlScanner(this, input, prefix, bom);
+            this.xml = null;
+        } else {
+            this.scanner = null;
+            this.xml = new XmlReader(new SequenceInputStream(new ByteArrayInputStream(prefix), input));
+        }
+    }
+
+    /**
+     * Parses and returns the next row, or null at the end of the sheet.
+     */
+    @Nullable Row next() {
+        if (!advance(builder)) {
+            return null;
+        }
+        return builder.take();
+    }
+
+    /**
+     * Parses the next row and passes its tokens to the sink.
+     *
+     * @return false at the end of the sheet, when no row was produced
+     */
+    boolean advance(RowSink sink) {
+        SheetXmlScanner bytes = scanner;
+        if (bytes != null) {
+            try {
+                return bytes.advance(sink);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read sheet XML", e);
+            }
+        }
+        return advanceStax(sink);
+    }
+
+    /**
+     * Returns merged cell ranges seen so far; complete once the sheet is exhausted.
+     */
+    List<CellRange> mergedCells() {
+        return Collections.unmodifiableList(mergedCells);
+    }
+
+    /**
+     * Returns true if the byte-level scanner is in use rather than StAX.
+     */
+    boolean isScanning() {
+        return scanner != null;
+    }
+
+    /**
+     * Applies a cell token to a row, decoding the value.
+     */
+    static void applyCell(Row row, int column, int styleId, int kind, String value, List<String> sharedStrings) {
+        Cell cell = row.cell(column);
+        cell.style(styleId);
+        switch (kind) {
+            case KIND_SHARED_STRING -> {
+                int idx = Integer.parseInt(value);
+                if (idx < sharedStrings.size()) {
+                    cell.set(sharedStrings.get(idx));
+                }
+            }
+            case KIND_BOOLEAN -> cell.set("1".equals(value));
+            case KIND_ERROR -> cell.setValue(new CellValue.Error(value));
+            case KIND_INLINE_STRING -> cell.set(value);
+            case KIND_FORMULA -> cell.setFormula(value);
+            default -> cell.set(DoubleParser.parse(value)); // Number or date (default)
+        }
+    }
+
+    /**
+     * Applies a parsed number token to a row.
+     */
+    static void applyNumber(Row row, int column, int styleId, double value) {
+        Cell cell = row.cell(column);
+        cell.style(styleId);
+        cell.set(value);
+    }
+
+    /**
+     * Applies a shared string token to a row.
+     */
+    static void applySharedString(Row row, int column, int styleId, int index, List<String> sharedStrings) {
+        Cell cell = row.cell(column);
+        cell.style(styleId);
+        if (index < sharedStrings.size()) {
+            cell.set(sharedStrings.get(index));
+        }
+    }
+
+    // === Row and cell state, driven by the tokenizers ===
+
+    /**
+     * Starts a row element.
+     *
+     * @param rowIndex the 0-based row index, or {@link Integer#MIN_VALUE} if the r attribute is missing
+     * @param height the custom height, or -1
+     */
+    void beginRow(int rowIndex, double height, boolean hidden) {
+        // The r attribute is optional; rows without it follow the previous row
+        int index = rowIndex == Integer.MIN_VALUE ? lastRowNum + 1 : rowIndex;
+        nextColumn = 0;
+        rowStarted = false;
+        if (index < 0) {
+            rowOpen = false;
+            return;
+        }
+
+        ExcelLimits.validateRowIndex(index);
+        if (index > lastRow) {
+            rowOpen = false;
+            done = true;
+            return;
+        }
+        rowOpen = true;
+        rowNum = index;
+        rowHeight = height;
+        rowHidden = hidden;
+        skipRow = index < firstRow;
+    }
+
+    /**
+     * Starts a cell element.
+     *
+     * @param row the 0-based row from the r attribute, used when no row element is open
+     * @param column the 0-based column from the r attribute, or -1 if missing
+     */
+    void beginCell(int row, int column, int kind, int styleId) {
+        if (column >= 0) {
+            if (!rowOpen) {
+                ExcelLimits.validateRowIndex(row);
+                if (row > lastRow) {
+                    done = true;
+                    return;
+                }
+                openImplicitRow(row);
+            }
+            currentColumn = column;
+        } else {
+            // The r attribute is optional; cells without it follow the previous cell
+            currentColumn = nextColumn;
+        }
+        nextColumn = currentColumn + 1;
+        currentKind = kind;
+        currentStyle = styleId;
+        int cellRow = rowOpen ? rowNum : lastRowNum + 1;
+        skipCell = (rowOpen ? skipRow : cellRow < firstRow || cellRow > lastRow)
+            || (columnFilter != null && !columnFilter.test(currentColumn));
+    }
+
+    /**
+     * Returns true once the sheet has passed the last requested row.
+     */
+    boolean isDone() {
+        return done;
+    }
+
+    void endCell() {
+        currentColumn = -1;
+        currentKind = KIND_NUMBER;
+        currentStyle = 0;
+        inInlineStr = false;
+        skipCell = false;
+    }
+
+    /**
+     * Returns true if the current cell is excluded by the column filter or row bounds.
+     */
+    boolean skippingCell() {
+        return skipCell;
+    }
+
+    void inlineString(boolean inside) {
+        inInlineStr = inside;
+    }
+
+    boolean inInlineString() {
+        return inInlineStr;
+    }
+
+    int cellKind() {
+        return currentKind;
+    }
+
+    void addMergedCell(CellRange range) {
+        mergedCells.add(range);
+    }
+
+    /**
+     * Prepares the sink for a value of the current cell.
+     *
+     * @return the column of the current cell
+     */
+    int beginValue(RowSink sink) {
+        if (currentColumn < 0) {
+            throw new CorruptFileException("Cell value outside of a cell element");
+        }
+        if (!rowOpen) {
+            openImplicitRow(lastRowNum + 1);
+        }
+        ExcelLimits.validateColumnIndex(currentColumn);
+        if (!rowStarted) {
+            sink.startRow(rowNum, rowHeight, rowHidden);
+            rowStarted = true;
+        }
+        return currentColumn;
+    }
+
+    int cellStyle() {
+        return currentStyle;
+    }
+
+    /**
+     * Completes the open row, if any.
+     *
+     * @return true if a row was handed to the sink
+     */
+    boolean finishRow(RowSink sink) {
+        if (!rowOpen) {
+            return false;
+        }
+        rowOpen = false;
+        lastRowNum = rowNum;
+        if (skipRow) {
+            skipRow = false;
+            return false;
+        }
+        if (!rowStarted) {
+            // Rows without cells still carry attributes
+            sink.startRow(rowNum, rowHeight, rowHidden);
+        }
+        rowStarted = false;
+        return true;
+    }
+
+    static int kindOf(@Nullable String type) {
+        return type == null ? KIND_NUMBER : switch (type) {
+            case "s" -> KIND_SHARED_STRING;
+            case "b" -> KIND_BOOLEAN;
+            case "e" -> KIND_ERROR;
+            default -> KIND_NUMBER; // Other types - treat as number
+        };
+    }
+
+    private void openImplicitRow(int rowIndex) {
+        rowOpen = true;
+        rowNum = rowIndex;
+        rowHeight = -1;
+        rowHidden = false;
+        rowStarted = false;
+        skipRow = rowIndex < firstRow;
+    }
+
+    // === StAX fallback ===
+
+    private boolean advanceStax(RowSink sink) {
+        XmlReader reader = xml;
+        assert reader != null : "StAX reader must be set when not scanning";
+        while (!done && reader.hasNext()) {
+            XmlReader.Event event = reader.next();
+
+            if (event == XmlReader.Event.START_ELEMENT) {
+                String name = reader.getLocalName();
+
+                if ("row".equals(name)) {
+                    String rowRef = reader.getAttributeValue("r");
+                    String ht = reader.getAttributeValue("ht");
+                    String customHeight = reader.getAttributeValue("customHeight");
+                    beginRow(rowRef != null ? Integer.parseInt(rowRef) - 1 : Integer.MIN_VALUE,
+                        ht != null && "1".equals(customHeight) ? DoubleParser.parse(ht) : -1,
+                        "1".equals(reader.getAttributeValue("hidden")));
+                } else if ("c".equals(name)) {
+                    String ref = reader.getAttributeValue("r");
+                    long coords = ref != null ? CellRefUtil.parseRef(ref, 0, ref.length()) : CellRefUtil.pack(-1, -1);
+                    String styleStr = reader.getAttributeValue("s");
+                    beginCell(CellRefUtil.packedRow(coords), CellRefUtil.packedColumn(coords),
+                        kindOf(reader.getAttributeValue("t")), styleStr != null ? Integer.parseInt(styleStr) : 0);
+                } else if ("is".equals(name)) {
+                    // Inline string container
+                    inInlineStr = true;
+                } else if (skipCell && ("t".equals(name) || "v".equals(name) || "f".equals(name))) {
+                    // Value of a filtered-out cell; its text events are ignored
+                    continue;
+                } else if ("t".equals(name) && inInlineStr) {
+                    String value = reader.getElementText();
+                    sink.cell(beginValue(sink), currentStyle, KIND_INLINE_STRING, value);
+                } else if ("v".equals(name)) {
+                    String value = reader.getElementText();
+                    sink.cell(beginValue(sink), currentStyle, currentKind, value);
+                } else if ("f".equals(name)) {
+                    String value = reader.getElementText();
+                    sink.cell(beginValue(sink), currentStyle, KIND_FORMULA, value);
+                } else if ("mergeCell".equals(name)) {
+                    String ref = reader.getAttributeValue("ref");
+                    if (ref != null) {
+                        mergedCells.add(CellRange.parse(ref));
+                    }
+                }
+            } else if (event == XmlReader.Event.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("row".equals(name)) {
+                    if (finishRow(sink)) {
+                        return true;
+                    }
+                } else if ("c".equals(name)) {
+                    endCell();
+                } else if ("is".equals(name)) {
+                    inInlineStr = false;
+                }
+            }
+        }
+
+        // A row left open by malformed input
+        return !done && finishRow(sink);
+    }
+
+    /**
+     * Returns the length of the UTF-8 byte order mark if the prefix can be read by
+     * the byte scanner, or -1 if StAX must handle it.
+     */
+    private static int utf8BomLength(byte[] prefix) {
+        int bom = prefix.length >= 3 && (prefix[0] & 0xFF) == 0xEF && (prefix[1] & 0xFF) == 0xBB
+            && (prefix[2] & 0xFF) == 0xBF ? 3 : 0;
+        if (prefix.length >= bom + 2 && (prefix[bom] == 0 || prefix[bom + 1] == 0
+            || (prefix[bom] & 0xFF) == 0xFE || (prefix[bom] & 0xFF) == 0xFF)) {
+            // UTF-16 or UTF-32
+            return -1;
+        }
+
+        String head = new String(prefix, bom, prefix.length - bom, StandardCharsets.ISO_8859_1);
+        if (head.contains("<!DOCTYPE")) {
+            return -1;
+        }
+        if (head.startsWith("<?xml")) {
+            int declEnd = head.indexOf("?>");
+            String decl = declEnd >= 0 ? head.substring(0, declEnd) : head;
+            int encoding = decl.indexOf("encoding");
+            if (encoding >= 0) {
+                String rest = decl.substring(encoding + "encoding".length()).toLowerCase(Locale.ROOT);
+                if (!rest.matches("\\s*=\\s*[\"']utf-?8[\"'][\\s\\S]*")) {
+                    return -1;
+                }
+            }
+        }
+        return bom;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (xml != null) {
+            xml.close();
+        }
+        input.close();
+    }
+
+    /**
+     * Sink that decodes tokens into a {@link Row}.
+     */
+    private final class RowBuilder implements RowSink {
+        private @Nullable Row row;
+
+        @Override
+        public void startRow(int rowNum, double height, boolean hidden) {
+            Row current = new Row(rowNum);
+            if (height >= 0) {
+                current.height(height);
+            }
+            current.hidden(hidden);
+            row = current;
+        }
+
+        @Override
+        public void cell(int column, int styleId, int kind, String value) {
+            applyCell(current(), column, styleId, kind, value, sharedStrings);
+        }
+
+        @Override
+        public void number(int column, int styleId, double value) {
+            applyNumber(current(), column, styleId, value);
+        }
+
+        @Override
+        public void sharedString(int column, int styleId, int index) {
+            applySharedString(current(), column, styleId, index, sharedStrings);
+        }
+
+        Row take() {
+            Row current = current();
+            row = null;
+            return current;
+        }
+
+        private Row current() {
+            Row current = row;
+            assert current != null : "startRow must precede cell";
+            return current;
+        }
+    }
+}
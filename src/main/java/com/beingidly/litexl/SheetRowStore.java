@@ -1,19 +1,53 @@
 package com.beingidly.litexl;
 
+import org.jspecify.annotations.Nullable;
+
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
- * File-backed row store for streaming sheets.
+ * Row store for streaming sheets.
+ *
+ * <p>Rows are kept in an in-heap buffer until the memory budget is exceeded, at
+ * which point the buffer is spilled to a temp file and later rows are appended
+ * there. Small sheets therefore never touch the filesystem. The string
+ * dictionary counts against the same budget.</p>
+ *
+ * <p>Rows are appended in ascending row order. A sorted in-memory index of
+ * row number to offset is maintained alongside the data, so single-row
+ * lookups seek directly to the row instead of scanning from the start.</p>
+ *
+ * <p>Rows use a compact encoding: a flag byte for row attributes, varint and
+ * zigzag integers, delta-encoded column indexes, dates as epoch second/nano,
+ * and repeated strings as indexes into a bounded per-sheet dictionary. A string
+ * enters the dictionary on its second occurrence; a bounded set of strings seen
+ * once tracks the candidates, so columns of unique values stay inline.</p>
+ *
+ * <p>In {@link ReadMode#MAPPED} mode (the default) reads decode rows directly from
+ * a read-only mapping of the store file, so repeated scans are served from the
+ * OS page cache without read syscalls or intermediate heap copies.</p>
  */
 final class SheetRowStore implements AutoCloseable {
 
@@ -25,46 +59,214 @@ final class SheetRowStore implements AutoCloseable {
         boolean visit(Row row);
     }
 
-    private static final byte TYPE_EMPTY = 0;
-    private static final byte TYPE_STRING = 1;
-    private static final byte TYPE_NUMBER = 2;
-    private static final byte TYPE_BOOLEAN = 3;
-    private static final byte TYPE_DATE = 4;
-    private static final byte TYPE_FORMULA = 5;
-    private static final byte TYPE_ERROR = 6;
+    /**
+     * How stored rows are read back.
+     */
+    enum ReadMode {
+        /** Read through a buffered input stream, copying bytes into the heap. */
+        STREAM,
+        /** Decode rows in place from a memory-mapped view of the store file. */
+        MAPPED
+    }
+
+    // Row flags
+    private static final int ROW_CUSTOM_HEIGHT = 0x01;
+    private static final int ROW_HIDDEN = 0x02;
+
+    // Cell header: low bits hold the value type, STYLED marks a varint style id
+    private static final int TYPE_EMPTY = 0;
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_NUMBER = 2;
+    private static final int TYPE_INTEGER = 3;
+    private static final int TYPE_TRUE = 4;
+    private static final int TYPE_FALSE = 5;
+    private static final int TYPE_DATE = 6;
+    private static final int TYPE_FORMULA = 7;
+    private static final int TYPE_ERROR = 8;
+    private static final int TYPE_MASK = 0x0F;
+    private static final int STYLED = 0x10;
+
+    // Bounds on the per-sheet string dictionary, which lives in memory for the life of the store
+    private static final int MAX_DICTIONARY_ENTRIES = 1 << 16;
+    private static final int MAX_DICTIONARY_CHARS = 1 << 22;
+    private static final int MAX_DICTIONARY_STRING_LENGTH = 256;
+    private static final int MAX_DICTIONARY_CANDIDATES = 1 << 12;
+    // Estimated heap cost of a dictionary string besides its chars: the String, its array and map slots
+    private static final int DICTIONARY_ENTRY_OVERHEAD = 64;
+
+    private static final int INITIAL_INDEX_CAPACITY = 64;
 
-    private final Path path;
-    private final DataOutputStream out;
+    // Largest single mapping; stores beyond this are mapped in row-aligned windows
+    private static final long MAX_MAPPING_SIZE = 1L << 30;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ReadMode readMode;
+    private final long memoryBudget;
+
+    // Reusable encode buffer: each row is encoded here first so its length is known
+    private final EncodeBuffer rowBuffer = new EncodeBuffer();
+    private final DataOutputStream rowOut = new DataOutputStream(rowBuffer);
+
+    // Per-sheet string dictionary: repeated strings are stored as varint indexes
+    private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private long dictionaryChars;
+    // Estimated heap bytes of the dictionary and its candidates, counted against the memory budget
+    private long dictionaryBytes;
+
+    // Strings seen once, added to the dictionary if seen again; the oldest are dropped when full
+    private final Map<String, Boolean> dictionaryCandidates = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            if (size() <= MAX_DICTIONARY_CANDIDATES) {
+                return false;
+            }
+            dictionaryBytes -= dictionaryCost(eldest.getKey());
+            return true;
+        }
+    };
+
+    // Row index: rowNum -> file offset, sorted ascending because rows are appended in order
+    private int[] indexRows = new int[INITIAL_INDEX_CAPACITY];
+    private long[] indexOffsets = new long[INITIAL_INDEX_CAPACITY];
+    private int indexSize;
+    private long size;
+
+    // Row bytes while the store fits in the memory budget; replaced by the file once spilled
+    private byte[] heap = EMPTY;
+    private @Nullable Path path;
+    private @Nullable DataOutputStream out;
+
+    private @Nullable FileChannel readChannel;
+    private @Nullable MappedByteBuffer mapped;
+    private long mappedStart;
+    private long mappedEnd;
+    private byte[] stringBuffer = new byte[64];
+
+    // Reusable views for cursor reads, which decode straight into a CellCursor
+    private @Nullable ByteBuffer heapView;
+    private @Nullable ByteBuffer scratch;
     private boolean sealed;
     private boolean closed;
 
     SheetRowStore() {
-        try {
-            this.path = Files.createTempFile("litexl-sheet-", ".rows");
-            this.out = new DataOutputStream(new BufferedOutputStream(
-                Files.newOutputStream(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)));
-        } catch (IOException e) {
-            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to create sheet row store", e);
-        }
+        this(ReadMode.MAPPED, WorkbookOptions.DEFAULT_ROW_STORE_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param readMode how spilled rows are read back
+     * @param memoryBudget bytes of row data and string dictionary kept in heap;
+     *                     rows spill to disk once it is exceeded
+     */
+    SheetRowStore(ReadMode readMode, long memoryBudget) {
+        this.readMode = readMode;
+        this.memoryBudget = Math.min(memoryBudget, Integer.MAX_VALUE - 8);
     }
 
     void append(Row row) {
         ensureWritable();
+        if (indexSize > 0 && row.rowNum() <= indexRows[indexSize - 1]) {
+            throw new IllegalStateException(
+                "Rows must be appended in ascending order. Last row=" + indexRows[indexSize - 1]
+                    + ", appended row=" + row.rowNum());
+        }
         try {
-            out.writeInt(row.rowNum());
-            out.writeDouble(row.height());
-            out.writeBoolean(row.hasCustomHeight());
-            out.writeBoolean(row.hidden());
+            // The row number is not encoded: it is recovered from the index
+            rowBuffer.reset();
+            int flags = (row.hasCustomHeight() ? ROW_CUSTOM_HEIGHT : 0) | (row.hidden() ? ROW_HIDDEN : 0);
+            rowOut.writeByte(flags);
+            if (row.hasCustomHeight()) {
+                rowOut.writeDouble(row.height());
+            }
 
-            out.writeInt(row.cellCount());
+            writeVarInt(row.cellCount());
+            int previousColumn = -1;
             for (Cell cell : row.cells().values()) {
-                out.writeInt(cell.column());
-                out.writeInt(cell.styleId());
-                writeCellValue(cell.value());
+                writeVarInt(cell.column() - previousColumn - 1);
+                previousColumn = cell.column();
+                writeCell(cell);
+            }
+
+            int length = rowBuffer.size();
+            if (path == null && size + dictionaryBytes + length > memoryBudget) {
+                spill();
+            }
+            DataOutputStream fileOut = out;
+            if (fileOut != null) {
+                rowBuffer.writeTo(fileOut);
+            } else {
+                ensureHeapCapacity(size + length);
+                System.arraycopy(rowBuffer.array(), 0, heap, (int) size, length);
             }
         } catch (IOException e) {
             throw new LitexlException(ErrorCode.IO_ERROR, "Failed to append row to sheet store", e);
         }
+
+        addIndexEntry(row.rowNum(), size);
+        size += rowBuffer.size();
+    }
+
+    /**
+     * Returns true once rows have been moved from the heap buffer to a temp file.
+     */
+    boolean isSpilled() {
+        return path != null;
+    }
+
+    private void spill() {
+        Path file = null;
+        try {
+            file = Files.createTempFile("litexl-sheet-", ".rows");
+            DataOutputStream fileOut = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)));
+            fileOut.write(heap, 0, (int) size);
+            path = file;
+            out = fileOut;
+            heap = EMPTY;
+        } catch (IOException e) {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to create sheet row store", e);
+        }
+    }
+
+    private void ensureHeapCapacity(long required) {
+        if (required > heap.length) {
+            long grown = Math.max(required, Math.max(256, (long) heap.length * 2));
+            heap = Arrays.copyOf(heap, (int) Math.min(grown, memoryBudget));
+        }
+    }
+
+    /**
+     * Reads a single row by row number, or returns null if the row is not stored.
+     *
+     * <p>Uses the row index to read only the bytes of the requested row.</p>
+     */
+    @Nullable Row findRow(int rowNum) {
+        flushForRead();
+
+        int slot = Arrays.binarySearch(indexRows, 0, indexSize, rowNum);
+        if (slot < 0) {
+            return null;
+        }
+
+        try {
+            if (path == null) {
+                return readRow(slot, heapRow(slot));
+            }
+            if (readMode == ReadMode.MAPPED) {
+                return readRow(slot, mappedRow(slot));
+            }
+            return readRow(slot, channelRow(slot));
+        } catch (IOException | BufferUnderflowException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to read row from sheet store", e);
+        }
     }
 
     void seal() {
@@ -72,8 +274,10 @@ final class SheetRowStore implements AutoCloseable {
             return;
         }
         try {
-            out.flush();
-            out.close();
+            if (out != null) {
+                out.flush();
+                out.close();
+            }
             sealed = true;
         } catch (IOException e) {
             throw new LitexlException(ErrorCode.IO_ERROR, "Failed to seal sheet row store", e);
@@ -83,52 +287,248 @@ final class SheetRowStore implements AutoCloseable {
     void forEachRow(RowVisitor visitor) {
         flushForRead();
 
-        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
-            while (true) {
-                Row row;
-                try {
-                    row = readRow(in);
-                } catch (EOFException e) {
-                    break;
+        try {
+            if (path == null) {
+                forEachHeapRow(visitor);
+            } else if (readMode == ReadMode.MAPPED) {
+                forEachMappedRow(visitor);
+            } else {
+                forEachStreamedRow(visitor);
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to read rows from sheet store", e);
+        }
+    }
+
+    private void forEachHeapRow(RowVisitor visitor) throws IOException {
+        int count = indexSize;
+        for (int slot = 0; slot < count; slot++) {
+            if (!visitor.visit(readRow(slot, heapRow(slot)))) {
+                return;
+            }
+        }
+    }
+
+    private void forEachMappedRow(RowVisitor visitor) throws IOException {
+        // Index slots are resolved one at a time: a visitor may trigger nested reads
+        // that remap the window, so the buffer is fetched again for every row.
+        int count = indexSize;
+        for (int slot = 0; slot < count; slot++) {
+            if (!visitor.visit(readRow(slot, mappedRow(slot)))) {
+                return;
+            }
+        }
+    }
+
+    private void forEachStreamedRow(RowVisitor visitor) throws IOException {
+        int count = indexSize;
+        byte[] bytes = new byte[256];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Objects.requireNonNull(path)))) {
+            for (int slot = 0; slot < count; slot++) {
+                int length = rowLength(slot);
+                if (bytes.length < length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                if (in.readNBytes(bytes, 0, length) != length) {
+                    throw new EOFException("Unexpected EOF while reading row store");
                 }
-                if (!visitor.visit(row)) {
-                    break;
+                if (!visitor.visit(readRow(slot, ByteBuffer.wrap(bytes, 0, length)))) {
+                    return;
                 }
             }
-        } catch (IOException e) {
-            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to read rows from sheet store", e);
         }
     }
 
-    private Row readRow(DataInputStream in) throws IOException {
-        int rowNum = in.readInt();
-        double height = in.readDouble();
-        boolean customHeight = in.readBoolean();
-        boolean hidden = in.readBoolean();
+    private ByteBuffer heapRow(int slot) {
+        return ByteBuffer.wrap(heap, (int) indexOffsets[slot], rowLength(slot));
+    }
+
+    /**
+     * Returns the number of stored rows.
+     */
+    int rowCount() {
+        return indexSize;
+    }
+
+    /**
+     * Returns the number of strings in the per-sheet dictionary.
+     */
+    int dictionarySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * Returns a string from the per-sheet dictionary.
+     */
+    String dictionaryString(int ref) {
+        return dictionary.get(ref);
+    }
+
+    /**
+     * Decodes a stored row into a cursor without allocating a {@link Row}.
+     */
+    void readRow(int slot, RowCursor row, CellCursor cells) {
+        flushForRead();
+
+        try {
+            ByteBuffer in;
+            if (path == null) {
+                in = heapView(slot);
+            } else if (readMode == ReadMode.MAPPED) {
+                in = mappedRow(slot);
+            } else {
+                in = scratchRow(slot);
+            }
+            readRow(slot, in, row, cells);
+        } catch (IOException | BufferUnderflowException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to read row from sheet store", e);
+        }
+    }
+
+    private void readRow(int slot, ByteBuffer in, RowCursor row, CellCursor cells) throws IOException {
+        int flags = in.get();
+        double height = (flags & ROW_CUSTOM_HEIGHT) != 0 ? in.getDouble() : -1;
+        row.setRow(indexRows[slot], height, (flags & ROW_HIDDEN) != 0);
+
+        int cellCount = readVarInt(in);
+        cells.reset(cellCount);
+        int col = -1;
+        for (int i = 0; i < cellCount; i++) {
+            col += readVarInt(in) + 1;
+            int header = in.get();
+            int styleId = (header & STYLED) != 0 ? readVarInt(in) : 0;
+
+            int type = header & TYPE_MASK;
+            switch (type) {
+                case TYPE_EMPTY -> cells.add(col, styleId, CellType.EMPTY, 0, -1);
+                case TYPE_STRING -> readText(in, cells, col, styleId, CellType.STRING);
+                case TYPE_NUMBER -> cells.add(col, styleId, CellType.NUMBER, in.getLong(), -1);
+                case TYPE_INTEGER -> cells.add(col, styleId, CellType.NUMBER,
+                    Double.doubleToRawLongBits((double) zigzagDecode(readVarLong(in))), -1);
+                case TYPE_TRUE -> cells.add(col, styleId, CellType.BOOLEAN, 1, -1);
+                case TYPE_FALSE -> cells.add(col, styleId, CellType.BOOLEAN, 0, -1);
+                case TYPE_DATE -> {
+                    long epochSecond = zigzagDecode(readVarLong(in));
+                    cells.add(col, styleId, CellType.DATE, epochSecond, readVarInt(in));
+                }
+                case TYPE_FORMULA -> readText(in, cells, col, styleId, CellType.FORMULA);
+                case TYPE_ERROR -> readText(in, cells, col, styleId, CellType.ERROR);
+                default -> throw new IOException("Unknown cell type in row store: " + type);
+            }
+        }
+    }
+
+    private void readText(ByteBuffer in, CellCursor cells, int col, int styleId, CellType type) throws IOException {
+        int header = readVarInt(in);
+        if ((header & 1) != 0) {
+            cells.add(col, styleId, type, 0, header >>> 1);
+        } else {
+            cells.addText(col, styleId, type, in, header >>> 1);
+        }
+    }
+
+    private ByteBuffer heapView(int slot) {
+        ByteBuffer view = heapView;
+        if (view == null || view.array() != heap) {
+            view = ByteBuffer.wrap(heap);
+            heapView = view;
+        }
+        int start = (int) indexOffsets[slot];
+        return view.limit(start + rowLength(slot)).position(start);
+    }
+
+    private ByteBuffer scratchRow(int slot) throws IOException {
+        int length = rowLength(slot);
+        ByteBuffer bytes = scratch;
+        if (bytes == null || bytes.capacity() < length) {
+            bytes = ByteBuffer.allocate(Math.max(length, 256));
+            scratch = bytes;
+        }
+        bytes.clear().limit(length);
+        long offset = indexOffsets[slot];
+        FileChannel channel = readChannel();
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, offset + bytes.position()) < 0) {
+                throw new EOFException("Unexpected EOF while reading row store");
+            }
+        }
+        return bytes.flip();
+    }
+
+    /**
+     * Returns the mapped bytes of a row, positioned at the row start.
+     */
+    private ByteBuffer mappedRow(int slot) throws IOException {
+        long start = indexOffsets[slot];
+        long end = start + rowLength(slot);
+
+        MappedByteBuffer buffer = mapped;
+        if (buffer == null || start < mappedStart || end > mappedEnd) {
+            // Map the whole store when it fits; otherwise a window starting at this row
+            long windowStart = size <= MAX_MAPPING_SIZE ? 0 : start;
+            long windowEnd = Math.min(size, windowStart + Math.max(MAX_MAPPING_SIZE, end - windowStart));
+            buffer = readChannel().map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            mapped = buffer;
+            mappedStart = windowStart;
+            mappedEnd = windowEnd;
+        }
+
+        int position = (int) (start - mappedStart);
+        return buffer.limit((int) (end - mappedStart)).position(position);
+    }
+
+    /**
+     * Reads the bytes of a row into the heap with a positional channel read.
+     */
+    private ByteBuffer channelRow(int slot) throws IOException {
+        long offset = indexOffsets[slot];
+        ByteBuffer bytes = ByteBuffer.allocate(rowLength(slot));
+        FileChannel channel = readChannel();
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, offset + bytes.position()) < 0) {
+                throw new EOFException("Unexpected EOF while reading row store");
+            }
+        }
+        return bytes.flip();
+    }
+
+    private int rowLength(int slot) {
+        long end = slot + 1 < indexSize ? indexOffsets[slot + 1] : size;
+        return (int) (end - indexOffsets[slot]);
+    }
 
-        Row row = new Row(rowNum);
-        if (customHeight) {
-            row.height(height);
+    private Row readRow(int slot, ByteBuffer in) throws IOException {
+        Row row = new Row(indexRows[slot]);
+        int flags = in.get();
+        if ((flags & ROW_CUSTOM_HEIGHT) != 0) {
+            row.height(in.getDouble());
         }
-        row.hidden(hidden);
+        row.hidden((flags & ROW_HIDDEN) != 0);
 
-        int cellCount = in.readInt();
+        int cellCount = readVarInt(in);
+        int col = -1;
         for (int i = 0; i < cellCount; i++) {
-            int col = in.readInt();
-            int styleId = in.readInt();
+            col += readVarInt(in) + 1;
+            int header = in.get();
 
             Cell cell = row.cell(col);
-            if (styleId > 0) {
-                cell.style(styleId);
+            if ((header & STYLED) != 0) {
+                cell.style(readVarInt(in));
             }
 
-            byte type = in.readByte();
+            int type = header & TYPE_MASK;
             switch (type) {
                 case TYPE_EMPTY -> cell.setEmpty();
                 case TYPE_STRING -> cell.set(readString(in));
-                case TYPE_NUMBER -> cell.set(in.readDouble());
-                case TYPE_BOOLEAN -> cell.set(in.readBoolean());
-                case TYPE_DATE -> cell.set(LocalDateTime.parse(readString(in)));
+                case TYPE_NUMBER -> cell.set(in.getDouble());
+                case TYPE_INTEGER -> cell.set((double) zigzagDecode(readVarLong(in)));
+                case TYPE_TRUE -> cell.set(true);
+                case TYPE_FALSE -> cell.set(false);
+                case TYPE_DATE -> {
+                    long epochSecond = zigzagDecode(readVarLong(in));
+                    int nano = readVarInt(in);
+                    cell.set(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+                }
                 case TYPE_FORMULA -> cell.setFormula(readString(in));
                 case TYPE_ERROR -> cell.setValue(new CellValue.Error(readString(in)));
                 default -> throw new IOException("Unknown cell type in row store: " + type);
@@ -138,66 +538,198 @@ final class SheetRowStore implements AutoCloseable {
         return row;
     }
 
-    private void writeCellValue(CellValue value) throws IOException {
+    /**
+     * Reads a string written by {@link #writeString}: either a dictionary reference
+     * or inline UTF-8 bytes.
+     */
+    private String readString(ByteBuffer in) throws IOException {
+        int header = readVarInt(in);
+        if ((header & 1) != 0) {
+            int ref = header >>> 1;
+            if (ref >= dictionary.size()) {
+                throw new IOException("Invalid string reference in row store: " + ref);
+            }
+            return dictionary.get(ref);
+        }
+
+        int len = header >>> 1;
+        if (in.hasArray()) {
+            int start = in.arrayOffset() + in.position();
+            in.position(in.position() + len);
+            return new String(in.array(), start, len, StandardCharsets.UTF_8);
+        }
+        if (stringBuffer.length < len) {
+            stringBuffer = new byte[Math.max(len, stringBuffer.length * 2)];
+        }
+        in.get(stringBuffer, 0, len);
+        return new String(stringBuffer, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(ByteBuffer in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Varint out of range in row store");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in row store");
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void addIndexEntry(int rowNum, long offset) {
+        if (indexSize == indexRows.length) {
+            int newCapacity = indexSize * 2;
+            indexRows = Arrays.copyOf(indexRows, newCapacity);
+            indexOffsets = Arrays.copyOf(indexOffsets, newCapacity);
+        }
+        indexRows[indexSize] = rowNum;
+        indexOffsets[indexSize] = offset;
+        indexSize++;
+    }
+
+    private FileChannel readChannel() throws IOException {
+        FileChannel channel = readChannel;
+        if (channel == null) {
+            channel = FileChannel.open(Objects.requireNonNull(path), StandardOpenOption.READ);
+            readChannel = channel;
+        }
+        return channel;
+    }
+
+    private void writeCell(Cell cell) throws IOException {
+        int styled = cell.styleId() > 0 ? STYLED : 0;
+        CellValue value = cell.value();
         switch (value) {
-            case CellValue.Empty _ -> out.writeByte(TYPE_EMPTY);
+            case CellValue.Empty _ -> writeHeader(TYPE_EMPTY | styled, cell);
             case CellValue.Text t -> {
-                out.writeByte(TYPE_STRING);
-                writeString(out, t.value());
+                writeHeader(TYPE_STRING | styled, cell);
+                writeString(t.value());
             }
             case CellValue.Number n -> {
-                out.writeByte(TYPE_NUMBER);
-                out.writeDouble(n.value());
-            }
-            case CellValue.Bool b -> {
-                out.writeByte(TYPE_BOOLEAN);
-                out.writeBoolean(b.value());
+                double d = n.value();
+                long l = (long) d;
+                // Integral values (excluding -0.0) round-trip exactly through a long
+                if (l == d && Double.doubleToRawLongBits(d) != Double.doubleToRawLongBits(-0.0)) {
+                    writeHeader(TYPE_INTEGER | styled, cell);
+                    writeVarLong((l << 1) ^ (l >> 63));
+                } else {
+                    writeHeader(TYPE_NUMBER | styled, cell);
+                    rowOut.writeDouble(d);
+                }
             }
+            case CellValue.Bool b -> writeHeader((b.value() ? TYPE_TRUE : TYPE_FALSE) | styled, cell);
             case CellValue.Date d -> {
-                out.writeByte(TYPE_DATE);
-                writeString(out, d.value().toString());
+                writeHeader(TYPE_DATE | styled, cell);
+                long epochSecond = d.value().toEpochSecond(ZoneOffset.UTC);
+                writeVarLong((epochSecond << 1) ^ (epochSecond >> 63));
+                writeVarInt(d.value().getNano());
             }
             case CellValue.Formula f -> {
-                out.writeByte(TYPE_FORMULA);
-                writeString(out, f.expression());
+                writeHeader(TYPE_FORMULA | styled, cell);
+                writeString(f.expression());
             }
             case CellValue.Error e -> {
-                out.writeByte(TYPE_ERROR);
-                writeString(out, e.code());
+                writeHeader(TYPE_ERROR | styled, cell);
+                writeString(e.code());
             }
         }
     }
 
-    private void flushForRead() {
-        if (closed) {
-            throw new IllegalStateException("Sheet row store is closed");
+    private void writeHeader(int header, Cell cell) throws IOException {
+        rowOut.writeByte(header);
+        if ((header & STYLED) != 0) {
+            writeVarInt(cell.styleId());
         }
-        if (sealed) {
+    }
+
+    /**
+     * Writes a string as a dictionary reference when it is in the dictionary, or
+     * is added to it because it repeats, otherwise as inline UTF-8 bytes.
+     */
+    private void writeString(String value) throws IOException {
+        Integer ref = dictionaryIndex.get(value);
+        if (ref == null && value.length() <= MAX_DICTIONARY_STRING_LENGTH) {
+            ref = addToDictionary(value);
+        }
+
+        if (ref != null) {
+            writeVarInt((ref << 1) | 1);
             return;
         }
-        try {
-            out.flush();
-        } catch (IOException e) {
-            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to flush sheet row store", e);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length << 1);
+        rowOut.write(bytes);
+    }
+
+    /**
+     * Adds a string seen before to the dictionary and returns its reference, or
+     * records it as a candidate and returns null.
+     */
+    private @Nullable Integer addToDictionary(String value) {
+        long cost = dictionaryCost(value);
+        boolean fits = dictionary.size() < MAX_DICTIONARY_ENTRIES
+            && dictionaryChars + value.length() <= MAX_DICTIONARY_CHARS;
+        if (dictionaryCandidates.remove(value) != null) {
+            if (!fits) {
+                dictionaryBytes -= cost;
+                return null;
+            }
+            // The candidate's cost was already counted
+            int ref = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndex.put(value, ref);
+            dictionaryChars += value.length();
+            return ref;
+        }
+        if (fits && dictionaryBytes + cost <= memoryBudget) {
+            dictionaryBytes += cost;
+            dictionaryCandidates.put(value, Boolean.TRUE);
         }
+        return null;
     }
 
-    private static void writeString(DataOutputStream out, String value) throws IOException {
-        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
-        out.writeInt(bytes.length);
-        out.write(bytes);
+    private static long dictionaryCost(String value) {
+        return DICTIONARY_ENTRY_OVERHEAD + 2L * value.length();
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            rowOut.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        rowOut.writeByte((int) value);
     }
 
-    private static String readString(DataInputStream in) throws IOException {
-        int len = in.readInt();
-        if (len < 0) {
-            throw new IOException("Negative string length in row store");
+    private void flushForRead() {
+        if (closed) {
+            throw new IllegalStateException("Sheet row store is closed");
+        }
+        DataOutputStream fileOut = out;
+        if (sealed || fileOut == null) {
+            return;
         }
-        byte[] bytes = in.readNBytes(len);
-        if (bytes.length != len) {
-            throw new EOFException("Unexpected EOF while reading row store string");
+        try {
+            fileOut.flush();
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to flush sheet row store", e);
         }
-        return new String(bytes, StandardCharsets.UTF_8);
     }
 
     private void ensureWritable() {
@@ -215,19 +747,49 @@ final class SheetRowStore implements AutoCloseable {
             return;
         }
 
+        Path file = path;
+        boolean wasMapped = mapped != null;
+        mapped = null;
+        heap = EMPTY;
+        heapView = null;
+        scratch = null;
+        dictionary.clear();
+        dictionaryIndex.clear();
+        dictionaryCandidates.clear();
         try {
-            if (!sealed) {
+            if (!sealed && out != null) {
                 out.close();
             }
+            if (readChannel != null) {
+                readChannel.close();
+                readChannel = null;
+            }
         } catch (IOException e) {
             throw new LitexlException(ErrorCode.IO_ERROR, "Failed to close sheet row store", e);
         } finally {
             closed = true;
             try {
-                Files.deleteIfExists(path);
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
             } catch (IOException e) {
-                throw new LitexlException(ErrorCode.IO_ERROR, "Failed to delete sheet row store", e);
+                if (!wasMapped) {
+                    throw new LitexlException(ErrorCode.IO_ERROR, "Failed to delete sheet row store", e);
+                }
+                // Some platforms refuse to delete a file while a mapping is still reachable;
+                // the mapping is released on GC, so defer the delete to JVM exit.
+                file.toFile().deleteOnExit();
             }
         }
     }
+
+    private static final class EncodeBuffer extends ByteArrayOutputStream {
+        EncodeBuffer() {
+            super(256);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
 }
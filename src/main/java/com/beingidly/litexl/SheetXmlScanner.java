@@ -0,0 +1,742 @@
+package com.beingidly.litexl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level tokenizer for UTF-8 worksheet XML.
+ *
+ * <p>Only the elements that carry sheet data are recognized ({@code row},
+ * {@code c}, {@code v}, {@code f}, {@code is}, {@code t} and {@code mergeCell});
+ * all other markup is skipped. Element names are compared as bytes, ignoring
+ * any namespace prefix, and cell references, style IDs, shared string indexes
+ * and plain decimal numbers are parsed in place without creating Strings.
+ * Anything outside these fast paths is decoded to a String and handled exactly
+ * like the StAX reader would.</p>
+ *
+ * <p>Row and cell state lives in the owning {@link SheetRowParser}; this class
+ * only turns bytes into calls on it.</p>
+ */
+final class SheetXmlScanner {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] ROW = bytes("row");
+    private static final byte[] CELL = bytes("c");
+    private static final byte[] VALUE = bytes("v");
+    private static final byte[] FORMULA = bytes("f");
+    private static final byte[] INLINE_STRING = bytes("is");
+    private static final byte[] TEXT = bytes("t");
+    private static final byte[] MERGE_CELL = bytes("mergeCell");
+
+    private static final byte[] ATTR_REF = bytes("r");
+    private static final byte[] ATTR_STYLE = bytes("s");
+    private static final byte[] ATTR_TYPE = bytes("t");
+    private static final byte[] ATTR_HEIGHT = bytes("ht");
+    private static final byte[] ATTR_CUSTOM_HEIGHT = bytes("customHeight");
+    private static final byte[] ATTR_HIDDEN = bytes("hidden");
+    private static final byte[] ATTR_MERGE_REF = bytes("ref");
+    private static final byte[] ONE = bytes("1");
+
+    private static final byte[] COMMENT_START = bytes("<!--");
+    private static final byte[] COMMENT_END = bytes("-->");
+    private static final byte[] CDATA_START = bytes("<![CDATA[");
+    private static final byte[] CDATA_END = bytes("]]>");
+    private static final byte[] PI_END = bytes("?>");
+    private static final byte[] DOCTYPE = bytes("<!DOCTYPE");
+
+    private final SheetRowParser state;
+    private final InputStream input;
+
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    // Current attribute, as absolute buffer offsets within the current tag
+    private int attrPos;
+    private int attrLimit;
+    private int nameStart;
+    private int nameEnd;
+    private int valueStart;
+    private int valueEnd;
+
+    // Decoded text of the value being read
+    private byte[] text = new byte[256];
+    private int textLength;
+    private boolean pendingCarriageReturn;
+
+    SheetXmlScanner(SheetRowParser state, InputStream input, byte[] prefix, int offset) {
+        this.state = state;
+        this.input = input;
+        this.buf = Arrays.copyOf(prefix, Math.max(BUFFER_SIZE, prefix.length));
+        this.pos = offset;
+        this.limit = prefix.length;
+    }
+
+    /**
+     * Scans up to the end of the next row and passes its tokens to the sink.
+     *
+     * @return false at the end of the sheet, when no row was produced
+     */
+    boolean advance(SheetRowParser.RowSink sink) throws IOException {
+        while (!state.isDone()) {
+            int lt = find((byte) '<', 0);
+            if (lt < 0) {
+                pos = limit;
+                // A row left open by malformed input
+                return state.finishRow(sink);
+            }
+            pos += lt;
+            if (!ensureAt(2)) {
+                throw new CorruptFileException("Unexpected end of sheet XML");
+            }
+
+            byte next = buf[pos + 1];
+            if (next == '?') {
+                skipPast(PI_END);
+            } else if (next == '!') {
+                skipMarkup();
+            } else if (next == '/') {
+                if (endElement(sink)) {
+                    return true;
+                }
+            } else if (startElement(sink)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // === Elements ===
+
+    /**
+     * Handles the start tag at the current position.
+     *
+     * @return true if a self-closing row completed
+     */
+    private boolean startElement(SheetRowParser.RowSink sink) throws IOException {
+        int end = tagEnd() + pos;
+        boolean empty = buf[end - 1] == '/';
+        int start = pos + 1;
+        int nameLimit = start;
+        while (nameLimit < end && !isNameEnd(buf[nameLimit])) {
+            nameLimit++;
+        }
+        int local = localName(start, nameLimit);
+        attrPos = nameLimit;
+        attrLimit = empty ? end - 1 : end;
+
+        if (regionEquals(local, nameLimit, CELL)) {
+            startCell();
+            pos = end + 1;
+            if (empty) {
+                state.endCell();
+            }
+        } else if (state.skippingCell() && (regionEquals(local, nameLimit, VALUE)
+            || regionEquals(local, nameLimit, FORMULA) || regionEquals(local, nameLimit, TEXT))) {
+            // Value of a cell excluded by the column filter or row bounds
+            pos = end + 1;
+            if (!empty) {
+                skipText();
+            }
+        } else if (regionEquals(local, nameLimit, VALUE)) {
+            pos = end + 1;
+            readValue(sink, empty);
+        } else if (regionEquals(local, nameLimit, ROW)) {
+            startRow();
+            pos = end + 1;
+            return empty && state.finishRow(sink);
+        } else if (regionEquals(local, nameLimit, FORMULA)) {
+            pos = end + 1;
+            String formula = empty ? "" : readText();
+            sink.cell(state.beginValue(sink), state.cellStyle(), SheetRowParser.KIND_FORMULA, formula);
+        } else if (regionEquals(local, nameLimit, INLINE_STRING)) {
+            pos = end + 1;
+            state.inlineString(!empty);
+        } else if (regionEquals(local, nameLimit, TEXT) && state.inInlineString()) {
+            pos = end + 1;
+            String value = empty ? "" : readText();
+            sink.cell(state.beginValue(sink), state.cellStyle(), SheetRowParser.KIND_INLINE_STRING, value);
+        } else if (regionEquals(local, nameLimit, MERGE_CELL)) {
+            String ref = null;
+            while (nextAttribute()) {
+                if (attributeIs(ATTR_MERGE_REF)) {
+                    ref = attributeString();
+                }
+            }
+            pos = end + 1;
+            if (ref != null) {
+                state.addMergedCell(CellRange.parse(ref));
+            }
+        } else {
+            pos = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Handles the end tag at the current position.
+     *
+     * @return true if a row completed
+     */
+    private boolean endElement(SheetRowParser.RowSink sink) throws IOException {
+        int end = tagEnd() + pos;
+        int start = pos + 2;
+        int nameLimit = start;
+        while (nameLimit < end && !isNameEnd(buf[nameLimit])) {
+            nameLimit++;
+        }
+        int local = localName(start, nameLimit);
+        pos = end + 1;
+
+        if (regionEquals(local, nameLimit, CELL)) {
+            state.endCell();
+        } else if (regionEquals(local, nameLimit, ROW)) {
+            return state.finishRow(sink);
+        } else if (regionEquals(local, nameLimit, INLINE_STRING)) {
+            state.inlineString(false);
+        }
+        return false;
+    }
+
+    private void startRow() {
+        int rowIndex = Integer.MIN_VALUE;
+        int heightStart = -1;
+        int heightEnd = -1;
+        boolean customHeight = false;
+        boolean hidden = false;
+        while (nextAttribute()) {
+            if (attributeIs(ATTR_REF)) {
+                int value = parseIndex(valueStart, valueEnd);
+                rowIndex = (value >= 0 ? value : Integer.parseInt(attributeString())) - 1;
+            } else if (attributeIs(ATTR_HEIGHT)) {
+                heightStart = valueStart;
+                heightEnd = valueEnd;
+            } else if (attributeIs(ATTR_CUSTOM_HEIGHT)) {
+                customHeight = attributeEquals(ONE);
+            } else if (attributeIs(ATTR_HIDDEN)) {
+                hidden = attributeEquals(ONE);
+            }
+        }
+
+        double height = -1;
+        if (heightStart >= 0 && customHeight) {
+            height = parseNumber(heightStart, heightEnd);
+            if (Double.isNaN(height)) {
+                height = Double.parseDouble(decode(heightStart, heightEnd, true));
+            }
+        }
+        state.beginRow(rowIndex, height, hidden);
+    }
+
+    private void startCell() {
+        int row = -1;
+        int column = -1;
+        int kind = SheetRowParser.KIND_NUMBER;
+        int styleId = 0;
+        while (nextAttribute()) {
+            if (attributeIs(ATTR_REF)) {
+                long ref;
+                if (indexOf((byte) '&', valueStart, valueEnd) < 0) {
+                    ref = CellRefUtil.parseRef(buf, valueStart, valueEnd);
+                } else {
+                    String decoded = attributeString();
+                    ref = CellRefUtil.parseRef(decoded, 0, decoded.length());
+                }
+                row = CellRefUtil.packedRow(ref);
+                column = CellRefUtil.packedColumn(ref);
+            } else if (attributeIs(ATTR_STYLE)) {
+                int value = parseIndex(valueStart, valueEnd);
+                styleId = value >= 0 ? value : Integer.parseInt(attributeString());
+            } else if (attributeIs(ATTR_TYPE)) {
+                kind = cellKind();
+            }
+        }
+        state.beginCell(row, column, kind, styleId);
+    }
+
+    private int cellKind() {
+        if (valueEnd - valueStart == 1) {
+            return switch (buf[valueStart]) {
+                case 's' -> SheetRowParser.KIND_SHARED_STRING;
+                case 'b' -> SheetRowParser.KIND_BOOLEAN;
+                case 'e' -> SheetRowParser.KIND_ERROR;
+                default -> SheetRowParser.KIND_NUMBER;
+            };
+        }
+        if (indexOf((byte) '&', valueStart, valueEnd) >= 0) {
+            return SheetRowParser.kindOf(attributeString());
+        }
+        return SheetRowParser.KIND_NUMBER;
+    }
+
+    /**
+     * Reads the content of a {@code v} element, parsing numbers and shared
+     * string indexes in place when the content is plain.
+     */
+    private void readValue(SheetRowParser.RowSink sink, boolean empty) throws IOException {
+        int kind = state.cellKind();
+        if (!empty && (kind == SheetRowParser.KIND_NUMBER || kind == SheetRowParser.KIND_SHARED_STRING)) {
+            int lt = find((byte) '<', 0);
+            if (lt >= 0 && ensureAt(lt + 2) && buf[pos + lt + 1] == '/') {
+                int start = pos;
+                int end = pos + lt;
+                if (kind == SheetRowParser.KIND_NUMBER) {
+                    double value = parseNumber(start, end);
+                    if (!Double.isNaN(value)) {
+                        pos = end;
+                        skipEndTag();
+                        sink.number(state.beginValue(sink), state.cellStyle(), value);
+                        return;
+                    }
+                } else {
+                    int index = parseIndex(start, end);
+                    if (index >= 0) {
+                        pos = end;
+                        skipEndTag();
+                        sink.sharedString(state.beginValue(sink), state.cellStyle(), index);
+                        return;
+                    }
+                }
+            }
+        }
+        String value = empty ? "" : readText();
+        sink.cell(state.beginValue(sink), state.cellStyle(), kind, value);
+    }
+
+    // === Text ===
+
+    /**
+     * Reads character data up to and including the end tag of the current element.
+     */
+    private String readText() throws IOException {
+        return scanText(true);
+    }
+
+    /**
+     * Skips character data up to and including the end tag of the current element.
+     */
+    private void skipText() throws IOException {
+        scanText(false);
+    }
+
+    private String scanText(boolean decode) throws IOException {
+        textLength = 0;
+        pendingCarriageReturn = false;
+        while (true) {
+            int lt = find((byte) '<', 0);
+            if (lt < 0) {
+                throw new CorruptFileException("Unexpected end of sheet XML");
+            }
+            if (decode) {
+                appendDecoded(pos, pos + lt, false);
+            }
+            pos += lt;
+            if (!ensureAt(2)) {
+                throw new CorruptFileException("Unexpected end of sheet XML");
+            }
+            if (buf[pos + 1] == '/') {
+                skipEndTag();
+                return decode ? new String(text, 0, textLength, StandardCharsets.UTF_8) : "";
+            }
+            if (startsWith(CDATA_START)) {
+                pos += CDATA_START.length;
+                int end = findSequence(CDATA_END);
+                if (end < 0) {
+                    throw new CorruptFileException("Unterminated CDATA section in sheet XML");
+                }
+                if (decode) {
+                    appendRaw(pos, pos + end);
+                }
+                pos += end + CDATA_END.length;
+            } else if (startsWith(COMMENT_START)) {
+                skipPast(COMMENT_END);
+            } else if (buf[pos + 1] == '?') {
+                skipPast(PI_END);
+            } else {
+                throw new CorruptFileException("Unexpected element in cell value");
+            }
+        }
+    }
+
+    /**
+     * Returns the current attribute value with entities resolved.
+     */
+    private String attributeString() {
+        return decode(valueStart, valueEnd, true);
+    }
+
+    private String decode(int from, int to, boolean attribute) {
+        textLength = 0;
+        pendingCarriageReturn = false;
+        appendDecoded(from, to, attribute);
+        return new String(text, 0, textLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends character data, resolving entity references and normalizing line
+     * breaks (and, in attribute values, whitespace) as an XML parser would.
+     */
+    private void appendDecoded(int from, int to, boolean attribute) {
+        int i = from;
+        while (i < to) {
+            byte b = buf[i];
+            if (b == '&') {
+                int semicolon = indexOf((byte) ';', i + 1, to);
+                if (semicolon < 0) {
+                    throw new CorruptFileException("Unterminated entity reference in sheet XML");
+                }
+                appendCodePoint(entity(i + 1, semicolon));
+                pendingCarriageReturn = false;
+                i = semicolon + 1;
+                continue;
+            }
+            if (b == '\r') {
+                append(attribute ? (byte) ' ' : (byte) '\n');
+                pendingCarriageReturn = true;
+            } else if (b == '\n' && pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+            } else {
+                append(attribute && (b == '\n' || b == '\t') ? (byte) ' ' : b);
+                pendingCarriageReturn = false;
+            }
+            i++;
+        }
+    }
+
+    private void appendRaw(int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buf[i];
+            if (b == '\r') {
+                append((byte) '\n');
+                pendingCarriageReturn = true;
+            } else if (b == '\n' && pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+            } else {
+                append(b);
+                pendingCarriageReturn = false;
+            }
+        }
+    }
+
+    private int entity(int from, int to) {
+        int length = to - from;
+        if (length > 1 && buf[from] == '#') {
+            boolean hex = buf[from + 1] == 'x';
+            int i = from + (hex ? 2 : 1);
+            if (i == to) {
+                throw new CorruptFileException("Invalid character reference in sheet XML");
+            }
+            int codePoint = 0;
+            for (; i < to; i++) {
+                int digit = Character.digit(buf[i], hex ? 16 : 10);
+                if (digit < 0 || codePoint > Character.MAX_CODE_POINT) {
+                    throw new CorruptFileException("Invalid character reference in sheet XML");
+                }
+                codePoint = codePoint * (hex ? 16 : 10) + digit;
+            }
+            if (!Character.isValidCodePoint(codePoint)) {
+                throw new CorruptFileException("Invalid character reference in sheet XML");
+            }
+            return codePoint;
+        }
+        if (regionEquals(from, to, "amp")) {
+            return '&';
+        }
+        if (regionEquals(from, to, "lt")) {
+            return '<';
+        }
+        if (regionEquals(from, to, "gt")) {
+            return '>';
+        }
+        if (regionEquals(from, to, "quot")) {
+            return '"';
+        }
+        if (regionEquals(from, to, "apos")) {
+            return '\'';
+        }
+        throw new CorruptFileException("Undeclared entity in sheet XML: &"
+            + new String(buf, from, length, StandardCharsets.UTF_8) + ";");
+    }
+
+    private void appendCodePoint(int cp) {
+        if (cp < 0x80) {
+            append((byte) cp);
+        } else if (cp < 0x800) {
+            append((byte) (0xC0 | (cp >> 6)));
+            append((byte) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            append((byte) (0xE0 | (cp >> 12)));
+            append((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            append((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            append((byte) (0xF0 | (cp >> 18)));
+            append((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            append((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            append((byte) (0x80 | (cp & 0x3F)));
+        }
+    }
+
+    private void append(byte b) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, text.length * 2);
+        }
+        text[textLength++] = b;
+    }
+
+    // === Attributes ===
+
+    /**
+     * Moves to the next attribute of the current tag.
+     */
+    private boolean nextAttribute() {
+        int i = attrPos;
+        while (i < attrLimit && isWhitespace(buf[i])) {
+            i++;
+        }
+        if (i >= attrLimit) {
+            return false;
+        }
+        nameStart = i;
+        while (i < attrLimit && buf[i] != '=' && !isWhitespace(buf[i])) {
+            i++;
+        }
+        nameEnd = i;
+        while (i < attrLimit && isWhitespace(buf[i])) {
+            i++;
+        }
+        if (i >= attrLimit || buf[i] != '=') {
+            throw new CorruptFileException("Malformed attribute in sheet XML");
+        }
+        i++;
+        while (i < attrLimit && isWhitespace(buf[i])) {
+            i++;
+        }
+        if (i >= attrLimit || (buf[i] != '"' && buf[i] != '\'')) {
+            throw new CorruptFileException("Malformed attribute in sheet XML");
+        }
+        int close = indexOf(buf[i], i + 1, attrLimit);
+        if (close < 0) {
+            throw new CorruptFileException("Malformed attribute in sheet XML");
+        }
+        valueStart = i + 1;
+        valueEnd = close;
+        attrPos = close + 1;
+        return true;
+    }
+
+    private boolean attributeIs(byte[] name) {
+        return regionEquals(nameStart, nameEnd, name);
+    }
+
+    private boolean attributeEquals(byte[] value) {
+        if (indexOf((byte) '&', valueStart, valueEnd) >= 0) {
+            return attributeString().equals(new String(value, StandardCharsets.UTF_8));
+        }
+        return regionEquals(valueStart, valueEnd, value);
+    }
+
+    // === In-place value parsing ===
+
+    /**
+     * Parses a non-negative decimal int of at most 9 digits, or returns -1.
+     */
+    private int parseIndex(int from, int to) {
+        int length = to - from;
+        if (length < 1 || length > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a plain decimal number in place, or returns NaN if it needs the String fallback.
+     */
+    private double parseNumber(int from, int to) {
+        return DoubleParser.parse(buf, from, to);
+    }
+
+    // === Buffer ===
+
+    /**
+     * Returns the offset from the current position of the next occurrence of b
+     * at or after the given offset, reading more input as needed, or -1 at end of input.
+     */
+    private int find(byte b, int offset) throws IOException {
+        int from = offset;
+        while (true) {
+            for (int i = pos + from; i < limit; i++) {
+                if (buf[i] == b) {
+                    return i - pos;
+                }
+            }
+            from = limit - pos;
+            if (!fill()) {
+                return -1;
+            }
+        }
+    }
+
+    private int findSequence(byte[] sequence) throws IOException {
+        int offset = 0;
+        while (true) {
+            int found = find(sequence[0], offset);
+            if (found < 0 || !ensureAt(found + sequence.length)) {
+                return -1;
+            }
+            if (regionEquals(pos + found, pos + found + sequence.length, sequence)) {
+                return found;
+            }
+            offset = found + 1;
+        }
+    }
+
+    /**
+     * Returns the offset of the '>' closing the tag at the current position.
+     */
+    private int tagEnd() throws IOException {
+        int i = 1;
+        byte quote = 0;
+        while (true) {
+            if (!ensureAt(i + 1)) {
+                throw new CorruptFileException("Unexpected end of sheet XML");
+            }
+            byte b = buf[pos + i];
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i;
+            }
+            i++;
+        }
+    }
+
+    private void skipEndTag() throws IOException {
+        int gt = find((byte) '>', 0);
+        if (gt < 0) {
+            throw new CorruptFileException("Unexpected end of sheet XML");
+        }
+        pos += gt + 1;
+    }
+
+    private void skipMarkup() throws IOException {
+        if (startsWith(COMMENT_START)) {
+            skipPast(COMMENT_END);
+        } else if (startsWith(CDATA_START)) {
+            skipPast(CDATA_END);
+        } else if (startsWith(DOCTYPE)) {
+            throw new CorruptFileException("DOCTYPE is not allowed in sheet XML");
+        } else {
+            int end = tagEnd();
+            pos += end + 1;
+        }
+    }
+
+    private void skipPast(byte[] sequence) throws IOException {
+        int found = findSequence(sequence);
+        if (found < 0) {
+            throw new CorruptFileException("Unexpected end of sheet XML");
+        }
+        pos += found + sequence.length;
+    }
+
+    private boolean startsWith(byte[] sequence) throws IOException {
+        return ensureAt(sequence.length) && regionEquals(pos, pos + sequence.length, sequence);
+    }
+
+    /**
+     * Ensures that at least the given number of bytes from the current position are buffered.
+     */
+    private boolean ensureAt(int length) throws IOException {
+        while (limit - pos < length) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads more input, moving the unread bytes to the start of the buffer.
+     * Offsets relative to the current position stay valid.
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        int n = input.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    // === Helpers ===
+
+    private int localName(int start, int end) {
+        int colon = indexOf((byte) ':', start, end);
+        return colon >= 0 ? colon + 1 : start;
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionEquals(int from, int to, byte[] expected) {
+        return Arrays.equals(buf, from, to, expected, 0, expected.length);
+    }
+
+    private boolean regionEquals(int from, int to, String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (buf[from + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameEnd(byte b) {
+        return b == '/' || b == '>' || isWhitespace(b);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
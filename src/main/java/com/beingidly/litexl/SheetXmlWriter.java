@@ -0,0 +1,315 @@
+package com.beingidly.litexl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * Worksheet XML serializer that encodes straight into a reusable byte buffer.
+ *
+ * <p>Cells are written by specialized methods that append pre-encoded UTF-8
+ * tag fragments, column letters and ASCII digits without building Strings;
+ * only text payloads are escaped. The generic element methods mirror
+ * {@link XmlWriter} for the less frequent parts of a sheet (columns, merges,
+ * validations). Large workbook-level parts keep using {@link XmlWriter}.</p>
+ */
+final class SheetXmlWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Room for the longest unchecked append: a code point, an int or a formatted double
+    private static final int SLACK = 64;
+
+    private static final byte[] DECLARATION = ascii("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+    private static final byte[] ROW_START = ascii("<row r=\"");
+    private static final byte[] ROW_END = ascii("</row>");
+    private static final byte[] CELL_START = ascii("<c r=\"");
+    private static final byte[] STYLE = ascii("\" s=\"");
+    private static final byte[] TYPE_INLINE = ascii("\" t=\"inlineStr\"><is><t>");
+    private static final byte[] TYPE_INLINE_PRESERVE = ascii("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+    private static final byte[] INLINE_END = ascii("</t></is></c>");
+    private static final byte[] TYPE_SHARED = ascii("\" t=\"s\"><v>");
+    private static final byte[] TYPE_BOOL = ascii("\" t=\"b\"><v>");
+    private static final byte[] TYPE_ERROR = ascii("\" t=\"e\"><v>");
+    private static final byte[] VALUE = ascii("\"><v>");
+    private static final byte[] VALUE_END = ascii("</v></c>");
+    private static final byte[] FORMULA = ascii("\"><f>");
+    private static final byte[] FORMULA_END = ascii("</f></c>");
+
+    private final OutputStream output;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+
+    private final ArrayDeque<String> elements = new ArrayDeque<>();
+    // A start tag whose attributes may still follow; closed with '>' or "/>"
+    private boolean tagOpen;
+    private boolean tagEmpty;
+
+    SheetXmlWriter(OutputStream output) {
+        this.output = output;
+    }
+
+    void startDocument() throws IOException {
+        write(DECLARATION);
+    }
+
+    void endDocument() throws IOException {
+        while (!elements.isEmpty()) {
+            endElement();
+        }
+        closeTag();
+        flush();
+    }
+
+    void startElement(String name) throws IOException {
+        closeTag();
+        ensure(name.length() + 1);
+        buffer[pos++] = '<';
+        writeAscii(name);
+        elements.push(name);
+        tagOpen = true;
+    }
+
+    void emptyElement(String name) throws IOException {
+        closeTag();
+        ensure(name.length() + 1);
+        buffer[pos++] = '<';
+        writeAscii(name);
+        tagOpen = true;
+        tagEmpty = true;
+    }
+
+    void attribute(String name, String value) throws IOException {
+        if (!tagOpen) {
+            throw new IllegalStateException("No start tag for attribute " + name);
+        }
+        ensure(name.length() + 2);
+        buffer[pos++] = ' ';
+        writeAscii(name);
+        buffer[pos++] = '=';
+        buffer[pos++] = '"';
+        writeEscaped(value, true);
+        buffer[pos++] = '"';
+    }
+
+    void text(String text) throws IOException {
+        closeTag();
+        writeEscaped(text, false);
+    }
+
+    void endElement() throws IOException {
+        String name = elements.pop();
+        if (tagOpen && !tagEmpty) {
+            ensure(2);
+            buffer[pos++] = '/';
+            buffer[pos++] = '>';
+            tagOpen = false;
+            return;
+        }
+        closeTag();
+        ensure(name.length() + 3);
+        buffer[pos++] = '<';
+        buffer[pos++] = '/';
+        writeAscii(name);
+        buffer[pos++] = '>';
+    }
+
+    /**
+     * Opens a row element, leaving its start tag open for further attributes.
+     */
+    void startRow(int row) throws IOException {
+        closeTag();
+        write(ROW_START);
+        writeInt(row + 1);
+        buffer[pos++] = '"';
+        tagOpen = true;
+    }
+
+    void endRow() throws IOException {
+        if (tagOpen) {
+            buffer[pos++] = '/';
+            buffer[pos++] = '>';
+            tagOpen = false;
+            return;
+        }
+        write(ROW_END);
+    }
+
+    void inlineStringCell(int row, int column, int styleId, String text) throws IOException {
+        cellStart(row, column, styleId);
+        boolean preserve = !text.isEmpty() && (Character.isWhitespace(text.charAt(0))
+            || Character.isWhitespace(text.charAt(text.length() - 1)));
+        write(preserve ? TYPE_INLINE_PRESERVE : TYPE_INLINE);
+        writeEscaped(text, false);
+        write(INLINE_END);
+    }
+
+    void sharedStringCell(int row, int column, int styleId, int index) throws IOException {
+        cellStart(row, column, styleId);
+        write(TYPE_SHARED);
+        writeInt(index);
+        write(VALUE_END);
+    }
+
+    void numberCell(int row, int column, int styleId, double value) throws IOException {
+        cellStart(row, column, styleId);
+        write(VALUE);
+        pos = DoubleFormatter.format(value, buffer, pos);
+        write(VALUE_END);
+    }
+
+    void booleanCell(int row, int column, int styleId, boolean value) throws IOException {
+        cellStart(row, column, styleId);
+        write(TYPE_BOOL);
+        buffer[pos++] = (byte) (value ? '1' : '0');
+        write(VALUE_END);
+    }
+
+    void errorCell(int row, int column, int styleId, String code) throws IOException {
+        cellStart(row, column, styleId);
+        write(TYPE_ERROR);
+        writeEscaped(code, false);
+        write(VALUE_END);
+    }
+
+    void formulaCell(int row, int column, int styleId, String expression) throws IOException {
+        cellStart(row, column, styleId);
+        write(FORMULA);
+        writeEscaped(expression, false);
+        write(FORMULA_END);
+    }
+
+    private void cellStart(int row, int column, int styleId) throws IOException {
+        closeTag();
+        write(CELL_START);
+        writeAscii(CellRefUtil.colToLetters(column));
+        writeInt(row + 1);
+        if (styleId > 0) {
+            write(STYLE);
+            writeInt(styleId);
+        }
+    }
+
+    private void closeTag() throws IOException {
+        if (tagOpen) {
+            ensure(2);
+            if (tagEmpty) {
+                buffer[pos++] = '/';
+            }
+            buffer[pos++] = '>';
+            tagOpen = false;
+            tagEmpty = false;
+        }
+    }
+
+    /**
+     * Appends a fragment, leaving {@link #SLACK} bytes free for what follows.
+     */
+    private void write(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    /**
+     * Appends a known-ASCII string: element and attribute names, letters and digits.
+     */
+    private void writeAscii(String s) throws IOException {
+        int length = s.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[pos++] = (byte) s.charAt(i);
+        }
+    }
+
+    private void writeInt(int value) {
+        if (value < 0) {
+            buffer[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        pos = end;
+    }
+
+    /**
+     * Appends text as UTF-8, escaping markup characters and, in attributes, quotes.
+     */
+    private void writeEscaped(String s, boolean attribute) throws IOException {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            if (pos > buffer.length - SLACK) {
+                flush();
+            }
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '&' -> writeRaw("&amp;");
+                    case '<' -> writeRaw("&lt;");
+                    case '>' -> writeRaw("&gt;");
+                    case '"' -> {
+                        if (attribute) {
+                            writeRaw("&quot;");
+                        } else {
+                            buffer[pos++] = '"';
+                        }
+                    }
+                    default -> buffer[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (cp >> 18));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced as String.getBytes does
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        ensure(0);
+    }
+
+    private void writeRaw(String entity) {
+        for (int i = 0; i < entity.length(); i++) {
+            buffer[pos++] = (byte) entity.charAt(i);
+        }
+    }
+
+    private void ensure(int length) throws IOException {
+        if (pos + length > buffer.length - SLACK) {
+            flush();
+            if (length > buffer.length - SLACK) {
+                throw new IllegalArgumentException("Fragment too long: " + length);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        output.write(buffer, 0, pos);
+        pos = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
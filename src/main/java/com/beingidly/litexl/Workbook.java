@@ -1,10 +1,12 @@
 package com.beingidly.litexl;
 
 import com.beingidly.litexl.crypto.EncryptionOptions;
+import com.beingidly.litexl.crypto.EncryptionSession;
 import com.beingidly.litexl.style.Style;
 
 import org.jspecify.annotations.Nullable;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
@@ -37,9 +39,15 @@ public final class Workbook implements AutoCloseable {
     private final List<Style> styles;
     private final List<String> sharedStrings;
     private final Map<String, Integer> sharedStringIndex;
+    // Shared strings of a loaded file, kept compact until strings are added
+    private @Nullable SharedStringTable loadedSharedStrings;
+    // File backing lazily read sheets, closed with the workbook
+    private @Nullable Closeable source;
+    private final WorkbookOptions options;
     private boolean closed;
 
-    private Workbook() {
+    private Workbook(WorkbookOptions options) {
+        this.options = options;
         this.sheets = new ArrayList<>();
         this.styles = new ArrayList<>();
         this.sharedStrings = new ArrayList<>();
@@ -54,7 +62,14 @@ public final class Workbook implements AutoCloseable {
      * Creates a new empty workbook.
      */
     public static Workbook create() {
-        return new Workbook();
+        return new Workbook(WorkbookOptions.defaults());
+    }
+
+    /**
+     * Creates a new empty workbook with the given options.
+     */
+    public static Workbook create(WorkbookOptions options) {
+        return new Workbook(options);
     }
 
     /**
@@ -68,16 +83,63 @@ public final class Workbook implements AutoCloseable {
      * Opens an existing workbook from a file with a password.
      */
     public static Workbook open(Path path, @Nullable String password) {
+        return open(path, password, WorkbookOptions.defaults());
+    }
+
+    /**
+     * Opens an existing workbook from a file with a password and options.
+     */
+    public static Workbook open(Path path, @Nullable String password, WorkbookOptions options) {
+        return open(path, password, ReadOptions.builder().workbookOptions(options).build());
+    }
+
+    /**
+     * Opens an existing workbook from a file with a password and read options.
+     */
+    public static Workbook open(Path path, @Nullable String password, ReadOptions options) {
         if (!Files.exists(path)) {
             throw new LitexlException(ErrorCode.FILE_NOT_FOUND, "File not found: " + path);
         }
-        try (XlsxReader reader = new XlsxReader(path)) {
+        try (XlsxReader reader = new XlsxReader(path, options)) {
             return reader.read(password);
         } catch (IOException e) {
             throw new LitexlException(ErrorCode.IO_ERROR, "Failed to read file: " + path, e);
         }
     }
 
+    /**
+     * Opens a workbook for single-pass streaming reads.
+     *
+     * <p>Sheet rows are parsed lazily while iterating, without loading them into
+     * a {@link Workbook}. See {@link WorkbookStream}.</p>
+     */
+    public static WorkbookStream stream(Path path) {
+        return stream(path, null);
+    }
+
+    /**
+     * Opens a workbook for single-pass streaming reads with a password.
+     */
+    public static WorkbookStream stream(Path path, @Nullable String password) {
+        if (!Files.exists(path)) {
+            throw new LitexlException(ErrorCode.FILE_NOT_FOUND, "File not found: " + path);
+        }
+        XlsxReader reader = new XlsxReader(path);
+        try {
+            return reader.stream(password);
+        } catch (IOException | RuntimeException e) {
+            try {
+                reader.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to read file: " + path, e);
+        }
+    }
+
     /**
      * Saves the workbook to a file.
      */
@@ -87,6 +149,9 @@ public final class Workbook implements AutoCloseable {
 
     /**
      * Saves the workbook to a file with encryption.
+     *
+     * @param path the file to write
+     * @param options the encryption options, or null for no encryption
      */
     public void save(Path path, @Nullable EncryptionOptions options) {
         ensureOpen();
@@ -100,6 +165,44 @@ public final class Workbook implements AutoCloseable {
         }
     }
 
+    /**
+     * Saves the workbook to a file with the given write options, including any
+     * encryption they carry.
+     *
+     * <pre>{@code
+     * wb.saveWith(path, WriteOptions.builder()
+     *     .sharedStrings(WriteOptions.SharedStringMode.ADAPTIVE)
+     *     .parallel()
+     *     .encryption(EncryptionOptions.aes256("password"))
+     *     .build());
+     * }</pre>
+     *
+     * @param path the file to write
+     * @param options the write options
+     */
+    public void saveWith(Path path, WriteOptions options) {
+        ensureOpen();
+        try (XlsxWriter writer = new XlsxWriter(this, path).withOptions(options)) {
+            writer.write();
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to save file: " + path, e);
+        }
+    }
+
+    /**
+     * Saves the workbook to a file with encryption, reusing the session's password keys.
+     *
+     * @see EncryptionSession
+     */
+    public void saveEncrypted(Path path, EncryptionSession session) {
+        ensureOpen();
+        try (XlsxWriter writer = new XlsxWriter(this, path).withEncryption(session)) {
+            writer.write();
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to save file: " + path, e);
+        }
+    }
+
     /**
      * Saves the workbook to an output stream.
      *
@@ -137,6 +240,37 @@ public final class Workbook implements AutoCloseable {
         }
     }
 
+    /**
+     * Saves the workbook to an output stream with the given write options,
+     * including any encryption they carry.
+     *
+     * @param outputStream the output stream to write to
+     * @param options the write options
+     */
+    public void saveWith(OutputStream outputStream, WriteOptions options) {
+        ensureOpen();
+        try (XlsxWriter writer = new XlsxWriter(this, outputStream).withOptions(options)) {
+            writer.write();
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to save to stream", e);
+        }
+    }
+
+    /**
+     * Saves the workbook to an output stream with encryption, reusing the session's password keys.
+     *
+     * @param outputStream the output stream to write to
+     * @param session the encryption session
+     */
+    public void saveEncrypted(OutputStream outputStream, EncryptionSession session) {
+        ensureOpen();
+        try (XlsxWriter writer = new XlsxWriter(this, outputStream).withEncryption(session)) {
+            writer.write();
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to save to stream", e);
+        }
+    }
+
     /**
      * Adds a new sheet to the workbook.
      */
@@ -153,7 +287,7 @@ public final class Workbook implements AutoCloseable {
             }
         }
 
-        Sheet sheet = new Sheet(name, sheets.size());
+        Sheet sheet = new Sheet(name, sheets.size(), options);
         sheets.add(sheet);
         return sheet;
     }
@@ -207,6 +341,13 @@ public final class Workbook implements AutoCloseable {
         return sheets.size();
     }
 
+    /**
+     * Returns the options this workbook was created with.
+     */
+    public WorkbookOptions options() {
+        return options;
+    }
+
     /**
      * Adds a style and returns its ID.
      */
@@ -239,6 +380,7 @@ public final class Workbook implements AutoCloseable {
      * Adds a shared string and returns its index.
      */
     public int addSharedString(String value) {
+        expandLoadedSharedStrings();
         Integer existing = sharedStringIndex.get(value);
         if (existing != null) {
             return existing;
@@ -253,17 +395,44 @@ public final class Workbook implements AutoCloseable {
      * Gets a shared string by index, or null if not found.
      */
     public @Nullable String getSharedString(int index) {
-        if (index < 0 || index >= sharedStrings.size()) {
+        List<String> strings = loadedSharedStrings != null ? loadedSharedStrings : sharedStrings;
+        if (index < 0 || index >= strings.size()) {
             return null;
         }
-        return sharedStrings.get(index);
+        return strings.get(index);
     }
 
     /**
      * Returns all shared strings (unmodifiable).
      */
     public List<String> sharedStrings() {
-        return Collections.unmodifiableList(sharedStrings);
+        return Collections.unmodifiableList(loadedSharedStrings != null ? loadedSharedStrings : sharedStrings);
+    }
+
+    /**
+     * Attaches the shared string table read from a file; the workbook takes ownership.
+     */
+    void attachSharedStrings(SharedStringTable table) {
+        if (!sharedStrings.isEmpty() || loadedSharedStrings != null) {
+            throw new IllegalStateException("Shared strings are already set");
+        }
+        loadedSharedStrings = table;
+    }
+
+    /**
+     * Moves loaded shared strings into the indexed list before it is modified.
+     */
+    private void expandLoadedSharedStrings() {
+        SharedStringTable table = loadedSharedStrings;
+        if (table == null) {
+            return;
+        }
+        loadedSharedStrings = null;
+        for (String s : table) {
+            sharedStringIndex.putIfAbsent(s, sharedStrings.size());
+            sharedStrings.add(s);
+        }
+        table.close();
     }
 
     @Override
@@ -274,7 +443,19 @@ public final class Workbook implements AutoCloseable {
         for (Sheet sheet : sheets) {
             sheet.closeResources();
         }
+        if (loadedSharedStrings != null) {
+            loadedSharedStrings.close();
+        }
         closed = true;
+        if (source != null) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                throw new LitexlException(ErrorCode.IO_ERROR, "Failed to close workbook source", e);
+            } finally {
+                source = null;
+            }
+        }
     }
 
     private void ensureOpen() {
@@ -288,6 +469,13 @@ public final class Workbook implements AutoCloseable {
         return String.format("Workbook[sheets=%d]", sheets.size());
     }
 
+    /**
+     * Keeps the file backing lazily read sheets open until the workbook is closed.
+     */
+    void attachSource(Closeable source) {
+        this.source = source;
+    }
+
     /**
      * Adds a sheet directly for internal use by XlsxReader.
      */
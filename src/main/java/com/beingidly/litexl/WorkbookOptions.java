@@ -0,0 +1,72 @@
+package com.beingidly.litexl;
+
+/**
+ * Options controlling how a workbook manages its resources.
+ *
+ * @param rowStoreMemoryBudget bytes of row data and repeated-string dictionary each
+ *                             sheet keeps in heap; rows spill to a temp file once it
+ *                             is exceeded, and 0 spills immediately
+ * @param sharedStringMemoryBudget bytes of shared string data a loaded workbook keeps
+ *                                 in heap before spilling to a temp file; 0 spills immediately
+ */
+public record WorkbookOptions(long rowStoreMemoryBudget, long sharedStringMemoryBudget) {
+
+    /**
+     * Default per-sheet memory budget (1 MiB).
+     */
+    public static final long DEFAULT_ROW_STORE_MEMORY_BUDGET = 1L << 20;
+
+    /**
+     * Default shared string memory budget (16 MiB).
+     */
+    public static final long DEFAULT_SHARED_STRING_MEMORY_BUDGET = 16L << 20;
+
+    public WorkbookOptions {
+        if (rowStoreMemoryBudget < 0) {
+            throw new IllegalArgumentException("Row store memory budget cannot be negative");
+        }
+        if (sharedStringMemoryBudget < 0) {
+            throw new IllegalArgumentException("Shared string memory budget cannot be negative");
+        }
+    }
+
+    /**
+     * Creates options with the given row store budget and the default shared string budget.
+     */
+    public WorkbookOptions(long rowStoreMemoryBudget) {
+        this(rowStoreMemoryBudget, DEFAULT_SHARED_STRING_MEMORY_BUDGET);
+    }
+
+    /**
+     * Returns the default options.
+     */
+    public static WorkbookOptions defaults() {
+        return new WorkbookOptions(DEFAULT_ROW_STORE_MEMORY_BUDGET, DEFAULT_SHARED_STRING_MEMORY_BUDGET);
+    }
+
+    /**
+     * Returns a builder for customizing options.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private long rowStoreMemoryBudget = DEFAULT_ROW_STORE_MEMORY_BUDGET;
+        private long sharedStringMemoryBudget = DEFAULT_SHARED_STRING_MEMORY_BUDGET;
+
+        public Builder rowStoreMemoryBudget(long bytes) {
+            this.rowStoreMemoryBudget = bytes;
+            return this;
+        }
+
+        public Builder sharedStringMemoryBudget(long bytes) {
+            this.sharedStringMemoryBudget = bytes;
+            return this;
+        }
+
+        public WorkbookOptions build() {
+            return new WorkbookOptions(rowStoreMemoryBudget, sharedStringMemoryBudget);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.beingidly.litexl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass streaming view of an XLSX workbook.
+ *
+ * <p>Rows are parsed straight out of the ZIP entries while the caller iterates,
+ * without materializing sheets or copying them into a row store. Use this for
+ * large files that are read once from start to end:</p>
+ *
+ * <pre>{@code
+ * try (WorkbookStream wb = Workbook.stream(Path.of("large.xlsx"));
+ *      RowIterator rows = wb.rows(0)) {
+ *     while (rows.hasNext()) {
+ *         Row row = rows.next();
+ *         // ...
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>Closing the stream closes any row iterators that are still open; iterators
+ * that are exhausted or closed are no longer tracked. This class is
+ * <b>not thread-safe</b>.</p>
+ */
+public final class WorkbookStream implements AutoCloseable {
+
+    @FunctionalInterface
+    interface SheetOpener {
+        SheetRowParser open(int index) throws IOException;
+    }
+
+    private final List<String> sheetNames;
+    private final SheetOpener opener;
+    private final Closeable source;
+    private final List<RowIterator> iterators = new ArrayList<>();
+    private boolean closed;
+
+    WorkbookStream(List<String> sheetNames, SheetOpener opener, Closeable source) {
+        this.sheetNames = List.copyOf(sheetNames);
+        this.opener = opener;
+        this.source = source;
+    }
+
+    /**
+     * Returns the sheet names in workbook order (unmodifiable).
+     */
+    public List<String> sheetNames() {
+        return sheetNames;
+    }
+
+    /**
+     * Returns the number of sheets.
+     */
+    public int sheetCount() {
+        return sheetNames.size();
+    }
+
+    /**
+     * Opens a row iterator over the sheet at the given index.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RowIterator rows(int index) {
+        ensureOpen();
+        if (index < 0 || index >= sheetNames.size()) {
+            throw new IndexOutOfBoundsException("Sheet index out of range: " + index);
+        }
+        try {
+            RowIterator iterator = new RowIterator(opener.open(index), iterators::remove);
+            iterators.add(iterator);
+            return iterator;
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to open sheet: " + sheetNames.get(index), e);
+        }
+    }
+
+    /**
+     * Opens a row iterator over the sheet with the given name (case-insensitive).
+     *
+     * @throws IllegalArgumentException if no sheet has that name
+     */
+    public RowIterator rows(String name) {
+        for (int i = 0; i < sheetNames.size(); i++) {
+            if (sheetNames.get(i).equalsIgnoreCase(name)) {
+                return rows(i);
+            }
+        }
+        throw new IllegalArgumentException("Sheet not found: " + name);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Closing an iterator removes it from the list
+        for (RowIterator iterator : List.copyOf(iterators)) {
+            iterator.close();
+        }
+        iterators.clear();
+        try {
+            source.close();
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to close workbook stream", e);
+        }
+    }
+
+    /**
+     * Returns the number of row iterators that are still open.
+     */
+    int openIterators() {
+        return iterators.size();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Workbook stream is closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WorkbookStream[sheets=%d]", sheetNames.size());
+    }
+}
@@ -0,0 +1,126 @@
+package com.beingidly.litexl;
+
+import com.beingidly.litexl.crypto.EncryptionOptions;
+import com.beingidly.litexl.crypto.EncryptionSession;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Options controlling how a workbook is written.
+ *
+ * @param sharedStrings how text cells are stored
+ * @param parallelism maximum number of threads used to serialize and compress sheets,
+ *                    and to encrypt an encrypted save; 1 does all work on the calling thread
+ * @param encryption the encryption options, or null to write an unencrypted file
+ *                   (or to use {@code encryptionSession})
+ * @param encryptionSession the session whose password keys encrypt the file, or null
+ */
+public record WriteOptions(SharedStringMode sharedStrings, int parallelism,
+                           @Nullable EncryptionOptions encryption,
+                           @Nullable EncryptionSession encryptionSession) {
+
+    /**
+     * How text cells are stored in the written file.
+     */
+    public enum SharedStringMode {
+        /**
+         * Every text cell carries its own string ({@code t="inlineStr"}).
+         */
+        INLINE,
+        /**
+         * Every text cell refers to an entry of {@code xl/sharedStrings.xml}.
+         */
+        SHARED,
+        /**
+         * Text cells are shared, except in columns whose strings rarely repeat.
+         * Each column's first strings are sampled to decide.
+         */
+        ADAPTIVE
+    }
+
+    public WriteOptions {
+        if (sharedStrings == null) {
+            throw new IllegalArgumentException("Shared string mode cannot be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (encryption != null && encryptionSession != null) {
+            throw new IllegalArgumentException("Encryption options and session cannot both be set");
+        }
+    }
+
+    /**
+     * Creates unencrypted write options.
+     */
+    public WriteOptions(SharedStringMode sharedStrings, int parallelism) {
+        this(sharedStrings, parallelism, null, null);
+    }
+
+    /**
+     * Returns the default options (inline strings, sequential writing).
+     */
+    public static WriteOptions defaults() {
+        return new WriteOptions(SharedStringMode.INLINE, 1);
+    }
+
+    /**
+     * Returns a builder for customizing options.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private SharedStringMode sharedStrings = SharedStringMode.INLINE;
+        private int parallelism = 1;
+        private @Nullable EncryptionOptions encryption;
+        private @Nullable EncryptionSession encryptionSession;
+
+        public Builder sharedStrings(SharedStringMode mode) {
+            this.sharedStrings = mode;
+            return this;
+        }
+
+        /**
+         * Serializes and compresses up to {@code threads} sheets concurrently, and
+         * encrypts on up to {@code threads} threads.
+         */
+        public Builder parallelism(int threads) {
+            this.parallelism = threads;
+            return this;
+        }
+
+        /**
+         * Writes sheets concurrently using one thread per available processor.
+         */
+        public Builder parallel() {
+            this.parallelism = Runtime.getRuntime().availableProcessors();
+            return this;
+        }
+
+        /**
+         * Encrypts the file with the given options; replaces any encryption session.
+         */
+        public Builder encryption(@Nullable EncryptionOptions options) {
+            this.encryption = options;
+            this.encryptionSession = null;
+            return this;
+        }
+
+        /**
+         * Encrypts the file reusing the session's password keys; replaces any encryption options.
+         *
+         * @see EncryptionSession
+         */
+        public Builder encryptionSession(@Nullable EncryptionSession session) {
+            this.encryptionSession = session;
+            this.encryption = null;
+            return this;
+        }
+
+        public WriteOptions build() {
+            return new WriteOptions(sharedStrings, parallelism, encryption, encryptionSession);
+        }
+    }
+}
@@ -6,12 +6,15 @@ import org.jspecify.annotations.Nullable;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.security.GeneralSecurityException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Reads XLSX files.
@@ -25,9 +28,17 @@ import java.util.*;
  */
 final class XlsxReader implements Closeable {
 
+    // Larger decrypted packages are decrypted segment by segment as they are read
+    private static final long IN_MEMORY_PACKAGE_LIMIT = 64L * 1024 * 1024;
+
     private final Path path;
-    private final List<String> sharedStrings = new ArrayList<>();
+    private final ReadOptions readOptions;
+    private final WorkbookOptions options;
+    // Owned by this reader until handed to the workbook
+    private @Nullable SharedStringTable sharedStrings;
     private @Nullable ZipReader zip;
+    // Set once a lazily read workbook owns the open ZIP
+    private boolean detached;
 
     /**
      * Creates a new XLSX reader for the given file.
@@ -35,7 +46,19 @@ final class XlsxReader implements Closeable {
      * @param path the path to the XLSX file
      */
     public XlsxReader(Path path) {
+        this(path, ReadOptions.defaults());
+    }
+
+    /**
+     * Creates a new XLSX reader for the given file.
+     *
+     * @param path the path to the XLSX file
+     * @param readOptions options controlling how the file is read
+     */
+    public XlsxReader(Path path, ReadOptions readOptions) {
         this.path = path;
+        this.readOptions = readOptions;
+        this.options = readOptions.workbookOptions();
     }
 
     /**
@@ -56,13 +79,8 @@ final class XlsxReader implements Closeable {
      * @throws IOException if an I/O error occurs
      */
     public Workbook read(@Nullable String password) throws IOException {
-        // Check if this is an encrypted CFB file
-        if (isEncryptedFile()) {
-            return readEncrypted(password);
-        }
-
-        this.zip = new ZipReader(path);
-        Workbook wb = Workbook.create();
+        this.zip = openPackage(password);
+        Workbook wb = Workbook.create(options);
 
         // Read shared strings first
         readSharedStrings();
@@ -73,21 +91,141 @@ final class XlsxReader implements Closeable {
         // Read workbook.xml to get sheet names and order
         List<SheetInfo> sheetInfos = readWorkbook();
 
+        if (readOptions.lazy()) {
+            return readLazy(sheetInfos, wb);
+        }
+
         // Read each sheet
+        try {
+            if (readOptions.parallelism() > 1 && sheetInfos.size() > 1) {
+                readSheetsParallel(sheetInfos, wb);
+            } else {
+                for (SheetInfo info : sheetInfos) {
+                    Sheet sheet = new Sheet(info.name(), info.index(), options);
+                    wb.addSheet(sheet);
+                    readSheet(info.path(), sheet, sharedStrings());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            wb.close();
+            throw e;
+        }
+
+        // Hand the shared strings to the workbook without copying them
+        SharedStringTable table = sharedStrings;
+        if (table != null) {
+            sharedStrings = null;
+            wb.attachSharedStrings(table);
+        }
+
+        return wb;
+    }
+
+    /**
+     * Adds the sheets unparsed; each is read from the still open ZIP on first use.
+     *
+     * <p>The workbook takes over the ZIP and the shared string table, and releases
+     * both when it is closed.</p>
+     */
+    private Workbook readLazy(List<SheetInfo> sheetInfos, Workbook wb) {
         for (SheetInfo info : sheetInfos) {
-            Sheet sheet = new Sheet(info.name(), info.index());
-            readSheet(info.path(), sheet);
+            Sheet sheet = new Sheet(info.name(), info.index(), options);
+            String sheetPath = info.path();
+            // The workbook's list keeps the file's indexes even after strings are added
+            sheet.setLoader(loaded -> readSheet(sheetPath, loaded, wb.sharedStrings()));
             wb.addSheet(sheet);
         }
 
-        // Populate shared strings in workbook
-        for (String s : sharedStrings) {
-            wb.addSharedString(s);
+        SharedStringTable table = sharedStrings;
+        if (table != null) {
+            sharedStrings = null;
+            wb.attachSharedStrings(table);
         }
-
+        detached = true;
+        wb.attachSource(this::closeResources);
         return wb;
     }
 
+    /**
+     * Parses sheets concurrently on a bounded pool and adds them in workbook order.
+     *
+     * <p>Each sheet is an independent ZIP entry with its own row store; the shared
+     * string table is fully read before any task starts and is only read by them.</p>
+     */
+    private void readSheetsParallel(List<SheetInfo> sheetInfos, Workbook wb) throws IOException {
+        List<Sheet> sheets = new ArrayList<>(sheetInfos.size());
+        for (SheetInfo info : sheetInfos) {
+            sheets.add(new Sheet(info.name(), info.index(), options));
+        }
+
+        int threads = Math.min(readOptions.parallelism(), sheetInfos.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "litexl-sheet-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(sheetInfos.size());
+            for (int i = 0; i < sheetInfos.size(); i++) {
+                String sheetPath = sheetInfos.get(i).path();
+                Sheet sheet = sheets.get(i);
+                futures.add(executor.submit(() -> {
+                    readSheet(sheetPath, sheet, sharedStrings());
+                    return null;
+                }));
+            }
+            // Wait for every task before cleaning up so no sheet is closed while still being parsed
+            Exception failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    awaitSheet(future);
+                } catch (IOException | RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                for (Sheet sheet : sheets) {
+                    sheet.closeResources();
+                }
+                if (failure instanceof IOException io) {
+                    throw io;
+                }
+                throw (RuntimeException) failure;
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (Sheet sheet : sheets) {
+            wb.addSheet(sheet);
+        }
+    }
+
+    private static void awaitSheet(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading sheets");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Failed to read sheet", cause);
+        }
+    }
+
     private void readSharedStrings() throws IOException {
         assert zip != null : "zip must be initialized";
         InputStream is = zip.getEntry("xl/sharedStrings.xml");
@@ -95,15 +233,22 @@ final class XlsxReader implements Closeable {
             return;
         }
 
+        SharedStringTable table = new SharedStringTable(options.sharedStringMemoryBudget());
+        sharedStrings = table;
         try (is) {
             XmlReader xml = new XmlReader(is);
             while (xml.hasNext()) {
                 XmlReader.Event event = xml.next();
                 if (event == XmlReader.Event.START_ELEMENT && "t".equals(xml.getLocalName())) {
-                    sharedStrings.add(xml.getElementText());
+                    table.append(xml.getElementText());
                 }
             }
         }
+        table.seal();
+    }
+
+    private List<String> sharedStrings() {
+        return sharedStrings != null ? sharedStrings : List.of();
     }
 
     private void readStyles() throws IOException {
@@ -143,8 +288,9 @@ final class XlsxReader implements Closeable {
                     }
                     if (rId != null) {
                         String target = relsMap.get(rId);
-                        if (target != null) {
-                            sheets.add(new SheetInfo(name, index++, "xl/" + target));
+                        // Unselected sheets are never parsed; loaded sheets are renumbered
+                        if (target != null && readOptions.includesSheet(index++, name)) {
+                            sheets.add(new SheetInfo(name, sheets.size(), "xl/" + target));
                         }
                     }
                 }
@@ -180,127 +326,37 @@ final class XlsxReader implements Closeable {
         return rels;
     }
 
-    private void readSheet(String sheetPath, Sheet sheet) throws IOException {
-        assert zip != null : "zip must be initialized";
-        InputStream is = zip.getEntry(sheetPath);
-        if (is == null) {
-            throw new CorruptFileException("Missing sheet: " + sheetPath);
-        }
-
-        try (is) {
+    private void readSheet(String sheetPath, Sheet sheet, List<String> strings) throws IOException {
+        try (SheetRowParser parser = openSheet(sheetPath, strings)) {
             try {
-                XmlReader xml = new XmlReader(is);
-                String currentRef = null;
-                String currentType = null;
-                int currentStyle = 0;
-                boolean inInlineStr = false;
-
-                while (xml.hasNext()) {
-                    XmlReader.Event event = xml.next();
-
-                    if (event == XmlReader.Event.START_ELEMENT) {
-                        String name = xml.getLocalName();
-
-                        if ("row".equals(name)) {
-                            String rowRef = xml.getAttributeValue("r");
-                            if (rowRef != null) {
-                                int rowIndex = Integer.parseInt(rowRef) - 1;
-                                if (rowIndex >= 0) {
-                                    Row row = sheet.row(rowIndex);
-
-                                    String ht = xml.getAttributeValue("ht");
-                                    String customHeight = xml.getAttributeValue("customHeight");
-                                    if (ht != null && "1".equals(customHeight)) {
-                                        row.height(Double.parseDouble(ht));
-                                    }
-
-                                    String hidden = xml.getAttributeValue("hidden");
-                                    if ("1".equals(hidden)) {
-                                        row.hidden(true);
-                                    }
-                                }
-                            }
-                        } else if ("c".equals(name)) {
-                            // Cell element
-                            currentRef = xml.getAttributeValue("r");
-                            currentType = xml.getAttributeValue("t");
-                            String styleStr = xml.getAttributeValue("s");
-                            currentStyle = styleStr != null ? Integer.parseInt(styleStr) : 0;
-                        } else if ("is".equals(name)) {
-                            // Inline string container
-                            inInlineStr = true;
-                        } else if ("t".equals(name) && inInlineStr) {
-                            // Inline string text
-                            assert currentRef != null : "currentRef must be set inside cell";
-                            String value = xml.getElementText();
-                            int[] coords = CellRefUtil.parseRef(currentRef);
-                            Cell cell = sheet.cell(coords[0], coords[1]);
-                            cell.set(value);
-                            cell.style(currentStyle);
-                        } else if ("v".equals(name)) {
-                            // Value element
-                            assert currentRef != null : "currentRef must be set inside cell";
-                            String value = xml.getElementText();
-                            int[] coords = CellRefUtil.parseRef(currentRef);
-                            Cell cell = sheet.cell(coords[0], coords[1]);
-                            cell.style(currentStyle);
-
-                            if (currentType == null) {
-                                // Number or date (default)
-                                double num = Double.parseDouble(value);
-                                cell.set(num);
-                            } else {
-                                switch (currentType) {
-                                    case "s" -> {
-                                        // Shared string
-                                        int idx = Integer.parseInt(value);
-                                        if (idx < sharedStrings.size()) {
-                                            cell.set(sharedStrings.get(idx));
-                                        }
-                                    }
-                                    case "b" -> cell.set("1".equals(value)); // Boolean
-                                    case "e" -> cell.setValue(new CellValue.Error(value)); // Error
-                                    default -> {
-                                        // Other types - treat as number
-                                        double num = Double.parseDouble(value);
-                                        cell.set(num);
-                                    }
-                                }
-                            }
-                        } else if ("f".equals(name)) {
-                            // Formula element
-                            assert currentRef != null : "currentRef must be set inside cell";
-                            String formula = xml.getElementText();
-                            int[] coords = CellRefUtil.parseRef(currentRef);
-                            Cell cell = sheet.cell(coords[0], coords[1]);
-                            cell.setFormula(formula);
-                            cell.style(currentStyle);
-                        } else if ("mergeCell".equals(name)) {
-                            // Merged cell
-                            String ref = xml.getAttributeValue("ref");
-                            if (ref != null) {
-                                CellRange range = CellRange.parse(ref);
-                                sheet.merge(range);
-                            }
-                        }
-                    } else if (event == XmlReader.Event.END_ELEMENT) {
-                        String name = xml.getLocalName();
-                        if ("c".equals(name)) {
-                            currentRef = null;
-                            currentType = null;
-                            currentStyle = 0;
-                            inInlineStr = false;
-                        } else if ("is".equals(name)) {
-                            inInlineStr = false;
-                        }
+                if (readOptions.pipelined()) {
+                    SheetReadPipeline.read(parser, sheet, strings);
+                } else {
+                    for (Row row = parser.next(); row != null; row = parser.next()) {
+                        sheet.appendLoadedRow(row);
                     }
                 }
+                for (CellRange range : parser.mergedCells()) {
+                    sheet.merge(range);
+                }
             } finally {
                 sheet.finishLoadingReadOnly();
             }
         }
     }
 
+    private SheetRowParser openSheet(String sheetPath, List<String> strings) throws IOException {
+        ZipReader reader = zip;
+        if (reader == null) {
+            throw new IllegalStateException("Workbook is closed");
+        }
+        InputStream is = reader.getEntry(sheetPath);
+        if (is == null) {
+            throw new CorruptFileException("Missing sheet: " + sheetPath);
+        }
+        return new SheetRowParser(is, strings, readOptions);
+    }
+
     private record SheetInfo(String name, int index, String path) {}
 
     /**
@@ -326,9 +382,44 @@ final class XlsxReader implements Closeable {
     }
 
     /**
-     * Reads an encrypted workbook.
+     * Opens the workbook for streaming reads.
+     *
+     * <p>Only shared strings and the sheet list are read up front; sheet rows are
+     * parsed lazily from the ZIP entries. The returned stream takes ownership of
+     * this reader and closes it when the stream is closed.</p>
+     *
+     * @param password the password for encrypted files, or null
+     * @return the workbook stream
+     * @throws IOException if an I/O error occurs
      */
-    private Workbook readEncrypted(@Nullable String password) throws IOException {
+    WorkbookStream stream(@Nullable String password) throws IOException {
+        this.zip = openPackage(password);
+        readSharedStrings();
+        List<SheetInfo> sheetInfos = readWorkbook();
+
+        List<String> names = new ArrayList<>(sheetInfos.size());
+        List<String> paths = new ArrayList<>(sheetInfos.size());
+        for (SheetInfo info : sheetInfos) {
+            names.add(info.name());
+            paths.add(info.path());
+        }
+        return new WorkbookStream(names, index -> openSheet(paths.get(index), sharedStrings()), this);
+    }
+
+    /**
+     * Opens the ZIP package, decrypting it into memory if the file is encrypted.
+     */
+    private ZipReader openPackage(@Nullable String password) throws IOException {
+        if (isEncryptedFile()) {
+            return openEncrypted(password);
+        }
+        return new ZipReader(path);
+    }
+
+    /**
+     * Decrypts an encrypted workbook, into memory if it is small enough.
+     */
+    private ZipReader openEncrypted(@Nullable String password) throws IOException {
         if (password == null) {
             throw new InvalidPasswordException("Password required for encrypted file");
         }
@@ -339,54 +430,54 @@ final class XlsxReader implements Closeable {
             }
 
             ByteBuffer encryptionInfoData = cfb.getEncryptionInfoBuffer();
-            ByteBuffer encryptedPackage = cfb.getEncryptedPackageBuffer();
-
-            if (encryptionInfoData == null || encryptedPackage == null) {
+            if (encryptionInfoData == null) {
                 throw new CorruptFileException("Missing encryption streams");
             }
 
             // Parse encryption info and decrypt
             AgileDecryptor decryptor = new AgileDecryptor(password);
-            decryptor.parseEncryptionInfo(encryptionInfoData, encryptedPackage);
-            ByteBuffer decryptedData;
+            if (cfb.prefersChannel("EncryptedPackage")) {
+                // Read through the sector chain rather than copying the whole package,
+                // which is fragmented or, in files over 2 GiB, spans mapped windows
+                SeekableByteChannel encryptedPackage = Objects.requireNonNull(cfb.openStreamChannel("EncryptedPackage"));
+                decryptor.parseEncryptionInfo(encryptionInfoData, encryptedPackage);
+            } else {
+                ByteBuffer encryptedPackage = cfb.getEncryptedPackageBuffer();
+                if (encryptedPackage == null) {
+                    throw new CorruptFileException("Missing encryption streams");
+                }
+                decryptor.parseEncryptionInfo(encryptionInfoData, encryptedPackage);
+            }
             try {
-                decryptedData = decryptor.decrypt();
+                if (decryptor.decryptedSize() > IN_MEMORY_PACKAGE_LIMIT) {
+                    // Reads the mapping of the CFB file, which outlives the reader
+                    return new ZipReader(decryptor.openChannel(readOptions.decryptionParallelism()));
+                }
+                return new ZipReader(decryptor.decrypt(readOptions.decryptionParallelism()));
             } catch (GeneralSecurityException e) {
                 throw new InvalidPasswordException("Decryption failed", e);
             }
+        }
+    }
 
-            // Now read the decrypted XLSX data from memory
-            return readFromByteBuffer(decryptedData);
+    @Override
+    public void close() throws IOException {
+        if (!detached) {
+            closeResources();
         }
     }
 
-    /**
-     * Reads a workbook from a ByteBuffer (decrypted XLSX data).
-     */
-    private Workbook readFromByteBuffer(ByteBuffer data) throws IOException {
-        Path tempFile = Files.createTempFile("litexl-", ".xlsx");
+    private void closeResources() throws IOException {
         try {
-            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
-                while (data.hasRemaining()) {
-                    int written = channel.write(data);
-                    if (written == 0) {
-                        throw new IOException("Failed to write data to temp file");
-                    }
-                }
-            }
-            try (XlsxReader tempReader = new XlsxReader(tempFile)) {
-                return tempReader.read();
+            if (sharedStrings != null) {
+                sharedStrings.close();
+                sharedStrings = null;
             }
         } finally {
-            Files.deleteIfExists(tempFile);
-        }
-    }
-
-    @Override
-    public void close() throws IOException {
-        if (zip != null) {
-            zip.close();
-            zip = null;
+            if (zip != null) {
+                zip.close();
+                zip = null;
+            }
         }
     }
 }
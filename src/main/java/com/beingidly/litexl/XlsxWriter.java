@@ -1,20 +1,27 @@
 package com.beingidly.litexl;
 
 import com.beingidly.litexl.crypto.EncryptionOptions;
+import com.beingidly.litexl.crypto.EncryptionSession;
+import com.beingidly.litexl.crypto.PasswordKeyEncryptor;
 import com.beingidly.litexl.crypto.SheetHasher;
 import com.beingidly.litexl.format.*;
 import com.beingidly.litexl.style.*;
 import org.jspecify.annotations.Nullable;
 
 import java.io.*;
-import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Writes XLSX files.
@@ -45,6 +52,9 @@ final class XlsxWriter implements Closeable {
     private final @Nullable Path path;
     private final @Nullable OutputStream outputStream;
     private @Nullable EncryptionOptions encryptionOptions;
+    private @Nullable EncryptionSession encryptionSession;
+    private WriteOptions options = WriteOptions.defaults();
+    private @Nullable SharedStringCollector sharedStrings;
 
     /**
      * Creates a new XLSX writer for the given workbook and output path.
@@ -78,6 +88,36 @@ final class XlsxWriter implements Closeable {
      */
     public XlsxWriter withEncryption(EncryptionOptions options) {
         this.encryptionOptions = options;
+        this.encryptionSession = null;
+        return this;
+    }
+
+    /**
+     * Enables encryption with password keys shared through a session.
+     *
+     * @param session the encryption session
+     * @return this writer for method chaining
+     */
+    public XlsxWriter withEncryption(EncryptionSession session) {
+        this.encryptionOptions = session.options();
+        this.encryptionSession = session;
+        return this;
+    }
+
+    /**
+     * Sets the write options. Encryption set in the options replaces any set
+     * through {@code withEncryption}.
+     *
+     * @param options the write options
+     * @return this writer for method chaining
+     */
+    public XlsxWriter withOptions(WriteOptions options) {
+        this.options = options;
+        if (options.encryptionSession() != null) {
+            withEncryption(options.encryptionSession());
+        } else if (options.encryption() != null) {
+            withEncryption(options.encryption());
+        }
         return this;
     }
 
@@ -87,22 +127,137 @@ final class XlsxWriter implements Closeable {
      * @throws IOException if an I/O error occurs
      */
     public void write() throws IOException {
+        // Lazy sheets read from the workbook's source file, which may be the file
+        // about to be overwritten; every sheet must be in memory before it is opened
+        for (int i = 0; i < workbook.sheetCount(); i++) {
+            Objects.requireNonNull(workbook.getSheet(i)).load();
+        }
+
         if (encryptionOptions != null) {
             writeEncrypted();
             return;
         }
 
         try (ZipWriter zip = createZipWriter()) {
-            writeContentTypes(zip);
-            writeRootRels(zip);
-            writeWorkbookRels(zip);
-            writeWorkbook(zip);
-            writeStyles(zip);
+            writePackage(zip);
+        }
+    }
 
+    private void writePackage(ZipWriter zip) throws IOException {
+        SharedStringCollector collector = new SharedStringCollector(options.sharedStrings());
+        sharedStrings = collector;
+
+        writeContentTypes(zip);
+        writeRootRels(zip);
+        writeWorkbookRels(zip);
+        writeWorkbook(zip);
+        writeStyles(zip);
+
+        if (options.parallelism() > 1 && workbook.sheetCount() > 1) {
+            writeSheetsParallel(zip, collector);
+        } else {
             for (int i = 0; i < workbook.sheetCount(); i++) {
-                writeSheet(zip, Objects.requireNonNull(workbook.getSheet(i)), i + 1);
+                try (OutputStream os = zip.newEntry(sheetEntryName(i + 1))) {
+                    writeSheet(os, Objects.requireNonNull(workbook.getSheet(i)), collector.forSheet());
+                }
             }
         }
+
+        // The table is complete only once every sheet has been written
+        if (collector.enabled()) {
+            writeSharedStrings(zip, collector);
+        }
+    }
+
+    /**
+     * Serializes and deflates sheets concurrently on a bounded pool, then adds the
+     * compressed entries to the archive in workbook order.
+     *
+     * <p>Each task writes one sheet into its own {@link DeflatedEntry}; the shared
+     * string table is the only state tasks share, and it is written after them.</p>
+     */
+    private void writeSheetsParallel(ZipWriter zip, SharedStringCollector collector) throws IOException {
+        int sheetCount = workbook.sheetCount();
+        int threads = Math.min(options.parallelism(), sheetCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "litexl-sheet-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<DeflatedEntry>> futures = new ArrayList<>(sheetCount);
+            for (int i = 0; i < sheetCount; i++) {
+                Sheet sheet = Objects.requireNonNull(workbook.getSheet(i));
+                SharedStringCollector.SheetStrings strings = collector.forSheet();
+                futures.add(executor.submit(() -> deflateSheet(sheet, strings)));
+            }
+            // Wait for every task so no spill file outlives a failed save
+            Exception failure = null;
+            for (int i = 0; i < sheetCount; i++) {
+                DeflatedEntry entry = null;
+                try {
+                    entry = awaitSheet(futures.get(i));
+                    if (failure == null) {
+                        zip.addDeflated(sheetEntryName(i + 1), entry);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                } finally {
+                    if (entry != null) {
+                        entry.close();
+                    }
+                }
+            }
+            if (failure instanceof IOException io) {
+                throw io;
+            }
+            if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private DeflatedEntry deflateSheet(Sheet sheet, SharedStringCollector.SheetStrings strings) throws IOException {
+        DeflatedEntry entry = new DeflatedEntry();
+        try {
+            writeSheet(entry, sheet, strings);
+            entry.finish();
+            return entry;
+        } catch (IOException | RuntimeException | Error e) {
+            entry.close();
+            throw e;
+        }
+    }
+
+    private static DeflatedEntry awaitSheet(Future<DeflatedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing sheets");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Failed to write sheet", cause);
+        }
+    }
+
+    private static String sheetEntryName(int sheetNum) {
+        return "xl/worksheets/sheet" + sheetNum + ".xml";
     }
 
     private ZipWriter createZipWriter() throws IOException {
@@ -139,6 +294,12 @@ final class XlsxWriter implements Closeable {
             xml.attribute("PartName", "/xl/styles.xml");
             xml.attribute("ContentType", "application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml");
 
+            if (sharedStringsEnabled()) {
+                xml.emptyElement("Override");
+                xml.attribute("PartName", "/xl/sharedStrings.xml");
+                xml.attribute("ContentType", "application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml");
+            }
+
             for (int i = 0; i < workbook.sheetCount(); i++) {
                 xml.emptyElement("Override");
                 xml.attribute("PartName", "/xl/worksheets/sheet" + (i + 1) + ".xml");
@@ -188,10 +349,17 @@ final class XlsxWriter implements Closeable {
 
             // Styles
             xml.emptyElement("Relationship");
-            xml.attribute("Id", "rId" + rId);
+            xml.attribute("Id", "rId" + rId++);
             xml.attribute("Type", "http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles");
             xml.attribute("Target", "styles.xml");
 
+            if (sharedStringsEnabled()) {
+                xml.emptyElement("Relationship");
+                xml.attribute("Id", "rId" + rId);
+                xml.attribute("Type", "http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings");
+                xml.attribute("Target", "sharedStrings.xml");
+            }
+
             xml.endElement();
             xml.endDocument();
         }
@@ -229,10 +397,35 @@ final class XlsxWriter implements Closeable {
         }
     }
 
-    private void writeSheet(ZipWriter zip, Sheet sheet, int sheetNum) throws IOException {
-        try (OutputStream os = zip.newEntry("xl/worksheets/sheet" + sheetNum + ".xml");
+    private boolean sharedStringsEnabled() {
+        return sharedStrings != null && sharedStrings.enabled();
+    }
+
+    private void writeSharedStrings(ZipWriter zip, SharedStringCollector collector) throws IOException {
+        try (OutputStream os = zip.newEntry("xl/sharedStrings.xml");
              XmlWriter xml = new XmlWriter(os)) {
 
+            xml.startDocument();
+            xml.startElement("sst");
+            xml.attribute("xmlns", NS_SPREADSHEETML);
+            xml.attribute("count", String.valueOf(collector.references()));
+            xml.attribute("uniqueCount", String.valueOf(collector.strings().size()));
+
+            for (String text : collector.strings()) {
+                xml.startElement("si");
+                writeText(xml, text);
+                xml.endElement(); // si
+            }
+
+            xml.endElement(); // sst
+            xml.endDocument();
+        }
+    }
+
+    private void writeSheet(OutputStream os, Sheet sheet, SharedStringCollector.SheetStrings strings)
+            throws IOException {
+        try (SheetXmlWriter xml = new SheetXmlWriter(os)) {
+
             xml.startDocument();
             xml.startElement("worksheet");
             xml.attribute("xmlns", NS_SPREADSHEETML);
@@ -260,8 +453,7 @@ final class XlsxWriter implements Closeable {
             try {
                 sheet.forEachRow(row -> {
                     try {
-                        xml.startElement("row");
-                        xml.attribute("r", String.valueOf(row.rowNum() + 1));
+                        xml.startRow(row.rowNum());
 
                         if (row.hasCustomHeight()) {
                             xml.attribute("ht", String.valueOf(row.height()));
@@ -270,10 +462,10 @@ final class XlsxWriter implements Closeable {
 
                         for (Map.Entry<Integer, Cell> cellEntry : row.cells().entrySet()) {
                             Cell cell = cellEntry.getValue();
-                            writeCell(xml, cell, row.rowNum());
+                            writeCell(xml, cell, row.rowNum(), strings);
                         }
 
-                        xml.endElement(); // row
+                        xml.endRow();
                     } catch (IOException e) {
                         throw new UncheckedIOException(e);
                     }
@@ -328,70 +520,42 @@ final class XlsxWriter implements Closeable {
         }
     }
 
-    private void writeCell(XmlWriter xml, Cell cell, int row) throws IOException {
-        if (cell.type() == CellType.EMPTY) {
-            return;
-        }
-
-        String ref = CellRefUtil.toRef(row, cell.column());
-
-        xml.startElement("c");
-        xml.attribute("r", ref);
-
-        if (cell.styleId() > 0) {
-            xml.attribute("s", String.valueOf(cell.styleId()));
-        }
+    private void writeCell(SheetXmlWriter xml, Cell cell, int row, SharedStringCollector.SheetStrings strings)
+            throws IOException {
+        int column = cell.column();
+        int styleId = cell.styleId();
 
         switch (cell.value()) {
             case CellValue.Text t -> {
-                xml.attribute("t", "inlineStr");
-                xml.startElement("is");
-                xml.startElement("t");
-                String text = t.value();
-                if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0))
-                        || Character.isWhitespace(text.charAt(text.length() - 1)))) {
-                    xml.attribute("xml:space", "preserve");
+                int shared = strings.indexOf(column, t.value());
+                if (shared >= 0) {
+                    xml.sharedStringCell(row, column, styleId, shared);
+                } else {
+                    xml.inlineStringCell(row, column, styleId, t.value());
                 }
-                xml.text(text);
-                xml.endElement(); // t
-                xml.endElement(); // is
-            }
-            case CellValue.Number n -> {
-                xml.startElement("v");
-                xml.text(String.valueOf(n.value()));
-                xml.endElement();
-            }
-            case CellValue.Bool b -> {
-                xml.attribute("t", "b");
-                xml.startElement("v");
-                xml.text(b.value() ? "1" : "0");
-                xml.endElement();
-            }
-            case CellValue.Date d -> {
-                xml.startElement("v");
-                xml.text(String.valueOf(ExcelDateUtil.toExcelDate(d.value())));
-                xml.endElement();
-            }
-            case CellValue.Formula f -> {
-                xml.startElement("f");
-                xml.text(f.expression());
-                xml.endElement();
-            }
-            case CellValue.Error e -> {
-                xml.attribute("t", "e");
-                xml.startElement("v");
-                xml.text(e.code());
-                xml.endElement();
             }
+            case CellValue.Number n -> xml.numberCell(row, column, styleId, n.value());
+            case CellValue.Bool b -> xml.booleanCell(row, column, styleId, b.value());
+            case CellValue.Date d -> xml.numberCell(row, column, styleId, ExcelDateUtil.toExcelDate(d.value()));
+            case CellValue.Formula f -> xml.formulaCell(row, column, styleId, f.expression());
+            case CellValue.Error e -> xml.errorCell(row, column, styleId, e.code());
             case CellValue.Empty _ -> {
                 // Skip
             }
         }
+    }
 
-        xml.endElement(); // c
+    private static void writeText(XmlWriter xml, String text) throws IOException {
+        xml.startElement("t");
+        if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0))
+                || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+            xml.attribute("xml:space", "preserve");
+        }
+        xml.text(text);
+        xml.endElement(); // t
     }
 
-    private void writeConditionalFormat(XmlWriter xml, ConditionalFormat cf) throws IOException {
+    private void writeConditionalFormat(SheetXmlWriter xml, ConditionalFormat cf) throws IOException {
         xml.startElement("conditionalFormatting");
         xml.attribute("sqref", cf.range().toRef());
 
@@ -457,7 +621,7 @@ final class XlsxWriter implements Closeable {
         };
     }
 
-    private void writeDataValidation(XmlWriter xml, DataValidation dv) throws IOException {
+    private void writeDataValidation(SheetXmlWriter xml, DataValidation dv) throws IOException {
         xml.startElement("dataValidation");
         xml.attribute("sqref", dv.range().toRef());
         xml.attribute("type", dvTypeName(dv.type()));
@@ -523,7 +687,7 @@ final class XlsxWriter implements Closeable {
         };
     }
 
-    private void writeAutoFilter(XmlWriter xml, AutoFilter af) throws IOException {
+    private void writeAutoFilter(SheetXmlWriter xml, AutoFilter af) throws IOException {
         xml.startElement("autoFilter");
         xml.attribute("ref", af.range().toRef());
 
@@ -575,7 +739,7 @@ final class XlsxWriter implements Closeable {
         };
     }
 
-    private void writeSheetProtection(XmlWriter xml, Sheet sheet) throws IOException {
+    private void writeSheetProtection(SheetXmlWriter xml, Sheet sheet) throws IOException {
         com.beingidly.litexl.crypto.SheetProtection prot = sheet.protection();
         if (prot == null) {
             return;
@@ -646,14 +810,7 @@ final class XlsxWriter implements Closeable {
         Path xlsxTempFile = Files.createTempFile("litexl-", ".xlsx");
         try {
             try (ZipWriter zip = new ZipWriter(xlsxTempFile)) {
-                writeContentTypes(zip);
-                writeRootRels(zip);
-                writeWorkbookRels(zip);
-                writeWorkbook(zip);
-                writeStyles(zip);
-                for (int i = 0; i < workbook.sheetCount(); i++) {
-                    writeSheet(zip, Objects.requireNonNull(workbook.getSheet(i)), i + 1);
-                }
+                writePackage(zip);
             }
 
             long xlsxSize = Files.size(xlsxTempFile);
@@ -663,7 +820,7 @@ final class XlsxWriter implements Closeable {
                     // Path-based: write directly to final file via FileChannel
                     writeAsCfbDirect(xlsxTempFile, xlsxSize, path);
                 } else {
-                    // OutputStream-based: write to temp CFB file, then transferTo
+                    // OutputStream-based: stream the CFB in one pass
                     assert outputStream != null;
                     writeAsCfbToStream(xlsxTempFile, xlsxSize, outputStream);
                 }
@@ -689,7 +846,8 @@ final class XlsxWriter implements Closeable {
                  encryptionData.encryptionInfo(),
                  encryptionData.encryptionKey(),
                  encryptionData.keyDataSalt(),
-                 encryptionData.hmacKey()
+                 encryptionData.hmacKey(),
+                 options.parallelism()
              )) {
 
             cfbWriter.writeEncrypted(xlsxIn, xlsxSize);
@@ -697,33 +855,22 @@ final class XlsxWriter implements Closeable {
     }
 
     /**
-     * Writes encrypted CFB to a temp file, then transfers to OutputStream.
+     * Streams encrypted CFB straight to the OutputStream; the plain XLSX is the only spooled copy.
      */
     private void writeAsCfbToStream(Path xlsxTempFile, long xlsxSize, OutputStream out) throws IOException, GeneralSecurityException {
         EncryptionData encryptionData = generateEncryptionData();
 
-        Path cfbTempFile = Files.createTempFile("litexl-cfb-", ".tmp");
-        try {
-            // Write to temp CFB file via MappedByteBuffer
-            try (InputStream xlsxIn = Files.newInputStream(xlsxTempFile);
-                 FileChannel fc = FileChannel.open(cfbTempFile, StandardOpenOption.WRITE, StandardOpenOption.READ, StandardOpenOption.CREATE);
-                 CfbWriter cfbWriter = new CfbWriter(
-                     fc,
-                     encryptionData.encryptionInfo(),
-                     encryptionData.encryptionKey(),
-                     encryptionData.keyDataSalt(),
-                     encryptionData.hmacKey()
-                 )) {
-
-                cfbWriter.writeEncrypted(xlsxIn, xlsxSize);
-            }
+        try (InputStream xlsxIn = Files.newInputStream(xlsxTempFile);
+             CfbWriter cfbWriter = new CfbWriter(
+                 out,
+                 encryptionData.encryptionInfo(),
+                 encryptionData.encryptionKey(),
+                 encryptionData.keyDataSalt(),
+                 encryptionData.hmacKey(),
+                 options.parallelism()
+             )) {
 
-            // Transfer to OutputStream via NIO (zero-copy when possible)
-            try (FileChannel fc = FileChannel.open(cfbTempFile, StandardOpenOption.READ)) {
-                fc.transferTo(0, fc.size(), Channels.newChannel(out));
-            }
-        } finally {
-            Files.deleteIfExists(cfbTempFile);
+            cfbWriter.writeEncrypted(xlsxIn, xlsxSize);
         }
     }
 
@@ -735,46 +882,18 @@ final class XlsxWriter implements Closeable {
         assert encryptionOptions != null : "encryptionOptions must be set";
 
         java.security.SecureRandom random = new java.security.SecureRandom();
-        int keyBits = encryptionOptions.algorithm() == EncryptionOptions.Algorithm.AES_256 ? 256 : 128;
 
-        // Two different salts per MS-OFFCRYPTO spec
+        // Two different salts per MS-OFFCRYPTO spec; the password salt comes with the key encryptor
         byte[] keyDataSalt = new byte[16];
-        byte[] encryptedKeySalt = new byte[16];
         random.nextBytes(keyDataSalt);
-        random.nextBytes(encryptedKeySalt);
 
+        int keyBits = encryptionOptions.algorithm() == EncryptionOptions.Algorithm.AES_256 ? 256 : 128;
         byte[] encryptionKey = new byte[keyBits / 8];
         random.nextBytes(encryptionKey);
 
-        // Derive keys from password
-        byte[] keyDerivedKey = com.beingidly.litexl.crypto.KeyDerivation.deriveKey(
-            encryptionOptions.password(), encryptedKeySalt, encryptionOptions.spinCount(), keyBits,
-            com.beingidly.litexl.crypto.KeyDerivation.BLOCK_KEY_ENCRYPTED_KEY
-        );
-
-        byte[] encryptedKey = new com.beingidly.litexl.crypto.AesCipher(keyDerivedKey)
-            .encrypt(encryptionKey, encryptedKeySalt);
-
-        // Generate and encrypt verifier
-        byte[] verifierInput = new byte[16];
-        random.nextBytes(verifierInput);
-
-        byte[] verifierInputKey = com.beingidly.litexl.crypto.KeyDerivation.deriveKey(
-            encryptionOptions.password(), encryptedKeySalt, encryptionOptions.spinCount(), keyBits,
-            com.beingidly.litexl.crypto.KeyDerivation.BLOCK_KEY_VERIFIER_INPUT
-        );
-        byte[] encryptedVerifierInput = new com.beingidly.litexl.crypto.AesCipher(verifierInputKey)
-            .encrypt(verifierInput, encryptedKeySalt);
-
-        java.security.MessageDigest sha512 = java.security.MessageDigest.getInstance("SHA-512");
-        byte[] verifierHash = sha512.digest(verifierInput);
-
-        byte[] verifierHashKey = com.beingidly.litexl.crypto.KeyDerivation.deriveKey(
-            encryptionOptions.password(), encryptedKeySalt, encryptionOptions.spinCount(), keyBits,
-            com.beingidly.litexl.crypto.KeyDerivation.BLOCK_KEY_VERIFIER_VALUE
-        );
-        byte[] encryptedVerifierHash = new com.beingidly.litexl.crypto.AesCipher(verifierHashKey)
-            .encryptNoPadding(verifierHash, encryptedKeySalt);
+        PasswordKeyEncryptor keyEncryptor = encryptionSession != null
+            ? PasswordKeyEncryptor.forSession(encryptionSession, encryptionKey)
+            : PasswordKeyEncryptor.forPassword(encryptionOptions, encryptionKey);
 
         // HMAC key is encrypted into EncryptionInfo; HMAC value itself is filled in after
         // EncryptedPackage is written, because it must cover the final stream bytes.
@@ -793,8 +912,8 @@ final class XlsxWriter implements Closeable {
         byte[] encryptedHmacValue = hmacCipher.encryptNoPadding(placeholderHmac, hmacValueIv);
 
         byte[] encryptionInfo = buildEncryptionInfo(
-            keyBits, keyDataSalt, encryptedKeySalt, encryptionOptions.spinCount(),
-            encryptedKey, encryptedVerifierInput, encryptedVerifierHash,
+            keyBits, keyDataSalt, keyEncryptor.salt(), encryptionOptions.spinCount(),
+            keyEncryptor.encryptedKey(), keyEncryptor.encryptedVerifierInput(), keyEncryptor.encryptedVerifierHash(),
             encryptedHmacKey, encryptedHmacValue
         );
 
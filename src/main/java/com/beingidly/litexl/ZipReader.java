@@ -3,41 +3,492 @@ package com.beingidly.litexl;
 import org.jspecify.annotations.Nullable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
- * ZIP file reader.
+ * ZIP archive reader over a {@link ByteBuffer} or a {@link SeekableByteChannel}.
+ *
+ * <p>Files up to 2 GiB are memory-mapped and larger ones read through a file
+ * channel; decrypted packages are read straight from the buffer they were
+ * decrypted into, or from a channel that decrypts on demand. Only the central
+ * directory is parsed when opening, and entries are inflated from the source
+ * as they are read. Entry streams may be opened from several threads at once.</p>
+ *
+ * <p>A mapping is released by the garbage collector, not by {@link #close()}.
+ * Until then, Windows does not allow a mapped file to be overwritten or deleted.</p>
  */
 final class ZipReader implements AutoCloseable {
 
-    private final ZipFile zipFile;
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    // Exactly one of buffer and channel is set
+    private final @Nullable ByteBuffer buffer;
+    private final @Nullable SeekableByteChannel channel;
+    private final long length;
+    private final Map<String, Entry> entries;
 
     public ZipReader(Path path) throws IOException {
-        this.zipFile = new ZipFile(path.toFile());
+        this(path, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads a ZIP file, mapping it only if it is at most {@code maxMappedSize} bytes.
+     */
+    ZipReader(Path path, long maxMappedSize) throws IOException {
+        this(open(path, maxMappedSize));
+    }
+
+    /**
+     * Reads a ZIP archive held in memory, from the buffer's position to its limit.
+     */
+    ZipReader(ByteBuffer data) throws IOException {
+        this(new Source(data.slice().order(ByteOrder.LITTLE_ENDIAN), null));
+    }
+
+    /**
+     * Reads a ZIP archive from a channel, which is closed with this reader.
+     *
+     * <p>Reads set the channel position while holding its lock.</p>
+     */
+    ZipReader(SeekableByteChannel channel) throws IOException {
+        this(new Source(null, channel));
+    }
+
+    private ZipReader(Source source) throws IOException {
+        this.buffer = source.buffer();
+        this.channel = source.channel();
+        try {
+            this.length = buffer != null ? buffer.limit() : Objects.requireNonNull(channel).size();
+            this.entries = readCentralDirectory();
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private record Source(@Nullable ByteBuffer buffer, @Nullable SeekableByteChannel channel) {}
+
+    private static Source open(Path path, long maxMappedSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > maxMappedSize) {
+                // A single mapping cannot exceed 2 GiB; larger files are read through the channel
+                return new Source(null, channel);
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            channel.close();
+            return new Source(mapped.order(ByteOrder.LITTLE_ENDIAN), null);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
     }
 
     /**
      * Gets an entry's input stream, or null if not found.
      */
     public @Nullable InputStream getEntry(String name) throws IOException {
-        ZipEntry entry = zipFile.getEntry(name);
+        Entry entry = entries.get(name);
         if (entry == null) {
             return null;
         }
-        return zipFile.getInputStream(entry);
+
+        if (entry.method != STORED && entry.method != DEFLATED) {
+            throw new LitexlException(ErrorCode.UNSUPPORTED_FORMAT,
+                "Unsupported compression method " + entry.method + ": " + name);
+        }
+
+        long start = entryDataStart(entry);
+        ByteBuffer data = buffer;
+        if (data != null) {
+            ByteBuffer slice = data.slice((int) start, (int) entry.compressedSize);
+            return entry.method == STORED
+                ? new StoredInputStream(slice)
+                : new InflatingInputStream(slice, entry.size, entry.name);
+        }
+
+        InputStream compressed = new ChannelInputStream(
+            Objects.requireNonNull(channel), start, start + entry.compressedSize);
+        return entry.method == STORED
+            ? compressed
+            : new InflatingInputStream(compressed, entry.size, entry.name);
     }
 
     /**
      * Checks if an entry exists.
      */
     public boolean hasEntry(String name) {
-        return zipFile.getEntry(name) != null;
+        return entries.containsKey(name);
     }
 
     @Override
     public void close() throws IOException {
-        zipFile.close();
+        // Mapped buffers are released by the GC (see the class comment); only a channel is held open
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private Map<String, Entry> readCentralDirectory() throws IOException {
+        long tailStart = Math.max(0, length - END_SIZE - MAX_COMMENT);
+        ByteBuffer tail = read(tailStart, (int) (length - tailStart));
+        int end = findEndOfCentralDirectory(tail);
+        long count = u16(tail, end + 10);
+        long directorySize = u32(tail, end + 12);
+        long directoryOffset = u32(tail, end + 16);
+
+        if (count == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+            long locatorOffset = tailStart + end - ZIP64_LOCATOR_SIZE;
+            ByteBuffer locator = locatorOffset >= 0 ? read(locatorOffset, ZIP64_LOCATOR_SIZE) : null;
+            if (locator != null && locator.getInt(0) == ZIP64_LOCATOR) {
+                ByteBuffer zip64End = read(locator.getLong(8), 56);
+                if (zip64End.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                    throw new CorruptFileException("Invalid ZIP64 end of central directory");
+                }
+                count = zip64End.getLong(32);
+                directorySize = zip64End.getLong(40);
+                directoryOffset = zip64End.getLong(48);
+            }
+        }
+
+        if (directorySize < 0 || directorySize > Integer.MAX_VALUE
+                || count < 0 || count > directorySize / CENTRAL_HEADER_SIZE) {
+            throw new CorruptFileException("Invalid ZIP central directory size: " + count + " entries");
+        }
+        ByteBuffer directory = read(directoryOffset, (int) directorySize);
+        int pos = 0;
+        int limit = directory.limit();
+
+        Map<String, Entry> result = HashMap.newHashMap((int) count);
+        for (long i = 0; i < count; i++) {
+            if (pos + CENTRAL_HEADER_SIZE > limit || directory.getInt(pos) != CENTRAL_HEADER) {
+                throw new CorruptFileException("Invalid ZIP central directory");
+            }
+            int method = u16(directory, pos + 10);
+            long compressedSize = u32(directory, pos + 20);
+            long size = u32(directory, pos + 24);
+            int nameLength = u16(directory, pos + 28);
+            int extraLength = u16(directory, pos + 30);
+            int commentLength = u16(directory, pos + 32);
+            long localOffset = u32(directory, pos + 42);
+
+            int nameStart = pos + CENTRAL_HEADER_SIZE;
+            int extraStart = nameStart + nameLength;
+            int next = extraStart + extraLength + commentLength;
+            if (next > limit) {
+                throw new CorruptFileException("Invalid ZIP central directory");
+            }
+
+            // ZIP64 sizes follow in a fixed order, present only for saturated fields
+            if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localOffset == 0xFFFFFFFFL) {
+                int zip64 = findExtra(directory, extraStart, extraStart + extraLength, 0x0001);
+                if (zip64 >= 0) {
+                    int field = zip64 + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (localOffset == 0xFFFFFFFFL) {
+                        localOffset = directory.getLong(field);
+                    }
+                }
+            }
+
+            String name = string(directory, nameStart, nameLength);
+            result.putIfAbsent(name, new Entry(name, method, compressedSize, size, localOffset));
+            pos = next;
+        }
+        return result;
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail) {
+        for (int pos = tail.limit() - END_SIZE; pos >= 0; pos--) {
+            if (tail.getInt(pos) == END_OF_CENTRAL_DIRECTORY && pos + END_SIZE + u16(tail, pos + 20) <= tail.limit()) {
+                return pos;
+            }
+        }
+        throw new CorruptFileException("Not a ZIP file: end of central directory not found");
+    }
+
+    private static int findExtra(ByteBuffer directory, int from, int to, int id) {
+        int pos = from;
+        while (pos + 4 <= to) {
+            int length = u16(directory, pos + 2);
+            if (u16(directory, pos) == id) {
+                return pos + 4 + length <= to ? pos : -1;
+            }
+            pos += 4 + length;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset of an entry's data, after its local header.
+     */
+    private long entryDataStart(Entry entry) throws IOException {
+        ByteBuffer header = read(entry.localOffset, LOCAL_HEADER_SIZE);
+        if (header.getInt(0) != LOCAL_HEADER) {
+            throw new CorruptFileException("Invalid ZIP local header: " + entry.name);
+        }
+        // Local name and extra lengths may differ from the central directory
+        long start = entry.localOffset + LOCAL_HEADER_SIZE + u16(header, 26) + u16(header, 28);
+        checkRange(start, entry.compressedSize);
+        return start;
+    }
+
+    /**
+     * Returns a little-endian view of {@code length} bytes at {@code offset}.
+     */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        checkRange(offset, length);
+        ByteBuffer data = buffer;
+        if (data != null) {
+            return data.slice((int) offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        SeekableByteChannel source = Objects.requireNonNull(channel);
+        ByteBuffer result = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        synchronized (source) {
+            source.position(offset);
+            while (result.hasRemaining()) {
+                if (source.read(result) < 0) {
+                    throw new CorruptFileException("Unexpected end of ZIP data");
+                }
+            }
+        }
+        return result.flip();
+    }
+
+    private void checkRange(long offset, long size) {
+        if (offset < 0 || size < 0 || offset > length - size) {
+            throw new CorruptFileException("ZIP offset out of range: " + offset);
+        }
+    }
+
+    private static int u16(ByteBuffer data, int index) {
+        return data.getShort(index) & 0xFFFF;
+    }
+
+    private static long u32(ByteBuffer data, int index) {
+        return data.getInt(index) & 0xFFFFFFFFL;
+    }
+
+    private static String string(ByteBuffer data, int index, int length) {
+        byte[] bytes = new byte[length];
+        data.get(index, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Entry(String name, int method, long compressedSize, long size, long localOffset) {}
+
+    /**
+     * Reads a stored entry directly from its slice.
+     */
+    private static final class StoredInputStream extends InputStream {
+
+        private final ByteBuffer data;
+
+        StoredInputStream(ByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return data.hasRemaining() ? data.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, data.remaining());
+            data.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return data.remaining();
+        }
+    }
+
+    /**
+     * Reads a range of a shared channel, positioning it under its lock for each read.
+     */
+    private static final class ChannelInputStream extends InputStream {
+
+        private final SeekableByteChannel channel;
+        private long position;
+        private final long end;
+
+        ChannelInputStream(SeekableByteChannel channel, long position, long end) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == 1 ? one[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            ByteBuffer target = ByteBuffer.wrap(b, off, (int) Math.min(len, end - position));
+            int n;
+            synchronized (channel) {
+                channel.position(position);
+                n = channel.read(target);
+            }
+            if (n < 0) {
+                throw new CorruptFileException("Unexpected end of ZIP data");
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+
+    /**
+     * Inflates a deflated entry, from its whole compressed slice or a stream of it.
+     */
+    private static final class InflatingInputStream extends InputStream {
+
+        private final Inflater inflater = new Inflater(true);
+        private final @Nullable InputStream compressed;
+        private final byte @Nullable [] chunk;
+        private final long size;
+        private final String name;
+        private boolean padded;
+        private boolean closed;
+
+        InflatingInputStream(ByteBuffer data, long size, String name) {
+            this.compressed = null;
+            this.chunk = null;
+            this.size = size;
+            this.name = name;
+            inflater.setInput(data);
+        }
+
+        InflatingInputStream(InputStream compressed, long size, String name) {
+            this.compressed = compressed;
+            this.chunk = new byte[CHUNK_SIZE];
+            this.size = size;
+            this.name = name;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == 1 ? one[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            try {
+                while (true) {
+                    int n = inflater.inflate(b, off, len);
+                    if (n > 0) {
+                        return n;
+                    }
+                    if (inflater.finished()) {
+                        if (inflater.getBytesWritten() != size) {
+                            throw new CorruptFileException("ZIP entry size mismatch: " + name);
+                        }
+                        return -1;
+                    }
+                    if (compressed != null && chunk != null && inflater.needsInput()) {
+                        int read = compressed.read(chunk);
+                        if (read > 0) {
+                            inflater.setInput(chunk, 0, read);
+                            continue;
+                        }
+                    }
+                    if (inflater.needsDictionary() || !inflater.needsInput() || padded) {
+                        throw new CorruptFileException("Truncated ZIP entry: " + name);
+                    }
+                    // Raw inflate may want one byte past the end of the data, as ZipFile supplies
+                    inflater.setInput(new byte[1]);
+                    padded = true;
+                }
+            } catch (DataFormatException e) {
+                throw new CorruptFileException("Invalid deflate data: " + name, e);
+            }
+        }
+
+        @Override
+        public int available() {
+            return closed || inflater.finished() ? 0 : 1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                inflater.end();
+                if (compressed != null) {
+                    compressed.close();
+                }
+            }
+        }
     }
 }
@@ -5,21 +5,55 @@ import org.jspecify.annotations.Nullable;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 /**
  * ZIP file writer.
+ *
+ * <p>Entries are either deflated as they are written ({@link #newEntry}) or
+ * copied in already compressed ({@link #addDeflated}), which lets sheets be
+ * compressed on other threads. ZIP64 records are added only when sizes,
+ * offsets or the entry count need them.</p>
  */
 final class ZipWriter implements AutoCloseable {
 
     private static final int ENTRY_BUFFER_SIZE = 65536;
 
-    private final ZipOutputStream zipOut;
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int DATA_DESCRIPTOR = 0x08074b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int VERSION_DEFLATE = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private final OutputStream out;
+    private final ByteBuffer header = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+    private final List<Entry> entries = new ArrayList<>();
+    private final int dosTime;
+    private final int dosDate;
+    private long offset;
+    private @Nullable Deflater deflater;
     private @Nullable BufferedEntryOutputStream currentEntryStream;
+    private boolean closed;
 
     public ZipWriter(java.nio.file.Path path) throws IOException {
-        this.zipOut = new ZipOutputStream(new BufferedOutputStream(java.nio.file.Files.newOutputStream(path), 65536));
+        this(java.nio.file.Files.newOutputStream(path));
     }
 
     /**
@@ -29,33 +63,216 @@ final class ZipWriter implements AutoCloseable {
      * @throws IOException if an I/O error occurs
      */
     public ZipWriter(OutputStream outputStream) throws IOException {
-        this.zipOut = new ZipOutputStream(new BufferedOutputStream(outputStream, 65536));
+        this.out = new BufferedOutputStream(outputStream, 65536);
+        LocalDateTime now = LocalDateTime.now();
+        this.dosTime = now.getHour() << 11 | now.getMinute() << 5 | now.getSecond() >> 1;
+        this.dosDate = Math.max(now.getYear() - 1980, 0) << 9 | now.getMonthValue() << 5 | now.getDayOfMonth();
     }
 
     /**
      * Creates a new entry and returns an output stream to write to it.
      *
-     * <p>Entry data is written directly to the ZIP stream without a temp file.</p>
+     * <p>Entry data is deflated directly into the ZIP stream without a temp file;
+     * its CRC and sizes follow the data in a data descriptor.</p>
      */
     public OutputStream newEntry(String name) throws IOException {
-        // Close previous entry if any
-        if (currentEntryStream != null) {
-            currentEntryStream.closeEntry();
-            currentEntryStream = null;
-        }
+        closeCurrentEntry();
 
-        zipOut.putNextEntry(new ZipEntry(name));
-        currentEntryStream = new BufferedEntryOutputStream(new EntryOutputStream());
+        Entry entry = new Entry(name.getBytes(StandardCharsets.UTF_8), FLAG_DATA_DESCRIPTOR | FLAG_UTF8, offset);
+        writeLocalHeader(entry, false);
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        currentEntryStream = new BufferedEntryOutputStream(new EntryOutputStream(entry, deflater));
         return currentEntryStream;
     }
 
+    /**
+     * Adds an entry whose data was already deflated, copying the compressed bytes as they are.
+     */
+    public void addDeflated(String name, DeflatedEntry deflated) throws IOException {
+        closeCurrentEntry();
+
+        Entry entry = new Entry(name.getBytes(StandardCharsets.UTF_8), FLAG_UTF8, offset);
+        entry.crc = deflated.crc();
+        entry.size = deflated.size();
+        entry.compressedSize = deflated.compressedSize();
+        writeLocalHeader(entry, entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC);
+        deflated.transferTo(out);
+        offset += entry.compressedSize;
+        entries.add(entry);
+    }
+
     @Override
     public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeCurrentEntry();
+            writeCentralDirectory();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            out.close();
+        }
+    }
+
+    private void closeCurrentEntry() throws IOException {
         if (currentEntryStream != null) {
             currentEntryStream.closeEntry();
             currentEntryStream = null;
         }
-        zipOut.close();
+    }
+
+    private void writeLocalHeader(Entry entry, boolean zip64) throws IOException {
+        header.clear();
+        header.putInt(LOCAL_HEADER);
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION_DEFLATE));
+        header.putShort((short) entry.flags);
+        header.putShort((short) METHOD_DEFLATED);
+        header.putShort((short) dosTime);
+        header.putShort((short) dosDate);
+        header.putInt((int) entry.crc);
+        header.putInt((int) (zip64 ? ZIP64_MAGIC : entry.compressedSize));
+        header.putInt((int) (zip64 ? ZIP64_MAGIC : entry.size));
+        header.putShort((short) entry.name.length);
+        header.putShort((short) (zip64 ? 20 : 0));
+        flushHeader();
+        writeBytes(entry.name);
+        if (zip64) {
+            header.clear();
+            header.putShort((short) ZIP64_EXTRA);
+            header.putShort((short) 16);
+            header.putLong(entry.size);
+            header.putLong(entry.compressedSize);
+            flushHeader();
+        }
+    }
+
+    private void writeDataDescriptor(Entry entry) throws IOException {
+        header.clear();
+        header.putInt(DATA_DESCRIPTOR);
+        header.putInt((int) entry.crc);
+        if (entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC) {
+            header.putLong(entry.compressedSize);
+            header.putLong(entry.size);
+        } else {
+            header.putInt((int) entry.compressedSize);
+            header.putInt((int) entry.size);
+        }
+        flushHeader();
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long directoryOffset = offset;
+        for (Entry entry : entries) {
+            boolean largeSize = entry.size >= ZIP64_MAGIC;
+            boolean largeCompressed = entry.compressedSize >= ZIP64_MAGIC;
+            boolean largeOffset = entry.offset >= ZIP64_MAGIC;
+            int extraLength = (largeSize ? 8 : 0) + (largeCompressed ? 8 : 0) + (largeOffset ? 8 : 0);
+            int version = extraLength > 0 ? VERSION_ZIP64 : VERSION_DEFLATE;
+
+            header.clear();
+            header.putInt(CENTRAL_HEADER);
+            header.putShort((short) version); // version made by (MS-DOS)
+            header.putShort((short) version);
+            header.putShort((short) entry.flags);
+            header.putShort((short) METHOD_DEFLATED);
+            header.putShort((short) dosTime);
+            header.putShort((short) dosDate);
+            header.putInt((int) entry.crc);
+            header.putInt((int) (largeCompressed ? ZIP64_MAGIC : entry.compressedSize));
+            header.putInt((int) (largeSize ? ZIP64_MAGIC : entry.size));
+            header.putShort((short) entry.name.length);
+            header.putShort((short) (extraLength > 0 ? extraLength + 4 : 0));
+            header.putShort((short) 0); // comment length
+            header.putShort((short) 0); // disk number
+            header.putShort((short) 0); // internal attributes
+            header.putInt(0); // external attributes
+            header.putInt((int) (largeOffset ? ZIP64_MAGIC : entry.offset));
+            flushHeader();
+            writeBytes(entry.name);
+
+            if (extraLength > 0) {
+                header.clear();
+                header.putShort((short) ZIP64_EXTRA);
+                header.putShort((short) extraLength);
+                if (largeSize) {
+                    header.putLong(entry.size);
+                }
+                if (largeCompressed) {
+                    header.putLong(entry.compressedSize);
+                }
+                if (largeOffset) {
+                    header.putLong(entry.offset);
+                }
+                flushHeader();
+            }
+        }
+        long directorySize = offset - directoryOffset;
+        int count = entries.size();
+
+        if (count >= ZIP64_MAGIC_COUNT || directoryOffset >= ZIP64_MAGIC || directorySize >= ZIP64_MAGIC) {
+            long zip64Offset = offset;
+            header.clear();
+            header.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY);
+            header.putLong(44); // size of the remaining record
+            header.putShort((short) VERSION_ZIP64);
+            header.putShort((short) VERSION_ZIP64);
+            header.putInt(0); // this disk
+            header.putInt(0); // directory disk
+            header.putLong(count);
+            header.putLong(count);
+            header.putLong(directorySize);
+            header.putLong(directoryOffset);
+            header.putInt(ZIP64_LOCATOR);
+            header.putInt(0); // directory disk
+            header.putLong(zip64Offset);
+            header.putInt(1); // total disks
+            flushHeader();
+        }
+
+        header.clear();
+        header.putInt(END_OF_CENTRAL_DIRECTORY);
+        header.putShort((short) 0); // this disk
+        header.putShort((short) 0); // directory disk
+        header.putShort((short) Math.min(count, ZIP64_MAGIC_COUNT));
+        header.putShort((short) Math.min(count, ZIP64_MAGIC_COUNT));
+        header.putInt((int) Math.min(directorySize, ZIP64_MAGIC));
+        header.putInt((int) Math.min(directoryOffset, ZIP64_MAGIC));
+        header.putShort((short) 0); // comment length
+        flushHeader();
+    }
+
+    private void flushHeader() throws IOException {
+        out.write(header.array(), 0, header.position());
+        offset += header.position();
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+        offset += bytes.length;
+    }
+
+    /**
+     * An entry's central directory record, filled in once its data is written.
+     */
+    private static final class Entry {
+        final byte[] name;
+        final int flags;
+        final long offset;
+        long crc;
+        long size;
+        long compressedSize;
+
+        Entry(byte[] name, int flags, long offset) {
+            this.name = name;
+            this.flags = flags;
+            this.offset = offset;
+        }
     }
 
     /**
@@ -94,23 +311,36 @@ final class ZipWriter implements AutoCloseable {
     }
 
     private final class EntryOutputStream extends OutputStream {
+        private final Entry entry;
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] chunk = new byte[ENTRY_BUFFER_SIZE];
         private boolean closed;
 
+        EntryOutputStream(Entry entry, Deflater deflater) {
+            this.entry = entry;
+            this.deflater = deflater;
+        }
+
         @Override
         public void write(int b) throws IOException {
-            ensureOpen();
-            zipOut.write(b);
+            write(new byte[] {(byte) b}, 0, 1);
         }
 
         @Override
         public void write(byte[] b, int off, int len) throws IOException {
             ensureOpen();
-            zipOut.write(b, off, len);
+            crc.update(b, off, len);
+            entry.size += len;
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                drain();
+            }
         }
 
         @Override
         public void flush() throws IOException {
-            zipOut.flush();
+            out.flush();
         }
 
         @Override
@@ -119,10 +349,25 @@ final class ZipWriter implements AutoCloseable {
         }
 
         private void closeEntry() throws IOException {
-            if (!closed) {
-                zipOut.closeEntry();
-                closed = true;
+            if (closed) {
+                return;
+            }
+            closed = true;
+            deflater.finish();
+            while (!deflater.finished()) {
+                drain();
             }
+            entry.compressedSize = deflater.getBytesWritten();
+            entry.crc = crc.getValue();
+            deflater.reset();
+            writeDataDescriptor(entry);
+            entries.add(entry);
+        }
+
+        private void drain() throws IOException {
+            int length = deflater.deflate(chunk);
+            out.write(chunk, 0, length);
+            offset += length;
         }
 
         private void ensureOpen() throws IOException {
@@ -1,16 +1,22 @@
 package com.beingidly.litexl.crypto;
 
 import com.beingidly.litexl.CorruptFileException;
+import com.beingidly.litexl.ErrorCode;
 import com.beingidly.litexl.InvalidPasswordException;
+import com.beingidly.litexl.LitexlException;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import javax.xml.stream.*;
 import org.jspecify.annotations.Nullable;
 
@@ -23,9 +29,17 @@ import org.jspecify.annotations.Nullable;
  * decryptor.parseEncryptionInfo(encryptionInfoData, encryptedPackage);
  * ByteBuffer decrypted = decryptor.decrypt();
  * }</pre>
+ *
+ * <p>For packages too large to hold in memory, {@link #openChannel()} decrypts
+ * segments only as they are read. The encrypted package may itself be given as
+ * a channel, when its stream is not stored in one piece.</p>
  */
 public final class AgileDecryptor {
 
+    private static final int SEGMENT_SIZE = SegmentDecryptingChannel.SEGMENT_SIZE;
+    // Segments per fork-join leaf (256 KiB)
+    private static final int PARALLEL_SEGMENTS = 64;
+
     private final String password;
     private @Nullable EncryptionInfo parsedInfo;
 
@@ -46,6 +60,37 @@ public final class AgileDecryptor {
      * @throws IOException if parsing fails
      */
     public void parseEncryptionInfo(ByteBuffer encryptionInfoData, ByteBuffer encryptedPackage) throws IOException {
+        this.parsedInfo = parseAgileXml(readInfoXml(encryptionInfoData), encryptedPackage, null);
+    }
+
+    /**
+     * Parses the EncryptionInfo stream, with the encrypted package read from a channel.
+     *
+     * <p>Nothing is copied up front: {@link #openChannel()} reads segments from the
+     * channel as they are needed. The channel must stay open while it is in use.</p>
+     *
+     * @param encryptionInfoData the raw EncryptionInfo stream data
+     * @param encryptedPackage a channel over the EncryptedPackage stream
+     * @throws IOException if parsing or reading the package header fails
+     */
+    public void parseEncryptionInfo(ByteBuffer encryptionInfoData, SeekableByteChannel encryptedPackage)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        long length;
+        synchronized (encryptedPackage) {
+            length = encryptedPackage.size();
+            encryptedPackage.position(0);
+            while (header.hasRemaining()) {
+                if (encryptedPackage.read(header) < 0) {
+                    throw new CorruptFileException("Encrypted package is truncated");
+                }
+            }
+        }
+        ChannelPackage channel = new ChannelPackage(encryptedPackage, length, header.getLong(0));
+        this.parsedInfo = parseAgileXml(readInfoXml(encryptionInfoData), null, channel);
+    }
+
+    private static byte[] readInfoXml(ByteBuffer encryptionInfoData) {
         ByteBuffer orderedData = encryptionInfoData.order(ByteOrder.LITTLE_ENDIAN);
 
         // Read version header
@@ -60,11 +105,11 @@ public final class AgileDecryptor {
         // Rest is XML
         byte[] xmlData = new byte[orderedData.remaining()];
         orderedData.get(xmlData);
-
-        this.parsedInfo = parseAgileXml(xmlData, encryptedPackage);
+        return xmlData;
     }
 
-    private EncryptionInfo parseAgileXml(byte[] xmlData, ByteBuffer encryptedPackage) throws IOException {
+    private EncryptionInfo parseAgileXml(byte[] xmlData, @Nullable ByteBuffer encryptedPackage,
+                                         @Nullable ChannelPackage encryptedChannel) throws IOException {
         try {
             XMLInputFactory factory = XMLInputFactory.newInstance();
             factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
@@ -147,7 +192,8 @@ public final class AgileDecryptor {
                 encryptedKey,
                 encryptedVerifierInput,
                 encryptedVerifierHash,
-                encryptedPackage
+                encryptedPackage,
+                encryptedChannel
             );
 
         } catch (XMLStreamException e) {
@@ -163,15 +209,137 @@ public final class AgileDecryptor {
      * @throws IllegalStateException if parseEncryptionInfo was not called first
      */
     public ByteBuffer decrypt() throws GeneralSecurityException {
+        return decrypt(1);
+    }
+
+    /**
+     * Decrypts the encrypted package, splitting its segments across threads.
+     *
+     * <p>Packages of a few hundred KiB or less are always decrypted on the calling
+     * thread.</p>
+     *
+     * @param parallelism the number of threads to decrypt with
+     * @return the decrypted data as a ByteBuffer
+     * @throws GeneralSecurityException if decryption fails
+     * @throws IllegalStateException if parseEncryptionInfo was not called first
+     */
+    public ByteBuffer decrypt(int parallelism) throws GeneralSecurityException {
+        EncryptionInfo info = requireInfo();
+        byte[] encryptionKey = deriveEncryptionKey(info);
+
+        // Decrypt the data using keyDataSalt for IV generation
+        return decryptData(encryptedData(info), encryptionKey, info.keyDataSalt(), parallelism);
+    }
+
+    /**
+     * Opens the decrypted package as a read-only channel.
+     *
+     * <p>The password is verified immediately, but segments are only decrypted as
+     * they are read, and just a few are cached, so memory use does not grow with
+     * the package size. The encrypted package buffer must stay readable while the
+     * channel is in use.</p>
+     *
+     * @return a seekable channel over the decrypted data
+     * @throws GeneralSecurityException if the password is wrong or the key cannot be derived
+     * @throws IllegalStateException if parseEncryptionInfo was not called first
+     */
+    public SeekableByteChannel openChannel() throws GeneralSecurityException {
+        return openChannel(1);
+    }
+
+    /**
+     * Opens the decrypted package as a read-only channel that decrypts ahead of
+     * sequential reads on several threads.
+     *
+     * <p>When reads move forward through the package, the next batch of segments
+     * is decrypted in parallel and cached; random reads decrypt single segments.
+     * Memory use grows with {@code parallelism}, not with the package size.</p>
+     *
+     * @param parallelism the number of threads to decrypt with; 1 decrypts on the reading thread
+     * @return a seekable channel over the decrypted data
+     * @throws GeneralSecurityException if the password is wrong or the key cannot be derived
+     * @throws IllegalStateException if parseEncryptionInfo was not called first
+     */
+    public SeekableByteChannel openChannel(int parallelism) throws GeneralSecurityException {
+        EncryptionInfo info = requireInfo();
+        byte[] encryptionKey = deriveEncryptionKey(info);
+
+        ChannelPackage channel = info.encryptedChannel();
+        if (channel != null) {
+            if (channel.decryptedSize() < 0) {
+                throw new GeneralSecurityException("Invalid data size");
+            }
+            return new SegmentDecryptingChannel(SegmentDecryptingChannel.channelSource(channel.channel(), 8),
+                channel.length() - 8, channel.decryptedSize(), encryptionKey, info.keyDataSalt(), parallelism);
+        }
+
+        ByteBuffer data = encryptedData(info).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        long originalSize = data.getLong();
+        if (originalSize < 0) {
+            throw new GeneralSecurityException("Invalid data size");
+        }
+        return new SegmentDecryptingChannel(data, originalSize, encryptionKey, info.keyDataSalt(), parallelism);
+    }
+
+    /**
+     * Returns the size of the decrypted package, as recorded in its header.
+     *
+     * @throws IllegalStateException if parseEncryptionInfo was not called first
+     */
+    public long decryptedSize() {
+        EncryptionInfo info = requireInfo();
+        if (info.encryptedChannel() != null) {
+            return info.encryptedChannel().decryptedSize();
+        }
+        ByteBuffer data = encryptedData(info);
+        return data.duplicate().order(ByteOrder.LITTLE_ENDIAN).getLong(data.position());
+    }
+
+    /**
+     * Returns the encrypted package as a buffer, reading it whole from its channel if need be.
+     */
+    private static ByteBuffer encryptedData(EncryptionInfo info) {
+        ByteBuffer data = info.encryptedData();
+        if (data != null) {
+            return data;
+        }
+        ChannelPackage channel = Objects.requireNonNull(info.encryptedChannel());
+        if (channel.length() > Integer.MAX_VALUE) {
+            throw new LitexlException(ErrorCode.UNSUPPORTED_FORMAT,
+                "Encrypted package is too large to decrypt into memory; use openChannel()");
+        }
+        ByteBuffer copy = ByteBuffer.allocate((int) channel.length());
+        try {
+            synchronized (channel.channel()) {
+                channel.channel().position(0);
+                while (copy.hasRemaining()) {
+                    if (channel.channel().read(copy) < 0) {
+                        throw new CorruptFileException("Encrypted package is truncated");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new LitexlException(ErrorCode.IO_ERROR, "Failed to read encrypted package", e);
+        }
+        return copy.flip();
+    }
+
+    private EncryptionInfo requireInfo() {
         if (parsedInfo == null) {
             throw new IllegalStateException("parseEncryptionInfo must be called first");
         }
+        return parsedInfo;
+    }
 
-        int keyBits = parsedInfo.keyBits();
+    /**
+     * Verifies the password and returns the package encryption key.
+     */
+    private byte[] deriveEncryptionKey(EncryptionInfo info) throws GeneralSecurityException {
+        int keyBits = info.keyBits();
 
         // Derive intermediate hash once (expensive spinCount iterations)
         byte[] intermediateHash = KeyDerivation.deriveIntermediateHash(
-            password, parsedInfo.salt(), parsedInfo.spinCount()
+            password, info.salt(), info.spinCount()
         );
 
         // Derive keys from intermediate hash (fast)
@@ -181,7 +349,7 @@ public final class AgileDecryptor {
 
         // Decrypt verifier input
         byte[] decryptedVerifierInput = new AesCipher(verifierInputKey)
-            .decrypt(parsedInfo.encryptedVerifierInput(), parsedInfo.iv());
+            .decrypt(info.encryptedVerifierInput(), info.iv());
 
         // Verify password by checking verifier hash
         byte[] verifierHashKey = KeyDerivation.deriveKeyFromIntermediate(
@@ -189,7 +357,7 @@ public final class AgileDecryptor {
         );
 
         byte[] decryptedVerifierHash = new AesCipher(verifierHashKey)
-            .decrypt(parsedInfo.encryptedVerifierHash(), parsedInfo.iv());
+            .decrypt(info.encryptedVerifierHash(), info.iv());
 
         // Compute expected hash
         try {
@@ -211,76 +379,141 @@ public final class AgileDecryptor {
         );
 
         byte[] encryptionKey = new AesCipher(keyDerivedKey)
-            .decrypt(parsedInfo.encryptedKey(), parsedInfo.iv());
-        encryptionKey = Arrays.copyOf(encryptionKey, keyBits / 8);
-
-        // Decrypt the data using keyDataSalt for IV generation
-        return decryptData(parsedInfo.encryptedData(), encryptionKey, parsedInfo.keyDataSalt());
+            .decrypt(info.encryptedKey(), info.iv());
+        return Arrays.copyOf(encryptionKey, keyBits / 8);
     }
 
-    private ByteBuffer decryptData(ByteBuffer data, byte[] key, byte[] salt) throws GeneralSecurityException {
-        ByteBuffer inputBuf = data.order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer decryptData(ByteBuffer data, byte[] key, byte[] salt, int parallelism)
+            throws GeneralSecurityException {
+        ByteBuffer inputBuf = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
 
         // Read original size
         long originalSize = inputBuf.getLong();
         if (originalSize < 0 || originalSize > Integer.MAX_VALUE) {
             throw new GeneralSecurityException("Invalid data size");
         }
+        int size = (int) originalSize;
+        int segments = (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        long required = segments == 0 ? 0
+            : (long) (segments - 1) * SEGMENT_SIZE + padded(size - (segments - 1) * SEGMENT_SIZE);
+        if (inputBuf.remaining() < required) {
+            throw new CorruptFileException("Encrypted package is truncated");
+        }
 
         // Pre-allocate output buffer with Direct ByteBuffer for efficiency
-        ByteBuffer outputBuf = ByteBuffer.allocateDirect((int) originalSize);
+        ByteBuffer input = inputBuf.slice();
+        ByteBuffer outputBuf = ByteBuffer.allocateDirect(size);
 
-        int segmentSize = 4096;
-        int segmentIndex = 0;
-        int remaining = (int) originalSize;
+        if (parallelism <= 1 || segments <= PARALLEL_SEGMENTS) {
+            decryptSegments(input, outputBuf, key, salt, 0, segments);
+            return outputBuf;
+        }
 
-        // Reusable crypto and buffers for decryption
+        // Segments are independent; each task decrypts a disjoint range with its own cipher
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DecryptTask(input, outputBuf, key, salt, 0, segments));
+        } catch (DecryptFailure e) {
+            throw e.cause;
+        } finally {
+            pool.shutdown();
+        }
+        return outputBuf;
+    }
+
+    /**
+     * Decrypts segments {@code [from, to)} of the input into the same offsets of the output.
+     */
+    private static void decryptSegments(ByteBuffer input, ByteBuffer output, byte[] key, byte[] salt,
+                                        int from, int to) throws GeneralSecurityException {
         AesCipher aesCipher = new AesCipher(key);
-        int maxPaddedLen = ((segmentSize + 15) / 16) * 16;
-        ByteBuffer segmentInputBuf = ByteBuffer.allocateDirect(maxPaddedLen);
-        ByteBuffer decryptBuf = ByteBuffer.allocateDirect(maxPaddedLen);
         MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
-        ByteBuffer indexBuf = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
         byte[] ivBuffer = new byte[16];
 
-        while (inputBuf.hasRemaining() && remaining > 0) {
-            int encryptedSegmentLen = Math.min(segmentSize, remaining);
-            int paddedLen = ((encryptedSegmentLen + 15) / 16) * 16;
-
-            int toRead = Math.min(paddedLen, inputBuf.remaining());
-
-            // Copy segment to direct buffer
-            segmentInputBuf.clear();
-            int oldLimit = inputBuf.limit();
-            inputBuf.limit(inputBuf.position() + toRead);
-            segmentInputBuf.put(inputBuf);
-            inputBuf.limit(oldLimit);
-            segmentInputBuf.flip();
-            segmentInputBuf.limit(paddedLen);
-
-            // Generate IV: SHA-512(salt + LE32(segmentIndex))[0:16] - reuse digest
-            sha512.reset();
-            sha512.update(salt);
-            indexBuf.clear();
-            indexBuf.putInt(segmentIndex);
-            indexBuf.flip();
-            sha512.update(indexBuf);
-            byte[] hash = sha512.digest();
-            System.arraycopy(hash, 0, ivBuffer, 0, 16);
-
-            decryptBuf.clear();
-            aesCipher.decrypt(segmentInputBuf, decryptBuf, ivBuffer);
-            decryptBuf.flip();
-
-            decryptBuf.limit(encryptedSegmentLen);
-            outputBuf.put(decryptBuf);
-
-            remaining -= encryptedSegmentLen;
-            segmentIndex++;
+        for (int segmentIndex = from; segmentIndex < to; segmentIndex++) {
+            int offset = segmentIndex * SEGMENT_SIZE;
+            int length = Math.min(SEGMENT_SIZE, output.capacity() - offset);
+            int paddedLen = padded(length);
+            segmentIv(sha512, salt, segmentIndex, ivBuffer);
+
+            ByteBuffer segment = input.slice(offset, paddedLen);
+            if (paddedLen == length) {
+                // Full segments decrypt straight into the output
+                aesCipher.decrypt(segment, output.slice(offset, length), ivBuffer);
+            } else {
+                ByteBuffer lastSegment = ByteBuffer.allocate(paddedLen);
+                aesCipher.decrypt(segment, lastSegment, ivBuffer);
+                output.put(offset, lastSegment.array(), 0, length);
+            }
         }
+    }
 
-        outputBuf.flip();
-        return outputBuf;
+    private static int padded(int length) {
+        return (length + 15) & ~15;
+    }
+
+    /**
+     * Splits a segment range until it is small enough to decrypt on one thread.
+     */
+    private static final class DecryptTask extends RecursiveAction {
+
+        private final ByteBuffer input;
+        private final ByteBuffer output;
+        private final byte[] key;
+        private final byte[] salt;
+        private final int from;
+        private final int to;
+
+        DecryptTask(ByteBuffer input, ByteBuffer output, byte[] key, byte[] salt, int from, int to) {
+            this.input = input;
+            this.output = output;
+            this.key = key;
+            this.salt = salt;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SEGMENTS) {
+                try {
+                    decryptSegments(input, output, key, salt, from, to);
+                } catch (GeneralSecurityException e) {
+                    throw new DecryptFailure(e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DecryptTask(input, output, key, salt, from, mid),
+                new DecryptTask(input, output, key, salt, mid, to));
+        }
+    }
+
+    /**
+     * Carries a checked decryption failure out of a fork-join task.
+     */
+    private static final class DecryptFailure extends RuntimeException {
+
+        private final GeneralSecurityException cause;
+
+        DecryptFailure(GeneralSecurityException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Computes a segment IV: SHA-512(salt + LE32(segmentIndex))[0:16].
+     */
+    static void segmentIv(MessageDigest sha512, byte[] salt, int segmentIndex, byte[] iv) {
+        sha512.reset();
+        sha512.update(salt);
+        sha512.update((byte) segmentIndex);
+        sha512.update((byte) (segmentIndex >>> 8));
+        sha512.update((byte) (segmentIndex >>> 16));
+        sha512.update((byte) (segmentIndex >>> 24));
+        byte[] hash = sha512.digest();
+        System.arraycopy(hash, 0, iv, 0, 16);
     }
 
     /**
@@ -295,6 +528,13 @@ public final class AgileDecryptor {
         byte[] encryptedKey,
         byte[] encryptedVerifierInput,
         byte[] encryptedVerifierHash,
-        ByteBuffer encryptedData
+        // Exactly one of encryptedData and encryptedChannel is set
+        @Nullable ByteBuffer encryptedData,
+        @Nullable ChannelPackage encryptedChannel
     ) {}
+
+    /**
+     * An EncryptedPackage stream read through a channel, with its size header.
+     */
+    private record ChannelPackage(SeekableByteChannel channel, long length, long decryptedSize) {}
 }
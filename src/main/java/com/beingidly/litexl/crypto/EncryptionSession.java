@@ -0,0 +1,126 @@
+package com.beingidly.litexl.crypto;
+
+import org.jspecify.annotations.Nullable;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Shares password key derivation across many encrypted saves.
+ *
+ * <p>Each save normally runs the full spin-count hash loop (100,000 SHA-512
+ * rounds by default) for a fresh salt. A session derives the password keys
+ * once and reuses them, together with their salt, for the following saves.
+ * The package key, data salt, verifier and HMAC key stay random per file, so
+ * files stay independent; what they share is the password salt, which lets an
+ * attacker test a password guess against all of them at once. Limit that with
+ * {@link #create(EncryptionOptions, int)}, which derives a fresh salt after a
+ * fixed number of saves.</p>
+ *
+ * <pre>{@code
+ * EncryptionSession session = EncryptionSession.create(EncryptionOptions.aes256("secret"), 1000);
+ * for (Report report : reports) {
+ *     try (Workbook wb = report.toWorkbook()) {
+ *         wb.saveEncrypted(report.path(), session);
+ *     }
+ * }
+ * System.out.println("Saved " + session.savedTime());
+ * }</pre>
+ *
+ * <p>Sessions are thread-safe.</p>
+ */
+public final class EncryptionSession {
+
+    private static final int SALT_SIZE = 16;
+
+    private final EncryptionOptions options;
+    private final int maxSaltUses;
+    private final SecureRandom random = new SecureRandom();
+
+    private @Nullable PasswordKeys keys;
+    private int uses;
+    private long derivations;
+    private long reuses;
+    private long derivationNanos;
+
+    private EncryptionSession(EncryptionOptions options, int maxSaltUses) {
+        this.options = options;
+        this.maxSaltUses = maxSaltUses;
+    }
+
+    /**
+     * Creates a session that derives the password keys once and uses one salt for every save.
+     *
+     * @param options the encryption options
+     */
+    public static EncryptionSession create(EncryptionOptions options) {
+        return new EncryptionSession(options, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a session that derives new password keys, with a new salt, every {@code maxSaltUses} saves.
+     *
+     * @param options the encryption options
+     * @param maxSaltUses the number of saves sharing one salt; 1 disables reuse
+     */
+    public static EncryptionSession create(EncryptionOptions options, int maxSaltUses) {
+        if (maxSaltUses < 1) {
+            throw new IllegalArgumentException("Max salt uses must be positive");
+        }
+        return new EncryptionSession(options, maxSaltUses);
+    }
+
+    /**
+     * Returns the encryption options of this session.
+     */
+    public EncryptionOptions options() {
+        return options;
+    }
+
+    /**
+     * Returns the password keys for the next save, deriving them when the salt is due for rotation.
+     * Only reached through {@link PasswordKeyEncryptor#forSession}, so every call is a real save.
+     */
+    synchronized PasswordKeys nextKeys() {
+        PasswordKeys current = keys;
+        if (current != null && uses < maxSaltUses) {
+            uses++;
+            reuses++;
+            return current;
+        }
+
+        byte[] salt = new byte[SALT_SIZE];
+        random.nextBytes(salt);
+        long start = System.nanoTime();
+        current = PasswordKeys.derive(options, salt);
+        derivationNanos += System.nanoTime() - start;
+        derivations++;
+        keys = current;
+        uses = 1;
+        return current;
+    }
+
+    /**
+     * Returns the number of key derivations run so far.
+     */
+    public synchronized long derivations() {
+        return derivations;
+    }
+
+    /**
+     * Returns the number of saves that reused previously derived keys.
+     */
+    public synchronized long reuses() {
+        return reuses;
+    }
+
+    /**
+     * Returns the estimated derivation time avoided by reuse: reuses times the average derivation time.
+     */
+    public synchronized Duration savedTime() {
+        if (derivations == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(reuses * (derivationNanos / derivations));
+    }
+}
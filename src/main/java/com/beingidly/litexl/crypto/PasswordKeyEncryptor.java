@@ -0,0 +1,77 @@
+package com.beingidly.litexl.crypto;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * The password key encryptor of an Agile EncryptionInfo, for one file.
+ *
+ * <p>Wraps a package key and a fresh password verifier with keys derived from
+ * the password. Only the salt and the encrypted values, all of which are
+ * written to the file, are kept; the derived keys stay inside this package.</p>
+ *
+ * @param salt the key encryptor salt
+ * @param keyBits the key size in bits (128 or 256)
+ * @param encryptedKey the encrypted package key
+ * @param encryptedVerifierInput the encrypted verifier input
+ * @param encryptedVerifierHash the encrypted verifier hash
+ */
+public record PasswordKeyEncryptor(
+    byte[] salt,
+    int keyBits,
+    byte[] encryptedKey,
+    byte[] encryptedVerifierInput,
+    byte[] encryptedVerifierHash
+) {
+
+    private static final int SALT_SIZE = 16;
+
+    /**
+     * Encrypts a package key with keys derived from the password for a new salt.
+     *
+     * @param options the encryption options
+     * @param packageKey the package key, {@code keyBits / 8} bytes long
+     * @return the key encryptor fields
+     * @throws GeneralSecurityException if encryption fails
+     */
+    public static PasswordKeyEncryptor forPassword(EncryptionOptions options, byte[] packageKey)
+            throws GeneralSecurityException {
+        SecureRandom random = new SecureRandom();
+        byte[] salt = new byte[SALT_SIZE];
+        random.nextBytes(salt);
+        return encrypt(PasswordKeys.derive(options, salt), packageKey, random);
+    }
+
+    /**
+     * Encrypts a package key with the session's password keys; counts as one save of the session.
+     *
+     * @param session the encryption session
+     * @param packageKey the package key, {@code keyBits / 8} bytes long
+     * @return the key encryptor fields
+     * @throws GeneralSecurityException if encryption fails
+     */
+    public static PasswordKeyEncryptor forSession(EncryptionSession session, byte[] packageKey)
+            throws GeneralSecurityException {
+        return encrypt(session.nextKeys(), packageKey, new SecureRandom());
+    }
+
+    private static PasswordKeyEncryptor encrypt(PasswordKeys keys, byte[] packageKey, SecureRandom random)
+            throws GeneralSecurityException {
+        if (packageKey.length != keys.keyBits() / 8) {
+            throw new IllegalArgumentException("Package key must be " + keys.keyBits() / 8 + " bytes");
+        }
+        byte[] salt = keys.salt();
+        byte[] encryptedKey = new AesCipher(keys.encryptedKeyKey()).encrypt(packageKey, salt);
+
+        byte[] verifierInput = new byte[SALT_SIZE];
+        random.nextBytes(verifierInput);
+        byte[] encryptedVerifierInput = new AesCipher(keys.verifierInputKey()).encrypt(verifierInput, salt);
+
+        byte[] verifierHash = MessageDigest.getInstance("SHA-512").digest(verifierInput);
+        byte[] encryptedVerifierHash = new AesCipher(keys.verifierValueKey()).encryptNoPadding(verifierHash, salt);
+
+        return new PasswordKeyEncryptor(salt, keys.keyBits(), encryptedKey, encryptedVerifierInput,
+            encryptedVerifierHash);
+    }
+}
@@ -0,0 +1,46 @@
+package com.beingidly.litexl.crypto;
+
+/**
+ * Keys derived from a password for the Agile password key encryptor.
+ *
+ * <p>Holds the key encryptor salt and the three block keys that protect the
+ * package key and the password verifier. Deriving them costs one full
+ * spin-count hash loop; everything else in a save is per-file. The keys never
+ * leave this package: writers get the encrypted values from
+ * {@link PasswordKeyEncryptor}.</p>
+ *
+ * @param salt the key encryptor salt the keys were derived with
+ * @param keyBits the key size in bits (128 or 256)
+ * @param encryptedKeyKey the key that encrypts the package key
+ * @param verifierInputKey the key that encrypts the verifier input
+ * @param verifierValueKey the key that encrypts the verifier hash
+ */
+record PasswordKeys(
+    byte[] salt,
+    int keyBits,
+    byte[] encryptedKeyKey,
+    byte[] verifierInputKey,
+    byte[] verifierValueKey
+) {
+
+    /**
+     * Derives the keys for a password, running the spin loop once.
+     *
+     * @param options the encryption options supplying password, spin count and key size
+     * @param salt the key encryptor salt
+     * @return the derived keys
+     */
+    static PasswordKeys derive(EncryptionOptions options, byte[] salt) {
+        int keyBits = options.algorithm() == EncryptionOptions.Algorithm.AES_256 ? 256 : 128;
+        byte[] intermediateHash = KeyDerivation.deriveIntermediateHash(
+            options.password(), salt, options.spinCount()
+        );
+        return new PasswordKeys(
+            salt.clone(),
+            keyBits,
+            KeyDerivation.deriveKeyFromIntermediate(intermediateHash, keyBits, KeyDerivation.BLOCK_KEY_ENCRYPTED_KEY),
+            KeyDerivation.deriveKeyFromIntermediate(intermediateHash, keyBits, KeyDerivation.BLOCK_KEY_VERIFIER_INPUT),
+            KeyDerivation.deriveKeyFromIntermediate(intermediateHash, keyBits, KeyDerivation.BLOCK_KEY_VERIFIER_VALUE)
+        );
+    }
+}
@@ -0,0 +1,326 @@
+package com.beingidly.litexl.crypto;
+
+import com.beingidly.litexl.CorruptFileException;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Read-only view of a decrypted Agile package that decrypts segments on demand.
+ *
+ * <p>Each 4096-byte segment of the EncryptedPackage stream has its own IV, so any
+ * segment can be decrypted without its neighbours. Only the segments being read,
+ * plus a small LRU cache of recent ones, are held in memory, however large the
+ * package is. Methods are synchronized, so the channel may be shared by threads
+ * that set the position and read under the channel's lock.</p>
+ *
+ * <p>The encrypted segments are read from a buffer, or from a channel when the
+ * stream is not held in one piece, such as a fragmented CFB sector chain.</p>
+ *
+ * <p>With a parallelism above 1, a read that continues where the previous batch
+ * ended decrypts the next {@value #READ_AHEAD_SEGMENTS} segments per thread
+ * concurrently, so sequential scans of a large package use several cores.</p>
+ */
+final class SegmentDecryptingChannel implements SeekableByteChannel {
+
+    static final int SEGMENT_SIZE = 4096;
+    private static final int CACHED_SEGMENTS = 32;
+    // Segments each thread decrypts per read-ahead batch (64 KiB)
+    static final int READ_AHEAD_SEGMENTS = 16;
+
+    /**
+     * Random access to the encrypted segments.
+     */
+    @FunctionalInterface
+    interface Source {
+        /**
+         * Returns the {@code length} bytes starting at {@code offset}.
+         */
+        ByteBuffer read(long offset, int length) throws IOException;
+    }
+
+    private final Source encrypted;
+    private final long size;
+    private final byte[] key;
+    private final byte[] salt;
+    private final AesCipher cipher;
+    private final MessageDigest sha512;
+    private final byte[] iv = new byte[16];
+    private final int parallelism;
+    // Holds at least two read-ahead batches, so a batch is not evicted while it is read
+    private final int cacheCapacity;
+
+    private final Map<Long, byte[]> cache = new LinkedHashMap<>(CACHED_SEGMENTS * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return size() > cacheCapacity;
+        }
+    };
+
+    private @Nullable ForkJoinPool pool;
+    // First segment after the last read-ahead batch, where a sequential reader misses next
+    private long readAheadFrom;
+    private long position;
+    private boolean open = true;
+
+    /**
+     * @param encrypted the encrypted segments, after the 8-byte size header
+     * @param size the decrypted package size
+     */
+    SegmentDecryptingChannel(ByteBuffer encrypted, long size, byte[] key, byte[] salt)
+            throws GeneralSecurityException {
+        this(encrypted, size, key, salt, 1);
+    }
+
+    /**
+     * @param encrypted the encrypted segments, after the 8-byte size header
+     * @param size the decrypted package size
+     * @param parallelism the number of threads decrypting read-ahead batches
+     */
+    SegmentDecryptingChannel(ByteBuffer encrypted, long size, byte[] key, byte[] salt, int parallelism)
+            throws GeneralSecurityException {
+        this(bufferSource(encrypted.slice()), encrypted.remaining(), size, key, salt, parallelism);
+    }
+
+    /**
+     * @param encrypted the encrypted segments, after the 8-byte size header
+     * @param available the number of encrypted bytes the source holds
+     * @param size the decrypted package size
+     * @param parallelism the number of threads decrypting read-ahead batches
+     */
+    SegmentDecryptingChannel(Source encrypted, long available, long size, byte[] key, byte[] salt,
+                             int parallelism) throws GeneralSecurityException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        long segments = (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        long required = size == 0 ? 0 : (segments - 1) * SEGMENT_SIZE + padded(lastSegmentLength(size));
+        if (available < required) {
+            throw new CorruptFileException("Encrypted package is truncated");
+        }
+        this.encrypted = encrypted;
+        this.size = size;
+        this.key = key.clone();
+        this.salt = salt.clone();
+        this.cipher = new AesCipher(key);
+        this.sha512 = MessageDigest.getInstance("SHA-512");
+        this.parallelism = parallelism;
+        this.cacheCapacity = Math.max(CACHED_SEGMENTS, 2 * parallelism * READ_AHEAD_SEGMENTS);
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+
+        int read = 0;
+        while (dst.hasRemaining() && position < size) {
+            long index = position / SEGMENT_SIZE;
+            int offset = (int) (position % SEGMENT_SIZE);
+            byte[] segment = segment(index);
+            int n = Math.min(dst.remaining(), segment.length - offset);
+            dst.put(segment, offset, n);
+            position += n;
+            read += n;
+        }
+        return read;
+    }
+
+    private byte[] segment(long index) throws IOException {
+        byte[] cached = cache.get(index);
+        if (cached != null) {
+            return cached;
+        }
+        if (parallelism > 1 && index == readAheadFrom) {
+            return readAhead(index);
+        }
+
+        long start = index * SEGMENT_SIZE;
+        int length = (int) Math.min(SEGMENT_SIZE, size - start);
+        ByteBuffer input = encrypted.read(start, padded(length));
+        byte[] segment;
+        try {
+            segment = decryptSegment(cipher, sha512, iv, index, input, length);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to decrypt package segment " + index, e);
+        }
+        cache.put(index, segment);
+        return segment;
+    }
+
+    /**
+     * Decrypts the batch of segments starting at {@code first} on the pool, caches
+     * them, and returns the first.
+     */
+    private byte[] readAhead(long first) throws IOException {
+        long segments = (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        int count = (int) Math.min((long) parallelism * READ_AHEAD_SEGMENTS, segments - first);
+        long start = first * SEGMENT_SIZE;
+        int lastLength = (int) Math.min(SEGMENT_SIZE, size - (first + count - 1) * SEGMENT_SIZE);
+        ByteBuffer input = encrypted.read(start, (count - 1) * SEGMENT_SIZE + padded(lastLength));
+
+        byte[][] decrypted = new byte[count][];
+        int threads = Math.min(parallelism, count);
+        int perThread = (count + threads - 1) / threads;
+        List<Callable<Void>> tasks = new ArrayList<>(threads);
+        for (int from = 0; from < count; from += perThread) {
+            int taskFrom = from;
+            int taskTo = Math.min(count, from + perThread);
+            // Each task decrypts a disjoint range with its own cipher
+            tasks.add(() -> {
+                AesCipher taskCipher = new AesCipher(key);
+                MessageDigest taskDigest = MessageDigest.getInstance("SHA-512");
+                byte[] taskIv = new byte[16];
+                for (int i = taskFrom; i < taskTo; i++) {
+                    int length = i == count - 1 ? lastLength : SEGMENT_SIZE;
+                    ByteBuffer segment = input.slice(i * SEGMENT_SIZE, padded(length));
+                    decrypted[i] = decryptSegment(taskCipher, taskDigest, taskIv, first + i, segment, length);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : pool().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decrypting package");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to decrypt package segments from " + first, e.getCause());
+        }
+
+        for (int i = 0; i < count; i++) {
+            cache.put(first + i, decrypted[i]);
+        }
+        readAheadFrom = first + count;
+        return decrypted[0];
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            current = new ForkJoinPool(parallelism);
+            pool = current;
+        }
+        return current;
+    }
+
+    private byte[] decryptSegment(AesCipher cipher, MessageDigest sha512, byte[] iv, long index,
+                                  ByteBuffer input, int length) throws GeneralSecurityException {
+        ByteBuffer output = ByteBuffer.allocate(padded(length));
+        AgileDecryptor.segmentIv(sha512, salt, (int) index, iv);
+        cipher.decrypt(input, output, iv);
+        byte[] segment = output.array();
+        if (segment.length != length) {
+            byte[] trimmed = new byte[length];
+            System.arraycopy(segment, 0, trimmed, 0, length);
+            segment = trimmed;
+        }
+        return segment;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() {
+        open = false;
+        cache.clear();
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private static Source bufferSource(ByteBuffer buffer) {
+        return (offset, length) -> buffer.slice((int) offset, length);
+    }
+
+    /**
+     * Reads from a channel, with offsets relative to {@code base}.
+     */
+    static Source channelSource(SeekableByteChannel channel, long base) {
+        return (offset, length) -> {
+            ByteBuffer dst = ByteBuffer.allocate(length);
+            synchronized (channel) {
+                channel.position(base + offset);
+                while (dst.hasRemaining()) {
+                    if (channel.read(dst) < 0) {
+                        throw new EOFException("Encrypted package is truncated");
+                    }
+                }
+            }
+            return dst.flip();
+        };
+    }
+
+    private static int padded(int length) {
+        return (length + 15) & ~15;
+    }
+
+    private static int lastSegmentLength(long size) {
+        int rest = (int) (size % SEGMENT_SIZE);
+        return rest == 0 ? SEGMENT_SIZE : rest;
+    }
+}
@@ -1,14 +1,22 @@
 package com.beingidly.litexl;
 
 import com.beingidly.litexl.crypto.AgileDecryptor;
+import com.beingidly.litexl.crypto.EncryptionOptions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
+import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AgileDecryptorTest {
     private static final String TEST_PASSWORD = "password123";
 
+    @TempDir
+    Path tempDir;
+
     @Test
     void decryptsAes256EncryptedFile() throws Exception {
         Path encrypted = Path.of("src/test/resources/encrypted/aes256.xlsx");
@@ -55,6 +63,138 @@ class AgileDecryptorTest {
         }
     }
 
+    @Test
+    void parallelDecryptMatchesSequential() throws Exception {
+        // Random strings keep the package large enough to be split across threads
+        Path encrypted = tempDir.resolve("large.xlsx");
+        Random random = new Random(3);
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < 10_000; r++) {
+                for (int c = 0; c < 4; c++) {
+                    sheet.cell(r, c).set(Long.toString(random.nextLong(), 36));
+                }
+            }
+            wb.save(encrypted, new EncryptionOptions(EncryptionOptions.Algorithm.AES_256, TEST_PASSWORD, 1000));
+        }
+
+        try (var cfbReader = new CfbReader(encrypted)) {
+            var decryptor = new AgileDecryptor(TEST_PASSWORD);
+            decryptor.parseEncryptionInfo(
+                cfbReader.getEncryptionInfoBuffer(),
+                cfbReader.getEncryptedPackageBuffer()
+            );
+            assertTrue(decryptor.decryptedSize() > 512 * 1024);
+
+            ByteBuffer sequential = decryptor.decrypt();
+            for (int parallelism : new int[] {2, 4, 7}) {
+                assertEquals(sequential, decryptor.decrypt(parallelism));
+            }
+        }
+    }
+
+    @Test
+    void parallelChannelReadsAheadInOrder() throws Exception {
+        Path encrypted = tempDir.resolve("read-ahead.xlsx");
+        Random random = new Random(5);
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < 5_000; r++) {
+                for (int c = 0; c < 4; c++) {
+                    sheet.cell(r, c).set(Long.toString(random.nextLong(), 36));
+                }
+            }
+            wb.save(encrypted, new EncryptionOptions(EncryptionOptions.Algorithm.AES_256, TEST_PASSWORD, 1000));
+        }
+
+        try (var cfbReader = new CfbReader(encrypted)) {
+            var decryptor = new AgileDecryptor(TEST_PASSWORD);
+            decryptor.parseEncryptionInfo(
+                cfbReader.getEncryptionInfoBuffer(),
+                cfbReader.getEncryptedPackageBuffer()
+            );
+            ByteBuffer expected = decryptor.decrypt();
+
+            for (int parallelism : new int[] {2, 5}) {
+                try (SeekableByteChannel channel = decryptor.openChannel(parallelism)) {
+                    // A sequential scan in odd-sized reads, then seeks back and forth
+                    ByteBuffer actual = ByteBuffer.allocate(expected.remaining());
+                    ByteBuffer chunk = ByteBuffer.allocate(10_007);
+                    while (channel.read(chunk.clear()) > 0) {
+                        actual.put(chunk.flip());
+                    }
+                    assertEquals(expected, actual.flip());
+
+                    for (int i = 0; i < 50; i++) {
+                        int position = random.nextInt(expected.remaining());
+                        int length = Math.min(1 + random.nextInt(100_000), expected.remaining() - position);
+                        ByteBuffer part = ByteBuffer.allocate(length);
+                        channel.position(position);
+                        while (part.hasRemaining()) {
+                            assertTrue(channel.read(part) > 0);
+                        }
+                        assertEquals(expected.slice(position, length), part.flip());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void channelDecryptsSegmentsOnDemand() throws Exception {
+        Path encrypted = Path.of("src/test/resources/encrypted/aes256.xlsx");
+        try (var cfbReader = new CfbReader(encrypted)) {
+            var decryptor = new AgileDecryptor(TEST_PASSWORD);
+            decryptor.parseEncryptionInfo(
+                cfbReader.getEncryptionInfoBuffer(),
+                cfbReader.getEncryptedPackageBuffer()
+            );
+            ByteBuffer expected = decryptor.decrypt();
+            assertEquals(expected.remaining(), decryptor.decryptedSize());
+
+            try (SeekableByteChannel channel = decryptor.openChannel()) {
+                assertEquals(expected.remaining(), channel.size());
+
+                // Reads spanning segment boundaries at random positions
+                Random random = new Random(7);
+                for (int i = 0; i < 200; i++) {
+                    int position = random.nextInt(expected.remaining());
+                    int length = Math.min(1 + random.nextInt(10_000), expected.remaining() - position);
+                    ByteBuffer actual = ByteBuffer.allocate(length);
+                    channel.position(position);
+                    while (actual.hasRemaining()) {
+                        assertTrue(channel.read(actual) > 0);
+                    }
+                    assertEquals(expected.slice(position, length), actual.flip());
+                }
+                channel.position(channel.size());
+                assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+            }
+
+            try (ZipReader inMemory = new ZipReader(expected);
+                 ZipReader streamed = new ZipReader(decryptor.openChannel());
+                 InputStream a = inMemory.getEntry("xl/workbook.xml");
+                 InputStream b = streamed.getEntry("xl/workbook.xml")) {
+                assertNotNull(a);
+                assertNotNull(b);
+                assertArrayEquals(a.readAllBytes(), b.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void openChannelThrowsOnWrongPassword() throws Exception {
+        Path encrypted = Path.of("src/test/resources/encrypted/aes256.xlsx");
+        try (var cfbReader = new CfbReader(encrypted)) {
+            var decryptor = new AgileDecryptor("wrongpassword");
+            decryptor.parseEncryptionInfo(
+                cfbReader.getEncryptionInfoBuffer(),
+                cfbReader.getEncryptedPackageBuffer()
+            );
+            assertThrows(InvalidPasswordException.class, decryptor::openChannel);
+        }
+    }
+
     @Test
     void throwsOnNullEncryptionInfo() {
         var decryptor = new AgileDecryptor(TEST_PASSWORD);
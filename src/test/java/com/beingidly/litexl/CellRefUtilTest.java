@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CellRefUtilTest {
@@ -75,4 +77,53 @@ class CellRefUtilTest {
         assertThrows(IllegalArgumentException.class, () -> CellRefUtil.colToLetters(-1));
         assertThrows(IllegalArgumentException.class, () -> CellRefUtil.lettersToCol(""));
     }
+
+    @Test
+    void columnTableRoundTripsAllColumns() {
+        for (int col = 0; col < ExcelLimits.MAX_COLUMNS; col++) {
+            String letters = CellRefUtil.colToLetters(col);
+            assertSame(letters, CellRefUtil.colToLetters(col));
+            assertEquals(col, CellRefUtil.lettersToCol(letters));
+        }
+        assertEquals("XFD", CellRefUtil.colToLetters(ExcelLimits.MAX_COLUMN_INDEX));
+        assertEquals("XFE", CellRefUtil.colToLetters(ExcelLimits.MAX_COLUMNS));
+    }
+
+    @Test
+    void parseRefFromCharRange() {
+        String formula = "SUM(B2:XFD1048576)";
+        long start = CellRefUtil.parseRef(formula, 4, 6);
+        long end = CellRefUtil.parseRef(formula, 7, 17);
+
+        assertEquals(1, CellRefUtil.packedRow(start));
+        assertEquals(1, CellRefUtil.packedColumn(start));
+        assertEquals(ExcelLimits.MAX_ROW_INDEX, CellRefUtil.packedRow(end));
+        assertEquals(ExcelLimits.MAX_COLUMN_INDEX, CellRefUtil.packedColumn(end));
+    }
+
+    @Test
+    void parseRefFromByteRange() {
+        byte[] bytes = "<c r=\"AA10\" r2=\"abcd7\">".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(CellRefUtil.pack(9, 26), CellRefUtil.parseRef(bytes, 6, 10));
+        assertEquals(CellRefUtil.pack(6, CellRefUtil.lettersToCol("ABCD")), CellRefUtil.parseRef(bytes, 16, 21));
+    }
+
+    @Test
+    void invalidRangeRef() {
+        byte[] bytes = "A0 1 B".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IllegalArgumentException.class, () -> CellRefUtil.parseRef(bytes, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> CellRefUtil.parseRef(bytes, 3, 4));
+        assertThrows(IllegalArgumentException.class, () -> CellRefUtil.parseRef(bytes, 5, 6));
+        assertThrows(IllegalArgumentException.class, () -> CellRefUtil.parseRef(bytes, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> CellRefUtil.parseRef("A1B2", 0, 4));
+    }
+
+    @Test
+    void packRoundTrips() {
+        long packed = CellRefUtil.pack(ExcelLimits.MAX_ROW_INDEX, ExcelLimits.MAX_COLUMN_INDEX);
+        assertEquals(ExcelLimits.MAX_ROW_INDEX, CellRefUtil.packedRow(packed));
+        assertEquals(ExcelLimits.MAX_COLUMN_INDEX, CellRefUtil.packedColumn(packed));
+        assertEquals(-1, CellRefUtil.packedColumn(CellRefUtil.pack(-1, -1)));
+        assertEquals(-1, CellRefUtil.packedRow(CellRefUtil.pack(-1, -1)));
+    }
 }
@@ -2,8 +2,12 @@ package com.beingidly.litexl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import com.beingidly.litexl.crypto.AgileDecryptor;
+import com.beingidly.litexl.crypto.EncryptionOptions;
+
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -152,6 +156,174 @@ class CfbReaderTest {
         }
     }
 
+    @Test
+    void readsFragmentedEncryptedPackageThroughSectorChain() throws Exception {
+        Path file = tempDir.resolve("fragmented.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < 500; r++) {
+                sheet.cell(r, 0).set("Row " + r);
+                sheet.cell(r, 1).set(r * 0.5);
+            }
+            wb.save(file, EncryptionOptions.aes256("secret"));
+        }
+        byte[] original;
+        try (var reader = new CfbReader(file)) {
+            assertFalse(reader.isFragmented("EncryptedPackage"));
+            ByteBuffer buffer = reader.getEncryptedPackageBuffer();
+            original = new byte[buffer.remaining()];
+            buffer.get(original);
+        }
+
+        fragmentEncryptedPackage(file);
+
+        try (var reader = new CfbReader(file)) {
+            assertTrue(reader.isFragmented("EncryptedPackage"));
+            ByteBuffer copied = reader.getEncryptedPackageBuffer();
+            byte[] expected = new byte[copied.remaining()];
+            copied.get(expected);
+            assertArrayEquals(original, expected);
+
+            // Read through the channel in odd-sized pieces crossing sector runs
+            try (SeekableByteChannel channel = reader.openStreamChannel("EncryptedPackage")) {
+                assertEquals(original.length, channel.size());
+                ByteBuffer read = ByteBuffer.allocate(original.length);
+                ByteBuffer piece = ByteBuffer.allocate(777);
+                while (channel.read(piece.clear()) > 0) {
+                    read.put(piece.flip());
+                }
+                assertArrayEquals(original, read.array());
+                channel.position(1000);
+                ByteBuffer one = ByteBuffer.allocate(1);
+                channel.read(one);
+                assertEquals(original[1000], one.get(0));
+            }
+
+            AgileDecryptor decryptor = new AgileDecryptor("secret");
+            decryptor.parseEncryptionInfo(reader.getEncryptionInfoBuffer(), reader.openStreamChannel("EncryptedPackage"));
+            ByteBuffer decrypted = decryptor.decrypt();
+            byte[] streamed = new byte[decrypted.remaining()];
+            try (SeekableByteChannel channel = decryptor.openChannel()) {
+                assertEquals(decryptor.decryptedSize(), channel.size());
+                ByteBuffer all = ByteBuffer.wrap(streamed);
+                while (all.hasRemaining() && channel.read(all) > 0) {
+                    // read until full
+                }
+            }
+            byte[] expectedPlain = new byte[decrypted.remaining()];
+            decrypted.get(expectedPlain);
+            assertArrayEquals(expectedPlain, streamed);
+        }
+
+        try (Workbook wb = Workbook.open(file, "secret")) {
+            assertEquals("Row 499", wb.getSheet(0).getCell(499, 0).string());
+            assertEquals(249.5, wb.getSheet(0).getCell(499, 1).number());
+        }
+    }
+
+    @Test
+    void readsStreamsAcrossMappedWindows() throws Exception {
+        Path file = tempDir.resolve("windowed.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < 2000; r++) {
+                sheet.cell(r, 0).set("Row " + r);
+                sheet.cell(r, 1).set(r * 0.5);
+            }
+            wb.save(file, EncryptionOptions.aes256("secret"));
+        }
+
+        byte[] info;
+        byte[] original;
+        try (var reader = new CfbReader(file)) {
+            assertFalse(reader.prefersChannel("EncryptedPackage"));
+            info = bytes(reader.getEncryptionInfoBuffer());
+            original = bytes(reader.getEncryptedPackageBuffer());
+        }
+        assertTrue(original.length > 3 * 8192);
+
+        // Windows far smaller than the file stand in for a file over 2 GiB
+        try (var reader = new CfbReader(file, 8192)) {
+            assertTrue(reader.isEncrypted());
+            assertFalse(reader.isFragmented("EncryptedPackage"));
+            assertTrue(reader.prefersChannel("EncryptedPackage"));
+            assertArrayEquals(info, bytes(reader.getEncryptionInfoBuffer()));
+            assertArrayEquals(original, bytes(reader.getEncryptedPackageBuffer()));
+
+            try (SeekableByteChannel channel = reader.openStreamChannel("EncryptedPackage")) {
+                ByteBuffer read = ByteBuffer.allocate(original.length);
+                ByteBuffer piece = ByteBuffer.allocate(5000);
+                while (channel.read(piece.clear()) > 0) {
+                    read.put(piece.flip());
+                }
+                assertArrayEquals(original, read.array());
+            }
+
+            AgileDecryptor decryptor = new AgileDecryptor("secret");
+            decryptor.parseEncryptionInfo(reader.getEncryptionInfoBuffer(), reader.openStreamChannel("EncryptedPackage"));
+            try (ZipReader zip = new ZipReader(decryptor.openChannel(2))) {
+                assertTrue(zip.hasEntry("xl/worksheets/sheet1.xml"));
+            }
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Swaps the second and third sectors of the EncryptedPackage chain and relinks
+     * the FAT, so the stream reads the same but is no longer contiguous.
+     */
+    private static void fragmentEncryptedPackage(Path file) throws Exception {
+        ByteBuffer cfb = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        int sectorSize = 1 << cfb.getShort(30);
+        int dirOffset = 512 + cfb.getInt(48) * sectorSize;
+        int start = -1;
+        for (int entry = dirOffset; entry < dirOffset + sectorSize; entry += 128) {
+            String name = new String(cfb.array(), entry, 32, java.nio.charset.StandardCharsets.UTF_16LE);
+            if (name.startsWith("EncryptedPackage")) {
+                start = cfb.getInt(entry + 116);
+            }
+        }
+        assertTrue(start >= 0);
+
+        int first = start;
+        int second = fatEntry(cfb, sectorSize, first);
+        int third = fatEntry(cfb, sectorSize, second);
+        int fourth = fatEntry(cfb, sectorSize, third);
+        assertEquals(first + 1, second);
+        assertEquals(second + 1, third);
+
+        byte[] secondData = new byte[sectorSize];
+        byte[] thirdData = new byte[sectorSize];
+        cfb.get(512 + second * sectorSize, secondData);
+        cfb.get(512 + third * sectorSize, thirdData);
+        cfb.put(512 + second * sectorSize, thirdData);
+        cfb.put(512 + third * sectorSize, secondData);
+
+        setFatEntry(cfb, sectorSize, first, third);
+        setFatEntry(cfb, sectorSize, third, second);
+        setFatEntry(cfb, sectorSize, second, fourth);
+        Files.write(file, cfb.array());
+    }
+
+    private static int fatEntryOffset(ByteBuffer cfb, int sectorSize, int sector) {
+        int perSector = sectorSize / 4;
+        int fatSector = cfb.getInt(76 + (sector / perSector) * 4);
+        return 512 + fatSector * sectorSize + (sector % perSector) * 4;
+    }
+
+    private static int fatEntry(ByteBuffer cfb, int sectorSize, int sector) {
+        return cfb.getInt(fatEntryOffset(cfb, sectorSize, sector));
+    }
+
+    private static void setFatEntry(ByteBuffer cfb, int sectorSize, int sector, int next) {
+        cfb.putInt(fatEntryOffset(cfb, sectorSize, sector), next);
+    }
+
     /**
      * Creates a minimal valid CFB file with a DummyStream entry (no encryption entries).
      * This is a simplified CFB v3 format with:
@@ -0,0 +1,129 @@
+package com.beingidly.litexl;
+
+import com.beingidly.litexl.crypto.AesCipher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CfbWriterTest {
+
+    private static final byte[] KEY = new byte[32];
+    private static final byte[] SALT = new byte[16];
+    private static final byte[] HMAC_KEY = new byte[64];
+
+    static {
+        Random random = new Random(11);
+        random.nextBytes(KEY);
+        random.nextBytes(SALT);
+        random.nextBytes(HMAC_KEY);
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parallelEncryptionMatchesSerial() throws Exception {
+        // Several batches plus a partial last segment
+        byte[] plain = new byte[3 * 1024 * 1024 + 1234];
+        new Random(5).nextBytes(plain);
+
+        Path serial = write(plain, 1, "serial.cfb");
+        Path parallel = write(plain, 4, "parallel.cfb");
+        assertArrayEquals(Files.readAllBytes(serial), Files.readAllBytes(parallel));
+
+        try (var reader = new CfbReader(parallel)) {
+            ByteBuffer encrypted = reader.getEncryptedPackageBuffer();
+            assertNotNull(encrypted);
+            assertEquals(plain.length, encrypted.order(ByteOrder.LITTLE_ENDIAN).getLong(0));
+
+            int lastSegment = plain.length / 4096;
+            byte[] decrypted = decryptSegment(encrypted, lastSegment);
+            assertArrayEquals(Arrays.copyOfRange(plain, lastSegment * 4096, plain.length),
+                Arrays.copyOf(decrypted, plain.length - lastSegment * 4096));
+            assertArrayEquals(Arrays.copyOf(plain, 4096), decryptSegment(encrypted, 0));
+        }
+    }
+
+    @Test
+    void streamedOutputMatchesMappedFile() throws Exception {
+        for (int size : new int[] {0, 100, 5000, 2 * 1024 * 1024 + 7}) {
+            byte[] plain = new byte[size];
+            new Random(size).nextBytes(plain);
+
+            Path file = write(plain, 2, "mapped-" + size + ".cfb");
+            ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+            try (CfbWriter writer = new CfbWriter(streamed, encryptionInfo(), KEY, SALT, HMAC_KEY, 2)) {
+                writer.writeEncrypted(new ByteArrayInputStream(plain), plain.length);
+            }
+            assertArrayEquals(Files.readAllBytes(file), streamed.toByteArray(), "size " + size);
+
+            try (var reader = new CfbReader(file)) {
+                assertTrue(reader.isEncrypted());
+                ByteBuffer info = reader.getEncryptionInfoBuffer();
+                assertNotNull(info);
+                assertEquals(encryptionInfo().length, info.remaining());
+            }
+        }
+    }
+
+    @Test
+    void shortPlainDataThrows() {
+        assertThrows(EOFException.class, () -> {
+            try (FileChannel fc = FileChannel.open(tempDir.resolve("short.cfb"), StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+                 CfbWriter writer = new CfbWriter(fc, encryptionInfo(), KEY, SALT, HMAC_KEY, 2)) {
+                writer.writeEncrypted(new ByteArrayInputStream(new byte[100]), 5000);
+            }
+        });
+    }
+
+    private Path write(byte[] plain, int parallelism, String name) throws Exception {
+        Path file = tempDir.resolve(name);
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                 StandardOpenOption.CREATE);
+             CfbWriter writer = new CfbWriter(fc, encryptionInfo(), KEY, SALT, HMAC_KEY, parallelism)) {
+            writer.writeEncrypted(new ByteArrayInputStream(plain), plain.length);
+        }
+        return file;
+    }
+
+    private static byte[] decryptSegment(ByteBuffer encrypted, int segment) throws Exception {
+        MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
+        sha512.update(SALT);
+        sha512.update(new byte[] {(byte) segment, (byte) (segment >> 8), (byte) (segment >> 16), (byte) (segment >> 24)});
+        byte[] iv = Arrays.copyOf(sha512.digest(), 16);
+
+        byte[] data = new byte[4096];
+        int offset = 8 + segment * 4096;
+        int length = Math.min(4096, encrypted.limit() - offset) & ~15;
+        encrypted.get(offset, data, 0, length);
+        return new AesCipher(KEY).decrypt(data, 0, length, iv);
+    }
+
+    private static byte[] encryptionInfo() {
+        String placeholder = Base64.getEncoder().encodeToString(new byte[64]);
+        byte[] xml = ("<encryption><dataIntegrity encryptedHmacKey=\"\" encryptedHmacValue=\""
+            + placeholder + "\"/></encryption>").getBytes(StandardCharsets.UTF_8);
+        byte[] info = new byte[8 + xml.length];
+        info[0] = 4;
+        info[2] = 4;
+        System.arraycopy(xml, 0, info, 8, xml.length);
+        return info;
+    }
+}
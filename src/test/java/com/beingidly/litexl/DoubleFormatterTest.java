@@ -0,0 +1,98 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleFormatterTest {
+
+    @Test
+    void formatsIntegralValuesWithoutFraction() {
+        assertEquals("0", DoubleFormatter.toString(0.0));
+        assertEquals("-0", DoubleFormatter.toString(-0.0));
+        assertEquals("42", DoubleFormatter.toString(42.0));
+        assertEquals("-7", DoubleFormatter.toString(-7.0));
+        assertEquals("1000000", DoubleFormatter.toString(1e6));
+        assertEquals("9007199254740994", DoubleFormatter.toString(9007199254740994.0));
+        assertEquals("100000000000000000000", DoubleFormatter.toString(1e20));
+        assertEquals("1E21", DoubleFormatter.toString(1e21));
+    }
+
+    @Test
+    void formatsFractionsAndExponents() {
+        assertEquals("1.5", DoubleFormatter.toString(1.5));
+        assertEquals("0.1", DoubleFormatter.toString(0.1));
+        assertEquals("-123.456", DoubleFormatter.toString(-123.456));
+        assertEquals("0.000001", DoubleFormatter.toString(1e-6));
+        assertEquals("1E-7", DoubleFormatter.toString(1e-7));
+        assertEquals("1.25E-10", DoubleFormatter.toString(1.25e-10));
+        assertEquals("1.7976931348623157E308", DoubleFormatter.toString(Double.MAX_VALUE));
+        assertEquals("4.9E-324", DoubleFormatter.toString(Double.MIN_VALUE));
+        assertEquals("2.2250738585072014E-308", DoubleFormatter.toString(Double.MIN_NORMAL));
+        assertEquals("45321.5", DoubleFormatter.toString(45321.5));
+    }
+
+    @Test
+    void formatsNonFiniteValues() {
+        assertEquals("NaN", DoubleFormatter.toString(Double.NaN));
+        assertEquals("Infinity", DoubleFormatter.toString(Double.POSITIVE_INFINITY));
+        assertEquals("-Infinity", DoubleFormatter.toString(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void roundTripsRandomBitPatterns() {
+        Random random = new Random(23);
+        for (int i = 0; i < 200_000; i++) {
+            double v = Double.longBitsToDouble(random.nextLong());
+            if (Double.isFinite(v)) {
+                assertShortestRoundTrip(v);
+            }
+        }
+    }
+
+    @Test
+    void roundTripsTypicalCellValues() {
+        Random random = new Random(29);
+        for (int i = 0; i < 100_000; i++) {
+            assertShortestRoundTrip(Math.round(random.nextDouble() * 1e6) / 100.0);
+            assertShortestRoundTrip(random.nextDouble());
+            assertShortestRoundTrip(random.nextInt() * 1.0);
+        }
+    }
+
+    @Test
+    void roundTripsPowersAndBoundaries() {
+        for (int e = -1074; e <= 1023; e++) {
+            double p = Math.scalb(1.0, e);
+            assertShortestRoundTrip(p);
+            assertShortestRoundTrip(Math.nextUp(p));
+            assertShortestRoundTrip(Math.nextDown(p));
+        }
+        for (int e = -323; e <= 308; e++) {
+            assertShortestRoundTrip(Double.parseDouble("1E" + e));
+        }
+        for (long t = 1; t < 10; t++) {
+            assertShortestRoundTrip(Double.longBitsToDouble(t));
+        }
+    }
+
+    @Test
+    void writesAtOffsetWithinMaxLength() {
+        byte[] buf = new byte[4 + DoubleFormatter.MAX_LENGTH];
+        int end = DoubleFormatter.format(-2.2250738585072014E-308, buf, 4);
+        assertTrue(end - 4 <= DoubleFormatter.MAX_LENGTH);
+        assertEquals("-2.2250738585072014E-308", new String(buf, 4, end - 4, StandardCharsets.US_ASCII));
+    }
+
+    private static void assertShortestRoundTrip(double v) {
+        String formatted = DoubleFormatter.toString(v);
+        assertEquals(v, Double.parseDouble(formatted), formatted);
+        // Double.toString is shortest round-trip since Java 19; both must denote the same decimal
+        String expected = Double.toString(v);
+        assertEquals(0, new BigDecimal(formatted).compareTo(new BigDecimal(expected)), formatted + " vs " + expected);
+    }
+}
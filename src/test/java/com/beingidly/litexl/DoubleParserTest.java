@@ -0,0 +1,121 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleParserTest {
+
+    @Test
+    void parsesCommonForms() {
+        assertParses("0");
+        assertParses("-0");
+        assertParses("42");
+        assertParses("-7.25");
+        assertParses(".5");
+        assertParses("5.");
+        assertParses("0.1");
+        assertParses("45321.5416666667");
+        assertParses("1E-7");
+        assertParses("1.25e+10");
+        assertParses("0.30000000000000004");
+        assertParses("1.7976931348623157E308");
+        assertParses("4.9E-324");
+        assertParses("2.2250738585072014E-308");
+    }
+
+    @Test
+    void roundsHalfwayCasesToEven() {
+        // 2^53 + 1 and 2^53 + 3 lie exactly between two doubles
+        assertParses("9007199254740993");
+        assertParses("9007199254740995");
+        assertParses("9007199254740993.0");
+        assertParses("1.00000000000000011102230246251565404236316680908203125E0".substring(0, 21));
+        // Just below and above half the smallest subnormal
+        assertParses("2.4703282292062327E-324");
+        assertParses("2.4703282292062328E-324");
+    }
+
+    @Test
+    void handlesOverflowAndUnderflow() {
+        assertParses("1E309");
+        assertParses("1.8E308");
+        assertParses("1E-400");
+        assertParses("-1E-400");
+        assertParses("9999999999999999999E290");
+        assertParses("12345678901234567890000");
+        assertParses("0.0000000000000000000000012345678901234567890000");
+    }
+
+    @Test
+    void returnsNaNForUnhandledInput() {
+        for (String s : new String[] {"", "-", ".", "+1", "1e", "1e+", "abc", "1.2.3", "1 ", " 1", "NaN",
+                "Infinity", "0x10", "12345678901234567891", "1.00000000000000000001", "1E12345"}) {
+            assertTrue(Double.isNaN(DoubleParser.parse(s, 0, s.length())), s);
+            byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+            assertTrue(Double.isNaN(DoubleParser.parse(bytes, 0, bytes.length)), s);
+        }
+    }
+
+    @Test
+    void stringParseFallsBack() {
+        assertEquals(1.0, DoubleParser.parse("+1"));
+        assertEquals(1.2345678901234567e19, DoubleParser.parse("12345678901234567891"));
+        assertThrows(NumberFormatException.class, () -> DoubleParser.parse("abc"));
+    }
+
+    @Test
+    void parsesWithinLargerBuffer() {
+        byte[] bytes = "<v>123.5</v>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(123.5, DoubleParser.parse(bytes, 3, 8));
+        assertEquals(23.5, DoubleParser.parse("<v>123.5</v>", 4, 8));
+    }
+
+    @Test
+    void roundTripsRandomDoubles() {
+        Random random = new Random(31);
+        for (int i = 0; i < 200_000; i++) {
+            double v = Double.longBitsToDouble(random.nextLong());
+            if (Double.isFinite(v)) {
+                assertParses(Double.toString(v));
+                assertParses(DoubleFormatter.toString(v));
+            }
+        }
+    }
+
+    @Test
+    void matchesParseDoubleOnRandomDecimals() {
+        Random random = new Random(37);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            sb.setLength(0);
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            int digits = 1 + random.nextInt(19);
+            int point = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == point) {
+                    sb.append('.');
+                }
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextInt(3) == 0) {
+                sb.append('E').append(random.nextInt(700) - 350);
+            }
+            assertParses(sb.toString());
+        }
+    }
+
+    private static void assertParses(String s) {
+        double expected = Double.parseDouble(s);
+        assertEquals(Double.doubleToRawLongBits(expected),
+            Double.doubleToRawLongBits(DoubleParser.parse(s, 0, s.length())), s);
+        byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Double.doubleToRawLongBits(expected),
+            Double.doubleToRawLongBits(DoubleParser.parse(bytes, 0, bytes.length)), s);
+    }
+}
@@ -0,0 +1,114 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadOptionsTest {
+
+    @Test
+    void defaultsAreSequential() {
+        ReadOptions options = ReadOptions.defaults();
+
+        assertEquals(1, options.parallelism());
+        assertFalse(options.pipelined());
+        assertEquals(WorkbookOptions.defaults(), options.workbookOptions());
+        assertNull(options.columnFilter());
+        assertNull(options.sheetFilter());
+        assertEquals(0, options.firstRow());
+        assertEquals(ExcelLimits.MAX_ROW_INDEX, options.lastRow());
+        assertFalse(options.lazy());
+        assertEquals(Runtime.getRuntime().availableProcessors(), options.decryptionParallelism());
+    }
+
+    @Test
+    void builderSetsDecryptionParallelism() {
+        ReadOptions options = ReadOptions.builder().decryptionParallelism(3).build();
+
+        assertEquals(3, options.decryptionParallelism());
+        assertEquals(1, options.parallelism());
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().decryptionParallelism(0).build());
+    }
+
+    @Test
+    void builderSetsParallelism() {
+        WorkbookOptions workbookOptions = new WorkbookOptions(0);
+        ReadOptions options = ReadOptions.builder()
+            .parallelism(8)
+            .pipelined(true)
+            .workbookOptions(workbookOptions)
+            .lazy(true)
+            .build();
+
+        assertEquals(8, options.parallelism());
+        assertTrue(options.pipelined());
+        assertTrue(options.lazy());
+        assertSame(workbookOptions, options.workbookOptions());
+    }
+
+    @Test
+    void parallelUsesAvailableProcessors() {
+        ReadOptions options = ReadOptions.builder().parallel().build();
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), options.parallelism());
+    }
+
+    @Test
+    void nonPositiveParallelismThrows() {
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().parallelism(0).build());
+    }
+
+    @Test
+    void columnsSelectByIndexOrLetters() {
+        ReadOptions byIndex = ReadOptions.builder().columns(0, 2).build();
+        ReadOptions byLetters = ReadOptions.builder().columns("B", "AA").build();
+
+        IntPredicate indexFilter = byIndex.columnFilter();
+        assertNotNull(indexFilter);
+        assertTrue(indexFilter.test(0));
+        assertFalse(indexFilter.test(1));
+        assertTrue(indexFilter.test(2));
+
+        IntPredicate letterFilter = byLetters.columnFilter();
+        assertNotNull(letterFilter);
+        assertTrue(letterFilter.test(1));
+        assertTrue(letterFilter.test(26));
+        assertFalse(letterFilter.test(0));
+    }
+
+    @Test
+    void invalidColumnsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().columns(-1));
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().columns(ExcelLimits.MAX_COLUMNS));
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().columns("A1"));
+    }
+
+    @Test
+    void sheetsSelectByNameOrIndex() {
+        ReadOptions byName = ReadOptions.builder().sheets("Summary").build();
+        ReadOptions byIndex = ReadOptions.builder().sheets(1, 3).build();
+
+        assertTrue(byName.includesSheet(5, "Summary"));
+        assertFalse(byName.includesSheet(0, "Data"));
+        assertTrue(byIndex.includesSheet(3, "Any"));
+        assertFalse(byIndex.includesSheet(2, "Any"));
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().sheets(-1));
+    }
+
+    @Test
+    void rowBounds() {
+        ReadOptions preview = ReadOptions.builder().maxRows(1000).build();
+        assertEquals(0, preview.firstRow());
+        assertEquals(999, preview.lastRow());
+
+        ReadOptions range = ReadOptions.builder().rows(10, 20).build();
+        assertEquals(10, range.firstRow());
+        assertEquals(20, range.lastRow());
+
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().rows(5, 4).build());
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().rows(-1, 4).build());
+        assertThrows(IllegalArgumentException.class, () -> ReadOptions.builder().maxRows(0));
+    }
+}
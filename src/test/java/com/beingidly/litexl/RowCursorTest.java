@@ -0,0 +1,186 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowCursorTest {
+
+    @Test
+    void emptySheetHasNoRows() {
+        Sheet sheet = new Sheet("Data", 0);
+        try {
+            RowCursor rows = sheet.cursor();
+
+            assertFalse(rows.next());
+            assertThrows(IllegalStateException.class, rows::rowNum);
+        } finally {
+            sheet.closeResources();
+        }
+    }
+
+    @Test
+    void scansStoredAndPendingRows() {
+        Sheet sheet = new Sheet("Data", 0);
+        try {
+            for (int r = 0; r < 5; r++) {
+                sheet.cell(r * 2, 0).set("row-" + r);
+                sheet.cell(r * 2, 3).set(r);
+            }
+
+            List<Integer> rowNums = new ArrayList<>();
+            List<String> strings = new ArrayList<>();
+            RowCursor rows = sheet.cursor();
+            while (rows.next()) {
+                rowNums.add(rows.rowNum());
+                CellCursor cells = rows.cells();
+                assertEquals(2, cells.count());
+
+                assertTrue(cells.next());
+                assertEquals(0, cells.column());
+                assertEquals(CellType.STRING, cells.type());
+                strings.add(cells.string());
+
+                assertTrue(cells.next());
+                assertEquals(3, cells.column());
+                assertEquals(rows.rowNum() / 2.0, cells.number());
+                assertFalse(cells.next());
+            }
+
+            assertEquals(List.of(0, 2, 4, 6, 8), rowNums);
+            assertEquals(List.of("row-0", "row-1", "row-2", "row-3", "row-4"), strings);
+        } finally {
+            sheet.closeResources();
+        }
+    }
+
+    @Test
+    void readsAllValueTypes() {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30, 45);
+        try (SheetRowStore store = new SheetRowStore()) {
+            Row row = new Row(3);
+            row.height(25);
+            row.hidden(true);
+            row.cell(0).set("text").style(2);
+            row.cell(1).set(1.5);
+            row.cell(2).set(true);
+            row.cell(3).set(date);
+            row.cell(4).setFormula("A1*2");
+            row.cell(5).setValue(new CellValue.Error("#REF!"));
+            row.cell(6).setEmpty();
+            store.append(row);
+
+            RowCursor rows = new RowCursor(store, null);
+            assertTrue(rows.next());
+            assertEquals(3, rows.rowNum());
+            assertEquals(25.0, rows.height());
+            assertTrue(rows.hidden());
+
+            CellCursor cells = rows.cells();
+            assertTrue(cells.next());
+            assertEquals("text", cells.string());
+            assertEquals(2, cells.styleId());
+            assertEquals(0.0, cells.number());
+
+            assertTrue(cells.next());
+            assertEquals(1.5, cells.number());
+            assertNull(cells.string());
+
+            assertTrue(cells.next());
+            assertTrue(cells.bool());
+
+            assertTrue(cells.next());
+            assertEquals(date, cells.date());
+
+            assertTrue(cells.next());
+            assertEquals("A1*2", cells.formula());
+
+            assertTrue(cells.next());
+            assertEquals("#REF!", cells.error());
+
+            assertTrue(cells.next());
+            assertEquals(CellType.EMPTY, cells.type());
+            assertEquals(-1, cells.stringRef());
+
+            assertFalse(cells.next());
+            assertFalse(rows.next());
+        }
+    }
+
+    @Test
+    void equalStringsShareStringRef() {
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.STREAM, 4096)) {
+            for (int r = 0; r < 6; r++) {
+                Row row = new Row(r);
+                row.cell(0).set(r % 2 == 0 ? "even" : "odd");
+                row.cell(1).set("x".repeat(1000));
+                store.append(row);
+            }
+            assertTrue(store.isSpilled());
+
+            List<Integer> refs = new ArrayList<>();
+            RowCursor rows = new RowCursor(store, null);
+            while (rows.next()) {
+                CellCursor cells = rows.cells();
+                cells.next();
+                refs.add(cells.stringRef());
+                cells.next();
+                assertEquals(-1, cells.stringRef());
+                assertEquals("x".repeat(1000), cells.string());
+            }
+
+            // First occurrences are inline; repeats refer to the dictionary
+            assertEquals(-1, refs.get(0));
+            assertEquals(-1, refs.get(1));
+            assertEquals(refs.get(2), refs.get(4));
+            assertEquals(refs.get(3), refs.get(5));
+            assertNotEquals(refs.get(2), refs.get(3));
+            assertTrue(refs.get(2) >= 0);
+        }
+    }
+
+    @Test
+    void cellsCanBeRescanned() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            Row row = new Row(0);
+            row.cell(0).set(1);
+            row.cell(1).set(2);
+            store.append(row);
+
+            RowCursor rows = new RowCursor(store, null);
+            assertTrue(rows.next());
+
+            double first = 0;
+            CellCursor cells = rows.cells();
+            while (cells.next()) {
+                first += cells.number();
+            }
+            double second = 0;
+            cells = rows.cells();
+            while (cells.next()) {
+                second += cells.number();
+            }
+
+            assertEquals(3.0, first);
+            assertEquals(first, second);
+        }
+    }
+
+    @Test
+    void cellAccessBeforeNextThrows() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            Row row = new Row(0);
+            row.cell(0).set(1);
+            store.append(row);
+
+            RowCursor rows = new RowCursor(store, null);
+            assertTrue(rows.next());
+
+            assertThrows(IllegalStateException.class, () -> rows.cells().number());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedStringCollectorTest {
+
+    @Test
+    void inlineModeSharesNothing() {
+        SharedStringCollector collector = new SharedStringCollector(WriteOptions.SharedStringMode.INLINE);
+
+        assertFalse(collector.enabled());
+        assertEquals(-1, collector.forSheet().indexOf(0, "Text"));
+        assertEquals(0, collector.references());
+    }
+
+    @Test
+    void concurrentSheetsAgreeOnIndexes() throws Exception {
+        SharedStringCollector collector = new SharedStringCollector(WriteOptions.SharedStringMode.SHARED);
+        int sheets = 8;
+        int cells = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int s = 0; s < sheets; s++) {
+                SharedStringCollector.SheetStrings strings = collector.forSheet();
+                futures.add(executor.submit(() -> {
+                    int[] indexes = new int[cells];
+                    for (int i = 0; i < cells; i++) {
+                        indexes[i] = strings.indexOf(0, "Category " + (i % 100));
+                    }
+                    return indexes;
+                }));
+            }
+
+            List<String> table = null;
+            for (Future<int[]> future : futures) {
+                int[] indexes = future.get();
+                table = collector.strings();
+                for (int i = 0; i < cells; i++) {
+                    assertEquals("Category " + (i % 100), table.get(indexes[i]));
+                }
+            }
+            assertNotNull(table);
+            assertEquals(100, table.size());
+            assertEquals(100, new HashSet<>(table).size());
+            assertEquals((long) sheets * cells, collector.references());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
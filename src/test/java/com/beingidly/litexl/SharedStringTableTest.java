@@ -0,0 +1,114 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedStringTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void storesStringsInHeap() {
+        try (SharedStringTable table = new SharedStringTable(1 << 20)) {
+            table.append("alpha");
+            table.append("");
+            table.append("café 😀");
+            table.seal();
+
+            assertFalse(table.isSpilled());
+            assertEquals(List.of("alpha", "", "café 😀"), table);
+        }
+    }
+
+    @Test
+    void spillsAndMapsBeyondBudget() {
+        try (SharedStringTable table = new SharedStringTable(16)) {
+            for (int i = 0; i < 5000; i++) {
+                table.append("string-" + i);
+            }
+            table.seal();
+
+            assertTrue(table.isSpilled());
+            assertEquals(5000, table.size());
+            assertEquals("string-0", table.get(0));
+            assertEquals("string-4999", table.get(4999));
+            assertEquals("string-1234", table.get(1234));
+        }
+    }
+
+    @Test
+    void cachesDecodedStrings() {
+        try (SharedStringTable table = new SharedStringTable(0)) {
+            table.append("repeated");
+            table.seal();
+
+            assertSame(table.get(0), table.get(0));
+        }
+    }
+
+    @Test
+    void rejectsInvalidUse() {
+        try (SharedStringTable table = new SharedStringTable(1 << 20)) {
+            table.append("a");
+            table.seal();
+
+            assertThrows(IndexOutOfBoundsException.class, () -> table.get(1));
+            assertThrows(IndexOutOfBoundsException.class, () -> table.get(-1));
+            assertThrows(IllegalStateException.class, () -> table.append("b"));
+        }
+    }
+
+    @Test
+    void openKeepsSharedStringsCompact() throws Exception {
+        Path file = tempDir.resolve("shared.xlsx");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            put(zip, "xl/workbook.xml", """
+                <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main"
+                    xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">
+                  <sheets><sheet name="Data" sheetId="1" r:id="rId1"/></sheets>
+                </workbook>""");
+            put(zip, "xl/_rels/workbook.xml.rels", """
+                <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+                  <Relationship Id="rId1" Target="worksheets/sheet1.xml"/>
+                </Relationships>""");
+            put(zip, "xl/sharedStrings.xml", """
+                <sst xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" count="3" uniqueCount="3">
+                  <si><t>first</t></si><si><t>second</t></si><si><t>first</t></si>
+                </sst>""");
+            put(zip, "xl/worksheets/sheet1.xml", """
+                <worksheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main"><sheetData>
+                  <row r="1"><c r="A1" t="s"><v>1</v></c><c r="B1" t="s"><v>2</v></c></row>
+                </sheetData></worksheet>""");
+        }
+
+        ReadOptions options = ReadOptions.builder()
+            .workbookOptions(WorkbookOptions.builder().sharedStringMemoryBudget(0).build())
+            .build();
+        try (Workbook wb = Workbook.open(file, null, options)) {
+            assertEquals("second", wb.getSheet(0).getCell(0, 0).string());
+            assertEquals("first", wb.getSheet(0).getCell(0, 1).string());
+            assertEquals(List.of("first", "second", "first"), wb.sharedStrings());
+            assertEquals("second", wb.getSharedString(1));
+
+            // Adding strings switches to the indexed list
+            assertEquals(0, wb.addSharedString("first"));
+            assertEquals(3, wb.addSharedString("third"));
+        }
+    }
+
+    private static void put(ZipOutputStream zip, String name, String content) throws Exception {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
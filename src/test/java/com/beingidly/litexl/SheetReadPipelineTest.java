@@ -0,0 +1,74 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetReadPipelineTest {
+
+    private static SheetRowParser parser(String sheetData, List<String> sharedStrings) {
+        String xml = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + sheetData + "</worksheet>";
+        return new SheetRowParser(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), sharedStrings);
+    }
+
+    @Test
+    void readsRowsAcrossBatches() throws Exception {
+        StringBuilder xml = new StringBuilder("<sheetData>");
+        int rows = SheetReadPipeline.BATCH_ROWS * 2 + 1;
+        for (int r = 1; r <= rows; r++) {
+            xml.append("<row r=\"").append(r).append("\">")
+                .append("<c r=\"A").append(r).append("\" t=\"s\"><v>").append(r % 2).append("</v></c>")
+                .append("<c r=\"B").append(r).append("\" s=\"1\"><v>").append(r).append("</v></c>")
+                .append("</row>");
+        }
+        xml.append("</sheetData>");
+
+        Sheet sheet = new Sheet("Data", 0);
+        try (SheetRowParser parser = parser(xml.toString(), List.of("even", "odd"))) {
+            SheetReadPipeline.read(parser, sheet, List.of("even", "odd"));
+            sheet.finishLoadingReadOnly();
+
+            assertEquals(rows, sheet.rowCount());
+            assertEquals("odd", sheet.getCell(0, 0).string());
+            assertEquals("even", sheet.getCell(1, 0).string());
+            assertEquals((double) rows, sheet.getCell(rows - 1, 1).number());
+            assertEquals(1, sheet.getCell(rows - 1, 1).styleId());
+        } finally {
+            sheet.closeResources();
+        }
+    }
+
+    @Test
+    void producerFailureIsRethrown() throws Exception {
+        Sheet sheet = new Sheet("Data", 0);
+        try (SheetRowParser parser = parser("""
+                <sheetData><row r="1"><c r="A1"><v>not-a-number</v></c></row></sheetData>
+                """, List.of())) {
+            assertThrows(NumberFormatException.class, () -> SheetReadPipeline.read(parser, sheet, List.of()));
+        } finally {
+            sheet.closeResources();
+        }
+    }
+
+    @Test
+    void consumerFailureStopsProducer() throws Exception {
+        StringBuilder xml = new StringBuilder("<sheetData>");
+        for (int r = 1; r <= SheetReadPipeline.BATCH_ROWS * 20; r++) {
+            xml.append("<row r=\"").append(r).append("\"><c r=\"A").append(r).append("\"><v>1</v></c></row>");
+        }
+        // Out-of-order row is rejected by the row store on the consumer side
+        xml.append("<row r=\"1\"><c r=\"A1\"><v>1</v></c></row></sheetData>");
+
+        Sheet sheet = new Sheet("Data", 0);
+        try (SheetRowParser parser = parser(xml.toString(), List.of())) {
+            assertThrows(IllegalStateException.class, () -> SheetReadPipeline.read(parser, sheet, List.of()));
+        } finally {
+            sheet.closeResources();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetRowParserTest {
+
+    private static SheetRowParser parser(String sheetData, List<String> sharedStrings) {
+        String xml = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + sheetData + "</worksheet>";
+        return new SheetRowParser(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), sharedStrings);
+    }
+
+    @Test
+    void parsesRowsLazily() throws Exception {
+        try (SheetRowParser parser = parser("""
+                <sheetData>
+                  <row r="1" ht="30" customHeight="1"><c r="A1" t="s"><v>1</v></c><c r="C1"><v>2.5</v></c></row>
+                  <row r="3" hidden="1"><c r="B3" t="b"><v>1</v></c><c r="D3" t="e"><v>#N/A</v></c></row>
+                </sheetData>
+                """, List.of("zero", "one"))) {
+            Row first = parser.next();
+            assertNotNull(first);
+            assertEquals(0, first.rowNum());
+            assertEquals(30.0, first.height());
+            assertEquals("one", first.getCell(0).string());
+            assertEquals(2.5, first.getCell(2).number());
+
+            Row second = parser.next();
+            assertNotNull(second);
+            assertEquals(2, second.rowNum());
+            assertTrue(second.hidden());
+            assertTrue(second.getCell(1).bool());
+            assertEquals("#N/A", second.getCell(3).error());
+
+            assertNull(parser.next());
+        }
+    }
+
+    @Test
+    void parsesInlineStringsAndFormulas() throws Exception {
+        try (SheetRowParser parser = parser("""
+                <sheetData>
+                  <row r="1"><c r="A1" t="inlineStr" s="2"><is><t>hello</t></is></c><c r="B1"><f>SUM(1,2)</f></c></row>
+                </sheetData>
+                """, List.of())) {
+            Row row = parser.next();
+            assertNotNull(row);
+            assertEquals("hello", row.getCell(0).string());
+            assertEquals(2, row.getCell(0).styleId());
+            assertEquals("SUM(1,2)", row.getCell(1).formula());
+        }
+    }
+
+    @Test
+    void defaultsMissingReferencesToSequentialPositions() throws Exception {
+        try (SheetRowParser parser = parser("""
+                <sheetData>
+                  <row r="2"><c r="B2"><v>1</v></c><c><v>2</v></c></row>
+                  <row><c><v>3</v></c></row>
+                </sheetData>
+                """, List.of())) {
+            Row first = parser.next();
+            assertNotNull(first);
+            assertEquals(1, first.rowNum());
+            assertEquals(2.0, first.getCell(2).number());
+
+            Row second = parser.next();
+            assertNotNull(second);
+            assertEquals(2, second.rowNum());
+            assertEquals(3.0, second.getCell(0).number());
+        }
+    }
+
+    @Test
+    void collectsMergedCellsAfterRows() throws Exception {
+        try (SheetRowParser parser = parser("""
+                <sheetData><row r="1"><c r="A1"><v>1</v></c></row></sheetData>
+                <mergeCells count="1"><mergeCell ref="A1:B2"/></mergeCells>
+                """, List.of())) {
+            assertNotNull(parser.next());
+            assertNull(parser.next());
+
+            assertEquals(List.of(CellRange.parse("A1:B2")), parser.mergedCells());
+        }
+    }
+
+    @Test
+    void decodesEntitiesCdataAndLineBreaks() throws Exception {
+        try (SheetRowParser parser = parser("""
+                <sheetData><row r="1">
+                  <c r="A1" t="inlineStr"><is><t>a &amp; b &lt;&#65;&#x42;&gt; &quot;\u00e9&quot;\r\nx</t></is></c>
+                  <c r="B1"><f><![CDATA[IF(A1<>"",1,0)]]></f></c>
+                  <c r="C1" t="e"><v>#DIV/0!<!-- cached --></v></c>
+                </row></sheetData>
+                """, List.of())) {
+            assertTrue(parser.isScanning());
+            Row row = parser.next();
+            assertNotNull(row);
+            assertEquals("a & b <AB> \"\u00e9\"\nx", row.getCell(0).string());
+            assertEquals("IF(A1<>\"\",1,0)", row.getCell(1).formula());
+            assertEquals("#DIV/0!", row.getCell(2).error());
+        }
+    }
+
+    @Test
+    void handlesPrefixesAndSelfClosingElements() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<x:worksheet xmlns:x=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<x:sheetData><x:row r='1' x14ac:dyDescent=\"0.25\"><x:c r='A1' s='3'/><x:c r='B1'><x:v>7</x:v></x:c></x:row>"
+            + "<x:row r=\"2\" ht=\"20\" customHeight=\"1\"/></x:sheetData></x:worksheet>";
+        try (SheetRowParser parser = new SheetRowParser(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), List.of())) {
+            Row first = parser.next();
+            assertNotNull(first);
+            assertNull(first.getCell(0)); // cells without a value are not materialized
+            assertEquals(7.0, first.getCell(1).number());
+
+            Row second = parser.next();
+            assertNotNull(second);
+            assertEquals(1, second.rowNum());
+            assertEquals(20.0, second.height());
+            assertNull(parser.next());
+        }
+    }
+
+    @Test
+    void parsesNumbersLikeDoubleParseDouble() throws Exception {
+        String[] values = {
+            "0", "-0", "42", "-17.25", "0.1", "3.14159", "1e10", "1.5E-7", "123456789012345678",
+            "9007199254740993", "1e23", "2.2250738585072014E-308", "4.9e-324", "1.7976931348623157e308",
+            "0.30000000000000004", "1.", ".5", "000123.4500", "12345678901234567890123"
+        };
+        StringBuilder cells = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            cells.append("<c r=\"").append(CellRefUtil.colToLetters(i)).append("1\"><v>")
+                .append(values[i]).append("</v></c>");
+        }
+        try (SheetRowParser parser = parser("<sheetData><row r=\"1\">" + cells + "</row></sheetData>", List.of())) {
+            Row row = parser.next();
+            assertNotNull(row);
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(Double.doubleToRawLongBits(Double.parseDouble(values[i])),
+                    Double.doubleToRawLongBits(row.getCell(i).number()), values[i]);
+            }
+        }
+    }
+
+    @Test
+    void readsRowsAcrossBufferBoundaries() throws Exception {
+        StringBuilder rows = new StringBuilder("<sheetData>");
+        for (int r = 1; r <= 5000; r++) {
+            rows.append("<row r=\"").append(r).append("\"><c r=\"A").append(r).append("\" t=\"s\"><v>")
+                .append(r % 2).append("</v></c><c r=\"B").append(r).append("\"><v>").append(r * 0.5)
+                .append("</v></c><c r=\"C").append(r).append("\" t=\"inlineStr\"><is><t>row ")
+                .append(r).append("</t></is></c></row>");
+        }
+        rows.append("</sheetData>");
+        try (SheetRowParser parser = parser(rows.toString(), List.of("even", "odd"))) {
+            for (int r = 1; r <= 5000; r++) {
+                Row row = parser.next();
+                assertNotNull(row);
+                assertEquals(r - 1, row.rowNum());
+                assertEquals(r % 2 == 0 ? "even" : "odd", row.getCell(0).string());
+                assertEquals(r * 0.5, row.getCell(1).number());
+                assertEquals("row " + r, row.getCell(2).string());
+            }
+            assertNull(parser.next());
+        }
+    }
+
+    @Test
+    void fallsBackToStaxForOtherEncodings() throws Exception {
+        String body = "<worksheet><sheetData><row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>caf\u00e9</t></is></c>"
+            + "<c r=\"B1\"><v>1.5</v></c></row></sheetData></worksheet>";
+        String utf16 = "<?xml version=\"1.0\" encoding=\"UTF-16\"?>" + body;
+        String latin1 = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>" + body;
+
+        try (SheetRowParser parser = new SheetRowParser(
+                new ByteArrayInputStream(utf16.getBytes(StandardCharsets.UTF_16)), List.of())) {
+            assertFalse(parser.isScanning());
+            Row row = parser.next();
+            assertNotNull(row);
+            assertEquals("caf\u00e9", row.getCell(0).string());
+            assertEquals(1.5, row.getCell(1).number());
+        }
+        try (SheetRowParser parser = new SheetRowParser(
+                new ByteArrayInputStream(latin1.getBytes(StandardCharsets.ISO_8859_1)), List.of())) {
+            assertFalse(parser.isScanning());
+            Row row = parser.next();
+            assertNotNull(row);
+            assertEquals("caf\u00e9", row.getCell(0).string());
+        }
+    }
+
+    @Test
+    void rejectsUndeclaredEntities() {
+        assertThrows(CorruptFileException.class, () -> {
+            try (SheetRowParser parser = parser(
+                    "<sheetData><row r=\"1\"><c r=\"A1\"><f>&nbsp;</f></c></row></sheetData>", List.of())) {
+                parser.next();
+            }
+        });
+    }
+
+    @Test
+    void skipsCellsRejectedByColumnFilter() throws Exception {
+        String sheet = "<worksheet><sheetData><row r=\"1\">"
+            + "<c r=\"A1\" t=\"s\"><v>0</v></c>"
+            + "<c r=\"B1\" t=\"inlineStr\"><is><t>skipped &amp; <![CDATA[<x>]]></t></is></c>"
+            + "<c r=\"C1\"><f>SUM(A1:B1)</f></c>"
+            + "<c r=\"D1\"><v>not a number</v></c>"
+            + "</row></sheetData></worksheet>";
+        String utf16 = "<?xml version=\"1.0\" encoding=\"UTF-16\"?>" + sheet;
+        ReadOptions options = ReadOptions.builder().columnFilter(column -> column == 0 || column == 2).build();
+
+        for (byte[] bytes : List.of(sheet.getBytes(StandardCharsets.UTF_8), utf16.getBytes(StandardCharsets.UTF_16))) {
+            try (SheetRowParser parser = new SheetRowParser(
+                    new ByteArrayInputStream(bytes), List.of("kept"), options)) {
+                Row row = parser.next();
+                assertNotNull(row);
+                assertEquals(2, row.cellCount());
+                assertEquals("kept", row.getCell(0).string());
+                assertNull(row.getCell(1));
+                assertEquals("SUM(A1:B1)", row.getCell(2).formula());
+                assertNull(row.getCell(3));
+            }
+        }
+    }
+
+    @Test
+    void emitsOnlyRowsWithinBoundsAndStopsAfterLastRow() throws Exception {
+        StringBuilder sheet = new StringBuilder("<worksheet><sheetData>");
+        for (int r = 1; r <= 10; r++) {
+            sheet.append("<row r=\"").append(r).append("\"><c r=\"A").append(r).append("\"><v>").append(r)
+                .append("</v></c></row>");
+        }
+        // Malformed content after the last requested row is never reached
+        sheet.append("<row r=\"11\"><c r=\"A11\"><v>oops</v></c></row></sheetData></worksheet>");
+        String utf16 = "<?xml version=\"1.0\" encoding=\"UTF-16\"?>" + sheet;
+        ReadOptions options = ReadOptions.builder().rows(3, 5).build();
+
+        for (byte[] bytes : List.of(sheet.toString().getBytes(StandardCharsets.UTF_8),
+                utf16.getBytes(StandardCharsets.UTF_16))) {
+            try (SheetRowParser parser = new SheetRowParser(new ByteArrayInputStream(bytes), List.of(), options)) {
+                for (int r = 3; r <= 5; r++) {
+                    Row row = parser.next();
+                    assertNotNull(row);
+                    assertEquals(r, row.rowNum());
+                    assertEquals(r + 1.0, row.getCell(0).number());
+                }
+                assertNull(parser.next());
+                assertNull(parser.next());
+            }
+        }
+    }
+}
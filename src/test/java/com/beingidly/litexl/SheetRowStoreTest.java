@@ -0,0 +1,383 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetRowStoreTest {
+
+    @Test
+    void findRowReturnsStoredRow() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            for (int r = 0; r < 1000; r += 2) {
+                Row row = new Row(r);
+                row.cell(0).set("row-" + r);
+                row.cell(3).set(r * 1.5);
+                store.append(row);
+            }
+
+            Row row = store.findRow(500);
+            assertNotNull(row);
+            assertEquals(500, row.rowNum());
+            assertEquals("row-500", row.getCell(0).string());
+            assertEquals(750.0, row.getCell(3).number());
+        }
+    }
+
+    @Test
+    void findRowReturnsNullForMissingRows() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            store.append(new Row(2));
+            store.append(new Row(4));
+
+            assertNull(store.findRow(0));
+            assertNull(store.findRow(3));
+            assertNull(store.findRow(5));
+        }
+    }
+
+    @Test
+    void findRowReadsFirstAndLastRows() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            for (int r = 0; r < 100; r++) {
+                Row row = new Row(r);
+                row.cell(r).set(r);
+                store.append(row);
+            }
+            store.seal();
+
+            assertEquals(0.0, store.findRow(0).getCell(0).number());
+            assertEquals(99.0, store.findRow(99).getCell(99).number());
+        }
+    }
+
+    @Test
+    void findRowBeforeSeal() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            Row first = new Row(0);
+            first.cell(0).set("first");
+            store.append(first);
+
+            assertEquals("first", store.findRow(0).getCell(0).string());
+
+            Row second = new Row(1);
+            second.cell(0).set("second");
+            store.append(second);
+
+            assertEquals("second", store.findRow(1).getCell(0).string());
+        }
+    }
+
+    @Test
+    void roundTripsAllValueTypes() {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123_000_000);
+        try (SheetRowStore store = new SheetRowStore()) {
+            Row row = new Row(7);
+            row.height(30.5);
+            row.hidden(true);
+            row.cell(0).set("text").style(3);
+            row.cell(1).set(42.5);
+            row.cell(2).set(true);
+            row.cell(3).set(date);
+            row.cell(4).setFormula("SUM(A1:B1)");
+            row.cell(5).setValue(new CellValue.Error("#N/A"));
+            row.cell(6).setEmpty();
+            store.append(row);
+
+            Row read = store.findRow(7);
+            assertNotNull(read);
+            assertEquals(30.5, read.height());
+            assertTrue(read.hasCustomHeight());
+            assertTrue(read.hidden());
+            assertEquals("text", read.getCell(0).string());
+            assertEquals(3, read.getCell(0).styleId());
+            assertEquals(42.5, read.getCell(1).number());
+            assertTrue(read.getCell(2).bool());
+            assertEquals(date, read.getCell(3).date());
+            assertEquals("SUM(A1:B1)", read.getCell(4).formula());
+            assertEquals("#N/A", read.getCell(5).error());
+            assertEquals(CellType.EMPTY, read.getCell(6).type());
+        }
+    }
+
+    @Test
+    void roundTripsNumberEdgeCases() {
+        double[] values = {0.0, -0.0, 1.0, -1.0, 42.0, -123456789.0, 0.1, 1e300, -1e-300,
+            9.007199254740993E15, Long.MAX_VALUE, Long.MIN_VALUE, Double.MAX_VALUE,
+            Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.MAPPED, 0)) {
+            Row row = new Row(0);
+            for (int c = 0; c < values.length; c++) {
+                row.cell(c).set(values[c]);
+            }
+            store.append(row);
+
+            Row read = store.findRow(0);
+            for (int c = 0; c < values.length; c++) {
+                assertEquals(Double.doubleToRawLongBits(values[c]),
+                    Double.doubleToRawLongBits(read.getCell(c).number()), "column " + c);
+            }
+        }
+    }
+
+    @Test
+    void roundTripsDatesAroundEpoch() {
+        LocalDateTime[] dates = {
+            LocalDateTime.of(1899, 12, 31, 0, 0),
+            LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999),
+            LocalDateTime.of(1970, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59, 1)
+        };
+        try (SheetRowStore store = new SheetRowStore()) {
+            Row row = new Row(0);
+            for (int c = 0; c < dates.length; c++) {
+                row.cell(c).set(dates[c]);
+            }
+            store.append(row);
+
+            Row read = store.findRow(0);
+            for (int c = 0; c < dates.length; c++) {
+                assertEquals(dates[c], read.getCell(c).date());
+            }
+        }
+    }
+
+    @Test
+    void roundTripsSparseColumnsAndStyles() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            Row row = new Row(1_000_000);
+            row.cell(0).set(1).style(1);
+            row.cell(1).set(2);
+            row.cell(16383).set(3).style(70000);
+            store.append(row);
+
+            Row read = store.findRow(1_000_000);
+            assertEquals(3, read.cellCount());
+            assertEquals(1, read.getCell(0).styleId());
+            assertEquals(0, read.getCell(1).styleId());
+            assertEquals(3.0, read.getCell(16383).number());
+            assertEquals(70000, read.getCell(16383).styleId());
+            assertFalse(read.hasCustomHeight());
+            assertFalse(read.hidden());
+        }
+    }
+
+    @Test
+    void roundTripsRepeatedAndLongStrings() {
+        String longText = "x".repeat(1000) + "\u00e9\u4e2d";
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.STREAM, 0)) {
+            for (int r = 0; r < 100; r++) {
+                Row row = new Row(r);
+                row.cell(0).set("category-" + (r % 3));
+                row.cell(1).set(longText);
+                row.cell(2).setFormula("SUM(A1:A10)");
+                row.cell(3).setValue(new CellValue.Error("#DIV/0!"));
+                store.append(row);
+            }
+
+            List<Row> rows = new ArrayList<>();
+            store.forEachRow(rows::add);
+
+            assertEquals(100, rows.size());
+            for (Row row : rows) {
+                assertEquals("category-" + (row.rowNum() % 3), row.getCell(0).string());
+                assertEquals(longText, row.getCell(1).string());
+                assertEquals("SUM(A1:A10)", row.getCell(2).formula());
+                assertEquals("#DIV/0!", row.getCell(3).error());
+            }
+        }
+    }
+
+    @Test
+    void forEachRowVisitsRowsInOrder() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            store.append(new Row(1));
+            store.append(new Row(5));
+            store.append(new Row(9));
+
+            List<Integer> seen = new ArrayList<>();
+            store.forEachRow(row -> {
+                seen.add(row.rowNum());
+                return true;
+            });
+
+            assertEquals(List.of(1, 5, 9), seen);
+        }
+    }
+
+    @Test
+    void streamAndMappedModesReadSameRows() {
+        try (SheetRowStore stream = new SheetRowStore(SheetRowStore.ReadMode.STREAM, 0);
+             SheetRowStore mapped = new SheetRowStore(SheetRowStore.ReadMode.MAPPED, 0)) {
+            for (int r = 0; r < 500; r += 3) {
+                Row row = new Row(r);
+                row.cell(0).set("row-" + r);
+                row.cell(1).set(r * 0.25);
+                row.cell(2).set(r % 2 == 0);
+                stream.append(row);
+                mapped.append(row);
+            }
+            stream.seal();
+            mapped.seal();
+
+            List<String> fromStream = new ArrayList<>();
+            stream.forEachRow(row -> fromStream.add(row.rowNum() + ":" + row.getCell(0).string()
+                + ":" + row.getCell(1).number() + ":" + row.getCell(2).bool()));
+            List<String> fromMapped = new ArrayList<>();
+            mapped.forEachRow(row -> fromMapped.add(row.rowNum() + ":" + row.getCell(0).string()
+                + ":" + row.getCell(1).number() + ":" + row.getCell(2).bool()));
+
+            assertEquals(167, fromMapped.size());
+            assertEquals(fromStream, fromMapped);
+            assertEquals("row-300", stream.findRow(300).getCell(0).string());
+            assertEquals("row-300", mapped.findRow(300).getCell(0).string());
+        }
+    }
+
+    @Test
+    void mappedReadSeesRowsAppendedAfterMapping() {
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.MAPPED, 0)) {
+            Row first = new Row(0);
+            first.cell(0).set("first");
+            store.append(first);
+            assertEquals("first", store.findRow(0).getCell(0).string());
+
+            Row second = new Row(1);
+            second.cell(0).set("second");
+            store.append(second);
+            assertEquals("second", store.findRow(1).getCell(0).string());
+            assertEquals("first", store.findRow(0).getCell(0).string());
+        }
+    }
+
+    @Test
+    void onlyRepeatedStringsEnterDictionary() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            for (int r = 0; r < 10_000; r++) {
+                Row row = new Row(r);
+                row.cell(0).set("ID-" + r);
+                row.cell(1).set("Region " + (r % 4));
+                store.append(row);
+            }
+
+            assertEquals(4, store.dictionarySize());
+            assertEquals("ID-9999", store.findRow(9999).getCell(0).string());
+            assertEquals("Region 0", store.findRow(0).getCell(1).string());
+            assertEquals("Region 3", store.findRow(9999).getCell(1).string());
+        }
+    }
+
+    @Test
+    void dictionaryStaysWithinMemoryBudget() {
+        int budget = 8192;
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.MAPPED, budget)) {
+            for (int r = 0; r < 400; r++) {
+                Row row = new Row(r);
+                row.cell(0).set(("Long value " + (100 + r % 40) + " ").repeat(15));
+                store.append(row);
+            }
+
+            int entryCost = 64 + 2 * ("Long value 100 ".repeat(15)).length();
+            assertTrue(store.dictionarySize() > 0);
+            assertTrue(store.dictionarySize() <= budget / entryCost, "entries " + store.dictionarySize());
+            for (int r = 0; r < 400; r += 7) {
+                assertEquals(("Long value " + (100 + r % 40) + " ").repeat(15), store.findRow(r).getCell(0).string());
+            }
+        }
+    }
+
+    @Test
+    void smallStoreStaysInMemory() {
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.MAPPED, 4096)) {
+            for (int r = 0; r < 20; r++) {
+                Row row = new Row(r);
+                row.cell(0).set("row-" + r);
+                store.append(row);
+            }
+            store.seal();
+
+            assertFalse(store.isSpilled());
+            assertEquals("row-7", store.findRow(7).getCell(0).string());
+        }
+    }
+
+    @Test
+    void spillsOnceBudgetIsExceeded() {
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.MAPPED, 1024)) {
+            for (int r = 0; r < 200; r++) {
+                Row row = new Row(r);
+                row.cell(0).set("row-" + r);
+                row.cell(1).set(r);
+                store.append(row);
+                if (r == 0) {
+                    assertFalse(store.isSpilled());
+                }
+            }
+            assertTrue(store.isSpilled());
+
+            List<Integer> seen = new ArrayList<>();
+            store.forEachRow(row -> {
+                assertEquals("row-" + row.rowNum(), row.getCell(0).string());
+                seen.add(row.rowNum());
+                return true;
+            });
+
+            assertEquals(200, seen.size());
+            assertEquals("row-0", store.findRow(0).getCell(0).string());
+            assertEquals(199.0, store.findRow(199).getCell(1).number());
+        }
+    }
+
+    @Test
+    void zeroBudgetSpillsImmediately() {
+        try (SheetRowStore store = new SheetRowStore(SheetRowStore.ReadMode.STREAM, 0)) {
+            store.append(new Row(0));
+
+            assertTrue(store.isSpilled());
+        }
+    }
+
+    @Test
+    void findRowInsideForEachRow() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            for (int r = 0; r < 10; r++) {
+                Row row = new Row(r);
+                row.cell(0).set(r);
+                store.append(row);
+            }
+
+            List<Double> seen = new ArrayList<>();
+            store.forEachRow(row -> {
+                Row other = store.findRow(9 - row.rowNum());
+                seen.add(row.getCell(0).number() + other.getCell(0).number());
+                return true;
+            });
+
+            assertEquals(10, seen.size());
+            assertTrue(seen.stream().allMatch(v -> v == 9.0));
+        }
+    }
+
+    @Test
+    void appendOutOfOrderThrows() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            store.append(new Row(5));
+
+            assertThrows(IllegalStateException.class, () -> store.append(new Row(5)));
+            assertThrows(IllegalStateException.class, () -> store.append(new Row(3)));
+        }
+    }
+
+    @Test
+    void appendAfterSealThrows() {
+        try (SheetRowStore store = new SheetRowStore()) {
+            store.seal();
+
+            assertThrows(IllegalStateException.class, () -> store.append(new Row(0)));
+        }
+    }
+}
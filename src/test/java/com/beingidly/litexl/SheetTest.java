@@ -80,6 +80,19 @@ class SheetTest {
         assertNotNull(sheet.getRow(5));
     }
 
+    @Test
+    void getRowAcrossManyFlushedRows() {
+        Sheet sheet = new Sheet("Test", 0);
+        for (int r = 0; r < 5000; r += 5) {
+            sheet.cell(r, 0).set("r" + r);
+        }
+
+        assertEquals("r2500", sheet.getRow(2500).getCell(0).string());
+        assertEquals("r4995", sheet.getCell(4995, 0).string());
+        assertNull(sheet.getRow(2501));
+        assertNull(sheet.getCell(2500, 1));
+    }
+
     @Test
     void firstAndLastRow() {
         Sheet sheet = new Sheet("Test", 0);
@@ -0,0 +1,112 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetXmlWriterTest {
+
+    @Test
+    void writesCells() throws Exception {
+        String xml = write(w -> {
+            w.startRow(0);
+            w.inlineStringCell(0, 0, 0, "plain");
+            w.numberCell(0, 1, 3, 1.5);
+            w.booleanCell(0, 2, 0, true);
+            w.sharedStringCell(0, 3, 0, 42);
+            w.formulaCell(0, 4, 0, "A1&\"x\"");
+            w.errorCell(0, 5, 0, "#N/A");
+            w.numberCell(0, 6, 0, 42.0);
+            w.endRow();
+        });
+
+        assertTrue(xml.contains("<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>plain</t></is></c>"), xml);
+        assertTrue(xml.contains("<c r=\"B1\" s=\"3\"><v>1.5</v></c>"), xml);
+        assertTrue(xml.contains("<c r=\"C1\" t=\"b\"><v>1</v></c>"), xml);
+        assertTrue(xml.contains("<c r=\"D1\" t=\"s\"><v>42</v></c>"), xml);
+        assertTrue(xml.contains("<f>A1&amp;\"x\"</f>"), xml);
+        assertTrue(xml.contains("<c r=\"F1\" t=\"e\"><v>#N/A</v></c><c r=\"G1\"><v>42</v></c></row>"), xml);
+        parse(xml);
+    }
+
+    @Test
+    void escapesTextAndAttributes() throws Exception {
+        String text = " <a & b> \"q\" é 中 😀 ";
+        String xml = write(w -> {
+            w.startRow(9);
+            w.attribute("ht", "20.0");
+            w.inlineStringCell(9, 27, 0, text);
+            w.endRow();
+            w.emptyElement("mergeCell");
+            w.attribute("ref", "<\"&\">");
+        });
+
+        Element root = parse(xml).getDocumentElement();
+        Element row = (Element) root.getElementsByTagName("row").item(0);
+        assertEquals("10", row.getAttribute("r"));
+        assertEquals("20.0", row.getAttribute("ht"));
+        Element cell = (Element) row.getElementsByTagName("c").item(0);
+        assertEquals("AB10", cell.getAttribute("r"));
+        Element t = (Element) cell.getElementsByTagName("t").item(0);
+        assertEquals("preserve", t.getAttribute("xml:space"));
+        assertEquals(text, t.getTextContent());
+        assertEquals("<\"&\">", ((Element) root.getElementsByTagName("mergeCell").item(0)).getAttribute("ref"));
+    }
+
+    @Test
+    void flushesAcrossBufferBoundaries() throws Exception {
+        String text = "é&".repeat(100_000);
+        int rows = 5000;
+        String xml = write(w -> {
+            for (int r = 0; r < rows; r++) {
+                w.startRow(r);
+                w.numberCell(r, 0, 1, r);
+                w.endRow();
+            }
+            w.startRow(rows);
+            w.inlineStringCell(rows, 0, 0, text);
+            w.endRow();
+        });
+
+        Element root = parse(xml).getDocumentElement();
+        assertEquals(rows + 1, root.getElementsByTagName("row").getLength());
+        assertEquals(text, root.getElementsByTagName("t").item(0).getTextContent());
+    }
+
+    @Test
+    void emptyRowIsSelfClosing() throws Exception {
+        String xml = write(w -> {
+            w.startRow(0);
+            w.endRow();
+        });
+        assertTrue(xml.contains("<sheetData><row r=\"1\"/></sheetData>"), xml);
+    }
+
+    private interface Body {
+        void write(SheetXmlWriter writer) throws Exception;
+    }
+
+    private static String write(Body body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SheetXmlWriter writer = new SheetXmlWriter(out)) {
+            writer.startDocument();
+            writer.startElement("worksheet");
+            writer.startElement("sheetData");
+            body.write(writer);
+            writer.endDocument();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Document parse(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,33 @@
+package com.beingidly.litexl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkbookOptionsTest {
+
+    @Test
+    void defaultsUseDefaultBudget() {
+        WorkbookOptions options = WorkbookOptions.defaults();
+
+        assertEquals(WorkbookOptions.DEFAULT_ROW_STORE_MEMORY_BUDGET, options.rowStoreMemoryBudget());
+        assertEquals(WorkbookOptions.DEFAULT_SHARED_STRING_MEMORY_BUDGET, options.sharedStringMemoryBudget());
+    }
+
+    @Test
+    void builderSetsBudget() {
+        WorkbookOptions options = WorkbookOptions.builder()
+            .rowStoreMemoryBudget(4096)
+            .sharedStringMemoryBudget(8192)
+            .build();
+
+        assertEquals(4096, options.rowStoreMemoryBudget());
+        assertEquals(8192, options.sharedStringMemoryBudget());
+    }
+
+    @Test
+    void negativeBudgetThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new WorkbookOptions(-1));
+        assertThrows(IllegalArgumentException.class, () -> new WorkbookOptions(0, -1));
+    }
+}
@@ -0,0 +1,159 @@
+package com.beingidly.litexl;
+
+import com.beingidly.litexl.crypto.EncryptionOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkbookStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamsRowsOfEachSheet() {
+        Path file = tempDir.resolve("stream.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet first = wb.addSheet("First");
+            for (int r = 0; r < 100; r++) {
+                first.cell(r, 0).set("row-" + r);
+                first.cell(r, 1).set(r);
+                first.cell(r, 2).set(r % 2 == 0);
+            }
+            Sheet second = wb.addSheet("Second");
+            second.cell(5, 3).set("only");
+            wb.save(file);
+        }
+
+        try (WorkbookStream wb = Workbook.stream(file)) {
+            assertEquals(List.of("First", "Second"), wb.sheetNames());
+            assertEquals(2, wb.sheetCount());
+
+            List<Integer> rowNums = new ArrayList<>();
+            try (RowIterator rows = wb.rows(0)) {
+                while (rows.hasNext()) {
+                    Row row = rows.next();
+                    rowNums.add(row.rowNum());
+                    assertEquals("row-" + row.rowNum(), row.getCell(0).string());
+                    assertEquals(row.rowNum(), row.getCell(1).number());
+                    assertEquals(row.rowNum() % 2 == 0, row.getCell(2).bool());
+                }
+            }
+            assertEquals(100, rowNums.size());
+            assertEquals(99, rowNums.get(99));
+
+            try (RowIterator rows = wb.rows("second")) {
+                assertTrue(rows.hasNext());
+                Row row = rows.next();
+                assertEquals(5, row.rowNum());
+                assertEquals("only", row.getCell(3).string());
+                assertFalse(rows.hasNext());
+                assertThrows(NoSuchElementException.class, rows::next);
+            }
+        }
+    }
+
+    @Test
+    void sheetsCanBeIteratedConcurrently() {
+        Path file = tempDir.resolve("interleaved.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("A").cell(0, 0).set("a");
+            wb.addSheet("B").cell(0, 0).set("b");
+            wb.save(file);
+        }
+
+        try (WorkbookStream wb = Workbook.stream(file)) {
+            RowIterator a = wb.rows(0);
+            RowIterator b = wb.rows(1);
+
+            assertEquals("b", b.next().getCell(0).string());
+            assertEquals("a", a.next().getCell(0).string());
+        }
+    }
+
+    @Test
+    void streamsEncryptedWorkbook() throws Exception {
+        Path file = tempDir.resolve("encrypted.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("Secret").cell(0, 0).set("hidden");
+            wb.save(file, EncryptionOptions.aes256("pw", 1000));
+        }
+
+        try (WorkbookStream wb = Workbook.stream(file, "pw");
+             RowIterator rows = wb.rows(0)) {
+            assertEquals("hidden", rows.next().getCell(0).string());
+        }
+    }
+
+    @Test
+    void invalidSheetAccessThrows() {
+        Path file = tempDir.resolve("single.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("Only");
+            wb.save(file);
+        }
+
+        try (WorkbookStream wb = Workbook.stream(file)) {
+            assertThrows(IndexOutOfBoundsException.class, () -> wb.rows(1));
+            assertThrows(IllegalArgumentException.class, () -> wb.rows("Missing"));
+        }
+    }
+
+    @Test
+    void closedStreamThrows() {
+        Path file = tempDir.resolve("closed.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("Data");
+            wb.save(file);
+        }
+
+        WorkbookStream wb = Workbook.stream(file);
+        RowIterator rows = wb.rows(0);
+        wb.close();
+
+        assertFalse(rows.hasNext());
+        assertThrows(IllegalStateException.class, () -> wb.rows(0));
+    }
+
+    @Test
+    void finishedIteratorsAreReleased() {
+        Path file = tempDir.resolve("released.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("Data").cell(0, 0).set("x");
+            wb.save(file);
+        }
+
+        try (WorkbookStream wb = Workbook.stream(file)) {
+            for (int i = 0; i < 50; i++) {
+                RowIterator rows = wb.rows(0);
+                while (rows.hasNext()) {
+                    rows.next();
+                }
+                wb.rows(0).close();
+            }
+            assertEquals(0, wb.openIterators());
+
+            RowIterator open = wb.rows(0);
+            assertEquals(1, wb.openIterators());
+            open.close();
+            open.close();
+            assertEquals(0, wb.openIterators());
+        }
+    }
+
+    @Test
+    void missingFileThrows() {
+        Path missing = tempDir.resolve("missing.xlsx");
+
+        LitexlException e = assertThrows(LitexlException.class, () -> Workbook.stream(missing));
+        assertEquals(ErrorCode.FILE_NOT_FOUND, e.code());
+        assertFalse(Files.exists(missing));
+    }
+}
@@ -13,6 +13,8 @@ import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -143,6 +145,264 @@ class WorkbookTest {
         }
     }
 
+    @Test
+    void saveAndOpenWithOptions() throws Exception {
+        Path file = tempDir.resolve("options.xlsx");
+        WorkbookOptions options = WorkbookOptions.builder()
+            .rowStoreMemoryBudget(0)
+            .build();
+
+        try (Workbook wb = Workbook.create(options)) {
+            assertSame(options, wb.options());
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < 100; r++) {
+                sheet.cell(r, 0).set("row-" + r);
+            }
+            wb.save(file);
+        }
+
+        try (Workbook wb = Workbook.open(file, null, options)) {
+            assertSame(options, wb.options());
+            assertEquals("row-99", wb.getSheet(0).getCell(99, 0).string());
+        }
+    }
+
+    @Test
+    void openWithParallelReadOptions() {
+        Path file = tempDir.resolve("parallel.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            for (int i = 0; i < 8; i++) {
+                Sheet sheet = wb.addSheet("Sheet" + i);
+                for (int r = 0; r < 200; r++) {
+                    sheet.cell(r, 0).set("s" + i + "-r" + r);
+                    sheet.cell(r, 1).set(i * 1000 + r);
+                }
+            }
+            wb.getSheet(0).merge(0, 0, 0, 1);
+            wb.save(file);
+        }
+
+        ReadOptions options = ReadOptions.builder().parallelism(4).build();
+        try (Workbook wb = Workbook.open(file, null, options)) {
+            assertEquals(8, wb.sheetCount());
+            for (int i = 0; i < 8; i++) {
+                Sheet sheet = wb.getSheet(i);
+                assertEquals("Sheet" + i, sheet.name());
+                assertEquals(i, sheet.index());
+                assertEquals(200, sheet.rowCount());
+                assertEquals("s" + i + "-r199", sheet.getCell(199, 0).string());
+                assertEquals(i * 1000 + 199, sheet.getCell(199, 1).number());
+            }
+        }
+    }
+
+    @Test
+    void openWithColumnProjection() {
+        Path file = tempDir.resolve("projected.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Wide");
+            for (int r = 0; r < 100; r++) {
+                for (int c = 0; c < 60; c++) {
+                    sheet.cell(r, c).set(r * 100 + c);
+                }
+            }
+            wb.save(file);
+        }
+
+        for (boolean pipelined : new boolean[]{false, true}) {
+            ReadOptions options = ReadOptions.builder().columns("B", "AH").pipelined(pipelined).build();
+            try (Workbook wb = Workbook.open(file, null, options)) {
+                Sheet sheet = wb.getSheet(0);
+                assertEquals(100, sheet.rowCount());
+                sheet.forEachRow(row -> {
+                    assertEquals(2, row.cellCount());
+                    assertEquals(row.rowNum() * 100 + 1, row.getCell(1).number());
+                    assertEquals(row.rowNum() * 100 + 33, row.getCell(33).number());
+                    return true;
+                });
+            }
+        }
+    }
+
+    @Test
+    void openSelectedSheetsAndRows() {
+        Path file = tempDir.resolve("selected.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            for (String name : List.of("Data", "Summary", "Notes")) {
+                Sheet sheet = wb.addSheet(name);
+                for (int r = 0; r < 2000; r++) {
+                    sheet.cell(r, 0).set(name + "-" + r);
+                }
+            }
+            wb.save(file);
+        }
+
+        ReadOptions byName = ReadOptions.builder().sheets("Summary").maxRows(1000).build();
+        try (Workbook wb = Workbook.open(file, null, byName)) {
+            assertEquals(1, wb.sheetCount());
+            Sheet sheet = wb.getSheet(0);
+            assertEquals("Summary", sheet.name());
+            assertEquals(0, sheet.index());
+            assertEquals(1000, sheet.rowCount());
+            assertEquals("Summary-999", sheet.getCell(999, 0).string());
+            assertNull(sheet.getCell(1000, 0));
+        }
+
+        ReadOptions byIndex = ReadOptions.builder().sheets(0, 2).rows(10, 19).parallel().build();
+        try (Workbook wb = Workbook.open(file, null, byIndex)) {
+            assertEquals(2, wb.sheetCount());
+            assertEquals("Notes", wb.getSheet(1).name());
+            assertEquals(10, wb.getSheet(1).rowCount());
+            assertNull(wb.getSheet(1).getCell(9, 0));
+            assertEquals("Notes-10", wb.getSheet(1).getCell(10, 0).string());
+        }
+    }
+
+    @Test
+    void openLazilyLoadsSheetsOnFirstUse() {
+        Path file = tempDir.resolve("lazy.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            for (String name : List.of("First", "Second")) {
+                Sheet sheet = wb.addSheet(name);
+                for (int r = 0; r < 100; r++) {
+                    sheet.cell(r, 0).set(name + "-" + r);
+                    sheet.cell(r, 1).set(r);
+                }
+                sheet.merge(0, 0, 0, 1);
+            }
+            wb.save(file);
+        }
+
+        Path copy = tempDir.resolve("lazy-copy.xlsx");
+        ReadOptions options = ReadOptions.builder().lazy(true).build();
+        try (Workbook wb = Workbook.open(file, null, options)) {
+            assertEquals(2, wb.sheetCount());
+            Sheet first = wb.getSheet("First");
+            Sheet second = wb.getSheet("Second");
+            assertFalse(first.isLoaded());
+            assertFalse(second.isLoaded());
+
+            assertEquals("Second-42", second.getCell(42, 0).string());
+            assertEquals(42.0, second.getCell(42, 1).number());
+            assertTrue(second.isLoaded());
+            assertFalse(first.isLoaded());
+
+            wb.save(copy);
+            assertTrue(first.isLoaded());
+        }
+
+        try (Workbook wb = Workbook.open(copy)) {
+            Sheet first = wb.getSheet("First");
+            assertEquals(100, first.rowCount());
+            assertEquals("First-99", first.getCell(99, 0).string());
+            assertEquals(1, first.mergedCells().size());
+        }
+    }
+
+    @Test
+    void lazyWorkbookSavesOverItsOwnFile() {
+        Path file = tempDir.resolve("lazy-in-place.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            for (int s = 0; s < 3; s++) {
+                Sheet sheet = wb.addSheet("Sheet" + s);
+                for (int r = 0; r < 2000; r++) {
+                    sheet.cell(r, 0).set("Sheet" + s + "-" + r);
+                    sheet.cell(r, 1).set(r * 0.5);
+                }
+            }
+            wb.save(file);
+        }
+
+        for (int parallelism : new int[] {1, 3}) {
+            try (Workbook wb = Workbook.open(file, null, ReadOptions.builder().lazy(true).build())) {
+                assertEquals("Sheet1-0", wb.getSheet(1).getCell(0, 0).string());
+                assertFalse(wb.getSheet(2).isLoaded());
+                wb.saveWith(file, WriteOptions.builder().parallelism(parallelism).build());
+            }
+
+            try (Workbook wb = Workbook.open(file)) {
+                assertEquals(3, wb.sheetCount());
+                for (int s = 0; s < 3; s++) {
+                    Sheet sheet = wb.getSheet(s);
+                    assertEquals(2000, sheet.rowCount());
+                    assertEquals("Sheet" + s + "-1999", sheet.getCell(1999, 0).string());
+                    assertEquals(999.5, sheet.getCell(1999, 1).number());
+                }
+            }
+        }
+    }
+
+    @Test
+    void lazySheetKeepsFailingAfterCorruptLoad() throws Exception {
+        Path file = tempDir.resolve("lazy-source.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < 100; r++) {
+                sheet.cell(r, 0).set(r);
+            }
+            wb.save(file);
+        }
+
+        // Same package with an unreadable value halfway through the sheet's rows
+        Path corrupt = tempDir.resolve("lazy-corrupt.xlsx");
+        try (java.util.zip.ZipFile source = new java.util.zip.ZipFile(file.toFile());
+             java.util.zip.ZipOutputStream out = new java.util.zip.ZipOutputStream(Files.newOutputStream(corrupt))) {
+            for (var entry : java.util.Collections.list(source.entries())) {
+                byte[] data;
+                try (var is = source.getInputStream(entry)) {
+                    data = is.readAllBytes();
+                }
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    String xml = new String(data, java.nio.charset.StandardCharsets.UTF_8);
+                    data = xml.replace("<v>49</v>", "<v>4x9</v>").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                }
+                out.putNextEntry(new java.util.zip.ZipEntry(entry.getName()));
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+
+        try (Workbook wb = Workbook.open(corrupt, null, ReadOptions.builder().lazy(true).build())) {
+            Sheet sheet = wb.getSheet(0);
+            RuntimeException first = assertThrows(RuntimeException.class, () -> sheet.getRow(0));
+            RuntimeException second = assertThrows(RuntimeException.class, () -> sheet.getRow(0));
+            assertSame(first, second);
+            assertThrows(RuntimeException.class, sheet::rowCount);
+        }
+    }
+
+    @Test
+    void openWithPipelinedReadOptions() {
+        Path file = tempDir.resolve("pipelined.xlsx");
+        int rows = SheetReadPipeline.BATCH_ROWS * 3 + 7;
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < rows; r++) {
+                sheet.cell(r, 0).set("row-" + r);
+                sheet.cell(r, 1).set(r + 0.5);
+                sheet.cell(r, 2).set(r % 2 == 0);
+            }
+            sheet.merge(0, 0, 1, 1);
+            wb.save(file);
+        }
+
+        ReadOptions options = ReadOptions.builder().pipelined(true).build();
+        try (Workbook wb = Workbook.open(file, null, options)) {
+            Sheet sheet = wb.getSheet(0);
+            assertEquals(rows, sheet.rowCount());
+            List<Integer> seen = new ArrayList<>();
+            sheet.forEachRow(row -> {
+                assertEquals("row-" + row.rowNum(), row.getCell(0).string());
+                assertEquals(row.rowNum() + 0.5, row.getCell(1).number());
+                assertEquals(row.rowNum() % 2 == 0, row.getCell(2).bool());
+                seen.add(row.rowNum());
+                return true;
+            });
+            assertEquals(rows, seen.size());
+            assertEquals(1, sheet.mergedCells().size());
+        }
+    }
+
     @Test
     void mergeCells() {
         try (Workbook wb = Workbook.create()) {
@@ -389,4 +649,57 @@ class WorkbookTest {
             assertEquals(12345.67, sheet.getCell(0, 1).number(), 0.001);
         }
     }
+
+    @Test
+    void saveAcceptsNullEncryption() throws Exception {
+        Path file = tempDir.resolve("null-encryption.xlsx");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("Plain").cell(0, 0).set("Visible");
+            wb.save(file, null);
+            wb.save(baos, null);
+        }
+
+        try (Workbook wb = Workbook.open(file)) {
+            assertEquals("Visible", wb.getSheet(0).getCell(0, 0).string());
+        }
+        Path streamed = tempDir.resolve("null-encryption-stream.xlsx");
+        Files.write(streamed, baos.toByteArray());
+        try (Workbook wb = Workbook.open(streamed)) {
+            assertEquals("Visible", wb.getSheet(0).getCell(0, 0).string());
+        }
+    }
+
+    @Test
+    void saveWithEncryptsUsingWriteOptions() throws Exception {
+        String password = "combined";
+        Path file = tempDir.resolve("combined.xlsx");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WriteOptions options = WriteOptions.builder()
+            .sharedStrings(WriteOptions.SharedStringMode.SHARED)
+            .parallelism(2)
+            .encryption(EncryptionOptions.aes256(password, 1000))
+            .build();
+        try (Workbook wb = Workbook.create()) {
+            for (int s = 0; s < 3; s++) {
+                Sheet sheet = wb.addSheet("Sheet" + s);
+                for (int r = 0; r < 50; r++) {
+                    sheet.cell(r, 0).set("Region " + (r % 4));
+                }
+            }
+            wb.saveWith(file, options);
+            wb.saveWith(baos, options);
+        }
+
+        Path streamed = tempDir.resolve("combined-stream.xlsx");
+        Files.write(streamed, baos.toByteArray());
+        for (Path path : List.of(file, streamed)) {
+            assertThrows(LitexlException.class, () -> Workbook.open(path));
+            try (Workbook wb = Workbook.open(path, password)) {
+                assertEquals(3, wb.sheetCount());
+                assertEquals("Region 3", wb.getSheet(2).getCell(47, 0).string());
+                assertEquals(4, wb.sharedStrings().size());
+            }
+        }
+    }
 }
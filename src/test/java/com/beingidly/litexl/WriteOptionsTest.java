@@ -0,0 +1,69 @@
+package com.beingidly.litexl;
+
+import com.beingidly.litexl.crypto.EncryptionOptions;
+import com.beingidly.litexl.crypto.EncryptionSession;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteOptionsTest {
+
+    @Test
+    void defaultsWriteInlineStrings() {
+        assertEquals(WriteOptions.SharedStringMode.INLINE, WriteOptions.defaults().sharedStrings());
+        assertEquals(1, WriteOptions.defaults().parallelism());
+    }
+
+    @Test
+    void builderSetsParallelism() {
+        assertEquals(4, WriteOptions.builder().parallelism(4).build().parallelism());
+        assertEquals(Runtime.getRuntime().availableProcessors(), WriteOptions.builder().parallel().build().parallelism());
+    }
+
+    @Test
+    void nonPositiveParallelismThrows() {
+        assertThrows(IllegalArgumentException.class, () -> WriteOptions.builder().parallelism(0).build());
+    }
+
+    @Test
+    void builderSetsSharedStringMode() {
+        WriteOptions options = WriteOptions.builder()
+            .sharedStrings(WriteOptions.SharedStringMode.ADAPTIVE)
+            .build();
+
+        assertEquals(WriteOptions.SharedStringMode.ADAPTIVE, options.sharedStrings());
+    }
+
+    @Test
+    void nullModeThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteOptions(null, 1));
+    }
+
+    @Test
+    void defaultsAreUnencrypted() {
+        assertNull(WriteOptions.defaults().encryption());
+        assertNull(WriteOptions.defaults().encryptionSession());
+    }
+
+    @Test
+    void builderKeepsLastEncryptionSetting() {
+        EncryptionOptions encryption = EncryptionOptions.aes256("pw", 1000);
+        EncryptionSession session = EncryptionSession.create(new EncryptionOptions(EncryptionOptions.Algorithm.AES_128, "pw", 1000));
+
+        WriteOptions withSession = WriteOptions.builder().encryption(encryption).encryptionSession(session).build();
+        assertNull(withSession.encryption());
+        assertSame(session, withSession.encryptionSession());
+
+        WriteOptions withOptions = WriteOptions.builder().encryptionSession(session).encryption(encryption).build();
+        assertSame(encryption, withOptions.encryption());
+        assertNull(withOptions.encryptionSession());
+    }
+
+    @Test
+    void encryptionAndSessionTogetherThrow() {
+        EncryptionOptions encryption = EncryptionOptions.aes256("pw", 1000);
+        EncryptionSession session = EncryptionSession.create(encryption);
+        assertThrows(IllegalArgumentException.class,
+            () -> new WriteOptions(WriteOptions.SharedStringMode.INLINE, 1, encryption, session));
+    }
+}
@@ -12,6 +12,7 @@ import com.beingidly.litexl.style.VAlign;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
@@ -214,6 +215,37 @@ class XlsxWriterTest {
         }
     }
 
+    @Test
+    void writesEncryptedWithConfiguredParallelism() throws Exception {
+        Path path = tempDir.resolve("encrypted-parallel.xlsx");
+        java.io.ByteArrayOutputStream streamed = new java.io.ByteArrayOutputStream();
+        WriteOptions options = WriteOptions.builder().parallelism(3).build();
+
+        try (Workbook workbook = Workbook.create()) {
+            Sheet sheet = workbook.addSheet("Secret");
+            for (int r = 0; r < 5000; r++) {
+                sheet.cell(r, 0).set("Row " + r);
+            }
+            new XlsxWriter(workbook, path)
+                .withEncryption(EncryptionOptions.aes256("secret", 1000))
+                .withOptions(options)
+                .write();
+            new XlsxWriter(workbook, streamed)
+                .withEncryption(EncryptionOptions.aes256("secret", 1000))
+                .withOptions(options)
+                .write();
+        }
+
+        try (Workbook read = Workbook.open(path, "secret")) {
+            assertEquals("Row 4999", read.getSheet(0).cell(4999, 0).string());
+        }
+        Path copy = tempDir.resolve("encrypted-parallel-stream.xlsx");
+        Files.write(copy, streamed.toByteArray());
+        try (Workbook read = Workbook.open(copy, "secret")) {
+            assertEquals("Row 4999", read.getSheet(0).cell(4999, 0).string());
+        }
+    }
+
     @Test
     void writesAutoFilter() throws Exception {
         Path path = tempDir.resolve("autofilter.xlsx");
@@ -1610,4 +1642,161 @@ class XlsxWriterTest {
 
         assertTrue(Files.exists(file));
     }
+
+    @Test
+    void writesSharedStrings() throws Exception {
+        Path file = tempDir.resolve("shared.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet first = wb.addSheet("First");
+            Sheet second = wb.addSheet("Second");
+            first.cell(0, 1).set(" padded ");
+            for (int r = 0; r < 10; r++) {
+                first.cell(r, 0).set("Category " + (r % 3));
+                second.cell(r, 0).set("Category " + (r % 3));
+            }
+            wb.saveWith(file, WriteOptions.builder().sharedStrings(WriteOptions.SharedStringMode.SHARED).build());
+        }
+
+        try (ZipReader zip = new ZipReader(file)) {
+            String sst = entry(zip, "xl/sharedStrings.xml");
+            assertTrue(sst.contains("count=\"21\""), sst);
+            assertTrue(sst.contains("uniqueCount=\"4\""), sst);
+            assertTrue(sst.contains("xml:space=\"preserve\""), sst);
+            assertFalse(entry(zip, "xl/worksheets/sheet2.xml").contains("inlineStr"));
+            assertTrue(entry(zip, "[Content_Types].xml").contains("/xl/sharedStrings.xml"));
+            assertTrue(entry(zip, "xl/_rels/workbook.xml.rels").contains("sharedStrings.xml"));
+        }
+
+        try (Workbook wb = Workbook.open(file)) {
+            assertEquals("Category 2", wb.getSheet(1).getCell(8, 0).string());
+            assertEquals(" padded ", wb.getSheet(0).getCell(0, 1).string());
+        }
+    }
+
+    @Test
+    void adaptiveSharedStringsInlineUniqueColumns() throws Exception {
+        int rows = 3 * SharedStringCollector.SAMPLE_SIZE;
+        Path file = tempDir.resolve("adaptive.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            Sheet sheet = wb.addSheet("Data");
+            for (int r = 0; r < rows; r++) {
+                sheet.cell(r, 0).set("Region " + (r % 5));
+                sheet.cell(r, 1).set("ID-" + r);
+            }
+            wb.saveWith(file, WriteOptions.builder().sharedStrings(WriteOptions.SharedStringMode.ADAPTIVE).build());
+        }
+
+        try (ZipReader zip = new ZipReader(file)) {
+            // Regions stay shared; IDs stop being added once the sample shows no repeats
+            String sst = entry(zip, "xl/sharedStrings.xml");
+            assertTrue(sst.contains("uniqueCount=\"" + (5 + SharedStringCollector.SAMPLE_SIZE) + "\""), sst);
+            assertTrue(entry(zip, "xl/worksheets/sheet1.xml").contains("inlineStr"));
+        }
+
+        try (Workbook wb = Workbook.open(file)) {
+            Sheet sheet = wb.getSheet(0);
+            for (int r = 0; r < rows; r += 97) {
+                assertEquals("Region " + (r % 5), sheet.getCell(r, 0).string());
+                assertEquals("ID-" + r, sheet.getCell(r, 1).string());
+            }
+        }
+    }
+
+    @Test
+    void inlineModeWritesNoSharedStrings() throws Exception {
+        Path file = tempDir.resolve("inline.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("Sheet1").cell(0, 0).set("Text");
+            wb.saveWith(file, WriteOptions.defaults());
+        }
+
+        try (ZipReader zip = new ZipReader(file)) {
+            assertFalse(zip.hasEntry("xl/sharedStrings.xml"));
+        }
+    }
+
+    @Test
+    void parallelSaveMatchesSequentialSave() throws Exception {
+        Path sequential = tempDir.resolve("sequential.xlsx");
+        Path parallel = tempDir.resolve("parallel.xlsx");
+        try (Workbook wb = Workbook.create()) {
+            for (int s = 0; s < 5; s++) {
+                Sheet sheet = wb.addSheet("Sheet" + s);
+                for (int r = 0; r < 2000; r++) {
+                    sheet.cell(r, 0).set("Region " + (r % 7));
+                    sheet.cell(r, 1).set(r * 1.5 + s);
+                    sheet.cell(r, 2).set("ID-" + s + "-" + r);
+                }
+            }
+            wb.saveWith(sequential, WriteOptions.builder().sharedStrings(WriteOptions.SharedStringMode.ADAPTIVE).build());
+            wb.saveWith(parallel, WriteOptions.builder()
+                .sharedStrings(WriteOptions.SharedStringMode.ADAPTIVE)
+                .parallelism(3)
+                .build());
+        }
+
+        try (ZipReader zip = new ZipReader(parallel)) {
+            assertNotNull(zip.getEntry("xl/worksheets/sheet5.xml"));
+            assertNotNull(zip.getEntry("xl/sharedStrings.xml"));
+        }
+        try (Workbook expected = Workbook.open(sequential);
+             Workbook actual = Workbook.open(parallel)) {
+            assertEquals(expected.sheetCount(), actual.sheetCount());
+            for (int s = 0; s < expected.sheetCount(); s++) {
+                Sheet e = expected.getSheet(s);
+                Sheet a = actual.getSheet(s);
+                assertEquals(e.name(), a.name());
+                for (int r = 0; r < 2000; r += 97) {
+                    assertEquals(e.getCell(r, 0).string(), a.getCell(r, 0).string());
+                    assertEquals(e.getCell(r, 1).number(), a.getCell(r, 1).number());
+                    assertEquals(e.getCell(r, 2).string(), a.getCell(r, 2).string());
+                }
+            }
+        }
+    }
+
+    @Test
+    void adaptiveColumnsIgnoreStringsFromOtherSheets() throws Exception {
+        int rows = 2 * SharedStringCollector.SAMPLE_SIZE;
+        try (Workbook wb = Workbook.create()) {
+            // Every sheet holds the same unique IDs; they repeat only across sheets
+            for (int s = 0; s < 4; s++) {
+                Sheet sheet = wb.addSheet("Sheet" + s);
+                for (int r = 0; r < rows; r++) {
+                    sheet.cell(r, 0).set("ID-" + r);
+                    sheet.cell(r, 1).set("Region " + (r % 3));
+                }
+            }
+            for (int parallelism : new int[] {1, 4, 4}) {
+                Path file = tempDir.resolve("adaptive-" + parallelism + ".xlsx");
+                wb.saveWith(file, WriteOptions.builder()
+                    .sharedStrings(WriteOptions.SharedStringMode.ADAPTIVE)
+                    .parallelism(parallelism)
+                    .build());
+
+                try (ZipReader zip = new ZipReader(file)) {
+                    for (int s = 1; s <= 4; s++) {
+                        String xml = entry(zip, "xl/worksheets/sheet" + s + ".xml");
+                        assertEquals(rows - SharedStringCollector.SAMPLE_SIZE, occurrences(xml, "inlineStr"),
+                            "sheet" + s + " with parallelism " + parallelism);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String entry(ZipReader zip, String name) throws Exception {
+        try (var in = zip.getEntry(name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 }
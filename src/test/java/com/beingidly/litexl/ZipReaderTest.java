@@ -2,9 +2,14 @@ package com.beingidly.litexl;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +31,21 @@ class ZipReaderTest {
         }
     }
 
+    @Test
+    void readEntryThroughChannelAboveMappedSize() throws IOException {
+        Path zipPath = createTestZip();
+        // Files over the mapping limit (2 GiB by default) are read through a channel
+        try (ZipReader reader = new ZipReader(zipPath, 16)) {
+            assertTrue(reader.hasEntry("test.txt"));
+            try (var is = reader.getEntry("test.txt")) {
+                assertNotNull(is);
+                assertEquals("Hello, World!", new String(is.readAllBytes()));
+            }
+        }
+        // The channel is released on close
+        Files.delete(zipPath);
+    }
+
     @Test
     void getEntry_notFound() throws IOException {
         Path zipPath = createTestZip();
@@ -50,6 +70,65 @@ class ZipReaderTest {
         }
     }
 
+    @Test
+    void readFromMemoryBuffer() throws IOException {
+        byte[] large = new byte[300_000];
+        new Random(42).nextBytes(large);
+        byte[] stored = "stored entry".getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (var zos = new ZipOutputStream(bytes)) {
+            zos.setComment("archive comment");
+            zos.putNextEntry(new ZipEntry("xl/large.bin"));
+            zos.write(large);
+            zos.closeEntry();
+
+            ZipEntry entry = new ZipEntry("stored.txt");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(stored.length);
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            entry.setCrc(crc.getValue());
+            zos.putNextEntry(entry);
+            zos.write(stored);
+            zos.closeEntry();
+        }
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.size());
+        direct.put(bytes.toByteArray()).flip();
+        try (ZipReader reader = new ZipReader(direct)) {
+            try (var is = reader.getEntry("xl/large.bin")) {
+                assertNotNull(is);
+                assertArrayEquals(large, is.readAllBytes());
+            }
+            try (var is = reader.getEntry("stored.txt")) {
+                assertNotNull(is);
+                assertArrayEquals(stored, is.readAllBytes());
+            }
+            assertNull(reader.getEntry("missing"));
+        }
+    }
+
+    @Test
+    void notAZipThrows() {
+        ByteBuffer data = ByteBuffer.wrap("not a zip archive at all, just some text".getBytes(StandardCharsets.UTF_8));
+        assertThrows(CorruptFileException.class, () -> new ZipReader(data));
+        assertThrows(CorruptFileException.class, () -> new ZipReader(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    void corruptLocalHeaderThrows() throws IOException {
+        byte[] zip = Files.readAllBytes(createTestZip());
+        try (ZipReader reader = new ZipReader(ByteBuffer.wrap(zip))) {
+            assertTrue(reader.hasEntry("test.txt"));
+        }
+        // Corrupt the local header signature of the only entry
+        zip[0] = 0;
+        try (ZipReader reader = new ZipReader(ByteBuffer.wrap(zip))) {
+            assertThrows(CorruptFileException.class, () -> reader.getEntry("test.txt"));
+        }
+    }
+
     private Path createTestZip() throws IOException {
         Path zipPath = tempDir.resolve("test.zip");
         try (var zos = new ZipOutputStream(Files.newOutputStream(zipPath))) {
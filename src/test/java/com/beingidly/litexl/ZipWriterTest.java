@@ -2,7 +2,11 @@ package com.beingidly.litexl;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Path;
 import java.util.zip.ZipFile;
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,4 +53,180 @@ class ZipWriterTest {
             assertNotNull(zf.getEntry("file2.txt"));
         }
     }
+
+    @Test
+    void addDeflatedEntries() throws IOException {
+        byte[] data = new byte[300_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ((i * 31) ^ (i >>> 7));
+        }
+        Path zipPath = tempDir.resolve("deflated.zip");
+        try (ZipWriter writer = new ZipWriter(zipPath);
+             DeflatedEntry inMemory = new DeflatedEntry();
+             DeflatedEntry spilled = new DeflatedEntry(1024)) {
+            try (var os = writer.newEntry("first.txt")) {
+                os.write("Streamed".getBytes());
+            }
+            inMemory.write("Precompressed".getBytes());
+            inMemory.finish();
+            writer.addDeflated("second.txt", inMemory);
+            spilled.write(data);
+            spilled.finish();
+            assertTrue(spilled.spilled());
+            writer.addDeflated("third.bin", spilled);
+            try (var os = writer.newEntry("fourth.txt")) {
+                os.write("Last".getBytes());
+            }
+        }
+
+        try (ZipFile zf = new ZipFile(zipPath.toFile())) {
+            assertEquals(4, zf.size());
+            try (var is = zf.getInputStream(zf.getEntry("second.txt"))) {
+                assertEquals("Precompressed", new String(is.readAllBytes()));
+            }
+            try (var is = zf.getInputStream(zf.getEntry("third.bin"))) {
+                assertArrayEquals(data, is.readAllBytes());
+            }
+            try (var is = zf.getInputStream(zf.getEntry("fourth.txt"))) {
+                assertEquals("Last", new String(is.readAllBytes()));
+            }
+        }
+    }
+
+    @Test
+    void writeMoreEntriesThanZip32Allows() throws IOException {
+        int count = 70_000;
+        Path zipPath = tempDir.resolve("many.zip");
+        try (ZipWriter writer = new ZipWriter(zipPath)) {
+            for (int i = 0; i < count; i++) {
+                try (var os = writer.newEntry("e" + i)) {
+                    os.write(Integer.toString(i).getBytes());
+                }
+            }
+        }
+
+        try (ZipFile zf = new ZipFile(zipPath.toFile())) {
+            assertEquals(count, zf.size());
+            try (var is = zf.getInputStream(zf.getEntry("e69999"))) {
+                assertEquals("69999", new String(is.readAllBytes()));
+            }
+        }
+        try (ZipReader reader = new ZipReader(zipPath)) {
+            for (int i = 0; i < count; i += 6_999) {
+                try (var is = reader.getEntry("e" + i)) {
+                    assertNotNull(is, "e" + i);
+                    assertEquals(Integer.toString(i), new String(is.readAllBytes()));
+                }
+            }
+            assertTrue(reader.hasEntry("e" + (count - 1)));
+        }
+    }
+
+    @Test
+    void addDeflatedWritesZip64RecordsForLargeSizes() throws IOException {
+        long size = 6L << 30;
+        long compressedSize = ZIP64_MAGIC + 5;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipWriter writer = new ZipWriter(bytes);
+             DeflatedEntry large = new LargeEntry(0x12345678L, size, compressedSize)) {
+            writer.addDeflated("big", large);
+            try (var os = writer.newEntry("after")) {
+                os.write("tail".getBytes());
+            }
+        }
+        // The stub's data is never written, so file positions lag its compressed size
+        ByteBuffer zip = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int length = zip.capacity();
+
+        // Local header: saturated sizes with the real ones in a ZIP64 extra
+        assertEquals(0x04034b50, zip.getInt(0));
+        assertEquals(45, zip.getShort(4));
+        assertEquals(0x12345678, zip.getInt(14));
+        assertEquals(-1, zip.getInt(18));
+        assertEquals(-1, zip.getInt(22));
+        assertEquals(20, zip.getShort(28));
+        assertEquals(1, zip.getShort(33));
+        assertEquals(16, zip.getShort(35));
+        assertEquals(size, zip.getLong(37));
+        assertEquals(compressedSize, zip.getLong(45));
+        int secondLocal = 53;
+        assertEquals(0x04034b50, zip.getInt(secondLocal));
+
+        // End of central directory defers to the ZIP64 records
+        int end = length - 22;
+        assertEquals(0x06054b50, zip.getInt(end));
+        assertEquals(2, zip.getShort(end + 10));
+        assertEquals(-1, zip.getInt(end + 16));
+        int locator = end - 20;
+        assertEquals(0x07064b50, zip.getInt(locator));
+        int zip64End = locator - 56;
+        assertEquals(zip64End + compressedSize, zip.getLong(locator + 8));
+        assertEquals(0x06064b50, zip.getInt(zip64End));
+        assertEquals(44, zip.getLong(zip64End + 4));
+        assertEquals(2, zip.getLong(zip64End + 24));
+        assertEquals(2, zip.getLong(zip64End + 32));
+        long directorySize = zip.getLong(zip64End + 40);
+        int directory = (int) (zip64End - directorySize);
+        assertEquals(directory + compressedSize, zip.getLong(zip64End + 48));
+
+        // Central header of the large entry: size and compressed size in the extra
+        assertEquals(0x02014b50, zip.getInt(directory));
+        assertEquals(45, zip.getShort(directory + 6));
+        assertEquals(-1, zip.getInt(directory + 20));
+        assertEquals(-1, zip.getInt(directory + 24));
+        assertEquals(20, zip.getShort(directory + 30));
+        assertEquals(0, zip.getInt(directory + 42));
+        assertEquals(1, zip.getShort(directory + 49));
+        assertEquals(16, zip.getShort(directory + 51));
+        assertEquals(size, zip.getLong(directory + 53));
+        assertEquals(compressedSize, zip.getLong(directory + 61));
+
+        // Central header of the entry after it: only the offset in the extra
+        int second = directory + 69;
+        assertEquals(0x02014b50, zip.getInt(second));
+        assertEquals(45, zip.getShort(second + 6));
+        assertEquals(4, zip.getInt(second + 24));
+        assertEquals(12, zip.getShort(second + 30));
+        assertEquals(-1, zip.getInt(second + 42));
+        assertEquals(1, zip.getShort(second + 51));
+        assertEquals(8, zip.getShort(second + 53));
+        assertEquals(secondLocal + compressedSize, zip.getLong(second + 55));
+        assertEquals(zip64End, second + 63);
+    }
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    /**
+     * Reports sizes too large to produce, and writes no data.
+     */
+    private static final class LargeEntry extends DeflatedEntry {
+        private final long crc;
+        private final long size;
+        private final long compressedSize;
+
+        LargeEntry(long crc, long size, long compressedSize) {
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+        }
+
+        @Override
+        long crc() {
+            return crc;
+        }
+
+        @Override
+        long size() {
+            return size;
+        }
+
+        @Override
+        long compressedSize() {
+            return compressedSize;
+        }
+
+        @Override
+        void transferTo(OutputStream out) {
+        }
+    }
 }
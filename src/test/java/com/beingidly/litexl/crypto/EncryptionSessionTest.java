@@ -0,0 +1,113 @@
+package com.beingidly.litexl.crypto;
+
+import com.beingidly.litexl.Workbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptionSessionTest {
+
+    private static final EncryptionOptions OPTIONS =
+        new EncryptionOptions(EncryptionOptions.Algorithm.AES_256, "session", 1000);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reusesKeysAcrossSaves() throws Exception {
+        EncryptionSession session = EncryptionSession.create(OPTIONS);
+
+        for (int i = 0; i < 3; i++) {
+            Path file = tempDir.resolve("report-" + i + ".xlsx");
+            try (Workbook wb = Workbook.create()) {
+                wb.addSheet("Report").cell(0, 0).set("Customer " + i);
+                wb.saveEncrypted(file, session);
+            }
+            try (Workbook wb = Workbook.open(file, "session")) {
+                assertEquals("Customer " + i, wb.getSheet(0).getCell(0, 0).string());
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Workbook wb = Workbook.create()) {
+            wb.addSheet("Report").cell(0, 0).set("Streamed");
+            wb.saveEncrypted(out, session);
+        }
+        Path streamed = tempDir.resolve("streamed.xlsx");
+        Files.write(streamed, out.toByteArray());
+        try (Workbook wb = Workbook.open(streamed, "session")) {
+            assertEquals("Streamed", wb.getSheet(0).getCell(0, 0).string());
+        }
+
+        assertEquals(1, session.derivations());
+        assertEquals(3, session.reuses());
+        assertFalse(session.savedTime().isNegative());
+    }
+
+    @Test
+    void rotatesSaltAfterMaxUses() {
+        EncryptionSession session = EncryptionSession.create(OPTIONS, 2);
+
+        PasswordKeys first = session.nextKeys();
+        assertSame(first, session.nextKeys());
+        PasswordKeys second = session.nextKeys();
+        assertNotSame(first, second);
+        assertFalse(Arrays.equals(first.salt(), second.salt()));
+
+        assertEquals(2, session.derivations());
+        assertEquals(1, session.reuses());
+    }
+
+    @Test
+    void derivedKeysMatchKeyDerivation() {
+        byte[] salt = new byte[16];
+        salt[0] = 7;
+        PasswordKeys keys = PasswordKeys.derive(OPTIONS, salt);
+
+        assertEquals(256, keys.keyBits());
+        assertArrayEquals(salt, keys.salt());
+        assertArrayEquals(KeyDerivation.deriveKey("session", salt, 1000, 256, KeyDerivation.BLOCK_KEY_ENCRYPTED_KEY),
+            keys.encryptedKeyKey());
+        assertArrayEquals(KeyDerivation.deriveKey("session", salt, 1000, 256, KeyDerivation.BLOCK_KEY_VERIFIER_INPUT),
+            keys.verifierInputKey());
+        assertArrayEquals(KeyDerivation.deriveKey("session", salt, 1000, 256, KeyDerivation.BLOCK_KEY_VERIFIER_VALUE),
+            keys.verifierValueKey());
+    }
+
+    @Test
+    void keyEncryptorSharesSessionSaltOnly() throws Exception {
+        EncryptionSession session = EncryptionSession.create(OPTIONS);
+        byte[] packageKey = new byte[32];
+
+        PasswordKeyEncryptor first = PasswordKeyEncryptor.forSession(session, packageKey);
+        PasswordKeyEncryptor second = PasswordKeyEncryptor.forSession(session, packageKey);
+        assertArrayEquals(first.salt(), second.salt());
+        assertEquals(256, first.keyBits());
+        // Verifiers are per file
+        assertFalse(Arrays.equals(first.encryptedVerifierInput(), second.encryptedVerifierInput()));
+        assertEquals(1, session.reuses());
+
+        PasswordKeyEncryptor unshared = PasswordKeyEncryptor.forPassword(OPTIONS, packageKey);
+        assertFalse(Arrays.equals(first.salt(), unshared.salt()));
+        assertThrows(IllegalArgumentException.class, () -> PasswordKeyEncryptor.forPassword(OPTIONS, new byte[16]));
+    }
+
+    @Test
+    void savedTimeIsZeroBeforeUse() {
+        EncryptionSession session = EncryptionSession.create(OPTIONS);
+        assertEquals(Duration.ZERO, session.savedTime());
+        assertEquals(0, session.derivations());
+    }
+
+    @Test
+    void invalidMaxSaltUsesThrows() {
+        assertThrows(IllegalArgumentException.class, () -> EncryptionSession.create(OPTIONS, 0));
+    }
+}